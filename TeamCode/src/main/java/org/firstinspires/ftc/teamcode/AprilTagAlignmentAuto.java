@@ -4,6 +4,7 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.teamcode.utils.Tunables;
 import org.firstinspires.ftc.vision.VisionPortal;
 import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
 import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
@@ -27,9 +28,13 @@ public class AprilTagAlignmentAuto extends LinearOpMode {
     private static final double MAX_TURN_POWER = 0.25;      // Max rotation speed
 
     // ==================== PID-STYLE GAINS ====================
-    private static final double KP_DRIVE = 1.5;    // Forward/back proportional gain
-    private static final double KP_STRAFE = 1.5;   // Left/right proportional gain
-    private static final double KP_TURN = 0.02;    // Rotation proportional gain
+    // Live-tunable at http://<robot>:8080/tuning, saved between runs
+    private static final Tunables.Number KP_DRIVE =
+            Tunables.number("AprilTagAlignmentAuto.KP_DRIVE", 1.5, 0.0, 10.0);   // Forward/back proportional gain
+    private static final Tunables.Number KP_STRAFE =
+            Tunables.number("AprilTagAlignmentAuto.KP_STRAFE", 1.5, 0.0, 10.0);  // Left/right proportional gain
+    private static final Tunables.Number KP_TURN =
+            Tunables.number("AprilTagAlignmentAuto.KP_TURN", 0.02, 0.0, 1.0);    // Rotation proportional gain
 
     // ==================== TIMEOUT ====================
     private static final double ALIGNMENT_TIMEOUT = 10.0;  // Max seconds to try aligning
@@ -41,6 +46,8 @@ public class AprilTagAlignmentAuto extends LinearOpMode {
 
     @Override
     public void runOpMode() throws InterruptedException {
+        Tunables.load();
+
         // Initialize hardware
         frontLeft  = hardwareMap.get(DcMotor.class, "frontLeft");
         frontRight = hardwareMap.get(DcMotor.class, "frontRight");
@@ -111,9 +118,9 @@ public class AprilTagAlignmentAuto extends LinearOpMode {
             }
 
             // Calculate motor powers with proportional control
-            double drive = clamp(errorZ * KP_DRIVE, -MAX_DRIVE_POWER, MAX_DRIVE_POWER);
-            double strafe = clamp(errorX * KP_STRAFE, -MAX_DRIVE_POWER, MAX_DRIVE_POWER);
-            double turn = clamp(errorYaw * KP_TURN, -MAX_TURN_POWER, MAX_TURN_POWER);
+            double drive = clamp(errorZ * KP_DRIVE.get(), -MAX_DRIVE_POWER, MAX_DRIVE_POWER);
+            double strafe = clamp(errorX * KP_STRAFE.get(), -MAX_DRIVE_POWER, MAX_DRIVE_POWER);
+            double turn = clamp(errorYaw * KP_TURN.get(), -MAX_TURN_POWER, MAX_TURN_POWER);
 
             // Apply minimum power threshold for small movements
             if (Math.abs(drive) < MIN_DRIVE_POWER && Math.abs(drive) > 0.01) {
@@ -2,8 +2,15 @@ package org.firstinspires.ftc.teamcode;
 
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.kool.RobotFunctions;
+import org.firstinspires.ftc.teamcode.utils.FlywheelControl;
+import org.firstinspires.ftc.teamcode.utils.MecanumVelocityControl;
+import org.firstinspires.ftc.teamcode.utils.ShotDetector;
+import org.firstinspires.ftc.teamcode.utils.Tunables;
 import org.firstinspires.ftc.vision.VisionPortal;
 import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
 import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
@@ -13,7 +20,14 @@ import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 public class AutoDecodeSimple extends LinearOpMode {
 
     private DcMotor frontLeft, frontRight, backLeft, backRight;
-    private DcMotor intake, outtake, outtake2;
+    private DcMotor intake;
+    private DcMotorEx outtake, outtake2;
+    private FlywheelControl flywheel;
+    private final ShotDetector shotDetector = new ShotDetector();
+
+    // Shooter - speed, shot count and spin-up timing are RobotFunctions' tuning;
+    // outtake2 runs at 99% of outtake, as it did on open-loop power
+    private static final long FEED_MS = 2500;   // longest hold at speed if the shots aren't all seen
     private VisionPortal visionPortal;
     private AprilTagProcessor aprilTag;
 
@@ -27,8 +41,12 @@ public class AutoDecodeSimple extends LinearOpMode {
         backLeft   = hardwareMap.get(DcMotor.class, "backLeft");
         backRight  = hardwareMap.get(DcMotor.class, "backRight");
         intake  = hardwareMap.get(DcMotor.class, "intake");
-        outtake = hardwareMap.get(DcMotor.class, "outtake");
-        outtake2= hardwareMap.get(DcMotor.class, "outtake2");
+        outtake = hardwareMap.get(DcMotorEx.class, "outtake");
+        outtake2= hardwareMap.get(DcMotorEx.class, "outtake2");
+        flywheel = FlywheelControl.forConfiguredMotors(MecanumVelocityControl.findBattery(hardwareMap), outtake, outtake2)
+                .setRatio(1, 0.99);
+
+        Tunables.load();   // saved SHOT_SPEED / SHOTS_PER_SCORE
 
         frontLeft.setDirection(DcMotor.Direction.REVERSE);
         backLeft.setDirection(DcMotor.Direction.REVERSE);
@@ -64,11 +82,7 @@ public class AutoDecodeSimple extends LinearOpMode {
         intake.setPower(0);
 
         // Shoot balls
-        outtake.setPower(1.0);
-        outtake2.setPower(0.99);
-        sleep(2500); // tune for flywheel speed
-        outtake.setPower(0);
-        outtake2.setPower(0);
+        shoot();
 
         // Park based on detected zone
         if (zone == 1) strafeLeft(600, 0.4);
@@ -76,6 +90,40 @@ public class AutoDecodeSimple extends LinearOpMode {
         else driveForward(400, 0.3);
     }
 
+    /**
+     * Spin up, then hold the flywheel at speed until every shot has been seen
+     * leaving (plus CLEAR_MS) or FEED_MS runs out. The intake stays off.
+     */
+    private void shoot() {
+        flywheel.setTargetRpm(RobotFunctions.SHOT_SPEED.get() * flywheel.getFreeRpm());
+        long spinUpStart = Clock.millis();
+        while (opModeIsActive() && !flywheel.update()
+                && Clock.millis() - spinUpStart < RobotFunctions.SPIN_UP_TIMEOUT_MS) {
+            idle();
+        }
+        if (!flywheel.isAtSpeed()) {
+            telemetry.addLine("Flywheel not at speed - shooting anyway");
+            telemetry.update();
+        }
+
+        int shots = (int) RobotFunctions.SHOTS_PER_SCORE.get();
+        shotDetector.reset();
+        long feedStart = Clock.millis();
+        while (opModeIsActive()) {
+            long nowMs = Clock.millis();
+            flywheel.update();
+            // Speed dips only - no current read, so the loop costs no extra hub transaction
+            shotDetector.update(nowMs, flywheel.getTargetRpm(), flywheel.getMeanRpm(), Double.NaN);
+            if (shotDetector.getShots() >= shots) {
+                if (nowMs - shotDetector.getLastShotMs() >= RobotFunctions.CLEAR_MS) break;
+            } else if (nowMs - feedStart >= FEED_MS) {
+                break;
+            }
+            idle();
+        }
+        flywheel.stop();
+    }
+
     // === Drive helper methods ===
     private void driveForward(int ticks, double power) {
         for (DcMotor m : new DcMotor[]{frontLeft, frontRight, backLeft, backRight}) {
@@ -5,10 +5,13 @@ import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+
 @com.qualcomm.robotcore.eventloop.opmode.Autonomous
 public class Autonomous extends LinearOpMode {
     // Use four drive motors (DcMotorEx) so we can control them together
     private DcMotorEx frontLeft, frontRight, backLeft, backRight;
+    private BulkReadCache bulkReads;
 
     @Override
     public void runOpMode() {
@@ -24,6 +27,10 @@ public class Autonomous extends LinearOpMode {
         backLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         backRight.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
 
+        // One bulk read per loop for every encoder (snapshot index FL, FR, BL, BR)
+        bulkReads = BulkReadCache.fromHardwareMap(hardwareMap,
+                "frontLeft", "frontRight", "backLeft", "backRight");
+
         waitForStart();
 
         // Set target position (ticks) for each motor
@@ -47,21 +54,24 @@ public class Autonomous extends LinearOpMode {
         backRight.setVelocity(velocity);
 
         // While the Op Mode is running, show each motor's status via telemetry
+        // isBusy() is answered from the same bulk read, so the loop is one hub transaction
         while (opModeIsActive()) {
-            telemetry.addData("FL pos", frontLeft.getCurrentPosition());
-            telemetry.addData("FL vel", frontLeft.getVelocity());
+            BulkReadCache.Snapshot encoders = bulkReads.update();
+
+            telemetry.addData("FL pos", encoders.position(0));
+            telemetry.addData("FL vel", encoders.velocity(0));
             telemetry.addData("FL at target", !frontLeft.isBusy());
 
-            telemetry.addData("FR pos", frontRight.getCurrentPosition());
-            telemetry.addData("FR vel", frontRight.getVelocity());
+            telemetry.addData("FR pos", encoders.position(1));
+            telemetry.addData("FR vel", encoders.velocity(1));
             telemetry.addData("FR at target", !frontRight.isBusy());
 
-            telemetry.addData("BL pos", backLeft.getCurrentPosition());
-            telemetry.addData("BL vel", backLeft.getVelocity());
+            telemetry.addData("BL pos", encoders.position(2));
+            telemetry.addData("BL vel", encoders.velocity(2));
             telemetry.addData("BL at target", !backLeft.isBusy());
 
-            telemetry.addData("BR pos", backRight.getCurrentPosition());
-            telemetry.addData("BR vel", backRight.getVelocity());
+            telemetry.addData("BR pos", encoders.position(3));
+            telemetry.addData("BR vel", encoders.velocity(3));
             telemetry.addData("BR at target", !backRight.isBusy());
 
             telemetry.update();
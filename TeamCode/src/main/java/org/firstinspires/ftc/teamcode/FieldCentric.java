@@ -1,18 +1,16 @@
 package org.firstinspires.ftc.teamcode;
 
-import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.IMU;
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
-import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.utils.PoseSource;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
 
 @TeleOp(name = "Field Oriented Mecanum (REV SDK 8.2)", group = "TeleOp")
 public class FieldCentric extends LinearOpMode {
 
     private DcMotor frontLeft, frontRight, backLeft, backRight;
-    private IMU imu;
+    private PoseSource poseSource;
 
     @Override
     public void runOpMode() throws InterruptedException {
@@ -23,36 +21,37 @@ public class FieldCentric extends LinearOpMode {
         backLeft   = hardwareMap.get(DcMotor.class, "backLeft");
         backRight  = hardwareMap.get(DcMotor.class, "backRight");
 
-        imu = hardwareMap.get(IMU.class, "imu");
-
-        // Use RevHubOrientationOnRobot (supported by SDK 8.2)
-        IMU.Parameters parameters = new IMU.Parameters(
-                new RevHubOrientationOnRobot(
-                        RevHubOrientationOnRobot.LogoFacingDirection.UP,
-                        RevHubOrientationOnRobot.UsbFacingDirection.FORWARD
-                )
-        );
-        imu.initialize(parameters);
-
         telemetry.addLine("Calibrating IMU...");
         telemetry.update();
 
+        // Heading sensor from PoseSources (hub IMU unless a localizer is opted in)
+        poseSource = PoseSources.create(hardwareMap);
+
         telemetry.addLine("IMU Calibrated!");
+        telemetry.addData("Heading Source", poseSource.describe());
         telemetry.update();
 
         waitForStart();
 
+        try {
+            driveLoop();
+        } finally {
+            poseSource.close();
+        }
+    }
+
+    private void driveLoop() {
         while (opModeIsActive()) {
-            // Press Y to reset yaw
-            if (gamepad1.y) imu.resetYaw();
+            // Press Y to reset yaw (in software - no I2C call in the loop)
+            if (gamepad1.y) poseSource.setPose(poseSource.getX(), poseSource.getY(), 0.0);
 
             double drive  = gamepad1.left_stick_y;
             double strafe = gamepad1.left_stick_x;
             double twist  = gamepad1.right_stick_x;
 
             // Get current heading
-            YawPitchRollAngles orientation = imu.getRobotYawPitchRollAngles();
-            double botHeading = orientation.getYaw(AngleUnit.RADIANS);
+            poseSource.update();
+            double botHeading = poseSource.getHeading();
 
             // Field-oriented transform:
             // heading (botHeading) is in radians; rotate the driver input by the heading
@@ -93,7 +92,7 @@ public class FieldCentric extends LinearOpMode {
             backRight.setPower(speeds[3]);
 
             // Telemetry
-            telemetry.addData("Heading (deg)", orientation.getYaw(AngleUnit.DEGREES));
+            telemetry.addData("Heading (deg)", Math.toDegrees(botHeading));
             telemetry.addData("FL", speeds[0]);
             telemetry.addData("FR", speeds[1]);
             telemetry.addData("BL", speeds[2]);
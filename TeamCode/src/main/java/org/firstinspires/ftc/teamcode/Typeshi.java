@@ -3,7 +3,17 @@ package org.firstinspires.ftc.teamcode;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.kool.FlightRecorder;
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+import org.firstinspires.ftc.teamcode.utils.CachedMotor;
+import org.firstinspires.ftc.teamcode.utils.GamepadBindings;
+import org.firstinspires.ftc.teamcode.utils.LoopTimer;
+import org.firstinspires.ftc.teamcode.utils.TelemetryPublisher;
+import org.firstinspires.ftc.teamcode.utils.Tunables;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Enhanced Mecanum TeleOp with:
@@ -21,26 +31,33 @@ public class Typeshi extends OpMode {
     // HARDWARE DECLARATIONS
     // ========================================
 
-    // Drive motors
-    private DcMotor backRight, backLeft, frontRight, frontLeft = null;
+    // Drive motors - every output goes through a CachedMotor, so unchanged
+    // powers are not re-sent and commanded power is never read back from the hub
+    private CachedMotor backRight, backLeft, frontRight, frontLeft = null;
 
     // Mechanism motors
-    private DcMotor intake = null;
-    private DcMotor outtake = null;
-    private DcMotor outtake2 = null;
+    private CachedMotor intake = null;
+    private CachedMotor outtake = null;
+    private CachedMotor outtake2 = null;
+    private CachedMotor[] outputs = new CachedMotor[0];
+
+    // One bulk read per loop for the drive encoders (index order below)
+    private BulkReadCache bulkReads = null;
+    private BulkReadCache.Snapshot encoders = null;
+    private static final int FL = 0, FR = 1, BL = 2, BR = 3;
 
     // ========================================
     // CONFIGURATION - CUSTOMIZE HERE
     // ========================================
 
-    // Outtake power states (cycle through with bumpers)
-    private static final double[] OUTTAKE_POWERS = {
+    // Outtake power states (cycle through with bumpers) - live-tunable at :8080/tuning
+    private static final Tunables.NumberList OUTTAKE_POWERS = Tunables.numbers("Typeshi.OUTTAKE_POWERS", -1.0, 1.0,
             0.0,    // State 0: OFF
             -0.25,  // State 1: Low power
             -0.50,  // State 2: Medium power
             -0.75,  // State 3: High power
             -1.00   // State 4: Full power
-    };
+    );
 
     // Intake powers
     private static final double INTAKE_POWER = 1.0;
@@ -49,7 +66,8 @@ public class Typeshi extends OpMode {
     // Scoring mode settings
     private static final double SCORING_OUTTAKE_POWER = -1.0;
     private static final double SCORING_INTAKE_POWER = 1.0;
-    private static final double ANTI_DRIFT_POWER = 0.15;  // Power to resist drift
+    private static final Tunables.Number ANTI_DRIFT_POWER =
+            Tunables.number("Typeshi.ANTI_DRIFT_POWER", 0.15, 0.0, 0.5);  // Power to resist drift (tunable)
     private static final int ANTI_DRIFT_THRESHOLD = 50;   // Ticks before correction
 
     // Drive speed multiplier during scoring mode
@@ -74,28 +92,36 @@ public class Typeshi extends OpMode {
     // Secondary actions (if needed)
     private static final String BTN_REVERSE_ALL = "x";             // Reverse all mechanisms temporarily
 
+    // Drive sticks
+    private static final String AXIS_AXIAL = "left_stick_y";
+    private static final String AXIS_LATERAL = "left_stick_x";
+    private static final String AXIS_YAW = "right_stick_x";
+
+    // Names above resolved once in init(); both gamepads snapshotted at the top of loop()
+    private GamepadBindings pads = null;
+    private int btnIntakeToggle, btnOuttakeIncrease, btnOuttakeDecrease;
+    private int btnScoringMode, btnEmergencyStop, btnReverseAll;
+    private int axisIntakeManual, axisIntakeReverse, axisAxial, axisLateral, axisYaw;
+
     // ========================================
     // STATE VARIABLES
     // ========================================
 
     // Outtake state
     private int currentOuttakeState = 0;  // Index into OUTTAKE_POWERS array
-    private boolean lastRightBumper = false;
-    private boolean lastLeftBumper = false;
 
     // Intake state
     private boolean intakeToggleOn = false;
-    private boolean lastIntakeToggle = false;
 
     // Scoring mode state
     private boolean scoringModeActive = false;
-    private boolean lastScoringModeButton = false;
 
     // Anti-drift encoder tracking
     private int flScoringStart = 0;
     private int frScoringStart = 0;
     private int blScoringStart = 0;
     private int brScoringStart = 0;
+    private final double[] driftCorrection = new double[4];  // per wheel, FL/FR/BL/BR order
 
     // Reverse all state
     private boolean reverseAllActive = false;
@@ -103,90 +129,190 @@ public class Typeshi extends OpMode {
     // Emergency stop state
     private boolean emergencyStop = false;
 
+    // Telemetry lines, declared once in start() and sent at 4 Hz
+    private TelemetryPublisher dashboard = null;
+    private int slotFront, slotBack;
+    private int slotOuttakeState, slotIntakeToggle, slotIntakePower;
+    private int slotScoring, slotReverse, slotEmergency, slotDrift, slotWrites;
+
+    // Per-phase loop timing - shown live, saved to /sdcard/FIRST/looptimes at stop
+    private final LoopTimer timer = new LoopTimer();
+    private int phaseRead, phaseDriveMath, phaseDriveWrite, phaseMechanisms, phaseTelemetry, phaseRecord;
+
+    // One binary record per loop - encoders and gamepads in, motor powers out - saved to
+    // /sdcard/FIRST/flightlogs so a match can be replayed through loop() (sim/Replayer)
+    private FlightRecorder recorder = null;                                     // null if the file couldn't be created
+    private final double[] drivePower = new double[4];                          // FL, FR, BL, BR as sent
+    private final double[] mechanismPower = new double[FlightRecorder.MECHANISMS];  // intake, outtake, outtake2 as sent
+
     // ========================================
     // INITIALIZATION
     // ========================================
 
     @Override
     public void init() {
+        // Saved tuning from earlier sessions (later edits over the web apply live)
+        Tunables.load();
+
         // Initialize drive motors
-        frontLeft = hardwareMap.get(DcMotor.class, "frontLeft");
-        frontRight = hardwareMap.get(DcMotor.class, "frontRight");
-        backLeft = hardwareMap.get(DcMotor.class, "backLeft");
-        backRight = hardwareMap.get(DcMotor.class, "backRight");
+        frontLeft = new CachedMotor(hardwareMap.get(DcMotor.class, "frontLeft"));
+        frontRight = new CachedMotor(hardwareMap.get(DcMotor.class, "frontRight"));
+        backLeft = new CachedMotor(hardwareMap.get(DcMotor.class, "backLeft"));
+        backRight = new CachedMotor(hardwareMap.get(DcMotor.class, "backRight"));
 
         // Initialize mechanism motors
-        intake = hardwareMap.get(DcMotor.class, "intake");
-        outtake = hardwareMap.get(DcMotor.class, "outtake");
-        outtake2 = hardwareMap.get(DcMotor.class, "outtake2");
+        intake = new CachedMotor(hardwareMap.get(DcMotor.class, "intake"));
+        outtake = new CachedMotor(hardwareMap.get(DcMotor.class, "outtake"));
+        outtake2 = new CachedMotor(hardwareMap.get(DcMotor.class, "outtake2"));
+        outputs = new CachedMotor[] {frontLeft, frontRight, backLeft, backRight, intake, outtake, outtake2};
 
         // Set motor directions
-        frontLeft.setDirection(DcMotor.Direction.REVERSE);
-        backLeft.setDirection(DcMotor.Direction.REVERSE);
-        frontRight.setDirection(DcMotor.Direction.FORWARD);
-        backRight.setDirection(DcMotor.Direction.FORWARD);
+        frontLeft.motor().setDirection(DcMotor.Direction.REVERSE);
+        backLeft.motor().setDirection(DcMotor.Direction.REVERSE);
+        frontRight.motor().setDirection(DcMotor.Direction.FORWARD);
+        backRight.motor().setDirection(DcMotor.Direction.FORWARD);
 
         // Set brake behavior for precise control
-        frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        backLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-        backRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        frontLeft.motor().setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        frontRight.motor().setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        backLeft.motor().setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        backRight.motor().setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+
+        // Switch hubs to MANUAL bulk caching - cleared once at the top of loop()
+        bulkReads = BulkReadCache.fromHardwareMap(hardwareMap,
+                "frontLeft", "frontRight", "backLeft", "backRight");
+
+        // Resolve the button mapping - a typo in a BTN_ name stops init here
+        pads = new GamepadBindings(gamepad1, gamepad2);
+        btnIntakeToggle = pads.button(BTN_INTAKE_TOGGLE);
+        btnOuttakeIncrease = pads.button(BTN_OUTTAKE_INCREASE);
+        btnOuttakeDecrease = pads.button(BTN_OUTTAKE_DECREASE);
+        btnScoringMode = pads.button(BTN_SCORING_MODE);
+        btnEmergencyStop = pads.button(BTN_EMERGENCY_STOP);
+        btnReverseAll = pads.button(BTN_REVERSE_ALL);
+        axisIntakeManual = pads.axis(BTN_INTAKE_MANUAL);
+        axisIntakeReverse = pads.axis(BTN_INTAKE_REVERSE);
+        axisAxial = pads.axis(AXIS_AXIAL);
+        axisLateral = pads.axis(AXIS_LATERAL);
+        axisYaw = pads.axis(AXIS_YAW);
+
+        phaseRead = timer.phase("read");
+        phaseDriveMath = timer.phase("drive math");
+        phaseDriveWrite = timer.phase("drive write");
+        phaseMechanisms = timer.phase("mechanisms");
+        phaseTelemetry = timer.phase("telemetry");
+        phaseRecord = timer.phase("record");
+
+        // Create and fault in the flight log now, not during the match
+        try {
+            recorder = FlightRecorder.open(FlightRecorder.defaultFile("Typeshi"), "Typeshi",
+                    FlightRecorder.capacityFor("Typeshi", FlightRecorder.TELEOP_SECONDS));
+        } catch (IOException e) {
+            recorder = null;
+            telemetry.addData("WARNING", "Flight log disabled: " + e.getMessage());
+        }
 
         telemetry.addData("Status", "Initialized");
-        telemetry.addData("Outtake States", OUTTAKE_POWERS.length);
+        telemetry.addData("Outtake States", OUTTAKE_POWERS.size());
         telemetry.addData("Controls", "See driver station for mapping");
         telemetry.update();
     }
 
+    @Override
+    public void start() {
+        // Replace the init screen with the fixed driver display
+        dashboard = new TelemetryPublisher(telemetry);
+
+        dashboard.addStatic("=== DRIVE ===", "");
+        slotFront = dashboard.add("Front L/R", "{2}, {2}");
+        slotBack = dashboard.add("Back  L/R", "{2}, {2}");
+        dashboard.addStatic("", "");
+
+        dashboard.addStatic("=== MECHANISMS ===", "");
+        slotOuttakeState = dashboard.add("Outtake State", "{0}/" + (OUTTAKE_POWERS.size() - 1) + " ({2} power)");
+        slotIntakeToggle = dashboard.addText("Intake Toggle");
+        slotIntakePower = dashboard.add("Intake Power", "{2}");
+        dashboard.addStatic("", "");
+
+        dashboard.addStatic("=== MODES ===", "");
+        slotScoring = dashboard.addText("Scoring Mode");
+        slotReverse = dashboard.addText("Reverse All");
+        slotEmergency = dashboard.addText("Emergency Stop");
+        slotDrift = dashboard.add("Anti-Drift", "Avg: {0} ticks");
+        dashboard.addStatic("", "");
+
+        dashboard.addStatic("=== LOOP TIMING ===", "");
+        timer.addTo(dashboard);
+        slotWrites = dashboard.add("Motor Writes", "{0} sent, {0} skipped");
+        dashboard.addStatic("", "");
+
+        dashboard.addStatic("=== CONTROLS ===", "");
+        dashboard.addStatic("LB/RB", "Outtake -/+");
+        dashboard.addStatic("A", "Intake Toggle");
+        dashboard.addStatic("RT/LT", "Manual Intake/Rev");
+        dashboard.addStatic("Y", "Scoring Mode");
+        dashboard.addStatic("X", "Reverse All");
+        dashboard.addStatic("BACK", "Emergency Stop");
+        dashboard.flush();
+    }
+
     // ========================================
     // MAIN LOOP
     // ========================================
 
     @Override
     public void loop() {
+        timer.startLoop();
+
+        // Read every drive encoder and both gamepads once for this cycle
+        encoders = bulkReads.update();
+        pads.update();
+        timer.lap(phaseRead);
+
         // ========================================
         // 1. HANDLE EMERGENCY STOP
         // ========================================
-        if (getButtonValue(BTN_EMERGENCY_STOP)) {
+        // One toggle per press - no sleep, the drive loop keeps running
+        if (pads.wasPressed(btnEmergencyStop)) {
             emergencyStop = !emergencyStop;
             if (emergencyStop) {
                 stopAllMechanisms();
-                telemetry.addData("EMERGENCY", "ALL MECHANISMS STOPPED");
-                telemetry.update();
+                dashboard.log("EMERGENCY: ALL MECHANISMS STOPPED");
             }
-            sleep(200); // Debounce
         }
 
         if (emergencyStop) {
             // Only allow emergency stop button to toggle it back off
-            telemetry.addData("EMERGENCY STOP", "Press BACK to resume");
-            telemetry.update();
+            dashboard.set(slotEmergency, "ACTIVE - press BACK to resume");
+            dashboard.publish();
+            timer.lap(phaseTelemetry);
+            recordLoop();
+            timer.lap(phaseRecord);
+            timer.endLoop();
             return;
         }
 
         // ========================================
         // 2. HANDLE SCORING MODE TOGGLE
         // ========================================
-        boolean scoringButton = getButtonValue(BTN_SCORING_MODE);
-        if (scoringButton && !lastScoringModeButton) {
+        if (pads.wasPressed(btnScoringMode)) {
             scoringModeActive = !scoringModeActive;
 
             if (scoringModeActive) {
                 // Record starting encoder positions
-                flScoringStart = frontLeft.getCurrentPosition();
-                frScoringStart = frontRight.getCurrentPosition();
-                blScoringStart = backLeft.getCurrentPosition();
-                brScoringStart = backRight.getCurrentPosition();
+                flScoringStart = encoders.position(FL);
+                frScoringStart = encoders.position(FR);
+                blScoringStart = encoders.position(BL);
+                brScoringStart = encoders.position(BR);
             }
         }
-        lastScoringModeButton = scoringButton;
 
         // ========================================
         // 3. DRIVE CONTROL
         // ========================================
-        double axial = -gamepad1.left_stick_y;
-        double lateral = gamepad1.left_stick_x;
-        double yaw = gamepad1.right_stick_x;
+        double axial = -pads.value(axisAxial);
+        double lateral = pads.value(axisLateral);
+        double yaw = pads.value(axisYaw);
 
         // Apply scoring mode speed limit if active
         if (scoringModeActive) {
@@ -194,7 +320,7 @@ public class Typeshi extends OpMode {
             lateral *= SCORING_DRIVE_SPEED;
             yaw *= SCORING_DRIVE_SPEED;
 
-            // Add anti-drift correction
+            // Work out anti-drift correction (added to the wheel powers below)
             applyAntiDrift();
         }
 
@@ -216,37 +342,44 @@ public class Typeshi extends OpMode {
             backRightPower /= max;
         }
 
+        // Anti-drift pushes each wheel back toward where scoring started
+        if (scoringModeActive) {
+            frontLeftPower += driftCorrection[FL];
+            frontRightPower += driftCorrection[FR];
+            backLeftPower += driftCorrection[BL];
+            backRightPower += driftCorrection[BR];
+        }
+        timer.lap(phaseDriveMath);
+
         // Send power to wheels
         frontLeft.setPower(frontLeftPower);
         frontRight.setPower(frontRightPower);
         backLeft.setPower(backLeftPower);
         backRight.setPower(backRightPower);
+        timer.lap(phaseDriveWrite);
 
         // ========================================
         // 4. OUTTAKE CONTROL (Power State Cycling)
         // ========================================
-        boolean rightBumper = getButtonValue(BTN_OUTTAKE_INCREASE);
-        boolean leftBumper = getButtonValue(BTN_OUTTAKE_DECREASE);
+        // This cycle's power table (one volatile read - an edit lands on the next loop)
+        double[] outtakePowers = OUTTAKE_POWERS.get();
 
         // Increase outtake power state
-        if (rightBumper && !lastRightBumper) {
+        if (pads.wasPressed(btnOuttakeIncrease)) {
             currentOuttakeState++;
-            if (currentOuttakeState >= OUTTAKE_POWERS.length) {
-                currentOuttakeState = OUTTAKE_POWERS.length - 1; // Cap at max
+            if (currentOuttakeState >= outtakePowers.length) {
+                currentOuttakeState = outtakePowers.length - 1; // Cap at max
             }
         }
 
         // Decrease outtake power state
-        if (leftBumper && !lastLeftBumper) {
+        if (pads.wasPressed(btnOuttakeDecrease)) {
             currentOuttakeState--;
             if (currentOuttakeState < 0) {
                 currentOuttakeState = 0; // Cap at min (off)
             }
         }
 
-        lastRightBumper = rightBumper;
-        lastLeftBumper = leftBumper;
-
         // Apply outtake power (or scoring mode overrides it)
         if (scoringModeActive) {
             // Scoring mode: full power outtake
@@ -254,12 +387,12 @@ public class Typeshi extends OpMode {
             outtake2.setPower(SCORING_OUTTAKE_POWER * 0.99);
         } else if (reverseAllActive) {
             // Reverse mode: reverse the current outtake power
-            outtake.setPower(-OUTTAKE_POWERS[currentOuttakeState]);
-            outtake2.setPower(-OUTTAKE_POWERS[currentOuttakeState] * 0.99);
+            outtake.setPower(-outtakePowers[currentOuttakeState]);
+            outtake2.setPower(-outtakePowers[currentOuttakeState] * 0.99);
         } else {
             // Normal mode: use selected power state
-            outtake.setPower(OUTTAKE_POWERS[currentOuttakeState]);
-            outtake2.setPower(OUTTAKE_POWERS[currentOuttakeState] * 0.99);
+            outtake.setPower(outtakePowers[currentOuttakeState]);
+            outtake2.setPower(outtakePowers[currentOuttakeState] * 0.99);
         }
 
         // ========================================
@@ -268,17 +401,19 @@ public class Typeshi extends OpMode {
         double intakePower = 0.0;
 
         // Check reverse all first
-        reverseAllActive = getButtonValue(BTN_REVERSE_ALL);
+        reverseAllActive = pads.isHeld(btnReverseAll);
 
         // Priority 1: Manual intake (trigger held)
-        if (getTriggerValue(BTN_INTAKE_MANUAL) > 0.1) {
+        double manualTrigger = pads.value(axisIntakeManual);
+        double reverseTrigger = pads.value(axisIntakeReverse);
+        if (manualTrigger > GamepadBindings.TRIGGER_THRESHOLD) {
             intakePower = reverseAllActive ? INTAKE_REVERSE_POWER : INTAKE_POWER;
-            intakePower *= getTriggerValue(BTN_INTAKE_MANUAL); // Variable speed
+            intakePower *= manualTrigger; // Variable speed
         }
         // Priority 2: Manual reverse (trigger held)
-        else if (getTriggerValue(BTN_INTAKE_REVERSE) > 0.1) {
+        else if (reverseTrigger > GamepadBindings.TRIGGER_THRESHOLD) {
             intakePower = reverseAllActive ? INTAKE_POWER : INTAKE_REVERSE_POWER;
-            intakePower *= getTriggerValue(BTN_INTAKE_REVERSE); // Variable speed
+            intakePower *= reverseTrigger; // Variable speed
         }
         // Priority 3: Scoring mode
         else if (scoringModeActive) {
@@ -287,11 +422,9 @@ public class Typeshi extends OpMode {
         // Priority 4: Toggle mode
         else {
             // Handle toggle button
-            boolean intakeButton = getButtonValue(BTN_INTAKE_TOGGLE);
-            if (intakeButton && !lastIntakeToggle) {
+            if (pads.wasPressed(btnIntakeToggle)) {
                 intakeToggleOn = !intakeToggleOn;
             }
-            lastIntakeToggle = intakeButton;
 
             if (intakeToggleOn) {
                 intakePower = reverseAllActive ? INTAKE_REVERSE_POWER : INTAKE_POWER;
@@ -299,47 +432,59 @@ public class Typeshi extends OpMode {
         }
 
         intake.setPower(intakePower);
+        timer.lap(phaseMechanisms);
 
         // ========================================
         // 6. TELEMETRY
         // ========================================
-        telemetry.addData("=== DRIVE ===", "");
-        telemetry.addData("Front L/R", "%4.2f, %4.2f", frontLeftPower, frontRightPower);
-        telemetry.addData("Back  L/R", "%4.2f, %4.2f", backLeftPower, backRightPower);
-        telemetry.addData("", "");
-
-        telemetry.addData("=== MECHANISMS ===", "");
-        telemetry.addData("Outtake State", "%d/%d (%.2f power)",
-                currentOuttakeState, OUTTAKE_POWERS.length - 1, OUTTAKE_POWERS[currentOuttakeState]);
-        telemetry.addData("Intake Toggle", intakeToggleOn ? "ON" : "OFF");
-        telemetry.addData("Intake Power", "%.2f", intakePower);
-        telemetry.addData("", "");
-
-        telemetry.addData("=== MODES ===", "");
-        telemetry.addData("Scoring Mode", scoringModeActive ? "ACTIVE" : "inactive");
-        telemetry.addData("Reverse All", reverseAllActive ? "ACTIVE" : "inactive");
-        telemetry.addData("Emergency Stop", emergencyStop ? "ACTIVE" : "inactive");
-        telemetry.addData("", "");
+        dashboard.set(slotFront, frontLeftPower, frontRightPower);
+        dashboard.set(slotBack, backLeftPower, backRightPower);
 
-        if (scoringModeActive) {
-            int flDrift = Math.abs(frontLeft.getCurrentPosition() - flScoringStart);
-            int frDrift = Math.abs(frontRight.getCurrentPosition() - frScoringStart);
-            int blDrift = Math.abs(backLeft.getCurrentPosition() - blScoringStart);
-            int brDrift = Math.abs(backRight.getCurrentPosition() - brScoringStart);
-            int avgDrift = (flDrift + frDrift + blDrift + brDrift) / 4;
+        dashboard.set(slotOuttakeState, currentOuttakeState, outtakePowers[currentOuttakeState]);
+        dashboard.set(slotIntakeToggle, intakeToggleOn ? "ON" : "OFF");
+        dashboard.set(slotIntakePower, intakePower);
+
+        dashboard.set(slotScoring, scoringModeActive ? "ACTIVE" : "inactive");
+        dashboard.set(slotReverse, reverseAllActive ? "ACTIVE" : "inactive");
+        dashboard.set(slotEmergency, emergencyStop ? "ACTIVE" : "inactive");
 
-            telemetry.addData("Anti-Drift", "Avg: %d ticks", avgDrift);
+        int avgDrift = 0;
+        if (scoringModeActive) {
+            int flDrift = Math.abs(encoders.position(FL) - flScoringStart);
+            int frDrift = Math.abs(encoders.position(FR) - frScoringStart);
+            int blDrift = Math.abs(encoders.position(BL) - blScoringStart);
+            int brDrift = Math.abs(encoders.position(BR) - brScoringStart);
+            avgDrift = (flDrift + frDrift + blDrift + brDrift) / 4;
         }
+        dashboard.set(slotDrift, avgDrift);
+        showMotorWrites();
+        timer.show(dashboard);
+
+        // Formats only what changed, and only sends every 250 ms
+        dashboard.publish();
+        timer.lap(phaseTelemetry);
+        recordLoop();
+        timer.lap(phaseRecord);
+        timer.endLoop();
+    }
 
-        telemetry.addData("=== CONTROLS ===", "");
-        telemetry.addData("LB/RB", "Outtake -/+");
-        telemetry.addData("A", "Intake Toggle");
-        telemetry.addData("RT/LT", "Manual Intake/Rev");
-        telemetry.addData("Y", "Scoring Mode");
-        telemetry.addData("X", "Reverse All");
-        telemetry.addData("BACK", "Emergency Stop");
+    @Override
+    public void stop() {
+        // Save the timing table - pull it with adb to compare runs
+        File report = LoopTimer.defaultReportFile("Typeshi");
+        try {
+            timer.writeReport(report, "Typeshi", CachedMotor.report(outputs));
+        } catch (IOException e) {
+            telemetry.log().add("Loop timing not saved: " + e.getMessage());
+        }
 
-        telemetry.update();
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                telemetry.log().add("Flight log not saved: " + e.getMessage());
+            }
+        }
     }
 
     // ========================================
@@ -347,15 +492,16 @@ public class Typeshi extends OpMode {
     // ========================================
 
     /**
-     * Apply anti-drift correction during scoring mode
-     * Opposes any encoder drift from starting position
+     * Compute anti-drift correction during scoring mode
+     * Opposes any encoder drift from starting position - fills driftCorrection,
+     * which loop() adds to this cycle's wheel powers before the single write
      */
     private void applyAntiDrift() {
-        // Get current positions
-        int flCurrent = frontLeft.getCurrentPosition();
-        int frCurrent = frontRight.getCurrentPosition();
-        int blCurrent = backLeft.getCurrentPosition();
-        int brCurrent = backRight.getCurrentPosition();
+        // Current positions from this cycle's bulk read
+        int flCurrent = encoders.position(FL);
+        int frCurrent = encoders.position(FR);
+        int blCurrent = encoders.position(BL);
+        int brCurrent = encoders.position(BR);
 
         // Calculate drift from scoring start position
         int flDrift = flCurrent - flScoringStart;
@@ -370,69 +516,54 @@ public class Typeshi extends OpMode {
                 Math.abs(brDrift) > ANTI_DRIFT_THRESHOLD) {
 
             // Calculate correction powers (oppose the drift)
-            double flCorrection = -Math.signum(flDrift) * ANTI_DRIFT_POWER;
-            double frCorrection = -Math.signum(frDrift) * ANTI_DRIFT_POWER;
-            double blCorrection = -Math.signum(blDrift) * ANTI_DRIFT_POWER;
-            double brCorrection = -Math.signum(brDrift) * ANTI_DRIFT_POWER;
-
-            // Apply corrections to current motor powers
-            frontLeft.setPower(frontLeft.getPower() + flCorrection);
-            frontRight.setPower(frontRight.getPower() + frCorrection);
-            backLeft.setPower(backLeft.getPower() + blCorrection);
-            backRight.setPower(backRight.getPower() + brCorrection);
+            double antiDriftPower = ANTI_DRIFT_POWER.get();
+            driftCorrection[FL] = -Math.signum(flDrift) * antiDriftPower;
+            driftCorrection[FR] = -Math.signum(frDrift) * antiDriftPower;
+            driftCorrection[BL] = -Math.signum(blDrift) * antiDriftPower;
+            driftCorrection[BR] = -Math.signum(brDrift) * antiDriftPower;
+        } else {
+            driftCorrection[FL] = 0.0;
+            driftCorrection[FR] = 0.0;
+            driftCorrection[BL] = 0.0;
+            driftCorrection[BR] = 0.0;
         }
     }
 
     /**
-     * Stop all mechanism motors
+     * Append this loop's inputs and the powers actually sent - allocation-free
      */
-    private void stopAllMechanisms() {
-        intake.setPower(0.0);
-        outtake.setPower(0.0);
-        outtake2.setPower(0.0);
-        intakeToggleOn = false;
+    private void recordLoop() {
+        if (recorder == null) return;
+        drivePower[FL] = frontLeft.getPower();
+        drivePower[FR] = frontRight.getPower();
+        drivePower[BL] = backLeft.getPower();
+        drivePower[BR] = backRight.getPower();
+        mechanismPower[0] = intake.getPower();
+        mechanismPower[1] = outtake.getPower();
+        mechanismPower[2] = outtake2.getPower();
+        recorder.record(encoders, drivePower, mechanismPower, pads);
     }
 
     /**
-     * Get button value from gamepad based on string mapping
+     * Bus writes sent vs. skipped by the output cache, summed over every motor
      */
-    private boolean getButtonValue(String buttonName) {
-        switch (buttonName) {
-            case "a": return gamepad1.a;
-            case "b": return gamepad1.b;
-            case "x": return gamepad1.x;
-            case "y": return gamepad1.y;
-            case "left_bumper": return gamepad1.left_bumper;
-            case "right_bumper": return gamepad1.right_bumper;
-            case "back": return gamepad1.back;
-            case "start": return gamepad1.start;
-            case "dpad_up": return gamepad1.dpad_up;
-            case "dpad_down": return gamepad1.dpad_down;
-            case "dpad_left": return gamepad1.dpad_left;
-            case "dpad_right": return gamepad1.dpad_right;
-            default: return false;
+    private void showMotorWrites() {
+        long sent = 0;
+        long skipped = 0;
+        for (CachedMotor output : outputs) {
+            sent += output.getWrites();
+            skipped += output.getSkipped();
         }
+        dashboard.set(slotWrites, sent, skipped);
     }
 
     /**
-     * Get trigger value from gamepad based on string mapping
-     */
-    private double getTriggerValue(String triggerName) {
-        switch (triggerName) {
-            case "left_trigger": return gamepad1.left_trigger;
-            case "right_trigger": return gamepad1.right_trigger;
-            default: return 0.0;
-        }
-    }
-
-    /**
-     * Simple sleep helper
+     * Stop all mechanism motors
      */
-    private void sleep(long milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private void stopAllMechanisms() {
+        intake.setPower(0.0);
+        outtake.setPower(0.0);
+        outtake2.setPower(0.0);
+        intakeToggleOn = false;
     }
 }
\ No newline at end of file
@@ -1,16 +1,18 @@
 package org.firstinspires.ftc.teamcode;
 
-import com.qualcomm.hardware.bosch.BNO055IMU;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
 
+import org.firstinspires.ftc.teamcode.utils.PoseSource;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
+
 @TeleOp(name="Main Code Field-Centric", group="Iterative Opmode")
 public class Typeshi_FieldCentric extends OpMode {
 
     private DcMotor frontLeft, frontRight, backLeft, backRight;
     private DcMotor intake, outtake, outtake2;
-    private BNO055IMU imu;
+    private PoseSource poseSource;  // hub IMU from PoseSources - BNO055 on the old hub
 
     @Override
     public void init() {
@@ -28,15 +30,17 @@ public class Typeshi_FieldCentric extends OpMode {
         frontLeft.setDirection(DcMotor.Direction.REVERSE);
         backLeft.setDirection(DcMotor.Direction.REVERSE);
 
-        // Setup IMU
-        imu = hardwareMap.get(BNO055IMU.class, "imu");
-        BNO055IMU.Parameters params = new BNO055IMU.Parameters();
-        params.angleUnit = BNO055IMU.AngleUnit.RADIANS;
-        imu.initialize(params);
+        // Setup heading sensor
+        poseSource = PoseSources.create(hardwareMap);
 
         telemetry.addData("Status", "Initialized + IMU Calibrating");
     }
 
+    @Override
+    public void stop() {
+        poseSource.close();
+    }
+
     @Override
     public void loop() {
         // === Inputs ===
@@ -47,7 +51,8 @@ public class Typeshi_FieldCentric extends OpMode {
         boolean outtakeOn = gamepad1.b;
 
         // === Get Robot Heading ===
-        double heading = imu.getAngularOrientation().firstAngle; // radians
+        poseSource.update();
+        double heading = poseSource.getHeading(); // radians
 
         // === Apply Field-Centric Rotation ===
         double rotX = lateral * Math.cos(heading) - axial * Math.sin(heading);
@@ -0,0 +1,21 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+/**
+ * Action - a robot function as a tick-driven state machine
+ *
+ * Nothing in an action may block: start() kicks it off, then update() is called
+ * once per control loop until it returns true. The loop keeps driving (heading
+ * hold, pose hold, telemetry) while the action runs. Time is passed in rather
+ * than read from a clock, so an action can be stepped with simulated time.
+ */
+public interface Action {
+
+    /** Begin the action at time nowMs */
+    void start(long nowMs);
+
+    /** Advance one loop - return true once the action is finished */
+    boolean update(long nowMs);
+
+    /** Stop early and leave mechanisms safe (OpMode stopping or action failed) */
+    void cancel();
+}
@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ActionExecutor - bounded pool for RUN_WHILE_MOVING functions
+ *
+ * Owned by the OpMode: every background action runs on one of a fixed number of
+ * worker threads, starts and finishes are posted to a StatusRing for the main loop
+ * to report, and shutdown() interrupts whatever is still running so nothing
+ * outlives the OpMode.
+ */
+public class ActionExecutor {
+
+    private static final int MAX_THREADS = 2;      // Actions running at once
+    private static final int MAX_QUEUED = 8;       // Actions waiting for a thread
+    private static final long SHUTDOWN_WAIT_MS = 500;
+
+    private final ThreadPoolExecutor pool;
+    private final StatusRing status;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ActionExecutor(StatusRing status) {
+        this.status = status;
+        ThreadFactory threads = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "auto-action-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED), threads);
+    }
+
+    /**
+     * Queue an action to run in the background
+     * @return false if the executor is full or shut down - the action will not run
+     */
+    public boolean submit(final String name, final Runnable action) {
+        pending.incrementAndGet();
+        try {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long start = Clock.millis();
+                    status.post(StatusRing.STARTED, name, null);
+                    try {
+                        action.run();
+                        long elapsed = Clock.millis() - start;
+                        if (Thread.currentThread().isInterrupted()) {
+                            status.post(StatusRing.FAILED, name, "cancelled", elapsed);
+                        } else {
+                            status.post(StatusRing.COMPLETED, name, null, elapsed);
+                        }
+                    } catch (RuntimeException e) {
+                        status.post(StatusRing.FAILED, name, e.getClass().getSimpleName() + ": " + e.getMessage(),
+                                Clock.millis() - start);
+                    } finally {
+                        pending.decrementAndGet();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Actions queued or still running
+     */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    /**
+     * Interrupt running actions, drop queued ones, and wait briefly for the workers to exit
+     */
+    public void shutdown() {
+        // Queued actions never start - take them off the pending count
+        pending.addAndGet(-pool.shutdownNow().size());
+        try {
+            pool.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
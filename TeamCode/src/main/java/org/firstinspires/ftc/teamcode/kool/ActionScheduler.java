@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ActionScheduler - runs Actions cooperatively from the main control loop
+ *
+ * Call update(now) once per loop; every running action gets one update() and
+ * starts / finishes are posted to the StatusRing, same as ActionExecutor.
+ * Single-threaded - only the loop that owns it may call it.
+ */
+public class ActionScheduler {
+
+    private static class Running {
+        final String name;
+        final Action action;
+        final long startMs;
+
+        Running(String name, Action action, long startMs) {
+            this.name = name;
+            this.action = action;
+            this.startMs = startMs;
+        }
+    }
+
+    private final List<Running> running = new ArrayList<>();
+    private final StatusRing status;
+
+    public ActionScheduler(StatusRing status) {
+        this.status = status;
+    }
+
+    /**
+     * Start an action now; it gets its first update() on the next update(now)
+     */
+    public void start(String name, Action action, long nowMs) {
+        try {
+            action.start(nowMs);
+            running.add(new Running(name, action, nowMs));
+            status.post(StatusRing.STARTED, name, null);
+        } catch (RuntimeException e) {
+            action.cancel();
+            status.post(StatusRing.FAILED, name, describe(e));
+        }
+    }
+
+    /**
+     * Advance every running action one tick
+     */
+    public void update(long nowMs) {
+        for (int i = running.size() - 1; i >= 0; i--) {
+            Running r = running.get(i);
+            try {
+                if (r.action.update(nowMs)) {
+                    running.remove(i);
+                    status.post(StatusRing.COMPLETED, r.name, null, nowMs - r.startMs);
+                }
+            } catch (RuntimeException e) {
+                running.remove(i);
+                r.action.cancel();
+                status.post(StatusRing.FAILED, r.name, describe(e), nowMs - r.startMs);
+            }
+        }
+    }
+
+    /**
+     * True while this action has been started and not yet finished
+     */
+    public boolean isRunning(Action action) {
+        for (int i = 0; i < running.size(); i++) {
+            if (running.get(i).action == action) return true;
+        }
+        return false;
+    }
+
+    public boolean isIdle() {
+        return running.isEmpty();
+    }
+
+    public int runningCount() {
+        return running.size();
+    }
+
+    /**
+     * Cancel everything still running (OpMode stopping)
+     */
+    public void cancelAll() {
+        for (int i = running.size() - 1; i >= 0; i--) {
+            Running r = running.remove(i);
+            r.action.cancel();
+            status.post(StatusRing.FAILED, r.name, "cancelled");
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+}
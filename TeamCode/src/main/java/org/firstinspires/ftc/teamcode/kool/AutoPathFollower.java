@@ -3,73 +3,186 @@ package org.firstinspires.ftc.teamcode.kool;
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.IMU;
-import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+import org.firstinspires.ftc.teamcode.utils.Angles;
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.DriveConstants;
+import org.firstinspires.ftc.teamcode.utils.LoopTimer;
+import org.firstinspires.ftc.teamcode.utils.MecanumVelocityControl;
+import org.firstinspires.ftc.teamcode.utils.MotionProfile;
+import org.firstinspires.ftc.teamcode.utils.Odometry;
+import org.firstinspires.ftc.teamcode.utils.PoseSource;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.TelemetryPublisher;
+
+import java.io.File;
+import java.io.IOException;
 
 @Autonomous(name = "Auto Path Follower", group = "Autonomous")
 public class AutoPathFollower extends LinearOpMode {
 
     // Hardware
-    private DcMotor frontLeft, frontRight, backLeft, backRight;
-    private IMU imu;
+    private DcMotorEx frontLeft, frontRight, backLeft, backRight;
+    private PoseSource poseSource;  // hub IMU, or a localizer opted in with PoseSources.PREFERRED
 
-    // Constants
-    private static final double COUNTS_PER_MOTOR_REV = 384.5;  // Encoder ticks per output shaft revolution
-    private static final double WHEEL_DIAMETER_INCHES = 4.094;
-    private static final double COUNTS_PER_INCH =
-            COUNTS_PER_MOTOR_REV / (WHEEL_DIAMETER_INCHES * Math.PI);
+    // Drive encoders, bulk-read once per control cycle
+    private BulkReadCache bulkReads;
+    private static final int FL = 0, FR = 1, BL = 2, BR = 3;
+
+    // Wheel velocity loop (feedforward + PID, battery compensated) - every drive command goes through it
+    private MecanumVelocityControl wheels;
 
-    private static final double DRIVE_SPEED = 0.6;
+    // Ticks per inch, track width and feedforward - from the characterization file, read at init
+    private DriveConstants drive;
+
+    // Constants
+    private static final double MAX_DRIVE_VELOCITY = 70.0;        // inches/sec for a drive command of 1.0
+    private static final double PROFILE_MAX_VELOCITY = 30.0;      // inches/sec for point-to-point moves
+    private static final double PROFILE_MAX_ACCELERATION = 40.0;  // inches/sec^2 for point-to-point moves
     private static final double POSITION_TOLERANCE = 2.0; // inches
     private static final long MOVEMENT_TIMEOUT_MS = 10000; // 10 second timeout
     private static final long ROTATION_TIMEOUT_MS = 5000; // 5 second timeout
+    private static final double KP_HEADING = 1.0;          // Turn power per radian of heading error while following
+    private static final double KP_HOLD = 0.05;            // Drive power per inch of error while holding pose
+    private static final double MAX_HOLD_POWER = 0.3;
 
-    // Path data - now from AutoData class
+    // Path data - binary path file if one was pushed, otherwise AutoData
+    private PathSource pathSource;
+    private AutoData.FunctionData[][] functionAt;  // functions to run at each waypoint, built at init
     private double currentX, currentY, currentRotation;
-    private double startingRotationOffset; // To account for initial robot orientation
     private boolean useEncoders = false;
 
+    // Live pose while following the path continuously (field inches / radians)
+    private PurePursuitFollower follower;
+    private Odometry odometry;
+
     // Function interfaces - to be implemented by user
     private RobotFunctions robotFunctions;
 
-    // Thread synchronization for telemetry
-    private final Object telemetryLock = new Object();
+    // Status events from functions and worker threads - posted without locking,
+    // drained into the telemetry log once per loop on this thread
+    private static final int STATUS_CAPACITY = 64;
+    private final StatusRing status = new StatusRing(STATUS_CAPACITY);
+    private final StatusRing.Handler statusToLog = this::logStatus;
+    private long reportedDrops = 0;
+
+    // Functions as state machines, advanced once per loop by followPath()
+    private final ActionScheduler actions = new ActionScheduler(status);
+
+    // Blocking functions for the timed fallback - interrupted when the OpMode stops
+    private final ActionExecutor backgroundActions = new ActionExecutor(status);
+
+    // Fixed telemetry lines while the path runs - formatted on change, sent at 4 Hz
+    private TelemetryPublisher dashboard;
+    private int slotStatus, slotLeg, slotTarget, slotPose, slotRemaining;
+    private int slotRotating, slotFunction, slotBackground;
+
+    // Per-phase timing of the follow loop - shown live, saved to /sdcard/FIRST/looptimes at stop
+    private final LoopTimer timer = new LoopTimer();
+    private final int phaseRead = timer.phase("read");
+    private final int phasePath = timer.phase("path");
+    private final int phaseFunctions = timer.phase("functions");
+    private final int phaseDrive = timer.phase("drive write");
+    private final int phaseTelemetry = timer.phase("telemetry");
+
+    // One binary record per control loop, saved to /sdcard/FIRST/flightlogs (tracer/flightlog.py decodes it)
+    private FlightRecorder recorder;                    // null if the file couldn't be created
+    private final double[] drivePower = new double[4];  // last commanded FL, FR, BL, BR
+    private int currentWaypoint = 0;                    // waypoint being driven to
+    private int activeFunction = -1;                    // index into pathSource.functions() of the last function started
+
     @Override
     public void runOpMode() {
         // Initialize hardware
         initializeHardware();
 
         // Initialize robot functions
-        robotFunctions = new RobotFunctions(hardwareMap, telemetry);
+        robotFunctions = new RobotFunctions(hardwareMap, telemetry, status);
+
+        // Load the path, then set starting position from it
+        pathSource = loadPath(telemetry);
+        AutoData.Position start = pathSource.startPosition();
+        currentX = start.x;
+        currentY = start.y;
+        currentRotation = start.rotation;
+        // Sensor heading 0 is wherever the robot faced at init - make it read the path's start rotation
+        poseSource.setPose(currentX, currentY, Math.toRadians(start.rotation));
+
+        // Every function name must have an action - stops here at init if not
+        robotFunctions.validate(pathSource);
 
-        // Set starting position from AutoData
-        currentX = AutoData.START_POS.x;
-        currentY = AutoData.START_POS.y;
-        currentRotation = AutoData.START_POS.rotation;
-        startingRotationOffset = Math.toRadians(AutoData.START_POS.rotation);
+        // Attach functions to waypoints once, before the match starts
+        FunctionIndex functionIndex = new FunctionIndex(pathSource.functions(), POSITION_TOLERANCE);
+        functionAt = functionIndex.assignToWaypoints(pathSource);
+        int unreachable = functionIndex.countUnreachable(pathSource);
+
+        // Create and fault in the flight log now, not during the match
+        openRecorder();
 
         telemetry.addData("Status", "Initialized");
         telemetry.addData("Starting Position", "X: %.1f, Y: %.1f, Rot: %.1f deg",
                 currentX, currentY, currentRotation);
-        telemetry.addData("Path Points", AutoData.PATH.length);
-        telemetry.addData("Functions", AutoData.FUNCTIONS.length);
+        telemetry.addData("Path Source", pathSource.describe());
+        telemetry.addData("Path Points", pathSource.pointCount());
+        telemetry.addData("Functions", pathSource.functions().length);
+        if (unreachable > 0) {
+            telemetry.addData("WARNING", "%d function(s) not on the path - they will never run", unreachable);
+        }
         telemetry.addData("Using Encoders", useEncoders);
         telemetry.update();
 
         waitForStart();
+        initDashboard();
 
-        if (opModeIsActive()) {
-            executePath();
+        try {
+            if (opModeIsActive()) {
+                if (useEncoders) {
+                    // Continuous pure pursuit - only stops at WAIT_TILL functions
+                    followPath();
+                } else {
+                    // No encoders means no odometry - fall back to timed stop-and-go moves
+                    executePath();
+                }
+                waitForBackgroundActions();
+            }
+        } finally {
+            // Nothing started by the path outlives the OpMode
+            actions.cancelAll();
+            backgroundActions.shutdown();
+            poseSource.close();
+            saveLoopTiming();
+            saveShotTraces();
+            closeRecorder();
         }
     }
 
+    /**
+     * Replace the init screen with the fixed lines the path loops update
+     */
+    private void initDashboard() {
+        dashboard = new TelemetryPublisher(telemetry);
+        slotStatus = dashboard.addText("Status");
+        slotLeg = dashboard.add("Leg", "{0} -> {0} of {0}");
+        slotTarget = dashboard.add("Target", "X: {1}, Y: {1}");
+        slotPose = dashboard.add("Pose", "X: {1}, Y: {1}, H: {1} deg");
+        slotRemaining = dashboard.add("Distance Remaining", "{2} inches");
+        slotRotating = dashboard.add("Rotating", "Target: {1} deg, Current: {1} deg");
+        slotFunction = dashboard.addText("Function");
+        slotBackground = dashboard.add("Background Functions", "{0} running");
+        timer.addTo(dashboard);
+        dashboard.set(slotStatus, "Running");
+        dashboard.flush();
+    }
+
     private void initializeHardware() {
         // Initialize motors
-        frontLeft = hardwareMap.get(DcMotor.class, "frontLeft");
-        frontRight = hardwareMap.get(DcMotor.class, "frontRight");
-        backLeft = hardwareMap.get(DcMotor.class, "backLeft");
-        backRight = hardwareMap.get(DcMotor.class, "backRight");
+        frontLeft = hardwareMap.get(DcMotorEx.class, "frontLeft");
+        frontRight = hardwareMap.get(DcMotorEx.class, "frontRight");
+        backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
+        backRight = hardwareMap.get(DcMotorEx.class, "backRight");
 
         // Set motor directions for mecanum drive
         frontLeft.setDirection(DcMotor.Direction.REVERSE);
@@ -90,10 +203,11 @@ public class AutoPathFollower extends LinearOpMode {
             backLeft.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
             backRight.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
 
-            frontLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            frontRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            backLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            backRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            // Encoders still count - MecanumVelocityControl closes the velocity loop instead of the hub
+            frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            backLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
 
             useEncoders = true;
             telemetry.addData("Encoders", "Available and active");
@@ -107,55 +221,55 @@ public class AutoPathFollower extends LinearOpMode {
             backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         }
 
-        // Initialize IMU for field-centric drive
-        imu = hardwareMap.get(IMU.class, "imu");
-        IMU.Parameters parameters = new IMU.Parameters(new RevHubOrientationOnRobot(
-                RevHubOrientationOnRobot.LogoFacingDirection.UP,
-                RevHubOrientationOnRobot.UsbFacingDirection.FORWARD));
-        imu.initialize(parameters);
-        imu.resetYaw();
+        // MANUAL bulk caching - every control loop below calls bulkReads.update() first
+        bulkReads = BulkReadCache.fromHardwareMap(hardwareMap,
+                "frontLeft", "frontRight", "backLeft", "backRight");
+
+        // Velocity commands -> wheel powers, scaled by the battery voltage
+        drive = DriveConstants.load(telemetry);
+        odometry = new Odometry(drive.ticksPerInch);
+        wheels = new MecanumVelocityControl(MecanumVelocityControl.findBattery(hardwareMap), drive);
+        telemetry.addData("Drive Constants", drive.describe());
 
-        telemetry.addData("IMU", "Initialized (yaw reset to 0)");
+        // Heading (and position, for a localizer) from the sensor PoseSources picks
+        poseSource = PoseSources.create(hardwareMap);
+
+        telemetry.addData("Heading Source", poseSource.describe() + " (reset to 0)");
         telemetry.addData("Note", "Robot should be facing field 0 deg or set START_POS.rotation accordingly");
     }
 
     private void executePath() {
-        AutoData.Point[] path = AutoData.PATH;
-        AutoData.FunctionData[] functions = AutoData.FUNCTIONS;
+        int pointCount = pathSource.pointCount();
 
-        for (int i = 0; i < path.length; i++) {
+        for (int i = 0; i < pointCount; i++) {
             if (!opModeIsActive()) break;
 
-            AutoData.Point waypoint = path[i];
-            double targetX = waypoint.x;
-            double targetY = waypoint.y;
+            double targetX = pathSource.pointX(i);
+            double targetY = pathSource.pointY(i);
+            currentWaypoint = i;
 
-            synchronized (telemetryLock) {
-                telemetry.addData("Waypoint", "%d of %d", i + 1, path.length);
-                telemetry.addData("Target", "X: %.1f, Y: %.1f", targetX, targetY);
-                telemetry.update();
-            }
+            reportStatus();
+            dashboard.set(slotLeg, i, i + 1, pointCount);
+            dashboard.set(slotTarget, targetX, targetY);
+            dashboard.publish();
 
             // Move to position
             moveToPosition(targetX, targetY);
             currentX = targetX;
             currentY = targetY;
 
-            // Check if there's a function at this position
-            AutoData.FunctionData functionAtWaypoint = getFunctionAtPosition(functions, targetX, targetY);
+            // Run every function attached to this waypoint, in AutoData order
+            for (AutoData.FunctionData functionAtWaypoint : functionAt[i]) {
+                if (!opModeIsActive()) break;
 
-            if (functionAtWaypoint != null) {
                 AutoData.FunctionType actionType = functionAtWaypoint.type;
                 String functionName = functionAtWaypoint.name;
                 double targetRotation = functionAtWaypoint.rotation;
+                activeFunction = functionNumber(functionAtWaypoint);
 
                 if (actionType == AutoData.FunctionType.RUN_WHILE_MOVING) {
                     // Start function in background thread - robot continues immediately
                     startFunctionInBackground(functionName);
-                    synchronized (telemetryLock) {
-                        telemetry.addData("Function", functionName + " started (background)");
-                        telemetry.update();
-                    }
 
                 } else if (actionType == AutoData.FunctionType.WAIT_TILL) {
                     // Rotate to target angle first
@@ -163,265 +277,504 @@ public class AutoPathFollower extends LinearOpMode {
 
                     // Execute function and wait for completion
                     executeFunction(functionName);
-                    synchronized (telemetryLock) {
-                        telemetry.addData("Function", functionName + " completed");
-                        telemetry.update();
-                    }
                 }
             }
         }
 
-        synchronized (telemetryLock) {
-            telemetry.addData("Status", "Path complete!");
-            telemetry.update();
+        dashboard.set(slotStatus, "Path complete!");
+        dashboard.flush();
+    }
+
+    /**
+     * Follow the whole path continuously, carrying speed through waypoints.
+     * The robot only stops at WAIT_TILL waypoints and at the end of the path.
+     */
+    private void followPath() {
+        int pointCount = pathSource.pointCount();
+        follower = PurePursuitFollower.fromPath(pathSource);
+
+        resetPose(currentX, currentY);
+        double headingTarget = odometry.getHeading();
+
+        // Functions sitting on the very first waypoint run before we move
+        handleWaypointFunctions(functionAt[0]);
+        int nextFunction = 1;
+
+        int legStart = 0;
+        while (opModeIsActive() && legStart < pointCount - 1) {
+            // Leg runs to the next WAIT_TILL waypoint (or the end of the path)
+            int legEnd = legStart + 1;
+            while (legEnd < pointCount - 1 && !hasWaitTill(functionAt[legEnd])) {
+                legEnd++;
+            }
+
+            updatePose();
+            headingTarget = odometry.getHeading();
+            follower.startLeg(legStart, legEnd);
+            long startTime = Clock.millis();
+
+            while (opModeIsActive()) {
+                timer.startLoop();
+                updatePose();
+                timer.lap(phaseRead);
+                boolean arrived = follower.update(odometry.getX(), odometry.getY());
+                currentWaypoint = Math.min(follower.getLastPassedWaypoint() + 1, legEnd);
+                timer.lap(phasePath);
+
+                // Fire RUN_WHILE_MOVING functions as we drive past their waypoints
+                int passed = follower.getLastPassedWaypoint();
+                while (nextFunction <= passed && nextFunction < legEnd) {
+                    handleWaypointFunctions(functionAt[nextFunction]);
+                    nextFunction++;
+                }
+                actions.update(Clock.millis());
+                reportStatus();
+                timer.lap(phaseFunctions);
+
+                if (arrived) break;
+
+                if (Clock.millis() - startTime > MOVEMENT_TIMEOUT_MS) {
+                    dashboard.log("Warning: Movement timeout reached");
+                    break;
+                }
+
+                double turn = -KP_HEADING * Angles.wrap(headingTarget - odometry.getHeading());
+                driveFieldCentric(follower.getCommandX(), follower.getCommandY(), turn);
+                recordLoop(follower.getTargetX(), follower.getTargetY());
+                timer.lap(phaseDrive);
+
+                dashboard.set(slotLeg, legStart + 1, legEnd + 1, pointCount);
+                dashboard.set(slotTarget, follower.getTargetX(), follower.getTargetY());
+                dashboard.set(slotPose, odometry.getX(), odometry.getY(), Math.toDegrees(odometry.getHeading()));
+                dashboard.set(slotRemaining, follower.getRemaining());
+                timer.show(dashboard);
+                dashboard.publish();
+                timer.lap(phaseTelemetry);
+                timer.endLoop();
+            }
+
+            stopMotors();
+            updatePose();
+            currentX = odometry.getX();
+            currentY = odometry.getY();
+
+            // Stop waypoint: run its functions (WAIT_TILL rotates and blocks)
+            handleWaypointFunctions(functionAt[legEnd]);
+            nextFunction = legEnd + 1;
+            legStart = legEnd;
+        }
+
+        dashboard.set(slotStatus, "Path complete!");
+        dashboard.flush();
+    }
+
+    /**
+     * Run the functions attached to a waypoint, in AutoData order
+     */
+    private void handleWaypointFunctions(AutoData.FunctionData[] functions) {
+        for (AutoData.FunctionData function : functions) {
+            handleWaypointFunction(function);
         }
     }
 
-    private AutoData.FunctionData getFunctionAtPosition(AutoData.FunctionData[] functions,
-                                                        double targetX, double targetY) {
-        for (AutoData.FunctionData func : functions) {
-            if (Math.abs(func.x - targetX) < POSITION_TOLERANCE &&
-                    Math.abs(func.y - targetY) < POSITION_TOLERANCE) {
-                return func;
+    private void handleWaypointFunction(AutoData.FunctionData function) {
+        if (!opModeIsActive()) return;
+
+        Action action = robotFunctions.createAction(function.name);
+        if (action == null) return;  // validate() already rejected unknown names at init
+        activeFunction = functionNumber(function);
+
+        if (function.type == AutoData.FunctionType.RUN_WHILE_MOVING) {
+            // Advanced by the follow loop while the robot keeps driving
+            actions.start(function.name, action, Clock.millis());
+        } else if (function.type == AutoData.FunctionType.WAIT_TILL) {
+            rotateToAngle(function.rotation);
+            updatePose();
+
+            // Hold position and heading while the function runs
+            double holdX = odometry.getX();
+            double holdY = odometry.getY();
+            double holdHeading = odometry.getHeading();
+            actions.start(function.name, action, Clock.millis());
+            while (opModeIsActive() && actions.isRunning(action)) {
+                updatePose();
+                actions.update(Clock.millis());
+                holdPose(holdX, holdY, holdHeading);
+                recordLoop(holdX, holdY);
+                reportStatus();
+                dashboard.set(slotFunction, function.name);
+                dashboard.set(slotPose, odometry.getX(), odometry.getY(), Math.toDegrees(odometry.getHeading()));
+                dashboard.publish();
             }
+            stopMotors();
+            dashboard.set(slotFunction, "");
+            reportStatus();
         }
-        return null;
     }
 
-    private void moveToPosition(double targetX, double targetY) {
-        double deltaX = targetX - currentX;
-        double deltaY = targetY - currentY;
-        double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    /**
+     * One loop of position + heading hold around a field point
+     */
+    private void holdPose(double x, double y, double heading) {
+        double cmdX = clamp(KP_HOLD * (x - odometry.getX()), MAX_HOLD_POWER);
+        double cmdY = clamp(KP_HOLD * (y - odometry.getY()), MAX_HOLD_POWER);
+        double turn = -KP_HEADING * Angles.wrap(heading - odometry.getHeading());
+        driveFieldCentric(cmdX, cmdY, turn);
+    }
 
-        if (distance < POSITION_TOLERANCE) {
-            return; // Already at target
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    /**
+     * Start the pose estimate at a known field position, heading from the pose source
+     */
+    private void resetPose(double x, double y) {
+        double heading = getHeading();
+        if (poseSource.hasPosition()) {
+            poseSource.setPose(x, y, heading);
         }
+        odometry.reset(x, y, heading, bulkReads.update());
+    }
 
-        if (useEncoders) {
-            moveWithEncoders(deltaX, deltaY, distance);
+    /**
+     * Advance the pose estimate from this cycle's encoder read and heading.
+     * A localizer (Pinpoint / OctoQuad) tracks position itself - take it directly.
+     */
+    private void updatePose() {
+        double heading = getHeading();
+        if (poseSource.hasPosition()) {
+            odometry.reset(poseSource.getX(), poseSource.getY(), heading, bulkReads.update());
         } else {
-            moveWithTime(deltaX, deltaY, distance);
+            odometry.update(bulkReads.update(), heading);
         }
     }
 
-    private void moveWithEncoders(double deltaX, double deltaY, double distance) {
-        // Get robot heading from IMU (accounting for starting offset)
-        double robotHeading = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS) + startingRotationOffset;
-
-        // Convert field-centric to robot-centric
-        double fieldAngle = Math.atan2(deltaY, deltaX);
-        double robotAngle = fieldAngle - robotHeading;
-
-        // Calculate mecanum drive vectors
-        double x = Math.cos(robotAngle);
-        double y = Math.sin(robotAngle);
-
-        // Mecanum drive equations (field-centric)
-        double frontLeftPower = y + x;
-        double frontRightPower = y - x;
-        double backLeftPower = y - x;
-        double backRightPower = y + x;
-
-        // Normalize powers
-        double maxPower = Math.max(Math.max(Math.abs(frontLeftPower), Math.abs(frontRightPower)),
-                Math.max(Math.abs(backLeftPower), Math.abs(backRightPower)));
-        if (maxPower > 1.0) {
-            frontLeftPower /= maxPower;
-            frontRightPower /= maxPower;
-            backLeftPower /= maxPower;
-            backRightPower /= maxPower;
-        }
+    /**
+     * Fresh field heading in radians from the pose source
+     */
+    private double getHeading() {
+        poseSource.update();
+        return poseSource.getHeading();
+    }
 
-        // Calculate target encoder counts
-        int targetCounts = (int) (distance * COUNTS_PER_INCH);
-
-        // Reset encoders
-        int startFL = frontLeft.getCurrentPosition();
-        int startFR = frontRight.getCurrentPosition();
-        int startBL = backLeft.getCurrentPosition();
-        int startBR = backRight.getCurrentPosition();
-
-        // Set target positions
-        frontLeft.setTargetPosition(startFL + (int)(targetCounts * frontLeftPower));
-        frontRight.setTargetPosition(startFR + (int)(targetCounts * frontRightPower));
-        backLeft.setTargetPosition(startBL + (int)(targetCounts * backLeftPower));
-        backRight.setTargetPosition(startBR + (int)(targetCounts * backRightPower));
-
-        // Set to RUN_TO_POSITION mode
-        frontLeft.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        frontRight.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        backLeft.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        backRight.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-
-        // Set power
-        frontLeft.setPower(Math.abs(DRIVE_SPEED * frontLeftPower));
-        frontRight.setPower(Math.abs(DRIVE_SPEED * frontRightPower));
-        backLeft.setPower(Math.abs(DRIVE_SPEED * backLeftPower));
-        backRight.setPower(Math.abs(DRIVE_SPEED * backRightPower));
-
-        // Wait until motors reach target (with timeout)
-        long startTime = System.currentTimeMillis();
-        while (opModeIsActive() &&
-                (frontLeft.isBusy() || frontRight.isBusy() || backLeft.isBusy() || backRight.isBusy())) {
+    /**
+     * Drive with a field-frame command vector plus a turn command (positive = clockwise).
+     * 1.0 is MAX_DRIVE_VELOCITY of wheel speed - the wheel velocity loop holds it regardless of battery.
+     */
+    private void driveFieldCentric(double fieldX, double fieldY, double turn) {
+        double heading = odometry.getHeading();
+        double forward = -fieldX * Math.sin(heading) + fieldY * Math.cos(heading);
+        double right = fieldX * Math.cos(heading) + fieldY * Math.sin(heading);
+        driveRobotCentric(forward, right, turn);
+    }
 
-            // Check for timeout
-            if (System.currentTimeMillis() - startTime > MOVEMENT_TIMEOUT_MS) {
-                synchronized (telemetryLock) {
-                    telemetry.addData("Warning", "Movement timeout reached");
-                    telemetry.update();
-                }
-                break;
-            }
+    /**
+     * Robot-frame version of driveFieldCentric()
+     */
+    private void driveRobotCentric(double forward, double right, double turn) {
+        wheels.drive(controlEncoders(), forward * MAX_DRIVE_VELOCITY, right * MAX_DRIVE_VELOCITY,
+                turn * MAX_DRIVE_VELOCITY / wheels.getTurnRadius());
+        applyWheelPowers();
+    }
 
-            synchronized (telemetryLock) {
-                double avgCurrent = getAverageEncoderPosition();
-                double avgStart = getAverageStartPosition(startFL, startFR, startBL, startBR);
-                double traveled = (avgCurrent - avgStart) / COUNTS_PER_INCH;
-                telemetry.addData("Distance Remaining", "%.2f inches", distance - traveled);
-                telemetry.update();
-            }
-        }
+    /**
+     * This cycle's encoder read for the velocity loop, or null (feedforward only) without encoders
+     */
+    private BulkReadCache.Snapshot controlEncoders() {
+        return useEncoders ? bulkReads.latest() : null;
+    }
 
-        // Stop motors
-        stopMotors();
+    private void applyWheelPowers() {
+        setDrivePower(wheels.getPower(FL), wheels.getPower(FR), wheels.getPower(BL), wheels.getPower(BR));
+    }
 
-        // Return to RUN_USING_ENCODER mode
-        frontLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        frontRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        backLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-        backRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+    /**
+     * Functions attached to each waypoint (all matches within POSITION_TOLERANCE, once per visit)
+     */
+    static AutoData.FunctionData[][] functionsByWaypoint(PathSource path) {
+        return new FunctionIndex(path.functions(), POSITION_TOLERANCE).assignToWaypoints(path);
     }
 
-    private void moveWithTime(double deltaX, double deltaY, double distance) {
-        // Get robot heading from IMU (accounting for starting offset)
-        double robotHeading = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS) + startingRotationOffset;
-
-        // Convert field-centric to robot-centric
-        double fieldAngle = Math.atan2(deltaY, deltaX);
-        double robotAngle = fieldAngle - robotHeading;
-
-        // Calculate mecanum drive vectors
-        double x = Math.cos(robotAngle);
-        double y = Math.sin(robotAngle);
-
-        // Mecanum drive equations
-        double frontLeftPower = y + x;
-        double frontRightPower = y - x;
-        double backLeftPower = y - x;
-        double backRightPower = y + x;
-
-        // Normalize powers
-        double maxPower = Math.max(Math.max(Math.abs(frontLeftPower), Math.abs(frontRightPower)),
-                Math.max(Math.abs(backLeftPower), Math.abs(backRightPower)));
-        if (maxPower > 1.0) {
-            frontLeftPower /= maxPower;
-            frontRightPower /= maxPower;
-            backLeftPower /= maxPower;
-            backRightPower /= maxPower;
+    /**
+     * True if the robot has to stop at this waypoint
+     */
+    static boolean hasWaitTill(AutoData.FunctionData[] functions) {
+        for (AutoData.FunctionData function : functions) {
+            if (function.type == AutoData.FunctionType.WAIT_TILL) return true;
         }
+        return false;
+    }
 
-        // Estimate time based on distance
-        // This needs calibration for your specific robot!
-        // Current estimate assumes ~12 inches per second at DRIVE_SPEED=0.6
-        double estimatedTime = (distance / 12.0) * 1000; // milliseconds
+    /**
+     * Binary path file from the RC's storage if present and valid, otherwise the compiled AutoData
+     */
+    static PathSource loadPath(Telemetry telemetry) {
+        File file = BinaryPath.defaultFile();
+        if (file.exists()) {
+            try {
+                return BinaryPath.load(file);
+            } catch (IOException e) {
+                telemetry.addData("WARNING", "Path file rejected: " + e.getMessage());
+                telemetry.addData("WARNING", "Falling back to compiled AutoData");
+            }
+        }
+        return new CompiledPath();
+    }
+
+    private void moveToPosition(double targetX, double targetY) {
+        double deltaX = targetX - currentX;
+        double deltaY = targetY - currentY;
+        double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+
+        if (distance < POSITION_TOLERANCE) {
+            return; // Already at target
+        }
 
-        // Set motor powers
-        frontLeft.setPower(DRIVE_SPEED * frontLeftPower);
-        frontRight.setPower(DRIVE_SPEED * frontRightPower);
-        backLeft.setPower(DRIVE_SPEED * backLeftPower);
-        backRight.setPower(DRIVE_SPEED * backRightPower);
+        moveWithTime(deltaX, deltaY, distance);
+    }
 
-        sleep((long) estimatedTime);
+    /**
+     * Drive a straight trapezoidal profile open-loop - the feedforward turns it into
+     * real inches/sec, so the move's duration comes from the profile, not a speed guess
+     */
+    private void moveWithTime(double deltaX, double deltaY, double distance) {
+        // Get robot heading from the pose source
+        double robotHeading = getHeading();
+
+        // Unit direction of travel in the robot frame
+        double forward = -(deltaX / distance) * Math.sin(robotHeading) + (deltaY / distance) * Math.cos(robotHeading);
+        double right = (deltaX / distance) * Math.cos(robotHeading) + (deltaY / distance) * Math.sin(robotHeading);
+
+        MotionProfile profile = new MotionProfile(distance, PROFILE_MAX_VELOCITY, PROFILE_MAX_ACCELERATION);
+        long startNanos = Clock.nanoTime();
+        while (opModeIsActive()) {
+            double elapsed = (Clock.nanoTime() - startNanos) * 1e-9;
+            if (profile.isFinished(elapsed)) break;
+
+            double velocity = profile.velocity(elapsed);
+            double acceleration = profile.acceleration(elapsed);
+            wheels.driveProfiled(controlEncoders(), forward * velocity, right * velocity, 0.0,
+                    forward * acceleration, right * acceleration, 0.0);
+            applyWheelPowers();
+            recordLoop(currentX + deltaX, currentY + deltaY);
+
+            reportStatus();
+            dashboard.set(slotRemaining, distance - profile.position(elapsed));
+            dashboard.publish();
+        }
 
         stopMotors();
     }
 
     private void rotateToAngle(double targetAngleDegrees) {
         double targetAngleRadians = Math.toRadians(targetAngleDegrees);
-        double currentAngle = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS) + startingRotationOffset;
-        double angleDiff = normalizeAngle(targetAngleRadians - currentAngle);
+        double currentAngle = getHeading();
+        double angleDiff = Angles.wrap(targetAngleRadians - currentAngle);
 
         double rotationPower = 0.3;
-        long startTime = System.currentTimeMillis();
+        long startTime = Clock.millis();
 
         while (opModeIsActive() && Math.abs(angleDiff) > Math.toRadians(2)) {
 
             // Check for timeout
-            if (System.currentTimeMillis() - startTime > ROTATION_TIMEOUT_MS) {
-                synchronized (telemetryLock) {
-                    telemetry.addData("Warning", "Rotation timeout reached");
-                    telemetry.update();
-                }
+            if (Clock.millis() - startTime > ROTATION_TIMEOUT_MS) {
+                dashboard.log("Warning: Rotation timeout reached");
                 break;
             }
 
+            // Keep background functions moving while we turn
+            actions.update(Clock.millis());
+            reportStatus();
+
             double power = Math.signum(angleDiff) * rotationPower;
 
-            frontLeft.setPower(-power);
-            frontRight.setPower(power);
-            backLeft.setPower(-power);
-            backRight.setPower(power);
+            if (useEncoders) bulkReads.update();
+            driveRobotCentric(0.0, 0.0, -power);
 
-            currentAngle = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS) + startingRotationOffset;
-            angleDiff = normalizeAngle(targetAngleRadians - currentAngle);
+            currentAngle = getHeading();
+            angleDiff = Angles.wrap(targetAngleRadians - currentAngle);
+            recordLoop(currentX, currentY);
 
-            synchronized (telemetryLock) {
-                telemetry.addData("Rotating", "Target: %.1f deg, Current: %.1f deg",
-                        Math.toDegrees(targetAngleRadians), Math.toDegrees(currentAngle));
-                telemetry.update();
-            }
+            dashboard.set(slotRotating, Math.toDegrees(targetAngleRadians), Math.toDegrees(currentAngle));
+            dashboard.publish();
         }
 
         stopMotors();
         currentRotation = targetAngleDegrees;
     }
 
-    private double normalizeAngle(double angle) {
-        while (angle > Math.PI) angle -= 2 * Math.PI;
-        while (angle < -Math.PI) angle += 2 * Math.PI;
-        return angle;
+    private void stopMotors() {
+        wheels.stop();
+        setDrivePower(0, 0, 0, 0);
     }
 
-    private void stopMotors() {
-        frontLeft.setPower(0);
-        frontRight.setPower(0);
-        backLeft.setPower(0);
-        backRight.setPower(0);
+    /**
+     * Set all four drive powers and remember them for the flight record
+     */
+    private void setDrivePower(double fl, double fr, double bl, double br) {
+        frontLeft.setPower(fl);
+        frontRight.setPower(fr);
+        backLeft.setPower(bl);
+        backRight.setPower(br);
+        drivePower[FL] = fl;
+        drivePower[FR] = fr;
+        drivePower[BL] = bl;
+        drivePower[BR] = br;
     }
 
-    private double getAverageEncoderPosition() {
-        return (Math.abs(frontLeft.getCurrentPosition()) +
-                Math.abs(frontRight.getCurrentPosition()) +
-                Math.abs(backLeft.getCurrentPosition()) +
-                Math.abs(backRight.getCurrentPosition())) / 4.0;
+    // Function execution methods - delegated to RobotFunctions class
+    private void startFunctionInBackground(String functionName) {
+        // Run function on the action executor so robot can continue moving
+        if (!backgroundActions.submit(functionName, () -> robotFunctions.executeFunction(functionName))) {
+            dashboard.log("WARNING: " + functionName + " skipped - too many background functions");
+        }
     }
 
-    private double getAverageStartPosition(int startFL, int startFR, int startBL, int startBR) {
-        // FIXED: Removed Math.abs() to correctly calculate average start position
-        return (startFL + startFR + startBL + startBR) / 4.0;
+    /**
+     * Move status events posted since the last call into the telemetry log.
+     * Called once per control loop - the only place events are formatted.
+     */
+    private void reportStatus() {
+        status.drain(statusToLog);
+
+        long drops = status.getDropped();
+        if (drops != reportedDrops) {
+            dashboard.log("WARNING: " + (drops - reportedDrops) + " status message(s) dropped");
+            reportedDrops = drops;
+        }
     }
 
-    // Function execution methods - delegated to RobotFunctions class
-    private void startFunctionInBackground(String functionName) {
-        // Run function in separate thread so robot can continue moving
-        new Thread(() -> {
-            synchronized (telemetryLock) {
-                telemetry.addData("Background Function", functionName + " starting");
-                telemetry.update();
-            }
-            robotFunctions.executeFunction(functionName);
-            synchronized (telemetryLock) {
-                telemetry.addData("Background Function", functionName + " completed");
-                telemetry.update();
+    private void logStatus(int kind, String source, String text, long value) {
+        switch (kind) {
+            case StatusRing.COMPLETED:
+                dashboard.log(source + " completed (" + value + " ms)");
+                break;
+            case StatusRing.FAILED:
+                dashboard.log(source + " failed: " + text);
+                break;
+            case StatusRing.STARTED:
+                dashboard.log(source + " started");
+                break;
+            case StatusRing.WARNING:
+                dashboard.log("WARNING: " + source + " - " + text);
+                break;
+            case StatusRing.ERROR:
+                dashboard.log("ERROR: " + source + " - " + text);
+                break;
+            default:
+                dashboard.log(source + ": " + text);
+                break;
+        }
+    }
+
+    /**
+     * Let background functions started near the end of the path finish
+     */
+    private void waitForBackgroundActions() {
+        while (opModeIsActive() && !(actions.isIdle() && backgroundActions.isIdle())) {
+            actions.update(Clock.millis());
+            reportStatus();
+            dashboard.set(slotBackground, actions.runningCount() + backgroundActions.pendingCount());
+            dashboard.publish();
+            idle();
+        }
+        reportStatus();
+        dashboard.set(slotBackground, 0);
+        dashboard.flush();
+    }
+
+    /**
+     * Write the follow loop's timing table for this run
+     */
+    private void saveLoopTiming() {
+        if (timer.histogram(LoopTimer.TOTAL).count() == 0) return;  // fallback path never ran the follow loop
+        try {
+            timer.writeReport(LoopTimer.defaultReportFile("AutoPathFollower"), "AutoPathFollower");
+        } catch (IOException e) {
+            telemetry.log().add("Loop timing not saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the score traces kept during the run - here, after the loop, not when each score ends
+     */
+    private void saveShotTraces() {
+        try {
+            robotFunctions.saveShotTraces();
+        } catch (IOException e) {
+            telemetry.log().add("Shot traces not saved: " + e.getMessage());
+        }
+    }
+
+    // ========================================
+    // FLIGHT RECORD
+    // ========================================
+
+    private void openRecorder() {
+        try {
+            recorder = FlightRecorder.open(FlightRecorder.defaultFile("AutoPathFollower"), "AutoPathFollower",
+                    pathSource.functions(), FlightRecorder.capacityFor("AutoPathFollower", FlightRecorder.AUTO_SECONDS));
+            telemetry.addData("Flight Log", recorder.describe());
+        } catch (IOException e) {
+            recorder = null;
+            telemetry.addData("WARNING", "Flight log disabled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Append this loop's encoders, powers, pose and progress - allocation-free
+     */
+    private void recordLoop(double targetX, double targetY) {
+        if (recorder == null) return;
+        if (activeFunction >= 0 && actions.isIdle() && backgroundActions.isIdle()) {
+            activeFunction = -1;
+        }
+        recorder.record(bulkReads.latest(), drivePower, poseSource.getHeading(),
+                odometry.getX(), odometry.getY(), targetX, targetY, currentWaypoint, activeFunction);
+    }
+
+    private void closeRecorder() {
+        if (recorder == null) return;
+        try {
+            recorder.close();
+            if (recorder.getDropped() > 0) {
+                telemetry.log().add("Flight log full - last " + recorder.getDropped() + " loop(s) not recorded");
             }
-        }).start();
+        } catch (IOException e) {
+            telemetry.log().add("Flight log not saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Position of a function in pathSource.functions() (the index the flight log stores)
+     */
+    private int functionNumber(AutoData.FunctionData function) {
+        AutoData.FunctionData[] functions = pathSource.functions();
+        for (int i = 0; i < functions.length; i++) {
+            if (functions[i] == function) return i;
+        }
+        return -1;
     }
 
+    /**
+     * Run a WAIT_TILL function on this thread, reported through the StatusRing like background ones
+     */
     private void executeFunction(String functionName) {
-        synchronized (telemetryLock) {
-            telemetry.addData("Executing Function", functionName);
-            telemetry.update();
+        dashboard.set(slotFunction, functionName);
+        dashboard.flush();
+        long start = Clock.millis();
+        try {
+            robotFunctions.executeFunction(functionName);
+            if (Thread.currentThread().isInterrupted()) {
+                status.post(StatusRing.FAILED, functionName, "cancelled", Clock.millis() - start);
+            } else {
+                status.post(StatusRing.COMPLETED, functionName, null, Clock.millis() - start);
+            }
+        } catch (RuntimeException e) {
+            status.post(StatusRing.FAILED, functionName, e.getClass().getSimpleName() + ": " + e.getMessage(),
+                    Clock.millis() - start);
         }
-        robotFunctions.executeFunction(functionName);
+        reportStatus();
     }
 }
\ No newline at end of file
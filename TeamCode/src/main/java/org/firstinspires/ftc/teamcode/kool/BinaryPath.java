@@ -0,0 +1,175 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.utils.Storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryPath - PathSource read from a .path file written by tracer/convert.py
+ *
+ * The file is memory-mapped at OpMode init and waypoints are read straight out
+ * of the mapping, so swapping paths at an event is an adb push, not a rebuild:
+ *     adb push auto.path /sdcard/FIRST/paths/auto.path
+ *
+ * See tracer/pathfile.py for the layout. The whole file is validated on load,
+ * so a truncated or stale file fails at init instead of mid-match.
+ */
+public class BinaryPath implements PathSource {
+
+    private static final int MAGIC = 0x50414F57;  // "WOAP" read little-endian
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 48;
+    private static final int POINT_BYTES = 16;
+    private static final int FUNCTION_BYTES = 32;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int pointCount;
+    private final AutoData.Position start;
+    private final AutoData.FunctionData[] functions;
+    private final String[] templates;
+
+    private BinaryPath(File file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file.getName() + " is not a path file");
+        }
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException(file.getName() + " is version " + version + ", expected " + VERSION);
+        }
+
+        pointCount = buffer.getInt(8);
+        int functionCount = buffer.getInt(12);
+        int templateCount = buffer.getInt(16);
+        int stringCount = buffer.getInt(20);
+        if (pointCount < 1 || functionCount < 0 || templateCount < 0 || stringCount < 0) {
+            throw new IOException(file.getName() + " has bad section counts");
+        }
+        start = new AutoData.Position(buffer.getDouble(24), buffer.getDouble(32), buffer.getDouble(40));
+
+        // Section offsets in long: a corrupt count must fail here, not overflow past the check
+        long functionStart = HEADER_BYTES + (long) pointCount * POINT_BYTES;
+        long templateStart = functionStart + (long) functionCount * FUNCTION_BYTES;
+        long stringStart = templateStart + (long) templateCount * 2;
+        long stringsEnd = stringStart + (long) stringCount * 2;    // each string is at least its length
+        if (stringsEnd > buffer.limit()) {
+            throw new IOException(file.getName() + " is truncated");
+        }
+        int functionOffset = (int) functionStart;
+        int templateOffset = (int) templateStart;
+        int stringOffset = (int) stringStart;
+
+        // String table - decoded once here, never per loop
+        String[] strings = new String[stringCount];
+        int pos = stringOffset;
+        for (int i = 0; i < stringCount; i++) {
+            if (pos + 2 > buffer.limit()) throw new IOException(file.getName() + " is truncated");
+            int length = buffer.getShort(pos) & 0xFFFF;
+            pos += 2;
+            if (pos + length > buffer.limit()) throw new IOException(file.getName() + " is truncated");
+            byte[] bytes = new byte[length];
+            for (int b = 0; b < length; b++) {
+                bytes[b] = buffer.get(pos + b);
+            }
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            pos += length;
+        }
+
+        AutoData.FunctionType[] types = AutoData.FunctionType.values();
+        AutoData.ActionType[] actions = AutoData.ActionType.values();
+        functions = new AutoData.FunctionData[functionCount];
+        for (int i = 0; i < functionCount; i++) {
+            int base = functionOffset + i * FUNCTION_BYTES;
+            int name = buffer.getShort(base + 24) & 0xFFFF;
+            int type = buffer.get(base + 26) & 0xFF;
+            int action = buffer.get(base + 27) & 0xFF;
+            if (name >= stringCount || type >= types.length || action >= actions.length) {
+                throw new IOException(file.getName() + " function " + i + " is invalid");
+            }
+            functions[i] = new AutoData.FunctionData(strings[name],
+                    buffer.getDouble(base), buffer.getDouble(base + 8), buffer.getDouble(base + 16),
+                    types[type], actions[action]);
+        }
+
+        templates = new String[templateCount];
+        for (int i = 0; i < templateCount; i++) {
+            int name = buffer.getShort(templateOffset + i * 2) & 0xFFFF;
+            if (name >= stringCount) {
+                throw new IOException(file.getName() + " template " + i + " is invalid");
+            }
+            templates[i] = strings[name];
+        }
+    }
+
+    /**
+     * Where AutoPathFollower looks for a pushed path: /sdcard/FIRST/paths/auto.path
+     */
+    public static File defaultFile() {
+        return Storage.file("paths/auto.path");
+    }
+
+    /**
+     * Memory-map and validate a path file
+     */
+    public static BinaryPath load(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new BinaryPath(file, buffer);
+        }
+    }
+
+    /**
+     * Wrap bytes already in memory (e.g. read from another stream)
+     */
+    public static BinaryPath fromBytes(byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        return new BinaryPath(new File("<memory>"), buffer);
+    }
+
+    @Override
+    public int pointCount() {
+        return pointCount;
+    }
+
+    @Override
+    public double pointX(int i) {
+        return buffer.getDouble(HEADER_BYTES + i * POINT_BYTES);
+    }
+
+    @Override
+    public double pointY(int i) {
+        return buffer.getDouble(HEADER_BYTES + i * POINT_BYTES + 8);
+    }
+
+    @Override
+    public AutoData.Position startPosition() {
+        return start;
+    }
+
+    @Override
+    public AutoData.FunctionData[] functions() {
+        return functions;
+    }
+
+    @Override
+    public String[] templates() {
+        return templates;
+    }
+
+    @Override
+    public String describe() {
+        return file.getPath();
+    }
+}
@@ -0,0 +1,43 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+/**
+ * CompiledPath - PathSource backed by the generated AutoData class
+ * Used when no binary path file has been pushed to the robot.
+ */
+public class CompiledPath implements PathSource {
+
+    @Override
+    public int pointCount() {
+        return AutoData.PATH.length;
+    }
+
+    @Override
+    public double pointX(int i) {
+        return AutoData.PATH[i].x;
+    }
+
+    @Override
+    public double pointY(int i) {
+        return AutoData.PATH[i].y;
+    }
+
+    @Override
+    public AutoData.Position startPosition() {
+        return AutoData.START_POS;
+    }
+
+    @Override
+    public AutoData.FunctionData[] functions() {
+        return AutoData.FUNCTIONS;
+    }
+
+    @Override
+    public String[] templates() {
+        return AutoData.TEMPLATES;
+    }
+
+    @Override
+    public String describe() {
+        return "AutoData.java (compiled)";
+    }
+}
@@ -0,0 +1,440 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.utils.Angles;
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.DriveConstants;
+import org.firstinspires.ftc.teamcode.utils.LeastSquares;
+import org.firstinspires.ftc.teamcode.utils.MecanumVelocityControl;
+import org.firstinspires.ftc.teamcode.utils.PoseSource;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * DriveCharacterization - measures the drive constants and saves them for every drive OpMode
+ *
+ * Runs on its own after START (needs ~8 ft of clear floor in front of the robot):
+ *     1. Quasi-static ramp forward, then backward - volts rise slowly, so
+ *        acceleration is ~0 and the samples pin down kS and kV
+ *     2. Step forward, then backward - a sudden STEP_VOLTS, for kA
+ *     3. Quasi-static turn ramp in place - wheel travel vs. heading gives the
+ *        effective track width
+ * Every sample is streamed to /sdcard/FIRST/drive/characterization-<time>.csv and
+ * folded into streaming least squares fits (volts = kS + kV v + kA a, in encoder
+ * ticks, converted with the fitted ticks per inch at the end).
+ *
+ * Ticks per inch needs the true distance: a Pinpoint / OctoQuad localizer (tuned and
+ * selected with PoseSources.PREFERRED) measures it after every straight test. Without one, the robot stops after each ramp - measure
+ * how far it moved, dial it in with the dpad (up/down 0.1", right/left 1"), A to accept
+ * or B to skip.
+ *
+ * At the end the fitted constants are shown next to the current ones: A saves them to
+ * DriveConstants.defaultFile() (read at init by AutoPathFollower and EncoderTest), B discards.
+ */
+@TeleOp(name = "Drive Characterization", group = "Testing")
+public class DriveCharacterization extends EncoderTest {
+
+    // Test parameters
+    private static final double RAMP_VOLTS_PER_SECOND = 1.0;       // slow enough to count as quasi-static
+    private static final double STEP_VOLTS = 6.0;
+    private static final double TURN_RAMP_VOLTS_PER_SECOND = 0.5;
+    private static final double MAX_TEST_SECONDS = 8.0;
+    private static final double MAX_TEST_DISTANCE = 72.0;          // inches per straight test (current ticks per inch)
+    private static final double MAX_TEST_TURN = 4 * Math.PI;       // radians - two turns
+    private static final double MIN_FIT_VELOCITY = 0.5;            // inches/sec - slower samples are still in stiction
+    private static final long REST_MS = 1000;                      // robot settles between tests
+    private static final long BATTERY_PERIOD_MS = 100;
+    private static final long TELEMETRY_PERIOD_MS = 100;
+
+    private PoseSource poseSource;
+    private VoltageSensor battery;
+    private double batteryVoltage = MecanumVelocityControl.NOMINAL_VOLTAGE;
+    private long batteryReadMillis = 0;
+
+    // Fits in encoder ticks - ticks per inch is only known once the distance fit is solved
+    private final LeastSquares feedforward = new LeastSquares(3);  // volts = kS * 1 + kV * v + kA * a
+    private final LeastSquares distance = new LeastSquares(1);     // ticks = ticksPerInch * inches
+    private final LeastSquares turn = new LeastSquares(1);         // turn ticks = (trackWidth / 2 * ticksPerInch) * radians
+
+    private Writer log;     // null if the file couldn't be created
+    private File logFile;
+
+    @Override
+    public void runOpMode() {
+        if (!initializeHardware()) {
+            return;
+        }
+
+        // Volts are commanded directly - the hub's velocity loop would hide the motor's response
+        frontLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        frontRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        backLeft.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        backRight.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+
+        poseSource = PoseSources.create(hardwareMap);
+        battery = MecanumVelocityControl.findBattery(hardwareMap);
+        openLog();
+
+        telemetry.addData("Drive Characterization", "Needs ~8 ft clear in front of the robot");
+        telemetry.addData("Current", drive.describe());
+        telemetry.addData("Heading Source", poseSource.describe()
+                + (poseSource.hasPosition() ? " (measures distance)" : " (distance measured by hand)"));
+        telemetry.addData("Log", logFile != null ? logFile.getPath() : "not available");
+        telemetry.addData("Info", "Press START - the tests run on their own");
+        telemetry.update();
+
+        waitForStart();
+
+        try {
+            runStraight("ramp forward", 1, false);
+            runStraight("ramp backward", -1, false);
+            runStraight("step forward", 1, true);
+            runStraight("step backward", -1, true);
+            runTurn();
+            stopAllMotors();
+            closeLog();
+            if (opModeIsActive()) {
+                showResults();
+            }
+        } finally {
+            stopAllMotors();
+            closeLog();
+            poseSource.close();
+        }
+    }
+
+    // ========================================
+    // TESTS
+    // ========================================
+
+    /**
+     * One straight test: volts ramp (or step) until the distance or time limit
+     * @param direction +1 forward, -1 backward - samples are folded into the forward direction
+     */
+    private void runStraight(String name, int direction, boolean step) {
+        if (!opModeIsActive()) return;
+
+        poseSource.update();
+        double startX = poseSource.getX();
+        double startY = poseSource.getY();
+        BulkReadCache.Snapshot start = bulkReads.update();
+        double limitTicks = MAX_TEST_DISTANCE * drive.ticksPerInch;
+        double minVelocity = MIN_FIT_VELOCITY * drive.ticksPerInch;
+
+        // Central difference for acceleration: sample k is fitted once k + 1 arrives
+        double t0 = Double.NaN, v0 = 0, t1 = Double.NaN, v1 = 0, volts1 = 0;
+
+        long startNanos = Clock.nanoTime();
+        long telemetryMillis = 0;
+        double travel = 0.0;
+        while (opModeIsActive()) {
+            BulkReadCache.Snapshot encoders = bulkReads.update();
+            double t = (encoders.timestampNanos - startNanos) * 1e-9;
+            travel = direction * averageTravel(start, encoders);
+            double velocity = direction * averageVelocity(encoders);
+            if (t > MAX_TEST_SECONDS || Math.abs(travel) > limitTicks) break;
+
+            double volts = step ? STEP_VOLTS : RAMP_VOLTS_PER_SECOND * t;
+            double power = setVolts(direction * volts, direction * volts, direction * volts, direction * volts);
+            double applied = Math.abs(power) * batteryVoltage;
+
+            if (!Double.isNaN(t0) && v1 > minVelocity) {
+                feedforward.add(volts1, 1.0, v1, (velocity - v0) / (t - t0));
+            }
+            t0 = t1;
+            v0 = v1;
+            t1 = t;
+            v1 = velocity;
+            volts1 = applied;
+
+            writeSample(name, t, direction * applied, encoders, Double.NaN);
+            if (Clock.millis() - telemetryMillis >= TELEMETRY_PERIOD_MS) {
+                telemetryMillis = Clock.millis();
+                telemetry.addData("Test", name);
+                telemetry.addData("Volts", "%.2f", applied);
+                telemetry.addData("Travel", "%.1f in", drive.ticksToInches(travel));
+                telemetry.addData("Samples", feedforward.count());
+                telemetry.update();
+            }
+        }
+        stopAllMotors();
+        pause(REST_MS);
+        flushLog();
+
+        // True distance for ticks per inch
+        travel = direction * averageTravel(start, bulkReads.update());
+        if (poseSource.hasPosition()) {
+            poseSource.update();
+            double inches = Math.hypot(poseSource.getX() - startX, poseSource.getY() - startY);
+            if (inches > 1.0) distance.add(travel, inches);
+        } else if (!step) {
+            double inches = askMeasuredDistance(name, drive.ticksToInches(travel));
+            if (!Double.isNaN(inches)) distance.add(travel, inches);
+        }
+    }
+
+    /**
+     * Counterclockwise turn ramp in place - fits wheel turn travel against heading
+     */
+    private void runTurn() {
+        if (!opModeIsActive()) return;
+
+        BulkReadCache.Snapshot last = bulkReads.update();
+        poseSource.update();
+        double lastHeading = poseSource.getHeading();
+        double turned = 0.0;
+
+        long startNanos = Clock.nanoTime();
+        long telemetryMillis = 0;
+        while (opModeIsActive()) {
+            BulkReadCache.Snapshot encoders = bulkReads.update();
+            poseSource.update();
+            double t = (encoders.timestampNanos - startNanos) * 1e-9;
+            double heading = poseSource.getHeading();
+            double dTheta = Angles.wrap(heading - lastHeading);
+            turned += dTheta;
+            if (t > MAX_TEST_SECONDS || Math.abs(turned) > MAX_TEST_TURN) break;
+
+            // Right side forward, left side back = counterclockwise
+            double turnTicks = (-(encoders.position(FL) - last.position(FL)) + (encoders.position(FR) - last.position(FR))
+                    - (encoders.position(BL) - last.position(BL)) + (encoders.position(BR) - last.position(BR))) / 4.0;
+            turn.add(turnTicks, dTheta);
+            last = encoders;
+            lastHeading = heading;
+
+            double volts = TURN_RAMP_VOLTS_PER_SECOND * t;
+            double power = setVolts(-volts, volts, -volts, volts);
+
+            writeSample("turn", t, Math.abs(power) * batteryVoltage, encoders, turned);
+            if (Clock.millis() - telemetryMillis >= TELEMETRY_PERIOD_MS) {
+                telemetryMillis = Clock.millis();
+                telemetry.addData("Test", "turn ramp");
+                telemetry.addData("Turned", "%.0f deg", Math.toDegrees(turned));
+                telemetry.update();
+            }
+        }
+        stopAllMotors();
+        pause(REST_MS);
+        flushLog();
+    }
+
+    /**
+     * Same volts on every wheel (signs pick the direction), scaled by the battery
+     * @return the front left power actually sent
+     */
+    private double setVolts(double fl, double fr, double bl, double br) {
+        if (battery != null && Clock.millis() - batteryReadMillis >= BATTERY_PERIOD_MS) {
+            batteryReadMillis = Clock.millis();
+            double reading = battery.getVoltage();
+            if (reading > 0) batteryVoltage = reading;
+        }
+        double flPower = clampPower(fl / batteryVoltage);
+        frontLeft.setPower(flPower);
+        frontRight.setPower(clampPower(fr / batteryVoltage));
+        backLeft.setPower(clampPower(bl / batteryVoltage));
+        backRight.setPower(clampPower(br / batteryVoltage));
+        return flPower;
+    }
+
+    /**
+     * Clock.sleep() that lets the OpMode stop - opModeIsActive() ends the loops
+     */
+    private void pause(long millis) {
+        try {
+            Clock.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double clampPower(double power) {
+        return Math.max(-1.0, Math.min(1.0, power));
+    }
+
+    private static double averageTravel(BulkReadCache.Snapshot start, BulkReadCache.Snapshot now) {
+        return ((now.position(FL) - start.position(FL)) + (now.position(FR) - start.position(FR))
+                + (now.position(BL) - start.position(BL)) + (now.position(BR) - start.position(BR))) / 4.0;
+    }
+
+    private static double averageVelocity(BulkReadCache.Snapshot encoders) {
+        return (encoders.velocity(FL) + encoders.velocity(FR) + encoders.velocity(BL) + encoders.velocity(BR)) / 4.0;
+    }
+
+    // ========================================
+    // OPERATOR INPUT
+    // ========================================
+
+    /**
+     * Hold still while the operator tapes the distance just driven
+     * @return inches, or NaN if skipped
+     */
+    private double askMeasuredDistance(String test, double encoderInches) {
+        double inches = Math.abs(encoderInches);
+        boolean wasPressed = true;  // ignore buttons still held from before
+        while (opModeIsActive()) {
+            boolean up = gamepad1.dpad_up, down = gamepad1.dpad_down;
+            boolean right = gamepad1.dpad_right, left = gamepad1.dpad_left;
+            boolean accept = gamepad1.a, skip = gamepad1.b;
+            boolean pressed = up || down || right || left || accept || skip;
+            if (pressed && !wasPressed) {
+                if (accept) return inches;
+                if (skip) return Double.NaN;
+                if (up) inches += 0.1;
+                if (down) inches = Math.max(0.0, inches - 0.1);
+                if (right) inches += 1.0;
+                if (left) inches = Math.max(0.0, inches - 1.0);
+            }
+            wasPressed = pressed;
+
+            telemetry.addData("Measure", "How far did the " + test + " move?");
+            telemetry.addData("Encoders say", "%.1f in (current ticks per inch)", Math.abs(encoderInches));
+            telemetry.addData("Measured", "%.1f in", inches);
+            telemetry.addData("Controls", "DPAD up/down 0.1 in, right/left 1 in, A accept, B skip");
+            telemetry.update();
+            pause(20);
+        }
+        return Double.NaN;
+    }
+
+    // ========================================
+    // RESULTS
+    // ========================================
+
+    /**
+     * Solve the fits, show them against the current constants, save on A
+     */
+    private void showResults() {
+        double ticksPerInch = drive.ticksPerInch;
+        String distanceNote = "not measured - kept";
+        if (distance.count() > 0) {
+            ticksPerInch = distance.solve()[0];
+            distanceNote = distance.count() + " run(s)";
+        }
+
+        double kS, kV, kA, rSquared;
+        try {
+            double[] k = feedforward.solve();
+            rSquared = feedforward.rSquared(k);
+            kS = k[0];
+            kV = k[1] * ticksPerInch;
+            kA = k[2] * ticksPerInch;
+        } catch (IllegalStateException e) {
+            telemetry.addData("ERROR", "Feedforward fit failed: " + e.getMessage());
+            telemetry.addData("Info", "Nothing saved - check the log and rerun");
+            telemetry.update();
+            while (opModeIsActive()) pause(50);
+            return;
+        }
+
+        double trackWidth = drive.trackWidth;
+        String turnNote = "not measured - kept";
+        try {
+            trackWidth = 2.0 * turn.solve()[0] / ticksPerInch;
+            turnNote = turn.count() + " samples";
+        } catch (IllegalStateException e) {
+            // robot didn't turn (no IMU?) - keep the current track width
+        }
+
+        DriveConstants fitted = new DriveConstants(ticksPerInch, trackWidth,
+                Math.max(0.0, kS), kV, Math.max(0.0, kA), "fitted");
+        String status = "A = save, B = discard";
+        boolean wasPressed = true;
+        while (opModeIsActive()) {
+            boolean save = gamepad1.a, discard = gamepad1.b;
+            if ((save || discard) && !wasPressed && status.startsWith("A")) {
+                status = discard ? "Discarded" : save(fitted, rSquared);
+            }
+            wasPressed = save || discard;
+
+            telemetry.addData("=== FITTED ===", "(current)");
+            telemetry.addData("Ticks per inch", "%.3f (%.3f) - %s", ticksPerInch, drive.ticksPerInch, distanceNote);
+            telemetry.addData("Track width", "%.2f in (%.2f) - %s", trackWidth, drive.trackWidth, turnNote);
+            telemetry.addData("kS", "%.3f V (%.3f)", fitted.kS, drive.kS);
+            telemetry.addData("kV", "%.4f V/(in/s) (%.4f)", fitted.kV, drive.kV);
+            telemetry.addData("kA", "%.4f V/(in/s^2) (%.4f)", fitted.kA, drive.kA);
+            telemetry.addData("Fit", "R^2 %.4f over %d samples", rSquared, feedforward.count());
+            telemetry.addData("Status", status);
+            telemetry.update();
+            pause(50);
+        }
+    }
+
+    private String save(DriveConstants fitted, double rSquared) {
+        File file = DriveConstants.defaultFile();
+        try {
+            String stamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).format(new Date());
+            fitted.save(file, String.format(Locale.US, "Drive characterization %s, feedforward R^2 %.4f",
+                    stamp, rSquared));
+            return "Saved to " + file.getPath();
+        } catch (IOException e) {
+            return "Save failed: " + e.getMessage();
+        }
+    }
+
+    // ========================================
+    // SAMPLE LOG
+    // ========================================
+
+    private void openLog() {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = Storage.file("drive/characterization-" + stamp + ".csv");
+        try {
+            Storage.createParent(file);
+            log = new BufferedWriter(new FileWriter(file));
+            log.write("test,t,volts,battery,fl,fr,bl,br,vfl,vfr,vbl,vbr,turned\n");
+            logFile = file;
+        } catch (IOException e) {
+            telemetry.addData("WARNING", "Sample log not created: " + e.getMessage());
+            log = null;
+        }
+    }
+
+    private void writeSample(String test, double t, double volts, BulkReadCache.Snapshot encoders, double turned) {
+        if (log == null) return;
+        try {
+            log.write(String.format(Locale.US, "%s,%.4f,%.3f,%.3f,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.5f\n",
+                    test, t, volts, batteryVoltage,
+                    encoders.position(FL), encoders.position(FR), encoders.position(BL), encoders.position(BR),
+                    encoders.velocity(FL), encoders.velocity(FR), encoders.velocity(BL), encoders.velocity(BR),
+                    turned));
+        } catch (IOException e) {
+            telemetry.log().add("Sample log stopped: " + e.getMessage());
+            closeLog();
+        }
+    }
+
+    /**
+     * Push buffered samples to the file between tests, while the robot rests
+     */
+    private void flushLog() {
+        if (log == null) return;
+        try {
+            log.flush();
+        } catch (IOException e) {
+            closeLog();
+        }
+    }
+
+    private void closeLog() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException e) {
+            // nothing left to save
+        }
+        log = null;
+    }
+}
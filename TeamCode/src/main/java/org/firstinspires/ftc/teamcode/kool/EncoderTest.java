@@ -3,8 +3,13 @@ package org.firstinspires.ftc.teamcode.kool;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+import org.firstinspires.ftc.teamcode.utils.DriveConstants;
+import org.firstinspires.ftc.teamcode.utils.MotionProfile;
 
 /**
  * EncoderTest - Comprehensive encoder and IMU testing
@@ -26,26 +31,35 @@ import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
  * - Shows calculated robot position (X, Y, Rotation)
  * - Shows IMU heading
  * - Shows encoder ticks per inch calibration
+ *
+ * Drive constants come from DriveConstants (written by DriveCharacterization,
+ * which extends this OpMode and reuses its hardware setup). Encoders are read
+ * through one BulkReadCache update per loop (index order FL, FR, BL, BR).
  */
 @TeleOp(name = "Encoder Test", group = "Testing")
 public class EncoderTest extends LinearOpMode {
 
     // Motors
-    private DcMotor frontLeft, frontRight, backLeft, backRight;
-    private IMU imu;
+    protected DcMotorEx frontLeft, frontRight, backLeft, backRight;
+    protected IMU imu;
+    protected BulkReadCache bulkReads;
+    protected static final int FL = 0, FR = 1, BL = 2, BR = 3;
 
     // Encoder tracking
     private int flStart = 0, frStart = 0, blStart = 0, brStart = 0;
 
-    // Robot constants (from AutoPathFollower)
-    private static final double TICKS_PER_INCH = 29.9;  // Encoder ticks per inch
-    private static final double WHEEL_DIAMETER = 4.094; // inches
-    private static final double TICKS_PER_REV = 384.5;    // Encoder ticks per revolution
+    // Robot constants (shared with AutoPathFollower) - read at init
+    protected DriveConstants drive;
 
     // Movement parameters
-    private static final double DRIVE_SPEED = 0.5;
     private static final double TURN_SPEED = 0.3;
 
+    // Motion profile limits for DPAD moves (tune to stay below wheel slip)
+    private static final double MAX_VELOCITY = 30.0;       // inches/sec
+    private static final double MAX_ACCELERATION = 40.0;   // inches/sec^2
+    private static final double KP_PROFILE = 5.0;          // (ticks/sec) per tick of position error
+    private static final double SETTLE_TIMEOUT = 1.0;      // seconds allowed after the profile ends
+
     // Display mode
     private boolean continuousDisplay = true;
 
@@ -53,39 +67,7 @@ public class EncoderTest extends LinearOpMode {
     public void runOpMode() {
 
         // Initialize hardware
-        telemetry.addData("Status", "Initializing hardware...");
-        telemetry.update();
-
-        try {
-            frontLeft = hardwareMap.get(DcMotor.class, "frontLeft");
-            frontRight = hardwareMap.get(DcMotor.class, "frontRight");
-            backLeft = hardwareMap.get(DcMotor.class, "backLeft");
-            backRight = hardwareMap.get(DcMotor.class, "backRight");
-            imu = hardwareMap.get(IMU.class, "imu");
-
-            // Set motor directions
-            frontLeft.setDirection(DcMotor.Direction.REVERSE);
-            backLeft.setDirection(DcMotor.Direction.REVERSE);
-            frontRight.setDirection(DcMotor.Direction.FORWARD);
-            backRight.setDirection(DcMotor.Direction.FORWARD);
-
-            // Set zero power behavior to BRAKE
-            frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-            frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-            backLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-            backRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
-
-            // Reset encoders
-            resetEncoders();
-
-            telemetry.addData("Status", "Hardware initialized!");
-            telemetry.addData("Info", "Press START to begin");
-            telemetry.update();
-
-        } catch (Exception e) {
-            telemetry.addData("ERROR", "Failed to initialize hardware");
-            telemetry.addData("Exception", e.getMessage());
-            telemetry.update();
+        if (!initializeHardware()) {
             return;
         }
 
@@ -157,15 +139,72 @@ public class EncoderTest extends LinearOpMode {
         stopAllMotors();
     }
 
+    /**
+     * Map the drive motors and IMU, set directions and brake mode, load the drive constants
+     * @return false (with the reason on telemetry) if anything is missing
+     */
+    protected boolean initializeHardware() {
+        telemetry.addData("Status", "Initializing hardware...");
+        telemetry.update();
+
+        try {
+            frontLeft = hardwareMap.get(DcMotorEx.class, "frontLeft");
+            frontRight = hardwareMap.get(DcMotorEx.class, "frontRight");
+            backLeft = hardwareMap.get(DcMotorEx.class, "backLeft");
+            backRight = hardwareMap.get(DcMotorEx.class, "backRight");
+            imu = hardwareMap.get(IMU.class, "imu");
+
+            // Set motor directions
+            frontLeft.setDirection(DcMotor.Direction.REVERSE);
+            backLeft.setDirection(DcMotor.Direction.REVERSE);
+            frontRight.setDirection(DcMotor.Direction.FORWARD);
+            backRight.setDirection(DcMotor.Direction.FORWARD);
+
+            // Set zero power behavior to BRAKE
+            frontLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+            frontRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+            backLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+            backRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+
+            // Velocity control for profiled moves (setPower still works in this mode)
+            frontLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            frontRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            backLeft.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            backRight.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+
+            // MANUAL bulk caching - one hub read per loop for all four encoders
+            bulkReads = BulkReadCache.fromHardwareMap(hardwareMap,
+                    "frontLeft", "frontRight", "backLeft", "backRight");
+
+            // Reset encoders
+            resetEncoders();
+
+            drive = DriveConstants.load(telemetry);
+            telemetry.addData("Drive Constants", drive.describe());
+
+            telemetry.addData("Status", "Hardware initialized!");
+            telemetry.addData("Info", "Press START to begin");
+            telemetry.update();
+
+        } catch (Exception e) {
+            telemetry.addData("ERROR", "Failed to initialize hardware");
+            telemetry.addData("Exception", e.getMessage());
+            telemetry.update();
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Display current encoder values and calculated position
      */
     private void displayEncoderValues() {
         // Get current encoder positions
-        int fl = frontLeft.getCurrentPosition();
-        int fr = frontRight.getCurrentPosition();
-        int bl = backLeft.getCurrentPosition();
-        int br = backRight.getCurrentPosition();
+        BulkReadCache.Snapshot encoders = bulkReads.update();
+        int fl = encoders.position(FL);
+        int fr = encoders.position(FR);
+        int bl = encoders.position(BL);
+        int br = encoders.position(BR);
 
         // Calculate deltas from start
         int flDelta = fl - flStart;
@@ -176,7 +215,7 @@ public class EncoderTest extends LinearOpMode {
         // Calculate distance traveled (average of all wheels)
         double avgTicks = (Math.abs(flDelta) + Math.abs(frDelta) +
                 Math.abs(blDelta) + Math.abs(brDelta)) / 4.0;
-        double distanceInches = avgTicks / TICKS_PER_INCH;
+        double distanceInches = drive.ticksToInches(avgTicks);
 
         // Get IMU heading
         double heading = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
@@ -195,9 +234,9 @@ public class EncoderTest extends LinearOpMode {
         telemetry.addData("", "");
 
         telemetry.addData("=== CALIBRATION ===", "");
-        telemetry.addData("Ticks per inch", "%.2f", TICKS_PER_INCH);
-        telemetry.addData("Ticks per rev", "%.1f", TICKS_PER_REV);
-        telemetry.addData("Wheel diameter", "%.3f in", WHEEL_DIAMETER);
+        telemetry.addData("Ticks per inch", "%.2f", drive.ticksPerInch);
+        telemetry.addData("Track width", "%.2f in (effective)", drive.trackWidth);
+        telemetry.addData("Feedforward", "kS %.3f  kV %.4f  kA %.4f", drive.kS, drive.kV, drive.kA);
         telemetry.addData("", "");
 
         telemetry.addData("=== CONTROLS ===", "");
@@ -214,12 +253,13 @@ public class EncoderTest extends LinearOpMode {
     /**
      * Reset all encoder values to zero
      */
-    private void resetEncoders() {
+    protected void resetEncoders() {
         // Store current positions as start positions
-        flStart = frontLeft.getCurrentPosition();
-        frStart = frontRight.getCurrentPosition();
-        blStart = backLeft.getCurrentPosition();
-        brStart = backRight.getCurrentPosition();
+        BulkReadCache.Snapshot encoders = bulkReads.update();
+        flStart = encoders.position(FL);
+        frStart = encoders.position(FR);
+        blStart = encoders.position(BL);
+        brStart = encoders.position(BR);
 
         telemetry.addData("Encoders Reset", "Start positions recorded");
         telemetry.update();
@@ -234,54 +274,7 @@ public class EncoderTest extends LinearOpMode {
         telemetry.addData("Action", "Driving %.1f inches", inches);
         telemetry.update();
 
-        // Calculate target encoder ticks
-        int targetTicks = (int)(inches * TICKS_PER_INCH);
-
-        // Record starting positions
-        int flStart = frontLeft.getCurrentPosition();
-        int frStart = frontRight.getCurrentPosition();
-        int blStart = backLeft.getCurrentPosition();
-        int brStart = backRight.getCurrentPosition();
-
-        // Calculate target positions
-        int flTarget = flStart + targetTicks;
-        int frTarget = frStart + targetTicks;
-        int blTarget = blStart + targetTicks;
-        int brTarget = brStart + targetTicks;
-
-        // Set motor powers
-        double speed = inches > 0 ? DRIVE_SPEED : -DRIVE_SPEED;
-        frontLeft.setPower(speed);
-        frontRight.setPower(speed);
-        backLeft.setPower(speed);
-        backRight.setPower(speed);
-
-        // Wait until target reached
-        while (opModeIsActive()) {
-            int flCurrent = frontLeft.getCurrentPosition();
-            int frCurrent = frontRight.getCurrentPosition();
-            int blCurrent = backLeft.getCurrentPosition();
-            int brCurrent = backRight.getCurrentPosition();
-
-            int flRemaining = Math.abs(flTarget - flCurrent);
-            int frRemaining = Math.abs(frTarget - frCurrent);
-            int blRemaining = Math.abs(blTarget - blCurrent);
-            int brRemaining = Math.abs(brTarget - brCurrent);
-
-            int avgRemaining = (flRemaining + frRemaining + blRemaining + brRemaining) / 4;
-
-            if (avgRemaining < 50) {  // Within 50 ticks of target
-                break;
-            }
-
-            telemetry.addData("Target", "%d ticks (%.1f inches)", targetTicks, inches);
-            telemetry.addData("Remaining", "%d ticks", avgRemaining);
-            telemetry.update();
-
-            sleep(10);
-        }
-
-        stopAllMotors();
+        followProfile(inches, 1, 1, 1, 1);
 
         telemetry.addData("Complete", "Drove %.1f inches", inches);
         telemetry.update();
@@ -295,47 +288,64 @@ public class EncoderTest extends LinearOpMode {
         telemetry.addData("Action", "Strafing %.1f inches", inches);
         telemetry.update();
 
-        // Calculate target encoder ticks
-        int targetTicks = (int)(inches * TICKS_PER_INCH);
+        // For strafing: FL and BR move opposite to FR and BL
+        followProfile(inches, 1, -1, -1, 1);
+
+        telemetry.addData("Complete", "Strafed %.1f inches", inches);
+        telemetry.update();
+    }
+
+    /**
+     * Run a trapezoidal motion profile on all four wheels
+     * Each wheel tracks the profile velocity (feedforward) plus a position correction.
+     * @param inches Distance along the move
+     * @param flSign Direction of each wheel for this move (+1 / -1)
+     */
+    private void followProfile(double inches, int flSign, int frSign, int blSign, int brSign) {
+        // Profile is precomputed once, then sampled every loop
+        MotionProfile profile = new MotionProfile(inches * drive.ticksPerInch,
+                MAX_VELOCITY * drive.ticksPerInch, MAX_ACCELERATION * drive.ticksPerInch);
+        int targetTicks = (int) profile.getDistance();
 
         // Record starting positions
-        int flStart = frontLeft.getCurrentPosition();
-        int frStart = frontRight.getCurrentPosition();
-        int blStart = backLeft.getCurrentPosition();
-        int brStart = backRight.getCurrentPosition();
+        BulkReadCache.Snapshot encoders = bulkReads.update();
+        int flStart = encoders.position(FL);
+        int frStart = encoders.position(FR);
+        int blStart = encoders.position(BL);
+        int brStart = encoders.position(BR);
 
-        // For strafing: FL and BR move opposite to FR and BL
-        int flTarget = flStart + targetTicks;
-        int frTarget = frStart - targetTicks;
-        int blTarget = blStart - targetTicks;
-        int brTarget = brStart + targetTicks;
-
-        // Set motor powers
-        double speed = inches > 0 ? DRIVE_SPEED : -DRIVE_SPEED;
-        frontLeft.setPower(speed);
-        frontRight.setPower(-speed);
-        backLeft.setPower(-speed);
-        backRight.setPower(speed);
+        ElapsedTime timer = new ElapsedTime();
 
         // Wait until target reached
         while (opModeIsActive()) {
-            int flCurrent = frontLeft.getCurrentPosition();
-            int frCurrent = frontRight.getCurrentPosition();
-            int blCurrent = backLeft.getCurrentPosition();
-            int brCurrent = backRight.getCurrentPosition();
+            double t = timer.seconds();
 
-            int flRemaining = Math.abs(flTarget - flCurrent);
-            int frRemaining = Math.abs(frTarget - frCurrent);
-            int blRemaining = Math.abs(blTarget - blCurrent);
-            int brRemaining = Math.abs(brTarget - brCurrent);
+            // Progress along the move, each wheel flipped into the move's direction
+            encoders = bulkReads.update();
+            int flTravel = flSign * (encoders.position(FL) - flStart);
+            int frTravel = frSign * (encoders.position(FR) - frStart);
+            int blTravel = blSign * (encoders.position(BL) - blStart);
+            int brTravel = brSign * (encoders.position(BR) - brStart);
 
-            int avgRemaining = (flRemaining + frRemaining + blRemaining + brRemaining) / 4;
+            int avgRemaining = (Math.abs(targetTicks - flTravel) + Math.abs(targetTicks - frTravel) +
+                    Math.abs(targetTicks - blTravel) + Math.abs(targetTicks - brTravel)) / 4;
 
-            if (avgRemaining < 50) {  // Within 50 ticks of target
+            if (profile.isFinished(t) && avgRemaining < 50) {  // Within 50 ticks of target
                 break;
             }
+            if (t > profile.getTotalTime() + SETTLE_TIMEOUT) {
+                break;
+            }
+
+            double setpoint = profile.position(t);
+            double feedforward = profile.velocity(t);
+            frontLeft.setVelocity(flSign * (feedforward + KP_PROFILE * (setpoint - flTravel)));
+            frontRight.setVelocity(frSign * (feedforward + KP_PROFILE * (setpoint - frTravel)));
+            backLeft.setVelocity(blSign * (feedforward + KP_PROFILE * (setpoint - blTravel)));
+            backRight.setVelocity(brSign * (feedforward + KP_PROFILE * (setpoint - brTravel)));
 
             telemetry.addData("Target", "%d ticks (%.1f inches)", targetTicks, inches);
+            telemetry.addData("Setpoint", "%.0f ticks @ %.0f ticks/s", setpoint, feedforward);
             telemetry.addData("Remaining", "%d ticks", avgRemaining);
             telemetry.update();
 
@@ -343,9 +353,6 @@ public class EncoderTest extends LinearOpMode {
         }
 
         stopAllMotors();
-
-        telemetry.addData("Complete", "Strafed %.1f inches", inches);
-        telemetry.update();
     }
 
     /**
@@ -437,7 +444,7 @@ public class EncoderTest extends LinearOpMode {
     /**
      * Stop all motors
      */
-    private void stopAllMotors() {
+    protected void stopAllMotors() {
         frontLeft.setPower(0);
         frontRight.setPower(0);
         backLeft.setPower(0);
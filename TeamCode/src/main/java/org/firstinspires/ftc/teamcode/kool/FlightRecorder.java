@@ -0,0 +1,292 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.utils.BulkReadCache;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.GamepadBindings;
+import org.firstinspires.ftc.teamcode.utils.LoopTimer;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * FlightRecorder - one fixed-size binary record per control loop, written into
+ * a memory-mapped file on the Robot Controller
+ *
+ * The file is created at full size and every page is touched at init, so
+ * record() is a handful of stores into memory - no allocation, no system call,
+ * nothing that waits on storage. The kernel writes the pages back on its own;
+ * the record count in the header is updated after each record, so a crash or
+ * a force-stop still leaves a readable file up to the last complete loop.
+ *
+ * capacityFor() sizes the file for a whole match period at the loop rate the
+ * OpMode's last timing report measured, so the endgame isn't the part dropped.
+ * Opening a log deletes all but the newest KEEP_LOGS of the same OpMode.
+ *
+ * AutoPathFollower fills in the pose and path fields, Typeshi the mechanism
+ * powers and gamepads; whatever a recorder doesn't use stays 0. A record holds
+ * every input a loop read and every output it wrote, so sim/Replayer can feed
+ * a log back through the code and diff the outputs.
+ *
+ * Pull the files and turn them into CSV on a laptop:
+ *     adb pull /sdcard/FIRST/flightlogs
+ *     python3 flightlog.py flightlogs/AutoPathFollower-20250101-120000.flight
+ *
+ * Layout (little-endian), also documented in tracer/flightlog.py:
+ *     header  64 bytes   magic "WOFR", u16 version, u16 record bytes,
+ *                        i32 capacity, i32 record count, i64 start wall clock ms,
+ *                        i32 dropped records, i32 function name count,
+ *                        32 bytes recording OpMode name (UTF-8, zero padded)
+ *     names   u16 byte length + UTF-8 bytes per path function, up to RECORDS_OFFSET
+ *     records RECORD_BYTES each, starting at RECORDS_OFFSET:
+ *             i64 nanos since open,
+ *             i32 encoder ticks FL, FR, BL, BR,
+ *             f32 commanded power FL, FR, BL, BR,
+ *             f32 heading (rad), f32 x, f32 y, f32 target x, f32 target y (inches),
+ *             i16 waypoint, i16 active function (-1 = none),
+ *             f32 commanded power intake, outtake, outtake2,
+ *             u16 gamepad1 buttons, u16 gamepad2 buttons (GamepadBindings.heldButtons),
+ *             f32 gamepad1 axes x6, gamepad2 axes x6 (GamepadBindings axis order)
+ * Version 1 files are the first 64 bytes of each record only.
+ */
+public class FlightRecorder {
+
+    private static final int MAGIC = 0x52464F57;   // "WOFR" read little-endian
+    private static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORDS_OFFSET = 4096;        // names fit before the first record page
+    public static final int RECORD_BYTES = 128;
+    public static final int MIN_CAPACITY = 4096;           // 512 KB
+    public static final int MAX_CAPACITY = 131072;         // 16 MB
+    public static final double DEFAULT_LOOP_HZ = 200.0;    // until a timing report says otherwise
+    public static final double AUTO_SECONDS = 30.0;        // match periods
+    public static final double TELEOP_SECONDS = 120.0;
+    public static final int KEEP_LOGS = 10;                // per OpMode
+    private static final double CAPACITY_MARGIN = 1.25;    // loops run faster while nothing moves
+    public static final int MECHANISMS = 3;                // intake, outtake, outtake2
+    private static final int SOURCE_OFFSET = 32;
+    private static final int SOURCE_BYTES = 32;
+    private static final int PAGE_BYTES = 4096;
+
+    // Header fields rewritten while recording
+    private static final int COUNT_OFFSET = 12;
+    private static final int DROPPED_OFFSET = 24;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long startNanos;
+    private int count = 0;
+    private int dropped = 0;
+    private boolean closed = false;
+
+    private FlightRecorder(File file, RandomAccessFile raf, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.raf = raf;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.startNanos = Clock.nanoTime();
+    }
+
+    /**
+     * Where an OpMode records a run: /sdcard/FIRST/flightlogs/name-yyyyMMdd-HHmmss.flight
+     */
+    public static File defaultFile(String name) {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        return Storage.file("flightlogs/" + name + "-" + stamp + ".flight");
+    }
+
+    /**
+     * Records for a period of seconds at the loop rate LoopTimer last measured for
+     * source (DEFAULT_LOOP_HZ if it has no report yet), with some margin
+     */
+    public static int capacityFor(String source, double seconds) {
+        double hz = LoopTimer.lastLoopRate(source);
+        if (hz <= 0) hz = DEFAULT_LOOP_HZ;
+        double records = Math.ceil(seconds * hz * CAPACITY_MARGIN);
+        return (int) Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, records));
+    }
+
+    /**
+     * Create the file at full size, write the header and function names, and
+     * fault in every page now so the first loops don't pay for it. Older logs
+     * of the same source in that folder beyond KEEP_LOGS are deleted first.
+     * @param source name of the recording OpMode, kept in the header
+     * @param functions path functions - records refer to them by index
+     * @param capacity records before the rest are dropped (capacityFor)
+     */
+    public static FlightRecorder open(File file, String source, AutoData.FunctionData[] functions,
+                                      int capacity) throws IOException {
+        Storage.createParent(file);
+        File folder = file.getParentFile();
+        if (folder != null) Storage.prune(folder, source + "-", ".flight", KEEP_LOGS - 1);
+
+        long size = RECORDS_OFFSET + (long) capacity * RECORD_BYTES;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        MappedByteBuffer buffer;
+        try {
+            raf.setLength(size);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int page = 0; page < size; page += PAGE_BYTES) {
+            buffer.put(page, (byte) 0);
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, (short) VERSION);
+        buffer.putShort(6, (short) RECORD_BYTES);
+        buffer.putInt(8, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+        buffer.putLong(16, System.currentTimeMillis());
+        buffer.putInt(DROPPED_OFFSET, 0);
+        buffer.putInt(28, writeNames(buffer, functions));
+        byte[] name = source.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < name.length && i < SOURCE_BYTES; i++) {
+            buffer.put(SOURCE_OFFSET + i, name[i]);
+        }
+
+        return new FlightRecorder(file, raf, buffer, capacity);
+    }
+
+    /**
+     * A log without path functions (TeleOp)
+     */
+    public static FlightRecorder open(File file, String source, int capacity) throws IOException {
+        return open(file, source, new AutoData.FunctionData[0], capacity);
+    }
+
+    /**
+     * Function names in path order, as many as fit before RECORDS_OFFSET
+     */
+    private static int writeNames(ByteBuffer buffer, AutoData.FunctionData[] functions) {
+        int pos = HEADER_BYTES;
+        int written = 0;
+        for (AutoData.FunctionData function : functions) {
+            byte[] name = function.name.getBytes(StandardCharsets.UTF_8);
+            if (pos + 2 + name.length > RECORDS_OFFSET) break;
+            buffer.putShort(pos, (short) name.length);
+            pos += 2;
+            for (byte b : name) {
+                buffer.put(pos++, b);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Append one path-following loop's record. Once the file is full further
+     * records are counted as dropped - the start of the run is the part worth keeping.
+     * @param powers commanded FL, FR, BL, BR power
+     * @param function index into the path's functions(), or -1
+     */
+    public void record(BulkReadCache.Snapshot encoders, double[] powers,
+                       double heading, double x, double y, double targetX, double targetY,
+                       int waypoint, int function) {
+        int base = begin(encoders, powers);
+        if (base < 0) return;
+        buffer.putFloat(base + 40, (float) heading);
+        buffer.putFloat(base + 44, (float) x);
+        buffer.putFloat(base + 48, (float) y);
+        buffer.putFloat(base + 52, (float) targetX);
+        buffer.putFloat(base + 56, (float) targetY);
+        buffer.putShort(base + 60, (short) waypoint);
+        buffer.putShort(base + 62, (short) function);
+        publish();
+    }
+
+    /**
+     * Append one TeleOp loop's record - its inputs (encoders, gamepads) and outputs
+     * @param powers commanded FL, FR, BL, BR power
+     * @param mechanisms commanded intake, outtake, outtake2 power
+     */
+    public void record(BulkReadCache.Snapshot encoders, double[] powers, double[] mechanisms,
+                       GamepadBindings pads) {
+        int base = begin(encoders, powers);
+        if (base < 0) return;
+        buffer.putShort(base + 60, (short) -1);
+        buffer.putShort(base + 62, (short) -1);
+        for (int i = 0; i < MECHANISMS; i++) {
+            buffer.putFloat(base + 64 + i * 4, (float) mechanisms[i]);
+        }
+        buffer.putShort(base + 76, (short) pads.heldButtons(0));
+        buffer.putShort(base + 78, (short) pads.heldButtons(1));
+        for (int i = 0; i < GamepadBindings.AXIS_COUNT; i++) {
+            buffer.putFloat(base + 80 + i * 4, (float) pads.value(i));
+        }
+        publish();
+    }
+
+    /**
+     * Start the next record - time, encoders, drive powers, the rest zeroed
+     * @return its offset, or -1 if it can't be written
+     */
+    private int begin(BulkReadCache.Snapshot encoders, double[] powers) {
+        if (closed) return -1;
+        if (count >= capacity) {
+            buffer.putInt(DROPPED_OFFSET, ++dropped);
+            return -1;
+        }
+
+        int base = RECORDS_OFFSET + count * RECORD_BYTES;
+        buffer.putLong(base, Clock.nanoTime() - startNanos);
+        for (int i = 0; i < 4; i++) {
+            buffer.putInt(base + 8 + i * 4, encoders.position(i));
+            buffer.putFloat(base + 24 + i * 4, (float) powers[i]);
+        }
+        for (int offset = 40; offset < RECORD_BYTES; offset += 8) {
+            buffer.putLong(base + offset, 0L);
+        }
+        return base;
+    }
+
+    /**
+     * Publish the record only once all of it is in place
+     */
+    private void publish() {
+        buffer.putInt(COUNT_OFFSET, ++count);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    public String describe() {
+        return file.getPath();
+    }
+
+    /**
+     * Flush to storage and trim the file to the records written. Call once at
+     * the end of the OpMode; record() does nothing afterwards.
+     */
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            buffer.force();
+            raf.setLength(RECORDS_OFFSET + (long) count * RECORD_BYTES);
+        } finally {
+            raf.close();
+        }
+    }
+}
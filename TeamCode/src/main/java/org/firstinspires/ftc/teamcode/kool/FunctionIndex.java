@@ -0,0 +1,292 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+/**
+ * FunctionIndex - uniform grid over FunctionData positions
+ *
+ * Built once at init. Cells are POSITION_TOLERANCE wide, so a lookup only has to
+ * check the 3x3 block of cells around a point instead of every function. Cell
+ * contents are stored flat (cellStart/entries), and queries write matching
+ * function indices into a caller-supplied array, so lookups never allocate.
+ *
+ * "Near" uses the same square test AutoPathFollower always has:
+ * |dx| < tolerance and |dy| < tolerance.
+ */
+public class FunctionIndex {
+
+    private static final AutoData.FunctionData[] NONE = new AutoData.FunctionData[0];
+
+    private final AutoData.FunctionData[] functions;
+    private final double tolerance;
+
+    // Grid geometry
+    private final double minX, minY;
+    private final int columns, rows;
+
+    // Function indices grouped by cell: cell c holds entries[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] entries;
+
+    public FunctionIndex(AutoData.FunctionData[] functions, double tolerance) {
+        this.functions = functions;
+        this.tolerance = tolerance;
+
+        double loX = Double.MAX_VALUE, loY = Double.MAX_VALUE;
+        double hiX = -Double.MAX_VALUE, hiY = -Double.MAX_VALUE;
+        for (AutoData.FunctionData f : functions) {
+            loX = Math.min(loX, f.x);
+            loY = Math.min(loY, f.y);
+            hiX = Math.max(hiX, f.x);
+            hiY = Math.max(hiY, f.y);
+        }
+        if (functions.length == 0) {
+            loX = loY = hiX = hiY = 0;
+        }
+        minX = loX;
+        minY = loY;
+        columns = (int) ((hiX - loX) / tolerance) + 1;
+        rows = (int) ((hiY - loY) / tolerance) + 1;
+
+        // Counting sort of function indices into cells
+        cellStart = new int[columns * rows + 1];
+        int[] cellOf = new int[functions.length];
+        for (int i = 0; i < functions.length; i++) {
+            cellOf[i] = column(functions[i].x) + row(functions[i].y) * columns;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        entries = new int[functions.length];
+        int[] fill = new int[columns * rows];
+        for (int i = 0; i < functions.length; i++) {
+            int c = cellOf[i];
+            entries[cellStart[c] + fill[c]++] = i;
+        }
+    }
+
+    /**
+     * Indices of all functions within tolerance of (x, y), in AutoData order
+     * @param out receives the indices; must hold at least size() entries
+     * @return number of matches written
+     */
+    public int near(double x, double y, int[] out) {
+        return query(x - tolerance, y - tolerance, x + tolerance, y + tolerance,
+                x, y, x, y, out);
+    }
+
+    /**
+     * Indices of all functions within tolerance of the segment (x0, y0)-(x1, y1)
+     * @return number of matches written to out
+     */
+    public int nearSegment(double x0, double y0, double x1, double y1, int[] out) {
+        return query(Math.min(x0, x1) - tolerance, Math.min(y0, y1) - tolerance,
+                Math.max(x0, x1) + tolerance, Math.max(y0, y1) + tolerance,
+                x0, y0, x1, y1, out);
+    }
+
+    private int query(double loX, double loY, double hiX, double hiY,
+                      double x0, double y0, double x1, double y1, int[] out) {
+        if (functions.length == 0) return 0;
+
+        int c0 = Math.max(0, column(loX)), c1 = Math.min(columns - 1, column(hiX));
+        int r0 = Math.max(0, row(loY)), r1 = Math.min(rows - 1, row(hiY));
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = c + r * columns;
+                for (int e = cellStart[cell]; e < cellStart[cell + 1]; e++) {
+                    int i = entries[e];
+                    if (isNearSegment(functions[i], x0, y0, x1, y1)) {
+                        count = insertSorted(out, count, i);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Square tolerance test against the closest point of the segment
+     */
+    private boolean isNearSegment(AutoData.FunctionData f, double x0, double y0, double x1, double y1) {
+        double sx = x1 - x0;
+        double sy = y1 - y0;
+        double lengthSq = sx * sx + sy * sy;
+        double t = 0.0;
+        if (lengthSq > 1e-12) {
+            t = ((f.x - x0) * sx + (f.y - y0) * sy) / lengthSq;
+            t = Math.max(0.0, Math.min(1.0, t));
+        }
+        return Math.abs(f.x - (x0 + t * sx)) < tolerance && Math.abs(f.y - (y0 + t * sy)) < tolerance;
+    }
+
+    /**
+     * Keep results in AutoData order no matter which cell they came from
+     */
+    private static int insertSorted(int[] out, int count, int value) {
+        int i = count;
+        while (i > 0 && out[i - 1] > value) {
+            out[i] = out[i - 1];
+            i--;
+        }
+        out[i] = value;
+        return count + 1;
+    }
+
+    private int column(double x) {
+        return (int) Math.floor((x - minX) / tolerance);
+    }
+
+    private int row(double y) {
+        return (int) Math.floor((y - minY) / tolerance);
+    }
+
+    /**
+     * Attach every function to the waypoints where it should run.
+     *
+     * Each time the path passes within tolerance of a function counts as one visit,
+     * and the function is attached once per visit - at the closest waypoint of that
+     * visit, not at every half-inch sample that happens to be in range. A function
+     * that sits on a segment between waypoints is attached to the segment's end.
+     *
+     * @return functions per waypoint, in AutoData order; an empty array where there are none
+     */
+    public AutoData.FunctionData[][] assignToWaypoints(PathSource path) {
+        int pointCount = path.pointCount();
+        int[] counts = new int[pointCount];
+
+        // Per function visit tracking
+        boolean[] inVisit = new boolean[functions.length];
+        int[] bestWaypoint = new int[functions.length];
+        double[] bestDistance = new double[functions.length];
+        boolean[] matchedAny = new boolean[functions.length];
+        boolean[] matchedNow = new boolean[functions.length];
+
+        // Functions with a visit in progress - only these can end at the next waypoint
+        int[] open = new int[functions.length];
+        int openCount = 0;
+
+        // Visits found so far, as (function, waypoint) pairs in discovery order
+        int[] visitFunction = new int[Math.max(1, functions.length)];
+        int[] visitWaypoint = new int[Math.max(1, functions.length)];
+        int visits = 0;
+
+        int[] matches = new int[functions.length];
+        for (int p = 0; p <= pointCount; p++) {
+            int n = 0;
+            if (p < pointCount) {
+                n = near(path.pointX(p), path.pointY(p), matches);
+            }
+            for (int k = 0; k < n; k++) {
+                int f = matches[k];
+                matchedNow[f] = true;
+                double d = Math.hypot(functions[f].x - path.pointX(p), functions[f].y - path.pointY(p));
+                if (!inVisit[f] || d < bestDistance[f]) {
+                    bestWaypoint[f] = p;
+                    bestDistance[f] = d;
+                }
+                if (!inVisit[f]) {
+                    inVisit[f] = true;
+                    open[openCount++] = f;
+                }
+                matchedAny[f] = true;
+            }
+            // Close visits for functions that fell out of range at this waypoint
+            int stillOpen = 0;
+            for (int o = 0; o < openCount; o++) {
+                int f = open[o];
+                if (matchedNow[f]) {
+                    open[stillOpen++] = f;
+                    continue;
+                }
+                inVisit[f] = false;
+                if (visits == visitFunction.length) {
+                    visitFunction = grow(visitFunction);
+                    visitWaypoint = grow(visitWaypoint);
+                }
+                visitFunction[visits] = f;
+                visitWaypoint[visits] = bestWaypoint[f];
+                visits++;
+                counts[bestWaypoint[f]]++;
+            }
+            openCount = stillOpen;
+            for (int k = 0; k < n; k++) {
+                matchedNow[matches[k]] = false;
+            }
+        }
+
+        // Functions between waypoints: attach to the end of the first segment that passes them
+        for (int p = 0; p + 1 < pointCount; p++) {
+            int n = nearSegment(path.pointX(p), path.pointY(p), path.pointX(p + 1), path.pointY(p + 1), matches);
+            for (int k = 0; k < n; k++) {
+                int f = matches[k];
+                if (matchedAny[f]) continue;
+                matchedAny[f] = true;
+                if (visits == visitFunction.length) {
+                    visitFunction = grow(visitFunction);
+                    visitWaypoint = grow(visitWaypoint);
+                }
+                visitFunction[visits] = f;
+                visitWaypoint[visits] = p + 1;
+                visits++;
+                counts[p + 1]++;
+            }
+        }
+
+        AutoData.FunctionData[][] byWaypoint = new AutoData.FunctionData[pointCount][];
+        for (int p = 0; p < pointCount; p++) {
+            byWaypoint[p] = counts[p] == 0 ? NONE : new AutoData.FunctionData[counts[p]];
+            counts[p] = 0;
+        }
+
+        // Counting sort of the visits by function (stable, so each function's visits stay in
+        // path order), then fill - every waypoint lists its functions in AutoData order
+        int[] functionStart = new int[functions.length + 1];
+        for (int v = 0; v < visits; v++) {
+            functionStart[visitFunction[v] + 1]++;
+        }
+        for (int f = 0; f < functions.length; f++) {
+            functionStart[f + 1] += functionStart[f];
+        }
+        int[] byFunction = new int[visits];
+        for (int v = 0; v < visits; v++) {
+            byFunction[functionStart[visitFunction[v]]++] = v;
+        }
+        for (int i = 0; i < visits; i++) {
+            int v = byFunction[i];
+            int p = visitWaypoint[v];
+            byWaypoint[p][counts[p]++] = functions[visitFunction[v]];
+        }
+        return byWaypoint;
+    }
+
+    /**
+     * Functions that are not within tolerance of any waypoint or segment - these never run
+     */
+    public int countUnreachable(PathSource path) {
+        boolean[] reached = new boolean[functions.length];
+        int[] matches = new int[functions.length];
+        for (int p = 0; p < path.pointCount(); p++) {
+            int x1 = Math.min(p + 1, path.pointCount() - 1);
+            int n = nearSegment(path.pointX(p), path.pointY(p), path.pointX(x1), path.pointY(x1), matches);
+            for (int k = 0; k < n; k++) {
+                reached[matches[k]] = true;
+            }
+        }
+        int missing = 0;
+        for (boolean r : reached) {
+            if (!r) missing++;
+        }
+        return missing;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] bigger = new int[array.length * 2];
+        System.arraycopy(array, 0, bigger, 0, array.length);
+        return bigger;
+    }
+
+    public int size() {
+        return functions.length;
+    }
+}
@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+/**
+ * PathSource - where AutoPathFollower gets its path and function data
+ *
+ * Points are read by index (no Point object per waypoint), so a path loaded from
+ * a binary file can be read straight out of its buffer. Functions, templates and
+ * the start position are small and handed out as the usual AutoData types.
+ *
+ * Implementations: CompiledPath (AutoData.java) and BinaryPath (pushed .path file).
+ */
+public interface PathSource {
+
+    int pointCount();
+
+    double pointX(int i);
+
+    double pointY(int i);
+
+    AutoData.Position startPosition();
+
+    AutoData.FunctionData[] functions();
+
+    String[] templates();
+
+    /** Short description for telemetry, e.g. the file it came from */
+    String describe();
+}
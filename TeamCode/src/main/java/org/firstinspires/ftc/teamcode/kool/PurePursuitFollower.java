@@ -0,0 +1,243 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.utils.Angles;
+
+/**
+ * PurePursuitFollower - continuous path tracking for AutoPathFollower
+ *
+ * Tracks the path polyline one "leg" at a time. A leg runs from one stop
+ * (a WAIT_TILL waypoint, or the start) to the next stop; every waypoint in between
+ * is driven through without braking. Each update() takes the live robot position,
+ * finds the closest point on the leg, chases a point LOOKAHEAD inches further
+ * along the path and returns a field-frame power vector for the drivetrain.
+ *
+ * Speed only drops near the end of a leg (linear ramp over SLOWDOWN_DISTANCE)
+ * and, a little, through sharp corners.
+ *
+ * Coordinates are field inches, the same frame as AutoData.
+ */
+public class PurePursuitFollower {
+
+    // Default tuning
+    public static final double DEFAULT_LOOKAHEAD = 8.0;            // inches
+    public static final double DEFAULT_MAX_POWER = 0.8;
+    public static final double DEFAULT_MIN_POWER = 0.15;           // enough to overcome friction at the end of a leg
+    public static final double DEFAULT_SLOWDOWN_DISTANCE = 18.0;   // inches before a stop where we start slowing
+    public static final double DEFAULT_ARRIVAL_TOLERANCE = 1.0;    // inches
+    public static final double CORNER_SLOWDOWN = 0.5;              // power lost at a 180 deg turn (scaled linearly)
+
+    // Path geometry (precomputed once)
+    private final double[] xs, ys;
+    private final double[] cumulative;  // distance along the path to each waypoint
+
+    // Tuning
+    private final double lookahead;
+    private final double maxPower;
+    private final double minPower;
+    private final double slowdownDistance;
+    private final double arrivalTolerance;
+
+    // Current leg
+    private int legStart = 0;
+    private int legEnd = 0;
+    private int segment = 0;        // robot is closest to segment [segment, segment + 1]
+    private double progress = 0.0;  // distance along the path of that closest point
+
+    // Latest outputs
+    private double commandX, commandY;
+    private double targetX, targetY;
+    private double remaining;
+
+    public PurePursuitFollower(double[] xs, double[] ys) {
+        this(xs, ys, DEFAULT_LOOKAHEAD, DEFAULT_MAX_POWER, DEFAULT_MIN_POWER,
+                DEFAULT_SLOWDOWN_DISTANCE, DEFAULT_ARRIVAL_TOLERANCE);
+    }
+
+    public PurePursuitFollower(double[] xs, double[] ys, double lookahead, double maxPower,
+                               double minPower, double slowdownDistance, double arrivalTolerance) {
+        if (xs.length != ys.length || xs.length == 0) {
+            throw new IllegalArgumentException("Path needs matching, non-empty x/y arrays");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.lookahead = lookahead;
+        this.maxPower = maxPower;
+        this.minPower = minPower;
+        this.slowdownDistance = slowdownDistance;
+        this.arrivalTolerance = arrivalTolerance;
+
+        cumulative = new double[xs.length];
+        for (int i = 1; i < xs.length; i++) {
+            cumulative[i] = cumulative[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+        }
+    }
+
+    /**
+     * Build a follower with default tuning for a loaded path
+     */
+    public static PurePursuitFollower fromPath(PathSource path) {
+        double[] xs = new double[path.pointCount()];
+        double[] ys = new double[path.pointCount()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = path.pointX(i);
+            ys[i] = path.pointY(i);
+        }
+        return new PurePursuitFollower(xs, ys);
+    }
+
+    /**
+     * Begin tracking the waypoints from..to (inclusive). The robot stops at "to".
+     */
+    public void startLeg(int from, int to) {
+        legStart = from;
+        legEnd = Math.min(to, xs.length - 1);
+        segment = from;
+        progress = cumulative[from];
+        remaining = cumulative[legEnd] - progress;
+        commandX = 0;
+        commandY = 0;
+    }
+
+    /**
+     * Advance the follower with the current robot position.
+     * @return true once the robot is within ARRIVAL_TOLERANCE of the leg end (command is then zero)
+     */
+    public boolean update(double x, double y) {
+        // 1. Closest point on the leg - only ever search forward so the robot can't be
+        //    pulled back to an earlier part of a path that crosses itself
+        double searchLimit = progress + 2 * lookahead;
+        double bestDistance = Double.MAX_VALUE;
+        int bestSegment = segment;
+        double bestProgress = progress;
+
+        for (int i = segment; i < legEnd && cumulative[i] <= searchLimit; i++) {
+            double sx = xs[i + 1] - xs[i];
+            double sy = ys[i + 1] - ys[i];
+            double segLength = cumulative[i + 1] - cumulative[i];
+            double t = 0.0;
+            if (segLength > 1e-9) {
+                t = ((x - xs[i]) * sx + (y - ys[i]) * sy) / (segLength * segLength);
+                t = Math.max(0.0, Math.min(1.0, t));
+            }
+            double d = Math.hypot(x - (xs[i] + t * sx), y - (ys[i] + t * sy));
+            if (d < bestDistance) {
+                bestDistance = d;
+                bestSegment = i;
+                bestProgress = cumulative[i] + t * segLength;
+            }
+        }
+        if (bestProgress >= progress) {
+            segment = bestSegment;
+            progress = bestProgress;
+        }
+        remaining = cumulative[legEnd] - progress;
+
+        // 2. Arrival - close to the end point AND near the end of the leg, so a path
+        //    that loops back through its own end point doesn't finish early
+        double endDx = xs[legEnd] - x;
+        double endDy = ys[legEnd] - y;
+        double endDistance = Math.hypot(endDx, endDy);
+        if (endDistance < arrivalTolerance && remaining < lookahead) {
+            commandX = 0;
+            commandY = 0;
+            targetX = xs[legEnd];
+            targetY = ys[legEnd];
+            return true;
+        }
+
+        // 3. Lookahead point
+        int targetSegment = pointAt(Math.min(progress + lookahead, cumulative[legEnd]));
+        double dx = targetX - x;
+        double dy = targetY - y;
+        double d = Math.hypot(dx, dy);
+        if (d < 1e-6) {
+            dx = endDx;
+            dy = endDy;
+            d = endDistance;
+        }
+
+        // 4. Speed - full power until the stop is near, a little slower through sharp corners
+        double stopDistance = Math.max(remaining, endDistance);
+        double power = maxPower * Math.min(1.0, stopDistance / slowdownDistance);
+        power *= 1.0 - CORNER_SLOWDOWN * turnAngle(segment, targetSegment) / Math.PI;
+        power = Math.max(minPower, power);
+
+        commandX = dx / d * power;
+        commandY = dy / d * power;
+        return false;
+    }
+
+    /**
+     * Set targetX/targetY to the point at distance s along the path
+     * @return segment index containing that point
+     */
+    private int pointAt(double s) {
+        int i = segment;
+        while (i < legEnd - 1 && cumulative[i + 1] < s) {
+            i++;
+        }
+        if (i >= legEnd) {
+            targetX = xs[legEnd];
+            targetY = ys[legEnd];
+            return legEnd;
+        }
+        double segLength = cumulative[i + 1] - cumulative[i];
+        double t = segLength > 1e-9 ? (s - cumulative[i]) / segLength : 1.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+        targetX = xs[i] + t * (xs[i + 1] - xs[i]);
+        targetY = ys[i] + t * (ys[i + 1] - ys[i]);
+        return i;
+    }
+
+    /**
+     * Absolute heading change (radians) between two path segments
+     */
+    private double turnAngle(int from, int to) {
+        if (from >= legEnd || to >= legEnd || from == to) return 0.0;
+        double a1 = Math.atan2(ys[from + 1] - ys[from], xs[from + 1] - xs[from]);
+        double a2 = Math.atan2(ys[to + 1] - ys[to], xs[to + 1] - xs[to]);
+        return Math.abs(Angles.wrap(a2 - a1));
+    }
+
+    /**
+     * Highest waypoint index the robot has driven past on this leg
+     */
+    public int getLastPassedWaypoint() {
+        int i = segment;
+        while (i < legEnd && cumulative[i + 1] <= progress) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Field-frame X power (-1..1) */
+    public double getCommandX() {
+        return commandX;
+    }
+
+    /** Field-frame Y power (-1..1) */
+    public double getCommandY() {
+        return commandY;
+    }
+
+    public double getTargetX() {
+        return targetX;
+    }
+
+    public double getTargetY() {
+        return targetY;
+    }
+
+    /** Path distance left on this leg (inches) */
+    public double getRemaining() {
+        return remaining;
+    }
+
+    public int getLegEnd() {
+        return legEnd;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+}
@@ -1,14 +1,43 @@
 package org.firstinspires.ftc.teamcode.kool;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import org.firstinspires.ftc.robotcore.external.Telemetry;
-import java.lang.reflect.Method;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.FlywheelControl;
+import org.firstinspires.ftc.teamcode.utils.MecanumVelocityControl;
+import org.firstinspires.ftc.teamcode.utils.ShotDetector;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.firstinspires.ftc.teamcode.utils.Tunables;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * RobotFunctions - Soft-coded function dispatcher
- * Automatically finds and calls functions based on AutoData template names
- * Just create methods with the same names as in your AutoData.TEMPLATES array!
+ * Calls functions by the names used in AutoData.TEMPLATES / functions.json.
+ * Create the method, then add one line for it in registerActions()!
+ *
+ * The name -> action table is built once in the constructor, and validate()
+ * checks every name a path uses before the match starts.
+ *
+ * Each function returns an Action - a small state machine that never sleeps.
+ * AutoPathFollower advances it once per control loop, so the drivetrain keeps
+ * holding pose while the mechanism runs.
+ *
+ * Actions may run on executor threads, so they report through the StatusRing
+ * (never blocks) instead of touching telemetry; the OpMode's loop drains it.
  *
  * - "RUN_WHILE_MOVING": Function starts at position, robot continues immediately
  * - "WAIT_TILL": Robot waits for function to complete before continuing
@@ -17,21 +46,81 @@ public class RobotFunctions {
 
     private HardwareMap hardwareMap;
     private Telemetry telemetry;
+    private final StatusRing status;
 
     // Hardware components
     private DcMotor intake;
-    private DcMotor outtake;
-    private DcMotor outtake2;
-
-    // State tracking for toggle
-    private boolean intakeRunning = false;
-
-    public RobotFunctions(HardwareMap hardwareMap, Telemetry telemetry) {
+    private DcMotorEx outtake;
+    private DcMotorEx outtake2;
+    private FlywheelControl flywheel;   // holds outtake/outtake2 at SHOT_SPEED
+    private final ShotDetector shotDetector = new ShotDetector();
+
+    // Score traces kept in memory during the match, written by saveShotTraces() at stop
+    private static final int MAX_SHOT_TRACES = 8;        // per run - later scores aren't kept
+    private static final int KEEP_SHOT_TRACE_FILES = 40; // in /sdcard/FIRST/shots, oldest deleted
+    private final ShotDetector.Trace[] shotTraces = new ShotDetector.Trace[MAX_SHOT_TRACES];
+    private final long[] shotTraceWallMs = new long[MAX_SHOT_TRACES];
+    private int shotTraceCount = 0;                      // guarded by shotTraces
+    private boolean readCurrent = true; // off once the outtake's controller says it can't
+
+    // State tracking for toggle - written from background actions too, so
+    // every read-modify-write of it holds intakeLock
+    private volatile boolean intakeRunning = false;
+    private final Object intakeLock = new Object();
+
+    // The score or outtake action driving the flywheel and shot detector - neither is
+    // thread-safe, so only this action touches them; a second one is skipped
+    private Action shooterOwner = null;                  // guarded by shooterLock
+    private final Object shooterLock = new Object();
+
+    // Shooter - outtake turns at SHOT_SPEED of the configured motor's free speed (0.9 = 5400 rpm
+    // on a 6000 rpm motor) in the old -1.0 power direction, outtake2 at 99% of that.
+    // Public so AutoDecodeSimple shoots from the same tuning
+    public static final Tunables.Number SHOT_SPEED =
+            Tunables.number("RobotFunctions.SHOT_SPEED", 0.9, 0.0, 1.0);
+    private static final double OUTTAKE2_RATIO = 0.99;
+    public static final Tunables.Number SHOTS_PER_SCORE =
+            Tunables.number("RobotFunctions.SHOTS_PER_SCORE", 3.0, 1.0, 10.0);  // score ends once this many are seen
+
+    // Action timing
+    public static final long SPIN_UP_TIMEOUT_MS = 1500; // feed anyway if the flywheel isn't at speed by then
+    private static final long FEED_MS = 1500;            // longest feed if the shots aren't all seen - adjust as needed
+    public static final long CLEAR_MS = 150;             // after the last shot, for the artifact to leave the wheel
+    private static final long OUTTAKE_MS = 1000;
+    private static final long PARK_SETTLE_MS = 500;
+    private static final long BLOCKING_TICK_MS = 10; // executeFunction() update period
+
+    // Function name -> new action, built once at construction
+    private final Map<String, Supplier<Action>> actions = new HashMap<>();
+
+    public RobotFunctions(HardwareMap hardwareMap, Telemetry telemetry, StatusRing status) {
         this.hardwareMap = hardwareMap;
         this.telemetry = telemetry;
+        this.status = status;
+
+        // Saved tuning (SHOT_SPEED) - see Tunables
+        Tunables.load();
 
         // Initialize hardware
         initializeHardware();
+
+        // Build the dispatch table
+        registerActions();
+
+        for (int i = 0; i < MAX_SHOT_TRACES; i++) {
+            shotTraces[i] = new ShotDetector.Trace();
+        }
+    }
+
+    /**
+     * Every function a path can call, by name.
+     * Add a line here for each new method - the name must match functions.json
+     */
+    private void registerActions() {
+        actions.put("intake", this::intake);
+        actions.put("score", this::score);
+        actions.put("outtake", this::outtake);
+        actions.put("park", this::park);
     }
 
     /**
@@ -40,8 +129,10 @@ public class RobotFunctions {
     private void initializeHardware() {
         try {
             intake = hardwareMap.get(DcMotor.class, "intake");
-            outtake = hardwareMap.get(DcMotor.class, "outtake");
-            outtake2 = hardwareMap.get(DcMotor.class, "outtake2");
+            outtake = hardwareMap.get(DcMotorEx.class, "outtake");
+            outtake2 = hardwareMap.get(DcMotorEx.class, "outtake2");
+            flywheel = FlywheelControl.forConfiguredMotors(MecanumVelocityControl.findBattery(hardwareMap), outtake, outtake2)
+                    .setRatio(1, OUTTAKE2_RATIO);
 
             telemetry.addData("RobotFunctions", "Hardware initialized successfully");
             telemetry.update();
@@ -53,50 +144,72 @@ public class RobotFunctions {
     }
 
     /**
-     * Dynamically execute a function by name using reflection
+     * Check that every template and every function the path uses has an action.
+     * Call at init - a typo in functions.json stops the OpMode before the match
+     * instead of being skipped in the middle of autonomous.
+     * @throws IllegalStateException listing every unknown name
      */
-    public void executeFunction(String functionName) {
-        try {
-            Method method = this.getClass().getDeclaredMethod(functionName);
-            method.setAccessible(true);
-            method.invoke(this);
-
-            telemetry.addData("Function Complete", functionName);
-            telemetry.update();
-
-        } catch (NoSuchMethodException e) {
-            // Function not found - provide helpful error message
-            telemetry.addData("ERROR", "Function '" + functionName + "' not found!");
-            telemetry.addData("Info", "Create a method: public void " + functionName + "() {...}");
-            telemetry.addData("", ""); // Blank line
-            telemetry.addData("Available Templates", "");
-            for (String template : AutoData.TEMPLATES) {
-                telemetry.addData("  - ", template);
+    public void validate(PathSource path) {
+        List<String> missing = new ArrayList<>();
+        for (String template : path.templates()) {
+            if (!actions.containsKey(template) && !missing.contains(template)) {
+                missing.add(template);
             }
-            telemetry.addData("", ""); // Blank line
-            telemetry.addData("WARNING", "Continuing without executing this function");
-            telemetry.update();
-
-            // Sleep to give time to read the error
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
+        }
+        for (AutoData.FunctionData function : path.functions()) {
+            if (!actions.containsKey(function.name) && !missing.contains(function.name)) {
+                missing.add(function.name);
             }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("RobotFunctions has no action for " + missing
+                    + " - create the method and add it in registerActions()");
+        }
+    }
 
-        } catch (Exception e) {
-            // Other errors during function execution
-            telemetry.addData("ERROR", "Failed to execute " + functionName);
-            telemetry.addData("Exception", e.getClass().getSimpleName());
-            telemetry.addData("Message", e.getMessage());
-            telemetry.update();
+    /**
+     * True if a function with this name is registered
+     */
+    public boolean hasFunction(String functionName) {
+        return actions.containsKey(functionName);
+    }
 
-            // Sleep to give time to read the error
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
+    /**
+     * New state machine for a function, or null if no such function is registered
+     */
+    public Action createAction(String functionName) {
+        Supplier<Action> factory = actions.get(functionName);
+        return factory == null ? null : factory.get();
+    }
+
+    /**
+     * Run a function to completion on the calling thread.
+     * For callers without a control loop (background executor, timed fallback) -
+     * AutoPathFollower's main loop uses createAction() and an ActionScheduler instead.
+     * Failures are the caller's to report (ActionExecutor posts FAILED for them).
+     * @throws IllegalStateException if no function has this name
+     * @throws RuntimeException whatever the action threw, after it was cancelled
+     */
+    public void executeFunction(String functionName) {
+        Action action = createAction(functionName);
+        if (action == null) {
+            // validate() should have caught this at init
+            throw new IllegalStateException("no such function");
+        }
+
+        try {
+            action.start(Clock.millis());
+            while (!action.update(Clock.millis())) {
+                Clock.sleep(BLOCKING_TICK_MS);
             }
+
+        } catch (InterruptedException e) {
+            // Keep the flag set - ActionExecutor reports it as cancelled
+            Thread.currentThread().interrupt();
+            action.cancel();
+        } catch (RuntimeException e) {
+            action.cancel();
+            throw e;
         }
     }
 
@@ -109,138 +222,260 @@ public class RobotFunctions {
      * Each call switches the intake state
      * Perfect for RUN_WHILE_MOVING - starts intake and continues
      */
-    public void intake() {
-        if (intakeRunning) {
-            // Turn OFF
-            intake.setPower(0.0);
-            intakeRunning = false;
+    public Action intake() {
+        return new Action() {
+            @Override
+            public void start(long nowMs) {
+                boolean on;
+                synchronized (intakeLock) {
+                    // Two overlapping toggles must flip the state twice, not read the same value
+                    on = !intakeRunning;
+                    intake.setPower(on ? 1.0 : 0.0);
+                    intakeRunning = on;
+                }
+
+                status.post(StatusRing.INFO, "Intake", on ? "ON" : "OFF");
+            }
 
-            telemetry.addData("Intake", "OFF");
-            telemetry.update();
-        } else {
-            // Turn ON
-            intake.setPower(1.0);
-            intakeRunning = true;
+            @Override
+            public boolean update(long nowMs) {
+                return true;
+            }
 
-            telemetry.addData("Intake", "ON");
-            telemetry.update();
-        }
+            @Override
+            public void cancel() {
+            }
+        };
     }
 
     /**
-     * SCORE - Run both intake and outtake motors together
-     * This runs the complete scoring sequence
+     * SCORE - Spin the flywheel up to SHOT_SPEED, then feed with the intake
+     * Feeding starts the moment both outtake motors are at speed (or after
+     * SPIN_UP_TIMEOUT_MS, with a warning). The ShotDetector counts each
+     * artifact from the flywheel's speed dip, and scoring ends CLEAR_MS after
+     * the SHOTS_PER_SCORE-th one - or after FEED_MS, with a warning, if some
+     * were never seen. Each score's speed trace is kept for saveShotTraces().
+     * Skipped, with a warning, while another score or outtake holds the shooter.
      * Best for WAIT_TILL - robot waits for scoring to complete
      */
-    public void score() {
-        telemetry.addData("Function", "Executing score sequence");
-        telemetry.update();
+    public Action score() {
+        return new Action() {
+            private boolean owner;
+            private long spinUpStartMs;
+            private long feedStartMs;
+            private boolean feeding;
+
+            @Override
+            public void start(long nowMs) {
+                owner = claimShooter(this, "Score");
+                if (!owner) return;
+                spinUpStartMs = nowMs;
+                feeding = false;
+                setIntake(0.0);  // nothing goes in until the wheels are up to speed
+                flywheel.setTargetRpm(shotRpm());
+                flywheel.update();
+                status.post(StatusRing.INFO, "Score", "Spinning up");
+            }
 
-        try {
-            // Start all motors for scoring
-            // Intake keeps feeding elements
-            intake.setPower(1.0);
-            // Outtake ejects elements
-            outtake.setPower(-1.0);
-            outtake2.setPower(-0.99);
-
-            telemetry.addData("Score", "All motors running");
-            telemetry.update();
+            @Override
+            public boolean update(long nowMs) {
+                if (!owner) return true;
+                boolean atSpeed = flywheel.update();
+                if (!feeding) {
+                    boolean timedOut = nowMs - spinUpStartMs >= SPIN_UP_TIMEOUT_MS;
+                    if (!atSpeed && !timedOut) return false;
+                    feeding = true;
+                    feedStartMs = nowMs;
+                    shotDetector.reset();
+                    setIntake(1.0);
+                    if (atSpeed) {
+                        status.post(StatusRing.INFO, "Score", "At speed - feeding");
+                    } else {
+                        status.post(StatusRing.WARNING, "Score", "Flywheel not at speed - feeding anyway");
+                    }
+                }
+                shotDetector.update(nowMs, flywheel.getTargetRpm(), flywheel.getMeanRpm(), outtakeCurrent());
+                if (shotDetector.getShots() >= (int) SHOTS_PER_SCORE.get()) {
+                    if (nowMs - shotDetector.getLastShotMs() < CLEAR_MS) return false;
+                    status.post(StatusRing.INFO, "Score", "Every shot seen");
+                } else if (nowMs - feedStartMs < FEED_MS) {
+                    return false;
+                } else {
+                    status.post(StatusRing.WARNING, "Score", "Feed timed out before every shot was seen");
+                }
+                finish();
+                return true;
+            }
 
-            // Run scoring sequence for set duration
-            Thread.sleep(2000); // 2 seconds - adjust as needed
+            @Override
+            public void cancel() {
+                finish();
+            }
 
-            // Stop all motors
-            intake.setPower(0.0);
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
+            private void finish() {
+                if (!owner) return;
+                setIntake(0.0);
+                flywheel.stop();
+                if (feeding) keepShotTrace();
+                owner = false;
+                releaseShooter(this);
+                status.post(StatusRing.INFO, "Score", "Complete - all motors stopped");
+            }
+        };
+    }
 
-            // Update intake state tracking
-            intakeRunning = false;
+    /**
+     * OUTTAKE - Helper function if needed separately
+     * Runs only the outtake motors (not intake), held at SHOT_SPEED.
+     * Skipped, with a warning, while another score or outtake holds the shooter.
+     */
+    public Action outtake() {
+        return new Action() {
+            private boolean owner;
+            private long startMs;
+
+            @Override
+            public void start(long nowMs) {
+                owner = claimShooter(this, "Outtake");
+                if (!owner) return;
+                startMs = nowMs;
+                flywheel.setTargetRpm(shotRpm());
+                flywheel.update();
+                status.post(StatusRing.INFO, "Outtake", "Running");
+            }
 
-            telemetry.addData("Score", "Complete - all motors stopped");
-            telemetry.update();
+            @Override
+            public boolean update(long nowMs) {
+                if (!owner) return true;
+                flywheel.update();
+                if (nowMs - startMs < OUTTAKE_MS) return false;
+                cancel();
+                return true;
+            }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            // Ensure all motors stop on interrupt
-            intake.setPower(0.0);
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
-            intakeRunning = false;
-        } catch (Exception e) {
-            telemetry.addData("Score Error", e.getMessage());
-            telemetry.update();
-            // Ensure all motors stop on error
-            intake.setPower(0.0);
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
-            intakeRunning = false;
-        }
+            @Override
+            public void cancel() {
+                if (!owner) return;
+                flywheel.stop();
+                owner = false;
+                releaseShooter(this);
+                status.post(StatusRing.INFO, "Outtake", "Complete");
+            }
+        };
     }
 
     /**
-     * OUTTAKE - Helper function if needed separately
-     * Runs only outtake motors (not intake)
+     * PARK - Prepare robot for parking
+     * Ensures all mechanisms are stopped and in safe position
      */
-    public void outtake() {
-        telemetry.addData("Function", "Running outtake only");
-        telemetry.update();
+    public Action park() {
+        // Stop everything up front, then give mechanisms time to settle
+        return timed(PARK_SETTLE_MS, this::stopMechanisms, () -> {
+            stopMechanisms();
+            status.post(StatusRing.INFO, "Park", "Complete - Ready for parking");
+        });
+    }
 
-        try {
-            outtake.setPower(-1.0);
-            outtake2.setPower(-0.99);
+    /**
+     * Action that runs begin at start, then end after durationMs (or when cancelled)
+     */
+    private static Action timed(final long durationMs, final Runnable begin, final Runnable end) {
+        return new Action() {
+            private long startMs;
+
+            @Override
+            public void start(long nowMs) {
+                startMs = nowMs;
+                begin.run();
+            }
 
-            Thread.sleep(1000); // Run for 1 second
+            @Override
+            public boolean update(long nowMs) {
+                if (nowMs - startMs < durationMs) return false;
+                end.run();
+                return true;
+            }
 
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
+            @Override
+            public void cancel() {
+                end.run();
+            }
+        };
+    }
 
-            telemetry.addData("Outtake", "Complete");
-            telemetry.update();
+    /**
+     * Make action the only one driving the flywheel and shot detector, until releaseShooter().
+     * @return false, after posting a warning, if another action already holds them
+     */
+    private boolean claimShooter(Action action, String source) {
+        synchronized (shooterLock) {
+            if (shooterOwner == null) {
+                shooterOwner = action;
+                return true;
+            }
+        }
+        status.post(StatusRing.WARNING, source, "Shooter busy - skipped");
+        return false;
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
-        } catch (Exception e) {
-            telemetry.addData("Outtake Error", e.getMessage());
-            telemetry.update();
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
+    private void releaseShooter(Action action) {
+        synchronized (shooterLock) {
+            if (shooterOwner == action) shooterOwner = null;
         }
     }
 
     /**
-     * PARK - Prepare robot for parking
-     * Ensures all mechanisms are stopped and in safe position
+     * Signed shooter target - SHOT_SPEED of the configured motor's free speed, in the old -1.0 direction
      */
-    public void park() {
-        telemetry.addData("Function", "Executing park sequence");
-        telemetry.update();
+    private double shotRpm() {
+        return -SHOT_SPEED.get() * flywheel.getFreeRpm();
+    }
 
+    /**
+     * Outtake motor current for the shot detector, or NaN where the controller can't report it
+     */
+    private double outtakeCurrent() {
+        if (!readCurrent) return Double.NaN;
         try {
-            // Stop all motors
-            intake.setPower(0.0);
-            outtake.setPower(0.0);
-            outtake2.setPower(0.0);
-
-            // Reset state
-            intakeRunning = false;
-
-            // If you have servos or arms, retract them here
-            // Example: armServo.setPosition(RETRACT_POSITION);
-
-            Thread.sleep(500); // Allow time for mechanisms to settle
+            return outtake.getCurrent(CurrentUnit.AMPS);
+        } catch (UnsupportedOperationException e) {
+            readCurrent = false;
+            return Double.NaN;
+        }
+    }
 
-            telemetry.addData("Park", "Complete - Ready for parking");
-            telemetry.update();
+    /**
+     * Copy the last score's speed trace into a preallocated slot - no I/O on the control loop
+     */
+    private void keepShotTrace() {
+        synchronized (shotTraces) {
+            if (shotTraceCount == MAX_SHOT_TRACES) return;
+            shotDetector.copyTrace(shotTraces[shotTraceCount]);
+            shotTraceWallMs[shotTraceCount] = System.currentTimeMillis();
+            shotTraceCount++;
+        }
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            telemetry.addData("Park Error", e.getMessage());
-            telemetry.update();
+    /**
+     * Write the traces kept this run to /sdcard/FIRST/shots/score-<time>-<n>.csv and delete
+     * all but the newest KEEP_SHOT_TRACE_FILES - call once the OpMode is stopping.
+     * Pull them to check a ShotDetector change against real shots (see ShotDetectorTest).
+     * @return how many were written
+     */
+    public int saveShotTraces() throws IOException {
+        synchronized (shotTraces) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS", Locale.US);
+            try {
+                for (int i = 0; i < shotTraceCount; i++) {
+                    String stamp = format.format(new Date(shotTraceWallMs[i]));
+                    shotTraces[i].write(Storage.file("shots/score-" + stamp + "-" + (i + 1) + ".csv"));
+                }
+            } finally {
+                Storage.prune(Storage.file("shots"), "score-", ".csv", KEEP_SHOT_TRACE_FILES);
+            }
+            int written = shotTraceCount;
+            shotTraceCount = 0;
+            return written;
         }
     }
 
@@ -252,13 +487,30 @@ public class RobotFunctions {
      * Stop all motors - emergency stop function
      */
     public void stopAll() {
-        intake.setPower(0.0);
-        outtake.setPower(0.0);
-        outtake2.setPower(0.0);
-        intakeRunning = false;
+        stopMechanisms();
+
+        status.post(StatusRing.INFO, "Status", "All motors stopped");
+    }
 
-        telemetry.addData("Status", "All motors stopped");
-        telemetry.update();
+    private void stopMechanisms() {
+        setIntake(0.0);
+        // A running score or outtake owns the flywheel and stops it when it ends
+        synchronized (shooterLock) {
+            if (shooterOwner == null) flywheel.stop();
+        }
+
+        // If you have servos or arms, retract them here
+        // Example: armServo.setPosition(RETRACT_POSITION);
+    }
+
+    /**
+     * Set intake power and keep intakeRunning in step with it
+     */
+    private void setIntake(double power) {
+        synchronized (intakeLock) {
+            intake.setPower(power);
+            intakeRunning = power != 0.0;
+        }
     }
 
     /**
@@ -272,19 +524,15 @@ public class RobotFunctions {
      * Force intake ON (without toggle)
      */
     public void startIntake() {
-        intake.setPower(1.0);
-        intakeRunning = true;
-        telemetry.addData("Intake", "Started (forced ON)");
-        telemetry.update();
+        setIntake(1.0);
+        status.post(StatusRing.INFO, "Intake", "Started (forced ON)");
     }
 
     /**
      * Force intake OFF (without toggle)
      */
     public void stopIntake() {
-        intake.setPower(0.0);
-        intakeRunning = false;
-        telemetry.addData("Intake", "Stopped (forced OFF)");
-        telemetry.update();
+        setIntake(0.0);
+        status.post(StatusRing.INFO, "Intake", "Stopped (forced OFF)");
     }
 }
\ No newline at end of file
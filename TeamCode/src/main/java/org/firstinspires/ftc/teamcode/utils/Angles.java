@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * Angles - heading arithmetic shared by odometry, the IMU and the followers
+ */
+public final class Angles {
+
+    private Angles() {
+    }
+
+    /**
+     * The same angle in [-pi, pi] (radians) - use on every heading difference,
+     * so a turn across +-180 degrees isn't seen as a near-full turn the other way
+     */
+    public static double wrap(double angle) {
+        while (angle > Math.PI) angle -= 2 * Math.PI;
+        while (angle < -Math.PI) angle += 2 * Math.PI;
+        return angle;
+    }
+}
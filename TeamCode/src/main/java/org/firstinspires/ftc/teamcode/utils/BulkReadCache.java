@@ -0,0 +1,153 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BulkReadCache - one bulk read per control cycle
+ *
+ * Puts every hub in MANUAL bulk-caching mode (see the ConceptMotorBulkRead sample)
+ * and reads all registered encoders once per cycle into an immutable Snapshot.
+ * Call update() exactly once at the top of each loop, then read positions and
+ * velocities from the returned snapshot instead of calling getCurrentPosition().
+ *
+ * NOTE: in MANUAL mode nothing refreshes the cache on its own. Any encoder,
+ * isBusy() or velocity read made before the first update() of a cycle returns
+ * the previous cycle's values.
+ */
+public class BulkReadCache {
+
+    /**
+     * Anything that owns a bulk-read cache. A LynxModule on the robot, a FakeHub off-robot.
+     */
+    public interface Hub {
+        void clearBulkCache();
+    }
+
+    /**
+     * One encoder channel read through its hub's cache.
+     */
+    public interface Encoder {
+        int getCurrentPosition();
+        double getVelocity();
+    }
+
+    private final List<Hub> hubs;
+    private final Encoder[] encoders;
+
+    private Snapshot latest;
+    private long cycle = 0;
+
+    public BulkReadCache(List<Hub> hubs, Encoder... encoders) {
+        this.hubs = hubs;
+        this.encoders = encoders;
+        this.latest = new Snapshot(0, Clock.nanoTime(), new int[encoders.length], new double[encoders.length]);
+    }
+
+    /**
+     * Switch every LynxModule to MANUAL caching and track the named motors, in order.
+     * Snapshot index i is the i-th name passed in.
+     */
+    public static BulkReadCache fromHardwareMap(HardwareMap hardwareMap, String... motorNames) {
+        List<Hub> hubs = new ArrayList<>();
+        for (LynxModule module : hardwareMap.getAll(LynxModule.class)) {
+            module.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+            hubs.add(module::clearBulkCache);
+        }
+
+        Encoder[] encoders = new Encoder[motorNames.length];
+        for (int i = 0; i < motorNames.length; i++) {
+            encoders[i] = wrap(hardwareMap.get(DcMotorEx.class, motorNames[i]));
+        }
+        return new BulkReadCache(hubs, encoders);
+    }
+
+    /**
+     * Adapt a DcMotorEx to the Encoder interface
+     */
+    public static Encoder wrap(final DcMotorEx motor) {
+        return new Encoder() {
+            @Override
+            public int getCurrentPosition() {
+                return motor.getCurrentPosition();
+            }
+
+            @Override
+            public double getVelocity() {
+                return motor.getVelocity();
+            }
+        };
+    }
+
+    /**
+     * Clear every hub cache once, read all encoders and publish a new snapshot.
+     * Call once per loop, before anything else touches motor inputs.
+     */
+    public Snapshot update() {
+        for (Hub hub : hubs) {
+            hub.clearBulkCache();
+        }
+
+        int[] positions = new int[encoders.length];
+        double[] velocities = new double[encoders.length];
+        for (int i = 0; i < encoders.length; i++) {
+            positions[i] = encoders[i].getCurrentPosition();
+            velocities[i] = encoders[i].getVelocity();
+        }
+
+        cycle++;
+        latest = new Snapshot(cycle, Clock.nanoTime(), positions, velocities);
+        return latest;
+    }
+
+    /**
+     * Most recent snapshot, without touching the hardware
+     */
+    public Snapshot latest() {
+        return latest;
+    }
+
+    public int size() {
+        return encoders.length;
+    }
+
+    /**
+     * Encoder state for one control cycle. Never changes after it is published,
+     * so it is safe to hand to other threads or keep for the next cycle's deltas.
+     */
+    public static final class Snapshot {
+        public final long cycle;
+        public final long timestampNanos;
+        private final int[] positions;
+        private final double[] velocities;
+
+        Snapshot(long cycle, long timestampNanos, int[] positions, double[] velocities) {
+            this.cycle = cycle;
+            this.timestampNanos = timestampNanos;
+            this.positions = positions;
+            this.velocities = velocities;
+        }
+
+        /**
+         * Encoder ticks for channel i
+         */
+        public int position(int i) {
+            return positions[i];
+        }
+
+        /**
+         * Encoder velocity for channel i (ticks per second)
+         */
+        public double velocity(int i) {
+            return velocities[i];
+        }
+
+        public int size() {
+            return positions.length;
+        }
+    }
+}
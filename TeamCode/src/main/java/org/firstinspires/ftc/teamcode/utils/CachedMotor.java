@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import java.util.Locale;
+
+/**
+ * CachedMotor - motor output that only talks to the hub when the power changes
+ *
+ * Every setPower() on a real motor is a bus transaction, even when the value is
+ * the same as last loop. This keeps the last commanded power and skips writes
+ * within EPSILON of it (an exact 0 is always sent, so stops are never swallowed).
+ * getPower() returns the commanded power from memory - it never reads the hub.
+ *
+ * Configure the motor itself through motor() at init (direction, zero power
+ * behavior, run mode), then only command it through this wrapper.
+ */
+public class CachedMotor {
+
+    public static final double EPSILON = 0.005;   // power change too small to be worth a write
+
+    private final DcMotor motor;
+    private double commanded = 0.0;
+    private boolean valid = false;                 // false until the first write reaches the hub
+
+    private long writes = 0;
+    private long skipped = 0;
+
+    public CachedMotor(DcMotor motor) {
+        this.motor = motor;
+    }
+
+    /**
+     * Command a power - clipped to [-1, 1], sent only if it changed
+     */
+    public void setPower(double power) {
+        power = Math.max(-1.0, Math.min(1.0, power));
+        if (valid && Math.abs(power - commanded) < EPSILON && (power != 0.0 || commanded == 0.0)) {
+            skipped++;
+            return;
+        }
+        motor.setPower(power);
+        commanded = power;
+        valid = true;
+        writes++;
+    }
+
+    /**
+     * Last power sent to the hub (no hardware read)
+     */
+    public double getPower() {
+        return commanded;
+    }
+
+    /**
+     * Send the next setPower() no matter what (after a mode change or anything
+     * else that may have changed the motor's output behind this wrapper)
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * The wrapped motor, for init-time configuration
+     */
+    public DcMotor motor() {
+        return motor;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Writes sent vs. skipped across a group of motors, e.g. for a stop-time report
+     */
+    public static String report(CachedMotor... motors) {
+        long sent = 0;
+        long saved = 0;
+        for (CachedMotor m : motors) {
+            sent += m.writes;
+            saved += m.skipped;
+        }
+        long total = sent + saved;
+        return String.format(Locale.US, "motor writes: %d sent, %d skipped of %d setPower calls (%.1f%% saved)",
+                sent, saved, total, total == 0 ? 0.0 : 100.0 * saved / total);
+    }
+}
@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * Clock - the one place robot code gets the time from
+ *
+ * On the robot this is System.nanoTime() and Thread.sleep(). The simulator
+ * (sim/SimClock) swaps in virtual time, so an OpMode that reads time and waits
+ * through Clock runs faster than real time and gives the same result every run.
+ * Loops, timeouts and action timers use Clock instead of System.currentTimeMillis().
+ *
+ * millis() is monotonic (derived from nanoTime), not wall-clock time - only
+ * differences between two readings mean anything.
+ */
+public final class Clock {
+
+    /**
+     * Source - where the time comes from
+     */
+    public interface Source {
+        long nanoTime();
+
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    public static final Source SYSTEM = new Source() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    };
+
+    private static volatile Source source = SYSTEM;
+
+    private Clock() {
+    }
+
+    public static long nanoTime() {
+        return source.nanoTime();
+    }
+
+    public static long millis() {
+        return source.nanoTime() / 1000000L;
+    }
+
+    /**
+     * Thread.sleep() on the current clock
+     */
+    public static void sleep(long millis) throws InterruptedException {
+        source.sleep(millis);
+    }
+
+    /**
+     * Replace the time source (null = back to the system clock). Simulator only.
+     */
+    public static void use(Source newSource) {
+        source = newSource == null ? SYSTEM : newSource;
+    }
+}
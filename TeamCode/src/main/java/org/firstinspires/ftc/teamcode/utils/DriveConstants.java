@@ -0,0 +1,139 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * DriveConstants - the one set of drivetrain numbers every drive OpMode uses
+ *
+ * Written by the Drive Characterization OpMode to /sdcard/FIRST/drive/constants.properties
+ * and read at init by AutoPathFollower, EncoderTest and MecanumVelocityControl.
+ * Without a file (or with a bad one) the defaults below are used, which are the
+ * hand-measured values the drive code used to hardcode.
+ *
+ * trackWidth is the effective track width: twice the wheel travel per radian of
+ * turn. On a mecanum drive that is roughly track width + wheelbase, and it is
+ * what Odometry's encoder-only heading and the velocity control's turn rate need.
+ */
+public final class DriveConstants {
+
+    // Defaults - goBILDA 435 rpm (384.5 ticks/rev) on 4.094" mecanum wheels, 14" x 12" wheel spacing
+    public static final double DEFAULT_TICKS_PER_INCH = 384.5 / (4.094 * Math.PI);
+    public static final double DEFAULT_TRACK_WIDTH = 26.0;  // inches, effective (14" track + 12" wheelbase)
+    public static final double DEFAULT_KS = 0.6;            // volts to break static friction
+    public static final double DEFAULT_KV = 0.128;          // volts per inch/sec (~93 in/s free speed at 12 V)
+    public static final double DEFAULT_KA = 0.015;          // volts per inch/sec^2
+
+    private static final String FILE = "drive/constants.properties";
+
+    public final double ticksPerInch;
+    public final double trackWidth;
+    public final double kS, kV, kA;
+    private final String source;
+
+    public DriveConstants(double ticksPerInch, double trackWidth, double kS, double kV, double kA, String source) {
+        this.ticksPerInch = ticksPerInch;
+        this.trackWidth = trackWidth;
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        this.source = source;
+    }
+
+    public static DriveConstants defaults() {
+        return new DriveConstants(DEFAULT_TICKS_PER_INCH, DEFAULT_TRACK_WIDTH,
+                DEFAULT_KS, DEFAULT_KV, DEFAULT_KA, "defaults");
+    }
+
+    /**
+     * Where characterization saves and init loads
+     */
+    public static File defaultFile() {
+        return Storage.file(FILE);
+    }
+
+    /**
+     * Constants from the default file if present and valid, otherwise defaults()
+     */
+    public static DriveConstants load(Telemetry telemetry) {
+        File file = defaultFile();
+        if (file.exists()) {
+            try {
+                return load(file);
+            } catch (IOException e) {
+                telemetry.addData("WARNING", "Drive constants rejected: " + e.getMessage());
+                telemetry.addData("WARNING", "Falling back to default drive constants");
+            }
+        }
+        return defaults();
+    }
+
+    public static DriveConstants load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        DriveConstants constants = new DriveConstants(
+                read(properties, file, "ticksPerInch"),
+                read(properties, file, "trackWidth"),
+                read(properties, file, "kS"),
+                read(properties, file, "kV"),
+                read(properties, file, "kA"),
+                file.getName());
+        if (constants.ticksPerInch <= 0 || constants.trackWidth <= 0 || constants.kV <= 0
+                || constants.kS < 0 || constants.kA < 0) {
+            throw new IOException(file.getName() + " has out-of-range values");
+        }
+        return constants;
+    }
+
+    private static double read(Properties properties, File file, String key) throws IOException {
+        String value = properties.getProperty(key);
+        if (value == null) throw new IOException(file.getName() + " is missing " + key);
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(file.getName() + " has a bad " + key + ": " + value);
+        }
+    }
+
+    /**
+     * Save as a properties file that load() reads back
+     */
+    public void save(File file, String comment) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("ticksPerInch", format(ticksPerInch));
+        properties.setProperty("trackWidth", format(trackWidth));
+        properties.setProperty("kS", format(kS));
+        properties.setProperty("kV", format(kV));
+        properties.setProperty("kA", format(kA));
+
+        Storage.saveProperties(file, properties, comment);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.US, "%.6f", value);
+    }
+
+    public double ticksToInches(double ticks) {
+        return ticks / ticksPerInch;
+    }
+
+    public int inchesToTicks(double inches) {
+        return (int) Math.round(inches * ticksPerInch);
+    }
+
+    /**
+     * Where these came from - "defaults" or the file name
+     */
+    public String describe() {
+        return String.format(Locale.US, "%s (%.2f ticks/in, track %.1f in, kS %.3f kV %.4f kA %.4f)",
+                source, ticksPerInch, trackWidth, kS, kV, kA);
+    }
+}
@@ -0,0 +1,257 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+/**
+ * FlywheelControl - holds shooter motors at a target RPM
+ *
+ * Each motor gets
+ *     volts = kS * sign(rpm) + kV * rpm + PID(rpm - measured)
+ * divided by the battery voltage, with the measured speed from DcMotorEx.getVelocity().
+ * The feedforward alone lands close to the target on any battery; the PID
+ * (VelocityPid, one channel per motor) removes the rest and pulls the wheel back
+ * after each shot. The I term stops integrating while the output is saturated,
+ * so a full-power spin-up doesn't overshoot.
+ *
+ * isAtSpeed() turns true once every motor has been within the tolerance for
+ * the settle time - start feeding then, instead of after a worst-case delay.
+ *
+ * Call update() every loop while the flywheel should spin. The motors are put
+ * in RUN_WITHOUT_ENCODER (the hub's velocity loop would fight this one) and
+ * FLOAT, so stop() lets them coast down.
+ *
+ * Target RPM is signed - it is the direction the motor would turn at positive
+ * power. forConfiguredMotors() takes ticks/rev and free speed from the motor type
+ * picked in the robot configuration, so targets can be set as a fraction of
+ * getFreeRpm(); the defaults are for a goBILDA 5203 6000 rpm bare motor (28 ticks/rev).
+ */
+public class FlywheelControl {
+
+    // Defaults - goBILDA 5203 1:1, 6000 rpm free speed at 12 V
+    public static final double DEFAULT_TICKS_PER_REV = 28.0;
+    public static final double DEFAULT_FREE_RPM = 6000.0;
+    public static final double DEFAULT_KS = 0.3;                 // volts to keep the wheel turning at all
+    public static final double DEFAULT_KP = 0.002;               // volts per rpm of error
+    public static final double DEFAULT_KI = 0.02;                // volts per rpm-second of accumulated error
+    public static final double DEFAULT_KD = 0.0;
+    public static final double DEFAULT_TOLERANCE_RPM = 150.0;    // within this counts as at speed
+    public static final long DEFAULT_SETTLE_MS = 60;             // ...for this long
+
+    private final DcMotorEx[] motors;
+    private final double[] ratio;          // share of the target each motor holds
+    private final double ticksPerRev;
+    private final double freeRpm;
+
+    // Tuning
+    private double kS = DEFAULT_KS, kV;
+    private double toleranceRpm = DEFAULT_TOLERANCE_RPM;
+    private long settleMs = DEFAULT_SETTLE_MS;
+
+    // Feedback and battery, one channel per motor
+    private final VelocityPid pid;
+
+    // State
+    private double targetRpm = 0.0;
+    private final double[] rpm;
+    private final double[] power;
+    private long inToleranceSinceMs = 0;
+    private boolean inTolerance = false;
+    private boolean atSpeed = false;
+
+    /**
+     * @param battery hub voltage sensor (MecanumVelocityControl.findBattery), or null to assume 12 V
+     * @param motors  the shooter motors, all holding the same target unless setRatio() says otherwise
+     */
+    public FlywheelControl(VoltageSensor battery, DcMotorEx... motors) {
+        this(battery, DEFAULT_TICKS_PER_REV, DEFAULT_FREE_RPM, motors);
+    }
+
+    public FlywheelControl(VoltageSensor battery, double ticksPerRev, double freeRpm, DcMotorEx... motors) {
+        if (ticksPerRev <= 0 || freeRpm <= 0) throw new IllegalArgumentException("Motor constants must be positive");
+        if (motors.length == 0) throw new IllegalArgumentException("Need at least one motor");
+        this.motors = motors.clone();
+        this.ticksPerRev = ticksPerRev;
+        this.freeRpm = freeRpm;
+        this.kV = (VelocityPid.NOMINAL_VOLTAGE - kS) / freeRpm;
+
+        int n = motors.length;
+        pid = new VelocityPid(battery, n, DEFAULT_KP, DEFAULT_KI, DEFAULT_KD);
+        ratio = new double[n];
+        rpm = new double[n];
+        power = new double[n];
+        for (int i = 0; i < n; i++) {
+            ratio[i] = 1.0;
+            motors[i].setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            motors[i].setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.FLOAT);
+        }
+    }
+
+    /**
+     * Ticks/rev and free speed from the first motor's configured type (its
+     * MotorConfigurationType), or the defaults if the type doesn't give them
+     */
+    public static FlywheelControl forConfiguredMotors(VoltageSensor battery, DcMotorEx... motors) {
+        if (motors.length == 0) throw new IllegalArgumentException("Need at least one motor");
+        MotorConfigurationType type = motors[0].getMotorType();
+        if (type == null || type.getTicksPerRev() <= 0 || type.getMaxRPM() <= 0) {
+            return new FlywheelControl(battery, motors);
+        }
+        return new FlywheelControl(battery, type.getTicksPerRev(), type.getMaxRPM(), motors);
+    }
+
+    public FlywheelControl setFeedforward(double kS, double kV) {
+        this.kS = kS;
+        this.kV = kV;
+        return this;
+    }
+
+    public FlywheelControl setPid(double kP, double kI, double kD) {
+        pid.setGains(kP, kI, kD);
+        return this;
+    }
+
+    public FlywheelControl setTolerance(double rpm, long settleMs) {
+        this.toleranceRpm = Math.abs(rpm);
+        this.settleMs = Math.max(0, settleMs);
+        return this;
+    }
+
+    /**
+     * Motor i holds ratio * target (e.g. 0.99 to run a second wheel slightly slower)
+     */
+    public FlywheelControl setRatio(int motor, double ratio) {
+        this.ratio[motor] = ratio;
+        return this;
+    }
+
+    // ========================================
+    // COMMANDS
+    // ========================================
+
+    /**
+     * New target; takes effect at the next update(). Changing it clears isAtSpeed().
+     */
+    public void setTargetRpm(double rpm) {
+        if (rpm != targetRpm) {
+            targetRpm = rpm;
+            inTolerance = false;
+            atSpeed = false;
+        }
+    }
+
+    /**
+     * Read the motors and write new powers - call every loop
+     * @return isAtSpeed()
+     */
+    public boolean update() {
+        pid.begin();
+        long nowMs = Clock.millis();
+
+        boolean allInTolerance = targetRpm != 0.0;
+        for (int i = 0; i < motors.length; i++) {
+            double target = targetRpm * ratio[i];
+            rpm[i] = motors[i].getVelocity() * 60.0 / ticksPerRev;
+
+            if (target == 0.0) {
+                pid.reset(i);
+                setPower(i, 0.0);
+                continue;
+            }
+
+            double error = target - rpm[i];
+            double feedforward = kS * Math.signum(target) + kV * target;
+            setPower(i, pid.power(pid.volts(i, feedforward, error)));
+            if (Math.abs(error) > toleranceRpm) allInTolerance = false;
+        }
+
+        if (!allInTolerance) {
+            inTolerance = false;
+            atSpeed = false;
+        } else if (!inTolerance) {
+            inTolerance = true;
+            inToleranceSinceMs = nowMs;
+            atSpeed = settleMs == 0;
+        } else {
+            atSpeed = nowMs - inToleranceSinceMs >= settleMs;
+        }
+        return atSpeed;
+    }
+
+    /**
+     * Cut power and let the wheels coast; clears the target and controller state
+     */
+    public void stop() {
+        targetRpm = 0.0;
+        for (int i = 0; i < motors.length; i++) {
+            power[i] = 0.0;
+            motors[i].setPower(0.0);
+        }
+        pid.reset();
+        inTolerance = false;
+        atSpeed = false;
+    }
+
+    // ========================================
+    // STATUS
+    // ========================================
+
+    /**
+     * True once every motor has held its target within tolerance for the settle time
+     */
+    public boolean isAtSpeed() {
+        return atSpeed;
+    }
+
+    /**
+     * Free speed the feedforward was built for (rpm at 12 V, no load)
+     */
+    public double getFreeRpm() {
+        return freeRpm;
+    }
+
+    public double getTargetRpm() {
+        return targetRpm;
+    }
+
+    /**
+     * Speed of motor i at the last update()
+     */
+    public double getRpm(int motor) {
+        return rpm[motor];
+    }
+
+    /**
+     * Average speed at the last update(), each motor divided by its ratio - directly comparable to the target
+     */
+    public double getMeanRpm() {
+        double sum = 0.0;
+        for (int i = 0; i < rpm.length; i++) {
+            sum += ratio[i] != 0.0 ? rpm[i] / ratio[i] : 0.0;
+        }
+        return sum / rpm.length;
+    }
+
+    public double getPower(int motor) {
+        return power[motor];
+    }
+
+    public double getVoltage() {
+        return pid.getVoltage();
+    }
+
+    // ========================================
+    // CONTROL
+    // ========================================
+
+    /**
+     * Write only when the power changes - each write is a bus transaction
+     */
+    private void setPower(int i, double value) {
+        if (value == power[i]) return;
+        power[i] = value;
+        motors[i].setPower(value);
+    }
+}
@@ -0,0 +1,256 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+/**
+ * GamepadBindings - both gamepads read once per loop, buttons looked up by id
+ *
+ * Button names ("a", "right_bumper", "gamepad2.x", ...) are resolved to bit
+ * positions once at init - an unknown name fails there, not silently mid-match.
+ * update() copies both gamepads into a bitmask plus an axis array, and compares
+ * with the previous loop for edges:
+ *     int shoot = pads.button("right_bumper");   // init
+ *     pads.update();                             // top of loop
+ *     if (pads.wasPressed(shoot)) ...
+ *
+ * Triggers work as buttons too (pressed above TRIGGER_THRESHOLD) or as axes.
+ * Nothing here sleeps - debounce is just "one press = one rising edge".
+ */
+public class GamepadBindings {
+
+    public static final double TRIGGER_THRESHOLD = 0.1;      // trigger counts as pressed above this
+    public static final long DOUBLE_TAP_MS = 300;            // max gap between taps
+
+    // Bit per button within one gamepad; gamepad2 is the same layout shifted by PAD_SHIFT
+    private static final String[] BUTTON_NAMES = {
+            "a", "b", "x", "y",
+            "dpad_up", "dpad_down", "dpad_left", "dpad_right",
+            "left_bumper", "right_bumper", "back", "start", "guide",
+            "left_stick_button", "right_stick_button",
+            "left_trigger", "right_trigger"
+    };
+    private static final int PAD_SHIFT = 32;
+    private static final int STATE_BUTTONS = 0x7FFF;         // bits 0-14 - the trigger bits are derived from the axes
+
+    private static final String[] AXIS_NAMES = {
+            "left_stick_x", "left_stick_y", "right_stick_x", "right_stick_y",
+            "left_trigger", "right_trigger"
+    };
+
+    public static final int AXIS_COUNT = 12;                  // axis ids across both gamepads
+
+    private final Gamepad gamepad1;
+    private final Gamepad gamepad2;
+
+    // Snapshot - rewritten by update(), read by everything else
+    private long held = 0;
+    private long pressed = 0;
+    private long released = 0;
+    private long doubleTapped = 0;
+    private final float[] axes = new float[AXIS_COUNT];
+    private final long[] lastPressNanos = new long[PAD_SHIFT * 2];
+
+    public GamepadBindings(Gamepad gamepad1, Gamepad gamepad2) {
+        this.gamepad1 = gamepad1;
+        this.gamepad2 = gamepad2;
+        for (int i = 0; i < lastPressNanos.length; i++) {
+            lastPressNanos[i] = Long.MIN_VALUE / 2;  // "long ago" without overflowing the subtraction
+        }
+    }
+
+    // ========================================
+    // RESOLVING NAMES (init only)
+    // ========================================
+
+    /**
+     * Button id for a name like "a" or "gamepad2.left_bumper" (gamepad1 if no prefix)
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public int button(String name) {
+        int pad = padOf(name);
+        int index = indexOf(BUTTON_NAMES, stripPad(name));
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown gamepad button: " + name);
+        }
+        return index + pad * PAD_SHIFT;
+    }
+
+    /**
+     * Axis id for a stick or trigger, e.g. "left_stick_y" or "gamepad2.right_trigger"
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public int axis(String name) {
+        int pad = padOf(name);
+        int index = indexOf(AXIS_NAMES, stripPad(name));
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown gamepad axis: " + name);
+        }
+        return index + pad * AXIS_NAMES.length;
+    }
+
+    private static int padOf(String name) {
+        return name.startsWith("gamepad2.") ? 1 : 0;
+    }
+
+    private static String stripPad(String name) {
+        if (name.startsWith("gamepad1.") || name.startsWith("gamepad2.")) {
+            return name.substring("gamepad1.".length());
+        }
+        return name;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    // ========================================
+    // SNAPSHOT (once per loop)
+    // ========================================
+
+    public void update() {
+        update(Clock.nanoTime());
+    }
+
+    public void update(long nowNanos) {
+        long now = readButtons(gamepad1) | (readButtons(gamepad2) << PAD_SHIFT);
+        pressed = now & ~held;
+        released = held & ~now;
+        held = now;
+
+        // Double tap = a rising edge within DOUBLE_TAP_MS of the previous one
+        doubleTapped = 0;
+        long edges = pressed;
+        while (edges != 0) {
+            int bit = Long.numberOfTrailingZeros(edges);
+            edges &= edges - 1;
+            if (nowNanos - lastPressNanos[bit] <= DOUBLE_TAP_MS * 1000000L) {
+                doubleTapped |= 1L << bit;
+                lastPressNanos[bit] = Long.MIN_VALUE / 2;  // a third tap starts a new pair
+            } else {
+                lastPressNanos[bit] = nowNanos;
+            }
+        }
+
+        readAxes(gamepad1, 0);
+        readAxes(gamepad2, AXIS_NAMES.length);
+    }
+
+    /**
+     * Straight-line field reads in BUTTON_NAMES order
+     */
+    private static long readButtons(Gamepad g) {
+        if (g == null) return 0;
+        long bits = 0;
+        if (g.a) bits |= 1L;
+        if (g.b) bits |= 1L << 1;
+        if (g.x) bits |= 1L << 2;
+        if (g.y) bits |= 1L << 3;
+        if (g.dpad_up) bits |= 1L << 4;
+        if (g.dpad_down) bits |= 1L << 5;
+        if (g.dpad_left) bits |= 1L << 6;
+        if (g.dpad_right) bits |= 1L << 7;
+        if (g.left_bumper) bits |= 1L << 8;
+        if (g.right_bumper) bits |= 1L << 9;
+        if (g.back) bits |= 1L << 10;
+        if (g.start) bits |= 1L << 11;
+        if (g.guide) bits |= 1L << 12;
+        if (g.left_stick_button) bits |= 1L << 13;
+        if (g.right_stick_button) bits |= 1L << 14;
+        if (g.left_trigger > TRIGGER_THRESHOLD) bits |= 1L << 15;
+        if (g.right_trigger > TRIGGER_THRESHOLD) bits |= 1L << 16;
+        return bits;
+    }
+
+    /**
+     * Axes in AXIS_NAMES order
+     */
+    private void readAxes(Gamepad g, int offset) {
+        if (g == null) return;
+        axes[offset] = g.left_stick_x;
+        axes[offset + 1] = g.left_stick_y;
+        axes[offset + 2] = g.right_stick_x;
+        axes[offset + 3] = g.right_stick_y;
+        axes[offset + 4] = g.left_trigger;
+        axes[offset + 5] = g.right_trigger;
+    }
+
+    // ========================================
+    // QUERIES (from the last update)
+    // ========================================
+
+    /**
+     * Down right now
+     */
+    public boolean isHeld(int button) {
+        return (held & (1L << button)) != 0;
+    }
+
+    /**
+     * Went down since the last update - fires once per press
+     */
+    public boolean wasPressed(int button) {
+        return (pressed & (1L << button)) != 0;
+    }
+
+    /**
+     * Came up since the last update
+     */
+    public boolean wasReleased(int button) {
+        return (released & (1L << button)) != 0;
+    }
+
+    /**
+     * Second press within DOUBLE_TAP_MS of the first (wasPressed is true as well)
+     */
+    public boolean wasDoubleTapped(int button) {
+        return (doubleTapped & (1L << button)) != 0;
+    }
+
+    public double value(int axis) {
+        return axes[axis];
+    }
+
+    // ========================================
+    // RECORDING AND REPLAY
+    // ========================================
+
+    /**
+     * Held buttons of one gamepad (0 or 1) in BUTTON_NAMES bit order, without the
+     * trigger bits - with value() for every axis, that is the whole input (FlightRecorder)
+     */
+    public int heldButtons(int pad) {
+        return (int) (held >>> (pad * PAD_SHIFT)) & STATE_BUTTONS;
+    }
+
+    /**
+     * Put recorded input back on a Gamepad - the inverse of heldButtons() and
+     * value(), for replaying a flight log through an OpMode
+     * @param axes AXIS_NAMES order, starting at offset
+     */
+    public static void write(Gamepad g, int buttons, float[] axes, int offset) {
+        g.a = (buttons & 1) != 0;
+        g.b = (buttons & (1 << 1)) != 0;
+        g.x = (buttons & (1 << 2)) != 0;
+        g.y = (buttons & (1 << 3)) != 0;
+        g.dpad_up = (buttons & (1 << 4)) != 0;
+        g.dpad_down = (buttons & (1 << 5)) != 0;
+        g.dpad_left = (buttons & (1 << 6)) != 0;
+        g.dpad_right = (buttons & (1 << 7)) != 0;
+        g.left_bumper = (buttons & (1 << 8)) != 0;
+        g.right_bumper = (buttons & (1 << 9)) != 0;
+        g.back = (buttons & (1 << 10)) != 0;
+        g.start = (buttons & (1 << 11)) != 0;
+        g.guide = (buttons & (1 << 12)) != 0;
+        g.left_stick_button = (buttons & (1 << 13)) != 0;
+        g.right_stick_button = (buttons & (1 << 14)) != 0;
+        g.left_stick_x = axes[offset];
+        g.left_stick_y = axes[offset + 1];
+        g.right_stick_x = axes[offset + 2];
+        g.right_stick_y = axes[offset + 3];
+        g.left_trigger = axes[offset + 4];
+        g.right_trigger = axes[offset + 5];
+    }
+}
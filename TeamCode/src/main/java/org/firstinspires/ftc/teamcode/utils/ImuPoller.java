@@ -0,0 +1,248 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+
+/**
+ * ImuPoller - IMU reads on their own thread, heading available without waiting
+ *
+ * An IMU read is an I2C transaction that takes milliseconds. This reads heading
+ * and turn rate on a background thread and publishes each sample as an immutable
+ * Sample through one volatile field - the control loop just picks up the latest
+ * one, never blocking on the bus.
+ *
+ * heading() extrapolates the latest sample to "now" with its turn rate, so the
+ * loop isn't steering with a heading that is one I2C read old.
+ *
+ * Heading is radians, counter-clockwise positive, wrapped to [-pi, pi].
+ *
+ * The simulator replaces the thread with a Scheduler (setScheduler) that polls
+ * on virtual time from its control thread, so simulated runs repeat exactly.
+ */
+public class ImuPoller {
+
+    public static final long POLL_PERIOD_NANOS = 5000000L;           // 200 Hz cap - IMU fusion updates ~100 Hz
+    private static final long MAX_EXTRAPOLATION_NANOS = 50000000L;   // don't project a stale sample further than this
+    private static final long STOP_WAIT_MS = 100;
+
+    /**
+     * Reader - one blocking read of the IMU (runs on the poller thread)
+     */
+    public interface Reader {
+        /** Heading in radians, counter-clockwise positive */
+        double readHeading();
+
+        /** Turn rate in radians/sec, counter-clockwise positive */
+        double readRate();
+    }
+
+    /**
+     * Scheduler - calls poll() on started pollers instead of a thread each
+     */
+    public interface Scheduler {
+        void start(ImuPoller poller);
+
+        void stop(ImuPoller poller);
+    }
+
+    /**
+     * Sample - one IMU reading, never modified after it is published
+     */
+    public static final class Sample {
+        public final double heading;       // radians, before the heading offset
+        public final double rate;          // radians/sec
+        public final long nanos;           // Clock.nanoTime() when the heading was read
+        public final long sequence;        // 0 = no reading yet
+
+        Sample(double heading, double rate, long nanos, long sequence) {
+            this.heading = heading;
+            this.rate = rate;
+            this.nanos = nanos;
+            this.sequence = sequence;
+        }
+    }
+
+    private static volatile Scheduler scheduler = null;   // null = a thread per poller
+
+    private final Reader reader;
+    private volatile Sample latest = new Sample(0.0, 0.0, Clock.nanoTime(), 0);
+    private volatile double headingOffset = 0.0;
+    private volatile long errorCount = 0;
+    private volatile String lastError = null;
+    private long sequence = 1;                // next sample's; only the polling thread touches it
+    private Thread thread;
+    private Scheduler scheduledBy = null;
+
+    public ImuPoller(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Poll a universal IMU (BHI260AP or BNO055 through the IMU interface)
+     */
+    public static ImuPoller forImu(final IMU imu) {
+        return new ImuPoller(new Reader() {
+            @Override
+            public double readHeading() {
+                return imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS);
+            }
+
+            @Override
+            public double readRate() {
+                return imu.getRobotAngularVelocity(AngleUnit.RADIANS).zRotationRate;
+            }
+        });
+    }
+
+    /**
+     * Poll a BNO055 through the legacy driver
+     */
+    public static ImuPoller forBno055(final BNO055IMU imu) {
+        return new ImuPoller(new Reader() {
+            @Override
+            public double readHeading() {
+                return imu.getAngularOrientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.RADIANS).firstAngle;
+            }
+
+            @Override
+            public double readRate() {
+                return imu.getAngularVelocity().toAngleUnit(AngleUnit.RADIANS).zRotationRate;
+            }
+        });
+    }
+
+    // ========================================
+    // THREAD
+    // ========================================
+
+    /**
+     * Take one reading now (so heading() is valid right away), then keep polling
+     */
+    public synchronized void start() {
+        if (thread != null || scheduledBy != null) return;
+        poll();
+        Scheduler current = scheduler;
+        if (current != null) {
+            scheduledBy = current;
+            current.start(this);
+            return;
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    long begin = Clock.nanoTime();
+                    poll();
+                    long rest = POLL_PERIOD_NANOS - (Clock.nanoTime() - begin);
+                    if (rest > 0) {
+                        try {
+                            Clock.sleep((rest + 999999L) / 1000000L);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }, "imu-poller");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop polling - call from the OpMode's stop() / end of runOpMode()
+     */
+    public synchronized void stop() {
+        if (scheduledBy != null) {
+            scheduledBy.stop(this);
+            scheduledBy = null;
+        }
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join(STOP_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Take one reading now, on the calling thread - the poller thread or a Scheduler
+     */
+    public void poll() {
+        try {
+            long before = Clock.nanoTime();
+            double heading = reader.readHeading();
+            long after = Clock.nanoTime();
+            double rate = reader.readRate();
+            // The reading was taken somewhere inside the transaction - call it the middle
+            latest = new Sample(heading, rate, before + (after - before) / 2, sequence++);
+        } catch (RuntimeException e) {
+            // Keep the last good sample; heading() stops extrapolating it after MAX_EXTRAPOLATION
+            errorCount++;
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    // ========================================
+    // READING (any thread, never blocks)
+    // ========================================
+
+    /**
+     * Heading extrapolated to now
+     */
+    public double heading() {
+        return heading(Clock.nanoTime());
+    }
+
+    /**
+     * Heading extrapolated to nowNanos (Clock.nanoTime() clock)
+     */
+    public double heading(long nowNanos) {
+        Sample sample = latest;
+        long age = Math.min(Math.max(nowNanos - sample.nanos, 0), MAX_EXTRAPOLATION_NANOS);
+        return Angles.wrap(sample.heading + headingOffset + sample.rate * age * 1e-9);
+    }
+
+    /**
+     * Turn rate from the latest sample, radians/sec
+     */
+    public double rate() {
+        return latest.rate;
+    }
+
+    /**
+     * Latest raw sample (heading without the offset or extrapolation)
+     */
+    public Sample latest() {
+        return latest;
+    }
+
+    /**
+     * Make the current heading read as the given value - a software yaw reset,
+     * no I2C call, so it is safe while the poller thread is reading
+     */
+    public void setHeading(double heading) {
+        headingOffset = Angles.wrap(heading - latest.heading);
+    }
+
+    /**
+     * Poll with scheduler instead of a thread from the next start() on (null = threads again).
+     * Simulator only.
+     */
+    public static void setScheduler(Scheduler newScheduler) {
+        scheduler = newScheduler;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
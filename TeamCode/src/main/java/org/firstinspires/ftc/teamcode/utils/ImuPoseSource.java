@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * ImuPoseSource - heading from an IMU through an ImuPoller (no position)
+ *
+ * Works for the universal IMU and the legacy BNO055 driver alike - the poller
+ * reads on its own thread, so update() has nothing to do and getHeading() is
+ * the poller's heading extrapolated to the moment of update().
+ */
+public class ImuPoseSource implements PoseSource {
+
+    private final ImuPoller poller;
+    private final String name;
+    private double heading;
+    private double headingVelocity;
+
+    public ImuPoseSource(ImuPoller poller, String name) {
+        this.poller = poller;
+        this.name = name;
+        poller.start();
+        update();
+    }
+
+    @Override
+    public void update() {
+        heading = poller.heading();
+        headingVelocity = poller.rate();
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public boolean hasPosition() {
+        return false;
+    }
+
+    @Override
+    public double getX() {
+        return Double.NaN;
+    }
+
+    @Override
+    public double getY() {
+        return Double.NaN;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        poller.setHeading(heading);
+        update();
+    }
+
+    @Override
+    public String describe() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        poller.stop();
+    }
+}
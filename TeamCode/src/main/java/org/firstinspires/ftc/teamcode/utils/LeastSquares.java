@@ -0,0 +1,116 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * LeastSquares - streaming ordinary least squares, y = b0 * x0 + b1 * x1 + ...
+ *
+ * Only the normal equations (X'X, X'y) and a few sums are kept, so samples can
+ * be added every control loop for as long as a test runs without storing them.
+ * Add a constant 1.0 regressor for an intercept; a single regressor with no
+ * constant is a fit through the origin.
+ *
+ *     LeastSquares fit = new LeastSquares(3);
+ *     fit.add(volts, Math.signum(v), v, a);   // kS, kV, kA
+ *     double[] k = fit.solve();
+ */
+public class LeastSquares {
+
+    private static final double SINGULAR = 1e-12;  // relative pivot size treated as no information
+
+    private final int n;
+    private final double[][] xtx;
+    private final double[] xty;
+    private double sumY, sumYY;
+    private int count = 0;
+
+    public LeastSquares(int parameters) {
+        if (parameters < 1) throw new IllegalArgumentException("Need at least one parameter");
+        n = parameters;
+        xtx = new double[n][n];
+        xty = new double[n];
+    }
+
+    /**
+     * One observation: y and its n regressors
+     */
+    public void add(double y, double... x) {
+        if (x.length != n) throw new IllegalArgumentException("Expected " + n + " regressors, got " + x.length);
+        for (int i = 0; i < n; i++) {
+            xty[i] += x[i] * y;
+            for (int j = i; j < n; j++) {
+                xtx[i][j] += x[i] * x[j];
+            }
+        }
+        sumY += y;
+        sumYY += y * y;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Coefficients minimizing the squared error
+     * @throws IllegalStateException if the samples can't separate the parameters
+     *                               (too few, or a regressor that never varied)
+     */
+    public double[] solve() {
+        if (count < n) throw new IllegalStateException("Need " + n + " samples, have " + count);
+
+        // Gaussian elimination with partial pivoting on a copy of [X'X | X'y]
+        double[][] a = new double[n][n + 1];
+        double scale = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a[i][j] = j >= i ? xtx[i][j] : xtx[j][i];
+            }
+            a[i][n] = xty[i];
+            scale = Math.max(scale, Math.abs(a[i][i]));
+        }
+
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) pivot = row;
+            }
+            if (Math.abs(a[pivot][col]) <= SINGULAR * scale) {
+                throw new IllegalStateException("Parameter " + col + " isn't determined by the samples");
+            }
+            double[] swap = a[col];
+            a[col] = a[pivot];
+            a[pivot] = swap;
+            for (int row = col + 1; row < n; row++) {
+                double factor = a[row][col] / a[col][col];
+                for (int j = col; j <= n; j++) {
+                    a[row][j] -= factor * a[col][j];
+                }
+            }
+        }
+
+        double[] b = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = a[i][n];
+            for (int j = i + 1; j < n; j++) {
+                sum -= a[i][j] * b[j];
+            }
+            b[i] = sum / a[i][i];
+        }
+        return b;
+    }
+
+    /**
+     * Fraction of the variance in y the fit explains (1.0 = perfect)
+     */
+    public double rSquared(double[] b) {
+        // SSE = y'y - 2 b'X'y + b'X'X b, computed from the stored sums
+        double sse = sumYY;
+        for (int i = 0; i < n; i++) {
+            sse -= 2 * b[i] * xty[i];
+            for (int j = 0; j < n; j++) {
+                sse += b[i] * b[j] * (j >= i ? xtx[i][j] : xtx[j][i]);
+            }
+        }
+        double sst = sumYY - sumY * sumY / count;
+        return sst > 0 ? 1.0 - Math.max(0.0, sse) / sst : 1.0;
+    }
+}
@@ -0,0 +1,271 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * LoopTimer - how long each part of a control loop takes
+ *
+ * Declare named phases at init, then in the loop:
+ *     timer.startLoop();
+ *     bulkReads.update();   timer.lap(READ);
+ *     ...math...            timer.lap(MATH);
+ *     ...setPower()...      timer.lap(WRITE);
+ *     dashboard.publish();  timer.lap(TELEMETRY);
+ *     timer.endLoop();
+ *
+ * Every lap goes into a fixed-bucket histogram (no allocation while running).
+ * Two phases are built in: "total" (startLoop to endLoop) and "period" (startLoop
+ * to the next startLoop - the real loop rate, including SDK time between calls).
+ * show() puts p50 / p99 / max on telemetry; writeReport() saves the table at stop.
+ */
+public class LoopTimer {
+
+    public static final int PERIOD = 0;  // built-in phases
+    public static final int TOTAL = 1;
+
+    private static final long SHOW_INTERVAL_NANOS = 250000000L;  // recompute percentiles at 4 Hz
+    private static final String RATE_PREFIX = "loop rate ";
+
+    private final List<String> names = new ArrayList<>();
+    private Histogram[] histograms = new Histogram[0];
+    private int[] slots;
+
+    private long loopStartNanos;
+    private long lapNanos;
+    private boolean ended = false;       // previous loop reached endLoop()
+    private long lastShowNanos;
+    private boolean shownOnce = false;
+
+    public LoopTimer() {
+        phase("period");
+        phase("total");
+    }
+
+    /**
+     * Declare a phase (init only)
+     * @return id to pass to lap()
+     */
+    public int phase(String name) {
+        int id = names.size();
+        names.add(name);
+        Histogram[] bigger = new Histogram[id + 1];
+        System.arraycopy(histograms, 0, bigger, 0, id);
+        bigger[id] = new Histogram();
+        histograms = bigger;
+        return id;
+    }
+
+    // ========================================
+    // TIMING (every loop - no allocation)
+    // ========================================
+
+    /**
+     * Top of the loop. The period since the last startLoop() is only recorded if
+     * that loop reached endLoop() - breaking out of a loop doesn't count the gap.
+     */
+    public void startLoop() {
+        long now = Clock.nanoTime();
+        if (ended) {
+            histograms[PERIOD].record(now - loopStartNanos);
+        }
+        ended = false;
+        loopStartNanos = now;
+        lapNanos = now;
+    }
+
+    /**
+     * Time since the last lap (or startLoop) belongs to this phase
+     */
+    public void lap(int phase) {
+        long now = Clock.nanoTime();
+        histograms[phase].record(now - lapNanos);
+        lapNanos = now;
+    }
+
+    public void endLoop() {
+        long now = Clock.nanoTime();
+        histograms[TOTAL].record(now - loopStartNanos);
+        ended = true;
+    }
+
+    // ========================================
+    // REPORTING
+    // ========================================
+
+    /**
+     * Declare one telemetry line per phase (init only)
+     */
+    public void addTo(TelemetryPublisher dashboard) {
+        slots = new int[names.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = dashboard.add(names.get(i) + " ms", "p50 {2}  p99 {2}  max {2}");
+        }
+    }
+
+    /**
+     * Refresh the telemetry lines - cheap to call every loop, only recomputes at 4 Hz
+     */
+    public void show(TelemetryPublisher dashboard) {
+        long now = Clock.nanoTime();
+        if (shownOnce && now - lastShowNanos < SHOW_INTERVAL_NANOS) return;
+        lastShowNanos = now;
+        shownOnce = true;
+
+        for (int i = 0; i < slots.length; i++) {
+            Histogram h = histograms[i];
+            dashboard.set(slots[i], h.percentile(0.50) / 1000.0, h.percentile(0.99) / 1000.0, h.max() / 1000.0);
+        }
+    }
+
+    public Histogram histogram(int phase) {
+        return histograms[phase];
+    }
+
+    /**
+     * Summary table, one row per phase
+     */
+    public String report(String title) {
+        StringBuilder out = new StringBuilder();
+        out.append("Loop timing - ").append(title).append('\n');
+        out.append(String.format(Locale.US, "%-12s %8s %8s %8s %8s %8s%n",
+                "phase", "count", "p50 ms", "p99 ms", "max ms", "mean ms"));
+        for (int i = 0; i < names.size(); i++) {
+            Histogram h = histograms[i];
+            out.append(String.format(Locale.US, "%-12s %8d %8.2f %8.2f %8.2f %8.2f%n",
+                    names.get(i), h.count(), h.percentile(0.50) / 1000.0, h.percentile(0.99) / 1000.0,
+                    h.max() / 1000.0, h.mean() / 1000.0));
+        }
+        if (histograms[PERIOD].mean() > 0) {
+            out.append(String.format(Locale.US, RATE_PREFIX + "%.1f Hz (mean period)%n",
+                    1000000.0 / histograms[PERIOD].mean()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write report() to a file, creating the folder if needed
+     * @param notes extra lines appended after the table (other counters from the run)
+     */
+    public void writeReport(File file, String title, String... notes) throws IOException {
+        Storage.createParent(file);
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(report(title));
+            for (String note : notes) {
+                writer.write(note);
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * /sdcard/FIRST/looptimes/<name>-<date>-<time>.txt
+     */
+    public static File defaultReportFile(String name) {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        return Storage.file("looptimes/" + name + "-" + stamp + ".txt");
+    }
+
+    /**
+     * Mean loop rate from the newest report defaultReportFile(name) saved
+     * @return Hz, or 0 if there is no report or it has no rate
+     */
+    public static double lastLoopRate(String name) {
+        File[] reports = Storage.list(Storage.file("looptimes"), name + "-", ".txt");
+        if (reports.length == 0) return 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(reports[reports.length - 1]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RATE_PREFIX)) {
+                    return Double.parseDouble(line.substring(RATE_PREFIX.length()).split(" ")[0]);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Histogram - microsecond samples in log-linear buckets
+     *
+     * 1 us buckets below 32 us, then 16 buckets per power of two (within 6.25%)
+     * up to ~18 minutes. Percentiles return the bucket's upper edge, never more
+     * than the exact max.
+     */
+    public static class Histogram {
+        private static final int LINEAR = 32;         // exact buckets for 0..31 us
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int FIRST_EXP = 5;       // log2(LINEAR)
+        private static final int MAX_EXP = 30;        // 2^30 us ~ 18 min
+        static final int BUCKETS = LINEAR + (MAX_EXP - FIRST_EXP + 1) * SUB_COUNT;
+
+        private final long[] counts = new long[BUCKETS];
+        private long count = 0;
+        private long sumNanos = 0;
+        private long maxMicros = 0;
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts[bucketOf(micros)]++;
+            count++;
+            sumNanos += Math.max(0, nanos);
+            if (micros > maxMicros) maxMicros = micros;
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < LINEAR) return (int) micros;
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            if (exp > MAX_EXP) return BUCKETS - 1;
+            int sub = (int) ((micros >>> (exp - SUB_BITS)) & (SUB_COUNT - 1));
+            return LINEAR + (exp - FIRST_EXP) * SUB_COUNT + sub;
+        }
+
+        static long upperEdge(int bucket) {
+            if (bucket < LINEAR) return bucket;
+            int exp = (bucket - LINEAR) / SUB_COUNT + FIRST_EXP;
+            int sub = (bucket - LINEAR) % SUB_COUNT;
+            return ((long) (SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+        }
+
+        /**
+         * @param fraction 0.5 for p50, 0.99 for p99
+         * @return microseconds, 0 if empty
+         */
+        public long percentile(double fraction) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperEdge(i), maxMicros);
+            }
+            return maxMicros;
+        }
+
+        public long max() {
+            return maxMicros;
+        }
+
+        /**
+         * Exact mean in microseconds (not bucketed)
+         */
+        public double mean() {
+            return count == 0 ? 0 : sumNanos / 1000.0 / count;
+        }
+
+        public long count() {
+            return count;
+        }
+    }
+}
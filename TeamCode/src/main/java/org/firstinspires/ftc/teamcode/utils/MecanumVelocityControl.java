@@ -0,0 +1,230 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import java.util.List;
+
+/**
+ * MecanumVelocityControl - chassis velocity commands to wheel powers
+ *
+ * Takes a robot-frame velocity (forward and right in inches/sec, turn in
+ * radians/sec, positive = clockwise like the drive code's turn power), runs it
+ * through mecanum inverse kinematics and drives each wheel with
+ *     volts = kS * sign(v) + kV * v + kA * a + PID(v - measured)
+ * then divides by the battery voltage, so the same command gives the same speed
+ * on a fresh or a sagging battery.
+ *
+ * Wheel speed changes are limited to maxAcceleration (scaled together, so the
+ * direction of travel is kept), and wheel targets are scaled down together when
+ * the battery can't reach them - command anything up to the traction limit and
+ * the robot gets there without wheel slip or an overshoot from a saturated wheel.
+ * The feedback and battery compensation are VelocityPid's, one channel per wheel.
+ *
+ * Measured velocities come from the caller's BulkReadCache snapshot (index order
+ * FL, FR, BL, BR, ticks/sec) so no extra bus reads are made. Pass a null snapshot
+ * when there are no encoders - feedforward alone still gives calibrated speeds.
+ * Run the motors in RUN_WITHOUT_ENCODER: the hub's own velocity loop would fight this one.
+ *
+ * Geometry and kS/kV/kA come from DriveConstants (the characterization file);
+ * the PID gains correct for whatever the feedforward misses. With no
+ * VoltageSensor configured, NOMINAL_VOLTAGE is assumed.
+ */
+public class MecanumVelocityControl {
+
+    public static final int FL = 0, FR = 1, BL = 2, BR = 3;
+
+    // Default tuning
+    public static final double NOMINAL_VOLTAGE = VelocityPid.NOMINAL_VOLTAGE;
+    public static final double DEFAULT_KP = 0.1;                 // volts per inch/sec of wheel speed error
+    public static final double DEFAULT_KI = 1.0;                 // volts per inch of accumulated error
+    public static final double DEFAULT_KD = 0.0;
+    public static final double DEFAULT_MAX_ACCELERATION = 100.0; // inches/sec^2 at the wheel, below slip
+
+    // Geometry
+    private final double ticksPerInch;
+    private final double turnRadius;    // inches of wheel travel per radian of chassis turn
+
+    // Tuning
+    private double kS, kV, kA;
+    private double maxAcceleration = DEFAULT_MAX_ACCELERATION;
+
+    // Feedback and battery, one channel per wheel
+    private final VelocityPid pid;
+
+    // Per-wheel state (inches/sec)
+    private final double[] target = new double[4];      // from inverse kinematics, before limits
+    private final double[] commanded = new double[4];   // after the acceleration limit
+    private final double[] acceleration = new double[4];
+    private final double[] power = new double[4];
+
+    /**
+     * @param battery hub voltage sensor, or null to assume NOMINAL_VOLTAGE
+     * @param drive   ticks per inch, effective track width and feedforward gains
+     */
+    public MecanumVelocityControl(VoltageSensor battery, DriveConstants drive) {
+        if (drive.ticksPerInch <= 0 || drive.trackWidth <= 0) {
+            throw new IllegalArgumentException("Drive geometry must be positive");
+        }
+        this.pid = new VelocityPid(battery, 4, DEFAULT_KP, DEFAULT_KI, DEFAULT_KD);
+        this.ticksPerInch = drive.ticksPerInch;
+        this.turnRadius = drive.trackWidth / 2.0;
+        setFeedforward(drive.kS, drive.kV, drive.kA);
+    }
+
+    /**
+     * First voltage sensor in the hardware map (every hub has one), or null
+     */
+    public static VoltageSensor findBattery(HardwareMap hardwareMap) {
+        List<VoltageSensor> sensors = hardwareMap.getAll(VoltageSensor.class);
+        return sensors.isEmpty() ? null : sensors.get(0);
+    }
+
+    public MecanumVelocityControl setFeedforward(double kS, double kV, double kA) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        return this;
+    }
+
+    public MecanumVelocityControl setPid(double kP, double kI, double kD) {
+        pid.setGains(kP, kI, kD);
+        return this;
+    }
+
+    public MecanumVelocityControl setMaxAcceleration(double inchesPerSecondSquared) {
+        if (inchesPerSecondSquared <= 0) {
+            throw new IllegalArgumentException("Acceleration limit must be positive");
+        }
+        this.maxAcceleration = inchesPerSecondSquared;
+        return this;
+    }
+
+    // ========================================
+    // COMMANDS
+    // ========================================
+
+    /**
+     * Drive toward a chassis velocity, ramping at maxAcceleration
+     * @param encoders this cycle's bulk read (FL, FR, BL, BR), or null for feedforward only
+     */
+    public void drive(BulkReadCache.Snapshot encoders, double forward, double right, double turnRate) {
+        double dt = pid.begin();
+        double scale = inverseKinematics(forward, right, turnRate, target);
+
+        // Limit the largest wheel speed change, scale the rest with it
+        double largestChange = 0.0;
+        for (int i = 0; i < 4; i++) {
+            largestChange = Math.max(largestChange, Math.abs(target[i] * scale - commanded[i]));
+        }
+        double allowed = maxAcceleration * dt;
+        double step = largestChange > allowed ? allowed / largestChange : 1.0;
+        for (int i = 0; i < 4; i++) {
+            double change = (target[i] * scale - commanded[i]) * step;
+            commanded[i] += change;
+            acceleration[i] = dt > 0 ? change / dt : 0.0;
+        }
+        applyControl(encoders);
+    }
+
+    /**
+     * Follow a velocity and acceleration setpoint exactly (from a MotionProfile) -
+     * the profile already respects the acceleration limit
+     */
+    public void driveProfiled(BulkReadCache.Snapshot encoders, double forward, double right, double turnRate,
+                              double forwardAccel, double rightAccel, double turnAccel) {
+        pid.begin();
+        double scale = inverseKinematics(forward, right, turnRate, commanded);
+        for (int i = 0; i < 4; i++) {
+            commanded[i] *= scale;
+        }
+        inverseKinematics(forwardAccel, rightAccel, turnAccel, acceleration);
+        for (int i = 0; i < 4; i++) {
+            acceleration[i] *= scale;
+        }
+        applyControl(encoders);
+    }
+
+    /**
+     * Zero every wheel now (motors brake) and clear the controller state
+     */
+    public void stop() {
+        for (int i = 0; i < 4; i++) {
+            target[i] = 0.0;
+            commanded[i] = 0.0;
+            acceleration[i] = 0.0;
+            power[i] = 0.0;
+        }
+        pid.reset();
+    }
+
+    /**
+     * Motor power for wheel i (FL, FR, BL, BR) from the last drive call
+     */
+    public double getPower(int i) {
+        return power[i];
+    }
+
+    /**
+     * Wheel velocity setpoint for wheel i after the acceleration limit (inches/sec)
+     */
+    public double getWheelVelocity(int i) {
+        return commanded[i];
+    }
+
+    /**
+     * Battery voltage the last powers were scaled by
+     */
+    public double getVoltage() {
+        return pid.getVoltage();
+    }
+
+    /**
+     * Highest wheel speed the battery can hold right now (inches/sec)
+     */
+    public double getMaxWheelVelocity() {
+        return Math.max(0.0, (pid.getVoltage() - kS) / kV);
+    }
+
+    /**
+     * Inches of wheel travel per radian of chassis turn - converts a wheel speed to a turn rate
+     */
+    public double getTurnRadius() {
+        return turnRadius;
+    }
+
+    // ========================================
+    // CONTROL
+    // ========================================
+
+    /**
+     * Wheel speeds for a chassis velocity, written into wheels
+     * @return factor that brings the fastest wheel within getMaxWheelVelocity()
+     */
+    private double inverseKinematics(double forward, double right, double turnRate, double[] wheels) {
+        double turn = turnRate * turnRadius;
+        wheels[FL] = forward + right + turn;
+        wheels[FR] = forward - right - turn;
+        wheels[BL] = forward - right + turn;
+        wheels[BR] = forward + right - turn;
+
+        double fastest = Math.max(Math.max(Math.abs(wheels[FL]), Math.abs(wheels[FR])),
+                Math.max(Math.abs(wheels[BL]), Math.abs(wheels[BR])));
+        double limit = getMaxWheelVelocity();
+        return fastest > limit ? limit / fastest : 1.0;
+    }
+
+    private void applyControl(BulkReadCache.Snapshot encoders) {
+        for (int i = 0; i < 4; i++) {
+            double v = commanded[i];
+            double volts = kS * Math.signum(v) + kV * v + kA * acceleration[i];
+
+            if (encoders != null) {
+                if (v == 0.0) pid.clearIntegral(i);  // stopped - nothing to hold, and no windup at the next start
+                volts = pid.volts(i, volts, v - encoders.velocity(i) / ticksPerInch);
+            }
+
+            power[i] = pid.power(volts);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * MotionProfile - trapezoidal velocity profile for one straight move
+ *
+ * Accelerates at maxAcceleration up to maxVelocity, cruises, then decelerates to
+ * a stop exactly at the target distance. Short moves that never reach
+ * maxVelocity become a triangle. All phase boundaries are computed once in the
+ * constructor, so position/velocity/acceleration at any time t are O(1).
+ *
+ * Units are whatever you pass in (inches + seconds, or ticks + seconds).
+ * Negative distances run the same profile backwards.
+ */
+public class MotionProfile {
+
+    private final double distance;      // signed
+    private final double direction;     // +1 or -1
+    private final double cruiseVelocity;
+    private final double acceleration;
+
+    // Phase end times
+    private final double accelTime;
+    private final double cruiseEndTime;
+    private final double totalTime;
+
+    // Distance covered at the end of the acceleration phase
+    private final double accelDistance;
+
+    public MotionProfile(double distance, double maxVelocity, double maxAcceleration) {
+        if (maxVelocity <= 0 || maxAcceleration <= 0) {
+            throw new IllegalArgumentException("Velocity and acceleration limits must be positive");
+        }
+        this.distance = distance;
+        this.direction = distance < 0 ? -1.0 : 1.0;
+        this.acceleration = maxAcceleration;
+
+        double length = Math.abs(distance);
+
+        // Triangle profile if we can't reach cruise speed before we have to slow down
+        double peakVelocity = Math.sqrt(length * maxAcceleration);
+        cruiseVelocity = Math.min(maxVelocity, peakVelocity);
+
+        accelTime = cruiseVelocity / maxAcceleration;
+        accelDistance = 0.5 * maxAcceleration * accelTime * accelTime;
+        double cruiseDistance = length - 2 * accelDistance;
+        double cruiseTime = cruiseVelocity > 0 ? cruiseDistance / cruiseVelocity : 0.0;
+
+        cruiseEndTime = accelTime + cruiseTime;
+        totalTime = cruiseEndTime + accelTime;
+    }
+
+    /**
+     * Setpoint position at time t (seconds since the move started)
+     */
+    public double position(double t) {
+        double s;
+        if (t <= 0) {
+            s = 0;
+        } else if (t < accelTime) {
+            s = 0.5 * acceleration * t * t;
+        } else if (t < cruiseEndTime) {
+            s = accelDistance + cruiseVelocity * (t - accelTime);
+        } else if (t < totalTime) {
+            double remaining = totalTime - t;
+            s = Math.abs(distance) - 0.5 * acceleration * remaining * remaining;
+        } else {
+            s = Math.abs(distance);
+        }
+        return direction * s;
+    }
+
+    /**
+     * Setpoint velocity at time t
+     */
+    public double velocity(double t) {
+        double v;
+        if (t <= 0 || t >= totalTime) {
+            v = 0;
+        } else if (t < accelTime) {
+            v = acceleration * t;
+        } else if (t < cruiseEndTime) {
+            v = cruiseVelocity;
+        } else {
+            v = acceleration * (totalTime - t);
+        }
+        return direction * v;
+    }
+
+    /**
+     * Setpoint acceleration at time t
+     */
+    public double acceleration(double t) {
+        if (t <= 0 || t >= totalTime) {
+            return 0;
+        } else if (t < accelTime) {
+            return direction * acceleration;
+        } else if (t < cruiseEndTime) {
+            return 0;
+        }
+        return -direction * acceleration;
+    }
+
+    public boolean isFinished(double t) {
+        return t >= totalTime;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    /** Highest speed this profile actually reaches (may be below maxVelocity for short moves) */
+    public double getCruiseVelocity() {
+        return cruiseVelocity;
+    }
+}
@@ -0,0 +1,89 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+/**
+ * OctoQuadPoseSource - OctoQuad absolute localizer (position + heading)
+ *
+ * update() reads the localizer block into a preallocated buffer (see the
+ * SensorOctoQuadLocalization sample). A block that fails its CRC is dropped and
+ * the previous pose kept - getBadPackets() counts them.
+ *
+ * The localizer's frame is X forward / Y left at heading 0, in mm. Ours faces +Y
+ * at heading 0, in inches, so field = (-localizerY, localizerX) / 25.4.
+ */
+public class OctoQuadPoseSource implements PoseSource {
+
+    private static final double MM_PER_INCH = 25.4;
+
+    private final OctoQuad octoquad;
+    private final OctoQuad.LocalizerDataBlock block = new OctoQuad.LocalizerDataBlock();
+    private double x, y, heading, headingVelocity;
+    private long badPackets = 0;
+
+    public OctoQuadPoseSource(OctoQuad octoquad) {
+        this.octoquad = octoquad;
+    }
+
+    @Override
+    public void update() {
+        octoquad.readLocalizerData(block);
+        if (!block.crcOk) {
+            badPackets++;  // corrupted in transit - keep the last good pose
+            return;
+        }
+        x = -block.posY_mm / MM_PER_INCH;
+        y = block.posX_mm / MM_PER_INCH;
+        heading = block.heading_rad;
+        headingVelocity = block.velHeading_radS;
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public boolean hasPosition() {
+        return true;
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        octoquad.setLocalizerPose((int) Math.round(y * MM_PER_INCH), (int) Math.round(-x * MM_PER_INCH), (float) heading);
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /**
+     * Localizer blocks dropped for a bad CRC
+     */
+    public long getBadPackets() {
+        return badPackets;
+    }
+
+    @Override
+    public String describe() {
+        return "OctoQuad";
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,27 +1,176 @@
 package org.firstinspires.ftc.teamcode.utils;
 
+/**
+ * Odometry - incremental mecanum pose estimator
+ *
+ * Pose is field inches (x, y) and heading in radians, CCW positive. At heading 0
+ * the robot faces field +Y, so robot forward is (-sin h, cos h) and robot right
+ * is (cos h, sin h) - the same frame AutoPathFollower drives in.
+ *
+ * update() does no allocation and only a handful of trig calls, so it can run
+ * every loop straight off the BulkReadCache snapshot.
+ */
 public class Odometry {
 
-    // gobilda 312 rpm (19.2:1) motor encoder spec
-    public static final double TICKS_PER_REV = 537.7;
+    // Snapshot index order expected by update(BulkReadCache.Snapshot, ...)
+    public static final int FL = 0, FR = 1, BL = 2, BR = 3;
 
-    // 4-inch wheel
-    public static final double WHEEL_DIAMETER_IN = 4.0;
+    // Mecanum rollers lose some distance when strafing - tune with a measured strafe
+    public static final double DEFAULT_LATERAL_MULTIPLIER = 1.0;
 
-    // precompute circumference
-    public static final double WHEEL_CIRCUMFERENCE_IN = Math.PI * WHEEL_DIAMETER_IN;
+    // ========================================
+    // POSE ESTIMATOR
+    // ========================================
+
+    private final double ticksPerInch;
+    private final double lateralMultiplier;
+    private final double trackWidth;  // effective wheel-to-wheel width, only used without an IMU
+
+    // Pose
+    private double x, y, heading;
+
+    // Previous wheel encoder positions
+    private int lastFL, lastFR, lastBL, lastBR;
+
+    // Last update's robot-frame motion (inches / radians), handy for telemetry and logging
+    private double lastForward, lastRight, lastTurn;
+
+    /**
+     * Estimator for an IMU-equipped drive: heading always comes from the IMU
+     */
+    public Odometry(double ticksPerInch) {
+        this(ticksPerInch, DEFAULT_LATERAL_MULTIPLIER, 0.0);
+    }
+
+    /**
+     * @param ticksPerInch      drive encoder ticks per inch of wheel travel (DriveConstants)
+     * @param lateralMultiplier strafe distance correction (measured / encoder-reported)
+     * @param trackWidth        effective track width in inches for encoder-only heading (0 if IMU only)
+     */
+    public Odometry(double ticksPerInch, double lateralMultiplier, double trackWidth) {
+        this.ticksPerInch = ticksPerInch;
+        this.lateralMultiplier = lateralMultiplier;
+        this.trackWidth = trackWidth;
+    }
+
+    /**
+     * Set the pose and latch the current encoder positions as the zero for the next delta
+     */
+    public void reset(double x, double y, double heading, int fl, int fr, int bl, int br) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        lastFL = fl;
+        lastFR = fr;
+        lastBL = bl;
+        lastBR = br;
+        lastForward = 0;
+        lastRight = 0;
+        lastTurn = 0;
+    }
+
+    public void reset(double x, double y, double heading, BulkReadCache.Snapshot encoders) {
+        reset(x, y, heading, encoders.position(FL), encoders.position(FR),
+                encoders.position(BL), encoders.position(BR));
+    }
+
+    /**
+     * Advance the pose from new encoder positions, using the IMU for heading.
+     * Wheel slip can't corrupt heading this way; encoders only supply translation.
+     */
+    public void update(int fl, int fr, int bl, int br, double imuHeading) {
+        double dTheta = Angles.wrap(imuHeading - heading);
+        integrate(fl, fr, bl, br, dTheta);
+        heading = imuHeading;
+    }
+
+    public void update(BulkReadCache.Snapshot encoders, double imuHeading) {
+        update(encoders.position(FL), encoders.position(FR),
+                encoders.position(BL), encoders.position(BR), imuHeading);
+    }
 
     /**
-     * Convert encoder ticks to linear distance (in inches)
+     * Advance the pose from encoders alone (heading from wheel differences).
+     * Needs a non-zero trackWidth; drifts with wheel slip, so prefer the IMU overload.
      */
-    public static double ticksToInches(int ticks) {
-        return (ticks / TICKS_PER_REV) * WHEEL_CIRCUMFERENCE_IN;
+    public void update(int fl, int fr, int bl, int br) {
+        if (trackWidth <= 0) {
+            throw new IllegalStateException("Encoder-only odometry needs a track width");
+        }
+        // Turn wheel travel: left side forward / right side back is clockwise (negative)
+        double turnInches = ((fl - lastFL) - (fr - lastFR) + (bl - lastBL) - (br - lastBR)) / (4.0 * ticksPerInch);
+        double dTheta = -2.0 * turnInches / trackWidth;
+        integrate(fl, fr, bl, br, dTheta);
+        heading = Angles.wrap(heading + dTheta);
     }
 
     /**
-     * Convert distance (in inches) → ticks
+     * Constant-curvature (pose exponential) step so fast arcs don't cut the corner
      */
-    public static int inchesToTicks(double inches) {
-        return (int) Math.round((inches / WHEEL_CIRCUMFERENCE_IN) * TICKS_PER_REV);
+    private void integrate(int fl, int fr, int bl, int br, double dTheta) {
+        double dFL = (fl - lastFL) / ticksPerInch;
+        double dFR = (fr - lastFR) / ticksPerInch;
+        double dBL = (bl - lastBL) / ticksPerInch;
+        double dBR = (br - lastBR) / ticksPerInch;
+        lastFL = fl;
+        lastFR = fr;
+        lastBL = bl;
+        lastBR = br;
+
+        // Mecanum forward kinematics (matches FL = axial + lateral + yaw, etc.)
+        double forward = (dFL + dFR + dBL + dBR) / 4.0;
+        double right = (dFL - dFR - dBL + dBR) / 4.0 * lateralMultiplier;
+
+        // Arc in the robot frame: local x = forward, local y = left
+        double sinTerm, cosTerm;
+        if (Math.abs(dTheta) < 1e-6) {
+            sinTerm = 1.0 - dTheta * dTheta / 6.0;
+            cosTerm = dTheta / 2.0;
+        } else {
+            sinTerm = Math.sin(dTheta) / dTheta;
+            cosTerm = (1.0 - Math.cos(dTheta)) / dTheta;
+        }
+        double left = -right;
+        double localForward = forward * sinTerm - left * cosTerm;
+        double localLeft = forward * cosTerm + left * sinTerm;
+
+        // Rotate into the field frame (forward points along heading + 90 deg)
+        double sinH = Math.sin(heading);
+        double cosH = Math.cos(heading);
+        x += -localForward * sinH - localLeft * cosH;
+        y += localForward * cosH - localLeft * sinH;
+
+        lastForward = forward;
+        lastRight = right;
+        lastTurn = dTheta;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /** Heading in radians, CCW positive */
+    public double getHeading() {
+        return heading;
+    }
+
+    public double getLastForward() {
+        return lastForward;
+    }
+
+    public double getLastRight() {
+        return lastRight;
+    }
+
+    public double getLastTurn() {
+        return lastTurn;
+    }
+
+    public double getTicksPerInch() {
+        return ticksPerInch;
     }
 }
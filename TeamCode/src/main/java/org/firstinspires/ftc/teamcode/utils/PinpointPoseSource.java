@@ -0,0 +1,78 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Pose2D;
+import org.firstinspires.ftc.robotcore.external.navigation.UnnormalizedAngleUnit;
+
+/**
+ * PinpointPoseSource - goBILDA Pinpoint odometry computer (position + heading)
+ *
+ * The Pinpoint fuses two dead wheels and its own IMU at ~1.5 kHz; update() is a
+ * single I2C bulk read of the result (see the SensorGoBildaPinpoint sample).
+ *
+ * Pinpoint's frame is X forward / Y left at heading 0. Ours faces +Y at heading
+ * 0, so field = (-pinpointY, pinpointX); heading is the same CCW angle.
+ */
+public class PinpointPoseSource implements PoseSource {
+
+    private final GoBildaPinpointDriver pinpoint;
+    private double x, y, heading, headingVelocity;
+
+    public PinpointPoseSource(GoBildaPinpointDriver pinpoint) {
+        this.pinpoint = pinpoint;
+    }
+
+    @Override
+    public void update() {
+        pinpoint.update();
+        x = -pinpoint.getPosY(DistanceUnit.INCH);
+        y = pinpoint.getPosX(DistanceUnit.INCH);
+        heading = pinpoint.getHeading(AngleUnit.RADIANS);
+        headingVelocity = pinpoint.getHeadingVelocity(UnnormalizedAngleUnit.RADIANS);
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    @Override
+    public boolean hasPosition() {
+        return true;
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        pinpoint.setPosition(new Pose2D(DistanceUnit.INCH, y, -x, AngleUnit.RADIANS, heading));
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    @Override
+    public String describe() {
+        return "Pinpoint";
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * PoseSource - where a drive loop gets its heading (and position, if the sensor tracks it)
+ *
+ * Same frame as Odometry: field inches, heading in radians CCW positive, and at
+ * heading 0 the robot faces field +Y. Every implementation converts into this
+ * frame, so drive code doesn't care which sensor is behind it.
+ *
+ * Call update() once per loop, then read the getters - they return the values
+ * from that update and never touch hardware themselves.
+ *
+ * Implementations: ImuPoseSource (universal IMU or BNO055, heading only),
+ * PinpointPoseSource and OctoQuadPoseSource (co-processor localizers).
+ * PoseSources picks one from the robot configuration.
+ */
+public interface PoseSource {
+
+    /** Fetch the latest reading - once per loop */
+    void update();
+
+    /** Field heading, radians CCW, wrapped to [-pi, pi] */
+    double getHeading();
+
+    /** Turn rate, radians/sec CCW */
+    double getHeadingVelocity();
+
+    /** True if getX()/getY() are tracked by the sensor itself */
+    boolean hasPosition();
+
+    /** Field X inches (NaN for heading-only sources) */
+    double getX();
+
+    /** Field Y inches (NaN for heading-only sources) */
+    double getY();
+
+    /** Tell the sensor where the robot is; heading-only sources just take the heading */
+    void setPose(double x, double y, double heading);
+
+    /** Short description for telemetry, e.g. "Pinpoint" */
+    String describe();
+
+    /** Stop any background polling (OpMode stopping) */
+    void close();
+}
@@ -0,0 +1,136 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.hardware.gobilda.GoBildaPinpointDriver;
+import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.ImuOrientationOnRobot;
+
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+
+/**
+ * PoseSources - pick and set up a PoseSource from the robot configuration
+ *
+ * AUTO uses the hub IMU: "imu" as a universal IMU, else as a legacy BNO055IMU.
+ * It never picks a localizer on its own - a Pinpoint / OctoQuad with the untuned
+ * sample constants below would report wrong positions with full confidence.
+ *
+ * To use one, tune its constants (TUNE below), then set PREFERRED to PINPOINT or
+ * OCTOQUAD (or pass the Kind); a forced Kind fails at init if it isn't configured.
+ */
+public class PoseSources {
+
+    public enum Kind { AUTO, PINPOINT, OCTOQUAD, IMU, BNO055 }
+
+    public static final Kind PREFERRED = Kind.AUTO;   // PINPOINT / OCTOQUAD once tuned
+
+    // Device names in the robot configuration
+    public static final String PINPOINT_NAME = "pinpoint";
+    public static final String OCTOQUAD_NAME = "octoquad";
+    public static final String IMU_NAME = "imu";
+
+    // Control Hub mounting - same as every OpMode in this repo
+    private static final RevHubOrientationOnRobot.LogoFacingDirection LOGO = RevHubOrientationOnRobot.LogoFacingDirection.UP;
+    private static final RevHubOrientationOnRobot.UsbFacingDirection USB = RevHubOrientationOnRobot.UsbFacingDirection.FORWARD;
+
+    // Replaces LOGO / USB when set - RevHubOrientationOnRobot needs Android's matrix code,
+    // which the simulator doesn't have
+    private static volatile ImuOrientationOnRobot imuOrientation = null;
+
+    // Pinpoint - TUNE (see SensorGoBildaPinpoint)
+    private static final double PINPOINT_X_OFFSET_MM = -84.0;    // sideways pod, mm left of center
+    private static final double PINPOINT_Y_OFFSET_MM = -168.0;   // forward pod, mm forward of center
+    private static final GoBildaPinpointDriver.GoBildaOdometryPods PINPOINT_PODS =
+            GoBildaPinpointDriver.GoBildaOdometryPods.goBILDA_4_BAR_POD;
+
+    // OctoQuad localizer - TUNE (see SensorOctoQuadLocalization)
+    private static final int OCTOQUAD_PORT_X = 0;
+    private static final int OCTOQUAD_PORT_Y = 1;
+    private static final OctoQuad.EncoderDirection OCTOQUAD_X_DIR = OctoQuad.EncoderDirection.FORWARD;
+    private static final OctoQuad.EncoderDirection OCTOQUAD_Y_DIR = OctoQuad.EncoderDirection.REVERSE;
+    private static final float OCTOQUAD_TICKS_PER_MM = 19.89f;   // goBILDA 4-Bar pod
+    private static final float OCTOQUAD_TCP_OFFSET_X_MM = 0f;
+    private static final float OCTOQUAD_TCP_OFFSET_Y_MM = 0f;
+    private static final int OCTOQUAD_VELOCITY_INTERVAL_MS = 25;
+
+    private PoseSources() {
+    }
+
+    public static PoseSource create(HardwareMap hardwareMap) {
+        return create(hardwareMap, PREFERRED);
+    }
+
+    /**
+     * Build, configure and reset the requested source (heading 0, position 0,0)
+     * @throws IllegalStateException if that sensor isn't in the configuration
+     */
+    public static PoseSource create(HardwareMap hardwareMap, Kind kind) {
+        if (kind == Kind.PINPOINT) {
+            GoBildaPinpointDriver pinpoint = hardwareMap.tryGet(GoBildaPinpointDriver.class, PINPOINT_NAME);
+            if (pinpoint != null) return pinpoint(pinpoint);
+        }
+        if (kind == Kind.OCTOQUAD) {
+            OctoQuad octoquad = hardwareMap.tryGet(OctoQuad.class, OCTOQUAD_NAME);
+            if (octoquad != null) return octoQuad(octoquad);
+        }
+        if (kind == Kind.IMU || kind == Kind.AUTO) {
+            IMU imu = hardwareMap.tryGet(IMU.class, IMU_NAME);
+            if (imu != null) return imu(imu);
+        }
+        if (kind == Kind.BNO055 || kind == Kind.AUTO) {
+            BNO055IMU bno = hardwareMap.tryGet(BNO055IMU.class, IMU_NAME);
+            if (bno != null) return bno055(bno);
+        }
+        String name = kind == Kind.PINPOINT ? PINPOINT_NAME : kind == Kind.OCTOQUAD ? OCTOQUAD_NAME : IMU_NAME;
+        throw new IllegalStateException("No " + (kind == Kind.AUTO ? "IMU" : kind.name())
+                + " in the robot configuration (looked for \"" + name + "\")");
+    }
+
+    private static PoseSource pinpoint(GoBildaPinpointDriver pinpoint) {
+        pinpoint.setOffsets(PINPOINT_X_OFFSET_MM, PINPOINT_Y_OFFSET_MM, DistanceUnit.MM);
+        pinpoint.setEncoderResolution(PINPOINT_PODS);
+        pinpoint.setEncoderDirections(GoBildaPinpointDriver.EncoderDirection.FORWARD,
+                GoBildaPinpointDriver.EncoderDirection.FORWARD);
+        pinpoint.resetPosAndIMU();
+        return new PinpointPoseSource(pinpoint);
+    }
+
+    private static PoseSource octoQuad(OctoQuad octoquad) {
+        octoquad.setSingleEncoderDirection(OCTOQUAD_PORT_X, OCTOQUAD_X_DIR);
+        octoquad.setSingleEncoderDirection(OCTOQUAD_PORT_Y, OCTOQUAD_Y_DIR);
+        octoquad.setLocalizerPortX(OCTOQUAD_PORT_X);
+        octoquad.setLocalizerPortY(OCTOQUAD_PORT_Y);
+        octoquad.setLocalizerCountsPerMM_X(OCTOQUAD_TICKS_PER_MM);
+        octoquad.setLocalizerCountsPerMM_Y(OCTOQUAD_TICKS_PER_MM);
+        octoquad.setLocalizerTcpOffsetMM_X(OCTOQUAD_TCP_OFFSET_X_MM);
+        octoquad.setLocalizerTcpOffsetMM_Y(OCTOQUAD_TCP_OFFSET_Y_MM);
+        octoquad.setLocalizerVelocityIntervalMS(OCTOQUAD_VELOCITY_INTERVAL_MS);
+        // Applies the parameters above; IMU calibration finishes in the background
+        octoquad.resetLocalizerAndCalibrateIMU();
+        return new OctoQuadPoseSource(octoquad);
+    }
+
+    /**
+     * Mount the universal IMU this way instead of the Control Hub's (null = back to LOGO / USB). Simulator only.
+     */
+    public static void setImuOrientation(ImuOrientationOnRobot orientation) {
+        imuOrientation = orientation;
+    }
+
+    private static PoseSource imu(IMU imu) {
+        ImuOrientationOnRobot orientation = imuOrientation;
+        if (orientation == null) orientation = new RevHubOrientationOnRobot(LOGO, USB);
+        imu.initialize(new IMU.Parameters(orientation));
+        imu.resetYaw();
+        return new ImuPoseSource(ImuPoller.forImu(imu), "IMU");
+    }
+
+    private static PoseSource bno055(BNO055IMU bno) {
+        BNO055IMU.Parameters params = new BNO055IMU.Parameters();
+        params.angleUnit = BNO055IMU.AngleUnit.RADIANS;
+        bno.initialize(params);
+        return new ImuPoseSource(ImuPoller.forBno055(bno), "BNO055");
+    }
+}
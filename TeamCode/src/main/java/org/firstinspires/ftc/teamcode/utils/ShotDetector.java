@@ -0,0 +1,173 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * ShotDetector - counts artifacts leaving the shooter from the flywheel's speed dips
+ *
+ * Each artifact squeezing through the flywheel pulls it below its target for a
+ * few tens of milliseconds. Fed the target and measured speed every loop (and
+ * the motor current when it's read), the detector counts a shot when
+ *     - the speed drops DIP_FRACTION below target, or
+ *     - it drops half that while the current jumps AMP_RISE above its running level
+ * and then waits for the speed to come back within REARM_FRACTION (and at least
+ * MIN_SPACING_MS) before it can count the next one. It starts disarmed, so a
+ * wheel still spinning up isn't counted as a shot.
+ *
+ * Every sample also goes into a preallocated ring (the last TRACE_CAPACITY).
+ * copyTrace() copies it into a Trace, without allocating, so the loop can keep
+ * it and write() it as CSV later, off the control loop. ShotDetectorTest runs
+ * saved traces back through the detector to check a threshold change against
+ * real shots.
+ */
+public class ShotDetector {
+
+    public static final double DIP_FRACTION = 0.06;     // speed below target that counts as a shot
+    public static final double REARM_FRACTION = 0.02;   // back within this before the next shot can count
+    public static final double AMP_RISE = 1.5;          // amps over the running level that backs up a smaller dip
+    public static final long MIN_SPACING_MS = 60;       // no two shots closer than this
+    public static final int TRACE_CAPACITY = 1024;      // samples kept (~10 s at 100 Hz)
+
+    private static final double CURRENT_SMOOTHING = 0.1; // weight of each new sample in the running current
+
+    // Detection state
+    private boolean armed = false;
+    private int shots = 0;
+    private long lastShotMs = 0;
+    private double ampsLevel = Double.NaN;
+
+    // Trace - parallel arrays, a ring of the last TRACE_CAPACITY samples
+    private final long[] traceMs = new long[TRACE_CAPACITY];
+    private final double[] traceTarget = new double[TRACE_CAPACITY];
+    private final double[] traceRpm = new double[TRACE_CAPACITY];
+    private final double[] traceAmps = new double[TRACE_CAPACITY];
+    private final boolean[] traceShot = new boolean[TRACE_CAPACITY];
+    private int traceCount = 0;
+
+    /**
+     * Trace - a copy of the detector's samples, oldest first, preallocated at TRACE_CAPACITY
+     */
+    public static final class Trace {
+        private final long[] ms = new long[TRACE_CAPACITY];
+        private final double[] target = new double[TRACE_CAPACITY];
+        private final double[] rpm = new double[TRACE_CAPACITY];
+        private final double[] amps = new double[TRACE_CAPACITY];
+        private final boolean[] shot = new boolean[TRACE_CAPACITY];
+        private int size = 0;
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Shots the detector counted while this was recorded
+         */
+        public int shots() {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (shot[i]) count++;
+            }
+            return count;
+        }
+
+        /**
+         * Save as CSV (ms,target,rpm,amps,shot; amps empty when it wasn't read)
+         */
+        public void write(File file) throws IOException {
+            Storage.createParent(file);
+            try (Writer out = new BufferedWriter(new FileWriter(file))) {
+                out.write("ms,target,rpm,amps,shot\n");
+                for (int i = 0; i < size; i++) {
+                    out.write(String.format(Locale.US, "%d,%.1f,%.1f,%s,%d\n",
+                            ms[i], target[i], rpm[i],
+                            Double.isNaN(amps[i]) ? "" : String.format(Locale.US, "%.3f", amps[i]),
+                            shot[i] ? 1 : 0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget shots, the current level and the trace - call when feeding starts
+     */
+    public void reset() {
+        armed = false;
+        shots = 0;
+        lastShotMs = 0;
+        ampsLevel = Double.NaN;
+        traceCount = 0;
+    }
+
+    /**
+     * One sample
+     * @param targetRpm what the flywheel is holding (signed; 0 = not spinning, nothing counted)
+     * @param rpm       measured speed, same sign convention (FlywheelControl.getMeanRpm())
+     * @param amps      motor current, or NaN when it isn't read
+     * @return true if this sample completed a new shot
+     */
+    public boolean update(long nowMs, double targetRpm, double rpm, double amps) {
+        boolean shot = false;
+        if (targetRpm != 0.0) {
+            double drop = 1.0 - rpm / targetRpm;   // fraction below target, either direction of spin
+            double rise = Double.isNaN(amps) || Double.isNaN(ampsLevel) ? 0.0 : amps - ampsLevel;
+
+            if (armed) {
+                if (drop >= DIP_FRACTION || (drop >= DIP_FRACTION / 2 && rise >= AMP_RISE)) {
+                    shot = true;
+                    shots++;
+                    lastShotMs = nowMs;
+                    armed = false;
+                }
+            } else if (drop <= REARM_FRACTION && (shots == 0 || nowMs - lastShotMs >= MIN_SPACING_MS)) {
+                armed = true;
+            }
+
+            // Running current level, only from samples at speed so shots don't raise it
+            if (!Double.isNaN(amps) && drop <= REARM_FRACTION) {
+                ampsLevel = Double.isNaN(ampsLevel) ? amps : ampsLevel + (amps - ampsLevel) * CURRENT_SMOOTHING;
+            }
+        }
+
+        int slot = traceCount % TRACE_CAPACITY;
+        traceMs[slot] = nowMs;
+        traceTarget[slot] = targetRpm;
+        traceRpm[slot] = rpm;
+        traceAmps[slot] = amps;
+        traceShot[slot] = shot;
+        traceCount++;
+        return shot;
+    }
+
+    public int getShots() {
+        return shots;
+    }
+
+    /**
+     * Time of the last counted shot (only meaningful once getShots() > 0)
+     */
+    public long getLastShotMs() {
+        return lastShotMs;
+    }
+
+    /**
+     * Copy the samples since reset() (the last TRACE_CAPACITY of them) into a Trace - no allocation
+     */
+    public void copyTrace(Trace into) {
+        int first = Math.max(0, traceCount - TRACE_CAPACITY);
+        into.size = traceCount - first;
+        for (int i = first; i < traceCount; i++) {
+            int slot = i % TRACE_CAPACITY;
+            int j = i - first;
+            into.ms[j] = traceMs[slot];
+            into.target[j] = traceTarget[slot];
+            into.rpm[j] = traceRpm[slot];
+            into.amps[j] = traceAmps[slot];
+            into.shot[j] = traceShot[slot];
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * StatusRing - lock-free status events from any thread to the main loop
+ *
+ * Background threads post() small events (kind, source, text, number) without
+ * ever blocking; the OpMode's loop drain()s them into telemetry once per cycle.
+ * Many producers, exactly one consumer.
+ *
+ * Slots are preallocated parallel arrays guarded by a per-slot sequence number
+ * (bounded MPMC queue design, single consumer): a producer claims a slot with one
+ * CAS, fills it, then publishes it by advancing the slot's sequence. When the
+ * ring is full the event is dropped and counted rather than waiting.
+ *
+ * Pass constant strings (or strings that already exist) as source/text - posting
+ * should not format anything; the consumer formats when it drains.
+ */
+public class StatusRing {
+
+    // Event kinds
+    public static final int INFO = 0;
+    public static final int WARNING = 1;
+    public static final int ERROR = 2;
+    public static final int STARTED = 3;
+    public static final int COMPLETED = 4;   // value = elapsed ms
+    public static final int FAILED = 5;      // text = reason
+
+    /** Handler - receives drained events on the consumer thread */
+    public interface Handler {
+        void onEvent(int kind, String source, String text, long value);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final int[] kinds;
+    private final String[] sources;
+    private final String[] texts;
+    private final long[] values;
+
+    private final AtomicLong tail = new AtomicLong();   // next slot to claim (producers)
+    private long head = 0;                              // next slot to read (consumer only)
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public StatusRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+        kinds = new int[size];
+        sources = new String[size];
+        texts = new String[size];
+        values = new long[size];
+    }
+
+    /**
+     * Post an event from any thread - never blocks
+     * @return false if the ring was full and the event was dropped
+     */
+    public boolean post(int kind, String source, String text, long value) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long available = sequence.get(index) - pos;
+            if (available == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (available < 0) {
+                // Consumer hasn't freed this slot yet - ring is full
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                // Another producer took this slot - retry with the new tail
+                pos = tail.get();
+            }
+        }
+
+        kinds[index] = kind;
+        sources[index] = source;
+        texts[index] = text;
+        values[index] = value;
+        sequence.lazySet(index, pos + 1);  // publish - release store after the fields
+        return true;
+    }
+
+    public boolean post(int kind, String source, String text) {
+        return post(kind, source, text, 0);
+    }
+
+    /**
+     * Hand every published event to handler, oldest first. Consumer thread only.
+     * @return number of events drained
+     */
+    public int drain(Handler handler) {
+        int count = 0;
+        while (true) {
+            int index = (int) (head & mask);
+            if (sequence.get(index) != head + 1) break;  // next slot not published yet
+
+            int kind = kinds[index];
+            String source = sources[index];
+            String text = texts[index];
+            long value = values[index];
+            sources[index] = null;
+            texts[index] = null;
+            sequence.lazySet(index, head + capacity);     // free the slot for the next lap
+            head++;
+
+            handler.onEvent(kind, source, text, value);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Events dropped because the ring was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
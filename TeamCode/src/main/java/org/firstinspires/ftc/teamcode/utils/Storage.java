@@ -0,0 +1,94 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Storage - files the robot reads and writes, under /sdcard/FIRST on the RC
+ *
+ * Path files, loop timing reports and flight logs all go through file(), so
+ * the simulator can point them at a desktop folder with setRoot(). AppUtil is
+ * only touched when no root was set (it needs the Android app to be running).
+ *
+ * Logs are named <name>-yyyyMMdd-HHmmss.<ext>, so sorting by name is sorting by
+ * age - list() and prune() rely on that.
+ *
+ * Settings files (drive constants, tunables) are replaced with saveProperties(),
+ * so a crash mid-save leaves the old file rather than half a new one.
+ */
+public final class Storage {
+
+    private static volatile File root = null;   // null = AppUtil.FIRST_FOLDER
+
+    private Storage() {
+    }
+
+    /**
+     * A file relative to the FIRST folder, e.g. file("paths/auto.path")
+     */
+    public static File file(String relative) {
+        File base = root;
+        return new File(base != null ? base : AppUtil.FIRST_FOLDER, relative);
+    }
+
+    /**
+     * Create the folder file goes in, if it isn't there yet
+     */
+    public static void createParent(File file) throws IOException {
+        File folder = file.getParentFile();
+        if (folder != null && !folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Can't create " + folder);
+        }
+    }
+
+    /**
+     * Write properties to a temporary file next to file, then rename it over file
+     */
+    public static void saveProperties(File file, Properties properties, String comment) throws IOException {
+        createParent(file);
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            properties.store(out, comment);
+        }
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) throw new IOException("Can't replace " + file);
+        }
+    }
+
+    /**
+     * Files in folder named prefix...suffix, oldest first (empty if the folder doesn't exist)
+     */
+    public static File[] list(File folder, final String prefix, final String suffix) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(suffix));
+        if (files == null) return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Delete all but the newest keep files named prefix...suffix - call before writing another
+     * @return how many were deleted
+     */
+    public static int prune(File folder, String prefix, String suffix, int keep) {
+        File[] files = list(folder, prefix, suffix);
+        int deleted = 0;
+        for (int i = 0; i < files.length - Math.max(keep, 0); i++) {
+            if (files[i].delete()) deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Use another folder in place of /sdcard/FIRST (null = back to the RC's). Simulator only.
+     */
+    public static void setRoot(File folder) {
+        root = folder;
+    }
+}
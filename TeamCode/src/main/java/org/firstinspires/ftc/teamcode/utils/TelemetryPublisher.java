@@ -0,0 +1,267 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TelemetryPublisher - fixed telemetry lines, formatted only when they change
+ *
+ * Lines are declared once at init and each gets a slot. The loop stores raw
+ * numbers / strings into the slots (no formatting, no garbage), and publish()
+ * formats just the slots whose value changed and sends one update - at most
+ * every FLUSH_INTERVAL_MS no matter how fast the loop runs.
+ *
+ * Number templates use {N} placeholders, N = decimal places:
+ *     int slot = publisher.add("Front L/R", "{2}, {2}");
+ *     publisher.set(slot, frontLeftPower, frontRightPower);
+ *
+ * One-off events go through log() (the Driver Station's scrolling log) instead
+ * of extra lines, so the fixed lines never need clearing.
+ */
+public class TelemetryPublisher {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 250;  // 4 Hz
+    private static final int MAX_VALUES = 4;                    // placeholders per line
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L
+    };
+
+    private final Telemetry telemetry;
+    private final long flushIntervalNanos;
+    private long lastFlushNanos;
+    private boolean flushedOnce = false;
+
+    // Slot storage - parallel lists, filled at init only
+    private final List<Telemetry.Item> items = new ArrayList<>();
+    private final List<String[]> literals = new ArrayList<>();   // template text around placeholders, null for text slots
+    private final List<int[]> decimals = new ArrayList<>();      // decimal places per placeholder
+    private double[][] values = new double[0][];
+    private String[] texts = new String[0];
+    private boolean[] dirty = new boolean[0];
+
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    // Counters for checking the cadence / formatting work
+    private int flushCount = 0;
+    private int formatCount = 0;
+
+    public TelemetryPublisher(Telemetry telemetry) {
+        this(telemetry, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    public TelemetryPublisher(Telemetry telemetry, long flushIntervalMs) {
+        this.telemetry = telemetry;
+        this.flushIntervalNanos = flushIntervalMs * 1000000L;
+
+        // Lines persist between updates; only their values change
+        telemetry.clearAll();
+        telemetry.setAutoClear(false);
+    }
+
+    // ========================================
+    // DECLARING LINES (init only)
+    // ========================================
+
+    /**
+     * Numeric line, e.g. add("Outtake State", "{0}/{0} ({2} power)")
+     * @return slot to pass to set()
+     */
+    public int add(String caption, String template) {
+        List<String> parts = new ArrayList<>();
+        List<Integer> places = new ArrayList<>();
+        int pos = 0;
+        while (true) {
+            int open = template.indexOf('{', pos);
+            int close = open < 0 ? -1 : template.indexOf('}', open);
+            if (close < 0) break;
+            parts.add(template.substring(pos, open));
+            places.add(Integer.parseInt(template.substring(open + 1, close)));
+            pos = close + 1;
+        }
+        parts.add(template.substring(pos));
+        if (places.size() > MAX_VALUES) {
+            throw new IllegalArgumentException("At most " + MAX_VALUES + " values per line: " + template);
+        }
+
+        int[] placesArray = new int[places.size()];
+        for (int i = 0; i < placesArray.length; i++) {
+            placesArray[i] = Math.min(places.get(i), POWERS_OF_TEN.length - 1);
+        }
+        return addSlot(caption, parts.toArray(new String[0]), placesArray);
+    }
+
+    /**
+     * Text line - value set with set(slot, String), e.g. "ON" / "OFF"
+     */
+    public int addText(String caption) {
+        return addSlot(caption, null, new int[0]);
+    }
+
+    /**
+     * Line that never changes (headers, control hints, blank spacers)
+     */
+    public void addStatic(String caption, String value) {
+        telemetry.addData(caption, value);
+    }
+
+    private int addSlot(String caption, String[] template, int[] places) {
+        int slot = items.size();
+        items.add(telemetry.addData(caption, ""));
+        literals.add(template);
+        decimals.add(places);
+
+        values = grow(values, new double[places.length]);
+        String[] newTexts = new String[slot + 1];
+        System.arraycopy(texts, 0, newTexts, 0, slot);
+        texts = newTexts;
+        boolean[] newDirty = new boolean[slot + 1];
+        System.arraycopy(dirty, 0, newDirty, 0, slot);
+        newDirty[slot] = true;
+        dirty = newDirty;
+        return slot;
+    }
+
+    private static double[][] grow(double[][] array, double[] last) {
+        double[][] bigger = new double[array.length + 1][];
+        System.arraycopy(array, 0, bigger, 0, array.length);
+        bigger[array.length] = last;
+        return bigger;
+    }
+
+    // ========================================
+    // SETTING VALUES (every loop - no allocation)
+    // ========================================
+
+    public void set(int slot, double a) {
+        store(slot, 0, a);
+    }
+
+    public void set(int slot, double a, double b) {
+        store(slot, 0, a);
+        store(slot, 1, b);
+    }
+
+    public void set(int slot, double a, double b, double c) {
+        store(slot, 0, a);
+        store(slot, 1, b);
+        store(slot, 2, c);
+    }
+
+    public void set(int slot, double a, double b, double c, double d) {
+        store(slot, 0, a);
+        store(slot, 1, b);
+        store(slot, 2, c);
+        store(slot, 3, d);
+    }
+
+    /**
+     * Text slot value - pass constants (or strings built rarely); compared by equals()
+     */
+    public void set(int slot, String text) {
+        if (text == null ? texts[slot] != null : !text.equals(texts[slot])) {
+            texts[slot] = text;
+            dirty[slot] = true;
+        }
+    }
+
+    private void store(int slot, int index, double value) {
+        double[] slotValues = values[slot];
+        // Compare bits so NaN -> NaN is not a change
+        if (Double.doubleToLongBits(slotValues[index]) != Double.doubleToLongBits(value)) {
+            slotValues[index] = value;
+            dirty[slot] = true;
+        }
+    }
+
+    /**
+     * One-off event line in the Driver Station log (survives until pushed off)
+     */
+    public void log(String message) {
+        telemetry.log().add(message);
+    }
+
+    // ========================================
+    // FLUSHING
+    // ========================================
+
+    /**
+     * Send changed lines if the flush interval has passed
+     * @return true if telemetry was sent this call
+     */
+    public boolean publish() {
+        return publish(Clock.nanoTime());
+    }
+
+    public boolean publish(long nowNanos) {
+        if (flushedOnce && nowNanos - lastFlushNanos < flushIntervalNanos) {
+            return false;
+        }
+        flush();
+        lastFlushNanos = nowNanos;
+        flushedOnce = true;
+        return true;
+    }
+
+    /**
+     * Format changed lines and send now, ignoring the cadence (init screens, path complete)
+     */
+    public void flush() {
+        for (int slot = 0; slot < dirty.length; slot++) {
+            if (!dirty[slot]) continue;
+            dirty[slot] = false;
+            formatCount++;
+
+            String[] template = literals.get(slot);
+            if (template == null) {
+                items.get(slot).setValue(texts[slot] == null ? "" : texts[slot]);
+                continue;
+            }
+            scratch.setLength(0);
+            int[] places = decimals.get(slot);
+            for (int i = 0; i < places.length; i++) {
+                scratch.append(template[i]);
+                appendFixed(scratch, values[slot][i], places[i]);
+            }
+            scratch.append(template[places.length]);
+            items.get(slot).setValue(scratch.toString());
+        }
+        telemetry.update();
+        flushCount++;
+    }
+
+    /**
+     * Fixed-point formatting without String.format or boxing
+     */
+    static void appendFixed(StringBuilder out, double value, int places) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.append(value);
+            return;
+        }
+        long scale = POWERS_OF_TEN[places];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) out.append('-');
+        out.append(scaled / scale);
+        if (places > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+    }
+
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Lines formatted so far - only changed lines count
+     */
+    public int getFormatCount() {
+        return formatCount;
+    }
+}
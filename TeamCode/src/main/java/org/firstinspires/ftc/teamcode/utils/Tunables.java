@@ -0,0 +1,296 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Tunables - gains and tables that can be changed while the robot runs
+ *
+ * Declare a parameter once, as a static field, where the constant used to be:
+ *     private static final Tunables.Number KP_TURN = Tunables.number("AprilTagAlignmentAuto.KP_TURN", 0.02, 0, 1);
+ * and read it in the loop with KP_TURN.get() - a volatile field read, no lookup.
+ * The registry below is only touched at registration, load and edit time.
+ *
+ * Values are edited at http://<robot>:8080/tuning (TuningWebHandler), checked
+ * against the declared type, range and length, and saved to
+ * /sdcard/FIRST/tuning/parameters.properties at once. Call load() at OpMode init
+ * to apply saved values; it only reads the file the first time (or after Storage
+ * moves), so edits made since keep their value.
+ */
+public final class Tunables {
+
+    private static final String FILE = "tuning/parameters.properties";
+
+    private static final Map<String, Parameter> registry = new TreeMap<>();
+    private static final Map<String, String> saved = new TreeMap<>();  // from the file, incl. not-yet-registered names
+    private static File loadedFrom = null;
+
+    private Tunables() {
+    }
+
+    // ========================================
+    // PARAMETER TYPES
+    // ========================================
+
+    public abstract static class Parameter {
+        public final String name;
+
+        Parameter(String name) {
+            this.name = name;
+        }
+
+        /** Current value as text, the same format set() accepts */
+        public abstract String text();
+
+        /** Declared type and limits, for the web page */
+        public abstract String describeType();
+
+        /** Parse and apply; null on success, otherwise why it was rejected (value unchanged) */
+        abstract String set(String text);
+
+        abstract void reset();
+    }
+
+    /**
+     * One number within [min, max]
+     */
+    public static final class Number extends Parameter {
+        private final double defaultValue, min, max;
+        private volatile double value;
+
+        Number(String name, double defaultValue, double min, double max) {
+            super(name);
+            this.defaultValue = defaultValue;
+            this.min = min;
+            this.max = max;
+            this.value = defaultValue;
+        }
+
+        public double get() {
+            return value;
+        }
+
+        @Override
+        public String text() {
+            return format(value);
+        }
+
+        @Override
+        public String describeType() {
+            return "number " + format(min) + " to " + format(max);
+        }
+
+        @Override
+        String set(String text) {
+            double parsed;
+            try {
+                parsed = Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return "not a number: " + text;
+            }
+            if (!(parsed >= min && parsed <= max)) return format(parsed) + " is outside " + describeType();
+            value = parsed;
+            return null;
+        }
+
+        @Override
+        void reset() {
+            value = defaultValue;
+        }
+    }
+
+    /**
+     * A fixed-length table of numbers within [min, max], edited as "a, b, c"
+     */
+    public static final class NumberList extends Parameter {
+        private final double[] defaults;
+        private final double min, max;
+        private volatile double[] values;   // replaced whole on every edit, never modified
+
+        NumberList(String name, double min, double max, double[] defaults) {
+            super(name);
+            this.defaults = defaults.clone();
+            this.min = min;
+            this.max = max;
+            this.values = this.defaults;
+        }
+
+        /**
+         * The current table - read it once per loop and index that; don't modify it
+         */
+        public double[] get() {
+            return values;
+        }
+
+        public int size() {
+            return defaults.length;
+        }
+
+        @Override
+        public String text() {
+            StringBuilder text = new StringBuilder();
+            for (double value : values) {
+                if (text.length() > 0) text.append(", ");
+                text.append(format(value));
+            }
+            return text.toString();
+        }
+
+        @Override
+        public String describeType() {
+            return defaults.length + " numbers " + format(min) + " to " + format(max);
+        }
+
+        @Override
+        String set(String text) {
+            String[] parts = text.split(",");
+            if (parts.length != defaults.length) {
+                return "expected " + defaults.length + " values, got " + parts.length;
+            }
+            double[] parsed = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                try {
+                    parsed[i] = Double.parseDouble(parts[i].trim());
+                } catch (NumberFormatException e) {
+                    return "not a number: " + parts[i].trim();
+                }
+                if (!(parsed[i] >= min && parsed[i] <= max)) {
+                    return format(parsed[i]) + " is outside " + format(min) + " to " + format(max);
+                }
+            }
+            values = parsed;
+            return null;
+        }
+
+        @Override
+        void reset() {
+            values = defaults;
+        }
+    }
+
+    // ========================================
+    // REGISTRY
+    // ========================================
+
+    public static synchronized Number number(String name, double defaultValue, double min, double max) {
+        if (!(defaultValue >= min && defaultValue <= max)) {
+            throw new IllegalArgumentException(name + " default is outside its range");
+        }
+        return register(Number.class, new Number(name, defaultValue, min, max));
+    }
+
+    public static synchronized NumberList numbers(String name, double min, double max, double... defaults) {
+        for (double value : defaults) {
+            if (!(value >= min && value <= max)) {
+                throw new IllegalArgumentException(name + " default is outside its range");
+            }
+        }
+        return register(NumberList.class, new NumberList(name, min, max, defaults));
+    }
+
+    /**
+     * Same name twice (an OpMode class loaded again) hands back the first one
+     */
+    private static <T extends Parameter> T register(Class<T> type, T parameter) {
+        Parameter existing = registry.get(parameter.name);
+        if (existing != null) {
+            if (!type.isInstance(existing)) {
+                throw new IllegalArgumentException(parameter.name + " is already registered as another type");
+            }
+            return type.cast(existing);
+        }
+        registry.put(parameter.name, parameter);
+        String savedText = saved.get(parameter.name);
+        if (savedText != null) parameter.set(savedText);  // a bad saved value just leaves the default
+        return parameter;
+    }
+
+    /**
+     * Apply the saved file - reads it the first time only, so live edits survive the next init
+     */
+    public static synchronized void load() {
+        File file = defaultFile();
+        if (file.equals(loadedFrom)) return;
+        loadedFrom = file;
+
+        saved.clear();
+        for (Parameter parameter : registry.values()) {
+            parameter.reset();
+        }
+        if (!file.exists()) return;
+
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            return;  // unreadable file - run on the defaults
+        }
+        for (String name : properties.stringPropertyNames()) {
+            String text = properties.getProperty(name);
+            saved.put(name, text);
+            Parameter parameter = registry.get(name);
+            if (parameter != null) parameter.set(text);
+        }
+    }
+
+    /**
+     * Change a parameter and save every value
+     * @return null on success, otherwise why it was rejected
+     */
+    public static synchronized String set(String name, String text) {
+        load();  // so saving keeps the file's other values even if no OpMode has run yet
+        Parameter parameter = registry.get(name);
+        if (parameter == null) return "no parameter named " + name + " (its OpMode hasn't been loaded yet)";
+        String error = parameter.set(text);
+        if (error != null) return error;
+
+        saved.put(name, parameter.text());
+        try {
+            save(defaultFile());
+        } catch (IOException e) {
+            return "applied, but not saved: " + e.getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Snapshot of the registered parameters, by name
+     */
+    public static synchronized List<Parameter> list() {
+        return new ArrayList<>(registry.values());
+    }
+
+    /**
+     * Where values are saved
+     */
+    public static File defaultFile() {
+        return Storage.file(FILE);
+    }
+
+    /**
+     * Save every value set from the page, and load from file from now on
+     */
+    private static void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, String> entry : saved.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue());
+        }
+        Storage.saveProperties(file, properties,
+                "Live-tuned parameters - edit at http://<robot>:8080" + TuningWebHandler.PATH);
+        loadedFrom = file;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? String.format(Locale.US, "%.1f", value)
+                : Double.toString(value);
+    }
+}
@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import android.content.Context;
+
+import com.qualcomm.robotcore.util.WebHandlerManager;
+
+import org.firstinspires.ftc.ftccommon.external.WebHandlerRegistrar;
+import org.firstinspires.ftc.robotcore.internal.webserver.WebHandler;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fi.iki.elonen.NanoHTTPD;
+
+/**
+ * TuningWebHandler - the Tunables page on the Robot Controller's web server
+ *
+ * http://192.168.43.1:8080/tuning (or 192.168.49.1 on a Control Hub):
+ *   GET                    page listing every registered parameter with an edit box
+ *   POST name=..&value=..  change one parameter; it's live on the next loop and saved
+ *
+ * Add format=text to either for a plain "name = value" reply, for scripts:
+ *     curl -d name=Typeshi.ANTI_DRIFT_POWER -d value=0.12 -d format=text http://192.168.43.1:8080/tuning
+ *
+ * A parameter appears once its OpMode class has been loaded (selected on the
+ * Driver Station), since that is when it registers.
+ */
+public class TuningWebHandler implements WebHandler {
+
+    public static final String PATH = "/tuning";
+
+    @WebHandlerRegistrar
+    public static void attachWebHandlers(Context context, WebHandlerManager manager) {
+        manager.register(PATH, new TuningWebHandler());
+    }
+
+    @Override
+    public NanoHTTPD.Response getResponse(NanoHTTPD.IHTTPSession session)
+            throws IOException, NanoHTTPD.ResponseException {
+        String message = null;
+        NanoHTTPD.Response.Status status = NanoHTTPD.Response.Status.OK;
+
+        if (session.getMethod() == NanoHTTPD.Method.POST) {
+            session.parseBody(new HashMap<String, String>());  // moves the form fields into getParameters()
+            Map<String, List<String>> form = session.getParameters();
+            String name = first(form, "name");
+            String value = first(form, "value");
+            if (name == null || value == null) {
+                message = "error: need name and value";
+                status = NanoHTTPD.Response.Status.BAD_REQUEST;
+            } else {
+                String error = Tunables.set(name.trim(), value);
+                if (error == null) {
+                    message = "ok";
+                } else {
+                    message = "error: " + error;
+                    status = NanoHTTPD.Response.Status.BAD_REQUEST;
+                }
+            }
+        } else if (session.getMethod() != NanoHTTPD.Method.GET) {
+            return NanoHTTPD.newFixedLengthResponse(NanoHTTPD.Response.Status.METHOD_NOT_ALLOWED,
+                    NanoHTTPD.MIME_PLAINTEXT, "GET or POST only\n");
+        }
+
+        if ("text".equals(first(session.getParameters(), "format"))) {
+            return NanoHTTPD.newFixedLengthResponse(status, NanoHTTPD.MIME_PLAINTEXT, text(message));
+        }
+        return NanoHTTPD.newFixedLengthResponse(status, NanoHTTPD.MIME_HTML, page(message));
+    }
+
+    /**
+     * First value of a query or form field, or null if it wasn't sent
+     */
+    private static String first(Map<String, List<String>> parameters, String name) {
+        List<String> values = parameters.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String text(String message) {
+        StringBuilder out = new StringBuilder();
+        if (message != null) out.append(message).append('\n');
+        for (Tunables.Parameter parameter : Tunables.list()) {
+            out.append(parameter.name).append(" = ").append(parameter.text()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String page(String message) {
+        StringBuilder out = new StringBuilder();
+        out.append("<!DOCTYPE html><html><head><title>Tuning</title>")
+                .append("<meta name=\"viewport\" content=\"width=device-width\"></head><body>")
+                .append("<h2>Tuning</h2>");
+        if (message != null) out.append("<p><b>").append(escape(message)).append("</b></p>");
+
+        List<Tunables.Parameter> parameters = Tunables.list();
+        if (parameters.isEmpty()) {
+            out.append("<p>Nothing registered yet - select an OpMode on the Driver Station, then reload.</p>");
+        }
+        out.append("<table>");
+        for (Tunables.Parameter parameter : parameters) {
+            String name = escape(parameter.name);
+            out.append("<tr><form method=\"post\" action=\"").append(PATH).append("\">")
+                    .append("<td>").append(name).append("</td>")
+                    .append("<td><input type=\"hidden\" name=\"name\" value=\"").append(name).append("\">")
+                    .append("<input name=\"value\" size=\"40\" value=\"").append(escape(parameter.text())).append("\"></td>")
+                    .append("<td><input type=\"submit\" value=\"Set\"></td>")
+                    .append("<td><small>").append(escape(parameter.describeType())).append("</small></td>")
+                    .append("</form></tr>");
+        }
+        out.append("</table><p><small>Saved to ").append(escape(Tunables.defaultFile().getPath()))
+                .append("</small></p></body></html>");
+        return out.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+/**
+ * VelocityPid - the battery-compensated feedback shared by MecanumVelocityControl
+ * and FlywheelControl
+ *
+ * One PID per channel (wheel or flywheel motor) on a speed error, in volts:
+ *     volts = feedforward + kP * error + kI * integral + kD * d(error)/dt
+ * and power() divides by the battery voltage. The owner computes its own
+ * feedforward and error in its own units; this class keeps the time step, the
+ * battery reading and the per-channel integral and last error.
+ *
+ * The I term stops integrating while the output is pinned in the direction of
+ * the error, and is clamped to MAX_INTEGRAL_VOLTS, so a saturated spin-up or a
+ * stalled wheel doesn't wind up. Gaps longer than MAX_DT (a blocking call) count
+ * as MAX_DT.
+ *
+ * The battery is read at most every VOLTAGE_PERIOD_MS (each read is a bus
+ * transaction). With no VoltageSensor, NOMINAL_VOLTAGE is assumed.
+ */
+public class VelocityPid {
+
+    public static final double NOMINAL_VOLTAGE = 12.0;
+
+    private static final long VOLTAGE_PERIOD_MS = 100;
+    private static final double MIN_VOLTAGE = 7.0;               // lower readings are a bad read, not a battery
+    private static final double MAX_INTEGRAL_VOLTS = 2.0;        // anti-windup clamp on the I term
+    private static final double MAX_DT = 0.1;                    // seconds - longer gaps don't count
+
+    // Battery
+    private final VoltageSensor battery;   // null = assume NOMINAL_VOLTAGE
+    private double voltage = NOMINAL_VOLTAGE;
+    private long voltageReadMillis = 0;
+    private boolean voltageRead = false;
+
+    // Tuning
+    private double kP, kI, kD;
+
+    // Per-channel state
+    private final double[] integral;
+    private final double[] lastError;
+    private long lastNanos = 0;
+    private double dt = 0.0;
+
+    /**
+     * @param battery  hub voltage sensor (MecanumVelocityControl.findBattery), or null to assume 12 V
+     * @param channels how many speeds are controlled
+     */
+    public VelocityPid(VoltageSensor battery, int channels, double kP, double kI, double kD) {
+        this.battery = battery;
+        this.integral = new double[channels];
+        this.lastError = new double[channels];
+        setGains(kP, kI, kD);
+    }
+
+    public void setGains(double kP, double kI, double kD) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+    }
+
+    /**
+     * Start a control cycle - advances the time step and refreshes the battery reading
+     * @return seconds since the previous cycle (0 for the first one after reset())
+     */
+    public double begin() {
+        long now = Clock.nanoTime();
+        dt = lastNanos == 0 ? 0.0 : Math.min((now - lastNanos) * 1e-9, MAX_DT);
+        lastNanos = now;
+        updateVoltage();
+        return dt;
+    }
+
+    /**
+     * Feedforward plus PID for one channel this cycle
+     * @param error target minus measured speed, in the units the gains are in
+     * @return volts (not yet limited to the battery)
+     */
+    public double volts(int channel, double feedforward, double error) {
+        double derivative = dt > 0 ? (error - lastError[channel]) / dt : 0.0;
+        lastError[channel] = error;
+        double volts = feedforward + kP * error + kI * integral[channel] + kD * derivative;
+
+        // Integrate only while the output isn't pinned in the same direction
+        boolean saturated = Math.abs(volts) >= voltage && Math.signum(volts) == Math.signum(error);
+        if (!saturated && dt > 0) {
+            integral[channel] = clamp(integral[channel] + error * dt, MAX_INTEGRAL_VOLTS / Math.max(kI, 1e-9));
+        }
+        return volts;
+    }
+
+    /**
+     * Motor power for a voltage on the current battery, within -1..1
+     */
+    public double power(double volts) {
+        return clamp(volts / voltage, 1.0);
+    }
+
+    /**
+     * Drop a channel's accumulated error (it stopped - no windup at the next start)
+     */
+    public void clearIntegral(int channel) {
+        integral[channel] = 0.0;
+    }
+
+    /**
+     * Clear one channel's integral and last error
+     */
+    public void reset(int channel) {
+        integral[channel] = 0.0;
+        lastError[channel] = 0.0;
+    }
+
+    /**
+     * Clear every channel; the next begin() starts the timing over
+     */
+    public void reset() {
+        for (int i = 0; i < integral.length; i++) {
+            reset(i);
+        }
+        lastNanos = 0;
+        dt = 0.0;
+    }
+
+    /**
+     * Battery voltage powers are scaled by
+     */
+    public double getVoltage() {
+        return voltage;
+    }
+
+    private void updateVoltage() {
+        if (battery == null) return;
+        long now = Clock.millis();
+        if (voltageRead && now - voltageReadMillis < VOLTAGE_PERIOD_MS) return;
+        voltageRead = true;
+        voltageReadMillis = now;
+        double reading = battery.getVoltage();
+        if (reading >= MIN_VOLTAGE) voltage = reading;
+    }
+
+    static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+}
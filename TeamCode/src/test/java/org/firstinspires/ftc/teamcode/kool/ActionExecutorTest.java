@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimHardwareMap;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RobotFunctions.executeFunction on ActionExecutor - each run ends in exactly one
+ * COMPLETED or FAILED, never both
+ */
+public class ActionExecutorTest {
+
+    static final long IDLE_WAIT_MS = 2000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StatusRing status = new StatusRing(64);
+    private final List<String> events = new ArrayList<>();
+    private ActionExecutor executor;
+
+    @Before
+    public void setUp() {
+        Storage.setRoot(folder.getRoot());
+        executor = new ActionExecutor(status);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        Storage.setRoot(null);
+    }
+
+    private RobotFunctions functions(SimRobot robot) {
+        return new RobotFunctions(robot.hardwareMap(), new SimTelemetry(robot.clock()), status);
+    }
+
+    /**
+     * Run one function in the background and collect "KIND source text" for every event
+     */
+    private void run(final RobotFunctions functions, final String name) throws InterruptedException {
+        assertTrue(executor.submit(name, () -> functions.executeFunction(name)));
+        long deadline = System.currentTimeMillis() + IDLE_WAIT_MS;
+        while (!executor.isIdle() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue("still running", executor.isIdle());
+        status.drain((kind, source, text, value) -> events.add(KINDS[kind] + " " + source + " " + text));
+    }
+
+    static final String[] KINDS = { "INFO", "WARNING", "ERROR", "STARTED", "COMPLETED", "FAILED" };
+
+    private int count(String prefix) {
+        int n = 0;
+        for (String event : events) {
+            if (event.startsWith(prefix)) n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void workingFunctionCompletes() throws InterruptedException {
+        run(functions(new SimRobot()), "intake");
+
+        assertEquals(events.toString(), 1, count("COMPLETED intake"));
+        assertEquals(events.toString(), 0, count("FAILED"));
+    }
+
+    @Test
+    public void throwingFunctionFailsOnce() throws InterruptedException {
+        // No motors configured - the intake action throws on its first call
+        SimRobot robot = new SimRobot();
+        RobotFunctions functions = new RobotFunctions(new SimHardwareMap(), new SimTelemetry(robot.clock()), status);
+        run(functions, "intake");
+
+        assertEquals(events.toString(), 1, count("FAILED intake NullPointerException"));
+        assertEquals(events.toString(), 0, count("COMPLETED"));
+    }
+
+    @Test
+    public void unknownFunctionFailsOnce() throws InterruptedException {
+        run(functions(new SimRobot()), "nope");
+
+        assertEquals(events.toString(), 1, count("FAILED nope IllegalStateException: no such function"));
+        assertEquals(events.toString(), 0, count("COMPLETED"));
+    }
+}
@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ActionScheduler stepped on a SimClock - every action finishes on the exact tick it should
+ *
+ * No control thread is set, so reading the clock costs nothing and time moves only
+ * when the test advances it.
+ */
+public class ActionSchedulerTest {
+
+    static final long TICK_MS = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final StatusRing status = new StatusRing(64);
+    private final List<String> events = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+        Storage.setRoot(null);
+    }
+
+    /**
+     * Finishes durationMs after start; counts cancels
+     */
+    static class Timed implements Action {
+        final long durationMs;
+        long startMs;
+        int cancels;
+
+        Timed(long durationMs) {
+            this.durationMs = durationMs;
+        }
+
+        @Override
+        public void start(long nowMs) {
+            startMs = nowMs;
+        }
+
+        @Override
+        public boolean update(long nowMs) {
+            return nowMs - startMs >= durationMs;
+        }
+
+        @Override
+        public void cancel() {
+            cancels++;
+        }
+    }
+
+    /**
+     * One control loop per tick until the scheduler is idle or maxMs has passed
+     */
+    private void loop(ActionScheduler scheduler, SimClock clock, long maxMs) {
+        long end = Clock.millis() + maxMs;
+        while (!scheduler.isIdle() && Clock.millis() < end) {
+            clock.advance(TICK_MS * 1000000L);
+            scheduler.update(Clock.millis());
+        }
+        drain();
+    }
+
+    private void drain() {
+        status.drain((kind, source, text, value) -> events.add(kind + " " + source + " " + text + " " + value));
+    }
+
+    @Test
+    public void actionsFinishOnTheirTick() {
+        SimClock clock = new SimClock(seconds -> { });
+        Clock.use(clock);
+        ActionScheduler scheduler = new ActionScheduler(status);
+
+        long t0 = Clock.millis();
+        scheduler.start("long", new Timed(2000), t0);
+        scheduler.start("instant", new Timed(0), t0);
+        scheduler.update(t0);
+        clock.advance(1000 * 1000000L);
+        scheduler.start("late", new Timed(500), Clock.millis());
+        loop(scheduler, clock, 5000);
+
+        assertTrue(scheduler.isIdle());
+        assertTrue(events.toString(), events.contains(StatusRing.COMPLETED + " instant null 0"));
+        assertTrue(events.toString(), events.contains(StatusRing.COMPLETED + " late null 500"));
+        assertTrue(events.toString(), events.contains(StatusRing.COMPLETED + " long null 2000"));
+        assertEquals(t0 + 2000, Clock.millis());
+    }
+
+    @Test
+    public void throwingActionFailsAndIsCancelled() {
+        SimClock clock = new SimClock(seconds -> { });
+        Clock.use(clock);
+        ActionScheduler scheduler = new ActionScheduler(status);
+        Timed broken = new Timed(100) {
+            @Override
+            public boolean update(long nowMs) {
+                if (nowMs - startMs >= 50) throw new IllegalStateException("jammed");
+                return false;
+            }
+        };
+
+        scheduler.start("broken", broken, Clock.millis());
+        loop(scheduler, clock, 1000);
+
+        assertEquals(1, broken.cancels);
+        assertEquals(events.toString(), 2, events.size());
+        assertEquals(StatusRing.FAILED + " broken IllegalStateException: jammed 50", events.get(1));
+    }
+
+    @Test
+    public void cancelAllStopsWhatIsRunning() {
+        SimClock clock = new SimClock(seconds -> { });
+        Clock.use(clock);
+        ActionScheduler scheduler = new ActionScheduler(status);
+        Timed slow = new Timed(10000);
+
+        scheduler.start("slow", slow, Clock.millis());
+        loop(scheduler, clock, 100);
+        assertTrue(scheduler.isRunning(slow));
+        scheduler.cancelAll();
+        drain();
+
+        assertFalse(scheduler.isRunning(slow));
+        assertEquals(1, slow.cancels);
+        assertTrue(events.toString(), events.contains(StatusRing.FAILED + " slow cancelled 0"));
+    }
+
+    @Test
+    public void robotFunctionsFinishOnTheirTick() {
+        Storage.setRoot(folder.getRoot());
+        SimRobot robot = new SimRobot();
+        Clock.use(robot.clock());
+        RobotFunctions functions = new RobotFunctions(robot.hardwareMap(), new SimTelemetry(robot.clock()), status);
+        ActionScheduler scheduler = new ActionScheduler(status);
+
+        scheduler.start("intake", functions.createAction("intake"), Clock.millis());
+        scheduler.start("park", functions.createAction("park"), Clock.millis());
+        loop(scheduler, robot.clock(), 5000);
+
+        assertTrue(events.toString(), events.contains(StatusRing.COMPLETED + " intake null " + TICK_MS));
+        assertTrue(events.toString(), events.contains(StatusRing.COMPLETED + " park null 500"));
+        assertEquals(0.0, robot.motor("intake").getPower(), 0.0);   // park stops the intake again
+    }
+}
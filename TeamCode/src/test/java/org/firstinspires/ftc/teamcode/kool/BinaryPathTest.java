@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * BinaryPath reading a file written by tracer/pathfile.py, and rejecting damaged ones
+ *
+ * paths/tracer.path was written from the path.json and functions.json next to it:
+ *     python3 tracer/pathfile.py TeamCode/src/test/resources/paths/path.json \
+ *         TeamCode/src/test/resources/paths/functions.json TeamCode/src/test/resources/paths/tracer.path
+ * Regenerate it after changing the layout on either side, and update the expected values here.
+ */
+public class BinaryPathTest {
+
+    static final String FIXTURE = "paths/tracer.path";
+
+    static final double[][] POINTS = {
+            { 84, 132 }, { 84, 120 }, { 84, 108 }, { 104, 108 }, { 132, 108 }, { 104, 120 }, { 84, 120 }
+    };
+    static final String[] TEMPLATES = { "intake", "outtake", "score", "park" };
+
+    static byte[] fixture() throws IOException {
+        try (InputStream in = BinaryPathTest.class.getClassLoader().getResourceAsStream(FIXTURE)) {
+            assertNotNull("Missing " + FIXTURE, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            for (int n; (n = in.read(chunk)) > 0; ) {
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    static void assertRejected(String what, byte[] data) {
+        try {
+            BinaryPath.fromBytes(data);
+            fail(what + " was accepted");
+        } catch (IOException expected) {
+            // loadPath falls back to the compiled path
+        }
+    }
+
+    @Test
+    public void tracerFileReadsBack() throws IOException, URISyntaxException {
+        URL resource = getClass().getClassLoader().getResource(FIXTURE);
+        assertNotNull("Missing " + FIXTURE, resource);
+        BinaryPath path = BinaryPath.load(new File(resource.toURI()));
+
+        assertEquals(POINTS.length, path.pointCount());
+        for (int i = 0; i < POINTS.length; i++) {
+            assertEquals("x " + i, POINTS[i][0], path.pointX(i), 0.0);
+            assertEquals("y " + i, POINTS[i][1], path.pointY(i), 0.0);
+        }
+
+        AutoData.Position start = path.startPosition();
+        assertEquals(84, start.x, 0.0);
+        assertEquals(132, start.y, 0.0);
+        assertEquals(315, start.rotation, 0.0);
+
+        AutoData.FunctionData[] functions = path.functions();
+        assertEquals(3, functions.length);
+        assertFunction(functions[0], "score", 84, 120, 315, AutoData.FunctionType.WAIT_TILL);
+        assertFunction(functions[1], "intake", 104, 108, 0, AutoData.FunctionType.RUN_WHILE_MOVING);
+        assertFunction(functions[2], "intake", 132, 108, 0, AutoData.FunctionType.RUN_WHILE_MOVING);
+
+        assertArrayEquals(TEMPLATES, path.templates());
+    }
+
+    private static void assertFunction(AutoData.FunctionData function, String name, double x, double y,
+                                       double rotation, AutoData.FunctionType type) {
+        assertEquals(name, function.name);
+        assertEquals(x, function.x, 0.0);
+        assertEquals(y, function.y, 0.0);
+        assertEquals(rotation, function.rotation, 0.0);
+        assertEquals(type, function.type);
+        assertEquals(AutoData.ActionType.FUNCTION, function.action);
+    }
+
+    /**
+     * Every byte belongs to a section, so any cut short of the end must fail at load
+     */
+    @Test
+    public void everyTruncationIsAnIOException() throws IOException {
+        byte[] data = fixture();
+        for (int length = 0; length < data.length; length++) {
+            assertRejected("Cut at " + length, Arrays.copyOf(data, length));
+        }
+    }
+
+    /**
+     * Counts big enough to overflow an int offset must not slip past the size check
+     */
+    @Test
+    public void hugeCountsAreAnIOException() throws IOException {
+        int[] countOffsets = { 8, 12, 16, 20 };   // points, functions, templates, strings
+        int[] counts = { 0x10000000, 0x08000000, 0x40000000, Integer.MAX_VALUE };
+        for (int field : countOffsets) {
+            for (int count : counts) {
+                byte[] data = fixture();
+                ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putInt(field, count);
+                assertRejected("Count " + count + " at " + field, data);
+            }
+        }
+    }
+
+    @Test
+    public void wrongMagicOrVersionIsAnIOException() throws IOException {
+        byte[] data = fixture();
+        data[0] = 'X';
+        assertRejected("Bad magic", data);
+
+        data = fixture();
+        ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).putShort(4, (short) 2);
+        assertRejected("Version 2", data);
+    }
+}
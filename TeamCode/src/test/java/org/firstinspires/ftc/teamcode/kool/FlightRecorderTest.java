@@ -0,0 +1,111 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.LoopTimer;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FlightRecorder - capacity from the measured loop rate, and only the newest logs kept
+ */
+public class FlightRecorderTest {
+
+    static final String SOURCE = "Typeshi";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        Storage.setRoot(folder.getRoot());
+    }
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+        Storage.setRoot(null);
+    }
+
+    /**
+     * Save a timing report for SOURCE with loops periodMs apart
+     */
+    static void saveReport(String stamp, long periodMs) throws IOException {
+        SimClock clock = new SimClock(seconds -> { });
+        Clock.use(clock);
+        LoopTimer timer = new LoopTimer();
+        for (int i = 0; i < 100; i++) {
+            timer.startLoop();
+            clock.advance(periodMs * 1000000L);
+            timer.endLoop();
+        }
+        timer.writeReport(Storage.file("looptimes/" + SOURCE + "-" + stamp + ".txt"), SOURCE);
+        Clock.use(null);
+    }
+
+    @Test
+    public void capacityWithoutAReportAssumesTheDefaultRate() {
+        assertEquals(0.0, LoopTimer.lastLoopRate(SOURCE), 0.0);
+        assertEquals((int) Math.ceil(FlightRecorder.TELEOP_SECONDS * FlightRecorder.DEFAULT_LOOP_HZ * 1.25),
+                FlightRecorder.capacityFor(SOURCE, FlightRecorder.TELEOP_SECONDS));
+    }
+
+    @Test
+    public void capacityFollowsTheNewestReport() throws IOException {
+        saveReport("20250101-120000", 20);   // 50 Hz
+        saveReport("20250102-120000", 4);    // 250 Hz - newest
+        assertEquals(250.0, LoopTimer.lastLoopRate(SOURCE), 0.5);
+
+        int capacity = FlightRecorder.capacityFor(SOURCE, FlightRecorder.TELEOP_SECONDS);
+        assertTrue("a whole TeleOp at the measured rate fits", capacity >= FlightRecorder.TELEOP_SECONDS * 250);
+        assertTrue(capacity <= FlightRecorder.TELEOP_SECONDS * 250 * 1.3);
+        assertEquals(0.0, LoopTimer.lastLoopRate("AutoPathFollower"), 0.0);
+    }
+
+    @Test
+    public void capacityIsClamped() throws IOException {
+        saveReport("20250101-120000", 1);    // 1000 Hz
+        assertEquals(FlightRecorder.MAX_CAPACITY, FlightRecorder.capacityFor(SOURCE, FlightRecorder.TELEOP_SECONDS));
+        assertEquals(FlightRecorder.MIN_CAPACITY, FlightRecorder.capacityFor(SOURCE, 0.1));
+    }
+
+    @Test
+    public void openKeepsOnlyTheNewestLogs() throws IOException {
+        File logs = Storage.file("flightlogs");
+        assertTrue(logs.mkdirs());
+        List<String> old = new ArrayList<>();
+        for (int day = 10; day < 10 + FlightRecorder.KEEP_LOGS + 3; day++) {
+            String name = SOURCE + "-202501" + day + "-120000.flight";
+            assertTrue(new File(logs, name).createNewFile());
+            old.add(name);
+        }
+        File other = new File(logs, "AutoPathFollower-20250101-120000.flight");
+        assertTrue(other.createNewFile());
+
+        File file = new File(logs, SOURCE + "-20250201-120000.flight");
+        FlightRecorder recorder = FlightRecorder.open(file, SOURCE, FlightRecorder.MIN_CAPACITY);
+        recorder.close();
+
+        String[] left = logs.list((dir, name) -> name.startsWith(SOURCE + "-"));
+        Arrays.sort(left);
+        assertEquals(FlightRecorder.KEEP_LOGS, left.length);
+        assertEquals(file.getName(), left[left.length - 1]);
+        assertEquals(old.get(old.size() - FlightRecorder.KEEP_LOGS + 1), left[0]);
+        assertFalse(new File(logs, old.get(0)).exists());
+        assertTrue("other OpModes' logs are left alone", other.exists());
+    }
+}
@@ -0,0 +1,241 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FunctionIndex.assignToWaypoints against a straightforward scan of every function
+ * at every waypoint, plus the 5000-point x 200-function benchmark
+ */
+public class FunctionIndexTest {
+
+    static final double TOLERANCE = 2.0;             // AutoPathFollower.POSITION_TOLERANCE
+    static final int BENCH_POINTS = 5000;
+    static final int BENCH_FUNCTIONS = 200;
+    static final int BENCH_RUNS = 30;
+
+    // ========================================
+    // FIXTURES
+    // ========================================
+
+    static AutoData.FunctionData function(String name, double x, double y) {
+        return new AutoData.FunctionData(name, x, y, 0, AutoData.FunctionType.RUN_WHILE_MOVING,
+                AutoData.ActionType.FUNCTION);
+    }
+
+    static PathSource path(final double[] xs, final double[] ys, final AutoData.FunctionData[] functions) {
+        return new PathSource() {
+            public int pointCount() { return xs.length; }
+            public double pointX(int i) { return xs[i]; }
+            public double pointY(int i) { return ys[i]; }
+            public AutoData.Position startPosition() { return new AutoData.Position(xs[0], ys[0], 0); }
+            public AutoData.FunctionData[] functions() { return functions; }
+            public String[] templates() { return new String[0]; }
+            public String describe() { return "test path"; }
+        };
+    }
+
+    /**
+     * Tracer-like drawing: a point every 0.5 inch, wandering around a 144 inch field.
+     * Half the functions sit on the path (some on the same spot), half anywhere.
+     */
+    static PathSource drawnPath(int points, int functionCount, long seed) {
+        Random random = new Random(seed);
+        double[] xs = new double[points], ys = new double[points];
+        double x = 72, y = 72, heading = 0;
+        for (int i = 0; i < points; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            x += 0.5 * Math.cos(heading);
+            y += 0.5 * Math.sin(heading);
+            if (x < 0 || x > 144 || y < 0 || y > 144) {
+                heading += Math.PI;
+                x = Math.max(0, Math.min(144, x));
+                y = Math.max(0, Math.min(144, y));
+            }
+            xs[i] = x;
+            ys[i] = y;
+        }
+        AutoData.FunctionData[] functions = new AutoData.FunctionData[functionCount];
+        for (int f = 0; f < functionCount; f++) {
+            if (f % 2 == 0) {
+                int p = random.nextInt(points);
+                functions[f] = function("f" + f, xs[p] + random.nextDouble() - 0.5, ys[p] + random.nextDouble() - 0.5);
+            } else if (f % 7 == 1) {
+                functions[f] = function("f" + f, functions[f - 1].x, functions[f - 1].y);
+            } else {
+                functions[f] = function("f" + f, random.nextDouble() * 144, random.nextDouble() * 144);
+            }
+        }
+        return path(xs, ys, functions);
+    }
+
+    // ========================================
+    // REFERENCE
+    // ========================================
+
+    /**
+     * Same rules as assignToWaypoints, checking every function at every waypoint
+     */
+    static AutoData.FunctionData[][] reference(PathSource path, double tolerance) {
+        AutoData.FunctionData[] functions = path.functions();
+        int points = path.pointCount();
+        List<List<Integer>> visits = new ArrayList<>();   // waypoints per function, in path order
+        boolean[] inVisit = new boolean[functions.length];
+        boolean[] matchedAny = new boolean[functions.length];
+        int[] best = new int[functions.length];
+        double[] bestDistance = new double[functions.length];
+        for (int f = 0; f < functions.length; f++) {
+            visits.add(new ArrayList<Integer>());
+        }
+
+        for (int p = 0; p <= points; p++) {
+            for (int f = 0; f < functions.length; f++) {
+                boolean near = p < points
+                        && Math.abs(functions[f].x - path.pointX(p)) < tolerance
+                        && Math.abs(functions[f].y - path.pointY(p)) < tolerance;
+                if (near) {
+                    double d = Math.hypot(functions[f].x - path.pointX(p), functions[f].y - path.pointY(p));
+                    if (!inVisit[f] || d < bestDistance[f]) {
+                        best[f] = p;
+                        bestDistance[f] = d;
+                    }
+                    inVisit[f] = true;
+                    matchedAny[f] = true;
+                } else if (inVisit[f]) {
+                    inVisit[f] = false;
+                    visits.get(f).add(best[f]);
+                }
+            }
+        }
+        for (int p = 0; p + 1 < points; p++) {
+            for (int f = 0; f < functions.length; f++) {
+                if (!matchedAny[f] && nearSegment(functions[f], path, p, tolerance)) {
+                    matchedAny[f] = true;
+                    visits.get(f).add(p + 1);
+                }
+            }
+        }
+
+        List<List<AutoData.FunctionData>> byWaypoint = new ArrayList<>();
+        for (int p = 0; p < points; p++) {
+            byWaypoint.add(new ArrayList<AutoData.FunctionData>());
+        }
+        for (int f = 0; f < functions.length; f++) {
+            for (int p : visits.get(f)) {
+                byWaypoint.get(p).add(functions[f]);
+            }
+        }
+        AutoData.FunctionData[][] result = new AutoData.FunctionData[points][];
+        for (int p = 0; p < points; p++) {
+            result[p] = byWaypoint.get(p).toArray(new AutoData.FunctionData[0]);
+        }
+        return result;
+    }
+
+    static boolean nearSegment(AutoData.FunctionData f, PathSource path, int p, double tolerance) {
+        double x0 = path.pointX(p), y0 = path.pointY(p);
+        double sx = path.pointX(p + 1) - x0, sy = path.pointY(p + 1) - y0;
+        double lengthSq = sx * sx + sy * sy;
+        double t = lengthSq > 1e-12 ? Math.max(0.0, Math.min(1.0, ((f.x - x0) * sx + (f.y - y0) * sy) / lengthSq)) : 0.0;
+        return Math.abs(f.x - (x0 + t * sx)) < tolerance && Math.abs(f.y - (y0 + t * sy)) < tolerance;
+    }
+
+    // ========================================
+    // TESTS
+    // ========================================
+
+    @Test
+    public void functionsAtTheSameSpotAllRunInAutoDataOrder() {
+        AutoData.FunctionData a = function("a", 10, 0), b = function("b", 10, 0);
+        PathSource path = path(new double[] { 0, 10, 20 }, new double[] { 0, 0, 0 }, new AutoData.FunctionData[] { a, b });
+
+        AutoData.FunctionData[][] byWaypoint = new FunctionIndex(path.functions(), TOLERANCE).assignToWaypoints(path);
+        assertArrayEquals(new AutoData.FunctionData[] { a, b }, byWaypoint[1]);
+        assertEquals(0, byWaypoint[0].length);
+        assertEquals(0, byWaypoint[2].length);
+    }
+
+    @Test
+    public void oncePerPassAtTheClosestSample() {
+        // Dense samples: five of them are within tolerance of the function at x = 10.2
+        double[] xs = new double[41], ys = new double[41];
+        for (int i = 0; i < xs.length; i++) xs[i] = i * 0.5;
+        AutoData.FunctionData f = function("f", 10.2, 0);
+        PathSource path = path(xs, ys, new AutoData.FunctionData[] { f });
+
+        AutoData.FunctionData[][] byWaypoint = new FunctionIndex(path.functions(), TOLERANCE).assignToWaypoints(path);
+        int attached = 0;
+        for (int p = 0; p < xs.length; p++) attached += byWaypoint[p].length;
+        assertEquals(1, attached);
+        assertEquals(1, byWaypoint[20].length);   // x = 10.0
+    }
+
+    @Test
+    public void passingTwiceRunsTwice() {
+        AutoData.FunctionData f = function("f", 10, 0);
+        PathSource path = path(new double[] { 0, 10, 20, 10, 0 }, new double[] { 0, 0, 0, 0, 0 },
+                new AutoData.FunctionData[] { f });
+
+        AutoData.FunctionData[][] byWaypoint = new FunctionIndex(path.functions(), TOLERANCE).assignToWaypoints(path);
+        assertEquals(1, byWaypoint[1].length);
+        assertEquals(1, byWaypoint[3].length);
+    }
+
+    @Test
+    public void betweenWaypointsAttachesToTheSegmentEnd() {
+        AutoData.FunctionData f = function("f", 15, 1);
+        PathSource path = path(new double[] { 0, 10, 20, 30 }, new double[] { 0, 0, 0, 0 },
+                new AutoData.FunctionData[] { f });
+
+        AutoData.FunctionData[][] byWaypoint = new FunctionIndex(path.functions(), TOLERANCE).assignToWaypoints(path);
+        assertArrayEquals(new AutoData.FunctionData[] { f }, byWaypoint[2]);
+    }
+
+    @Test
+    public void matchesTheReferenceOnDrawnPaths() {
+        for (long seed = 1; seed <= 5; seed++) {
+            PathSource path = drawnPath(BENCH_POINTS, BENCH_FUNCTIONS, seed);
+            AutoData.FunctionData[][] expected = reference(path, TOLERANCE);
+            AutoData.FunctionData[][] actual = new FunctionIndex(path.functions(), TOLERANCE).assignToWaypoints(path);
+            for (int p = 0; p < expected.length; p++) {
+                assertArrayEquals("seed " + seed + " waypoint " + p, expected[p], actual[p]);
+            }
+        }
+    }
+
+    /**
+     * 5000 points x 200 functions through the grid and the full scan - prints both times,
+     * only the results are asserted so a loaded machine can't fail it
+     */
+    @Test
+    public void benchmarkAgainstTheFullScan() {
+        PathSource path = drawnPath(BENCH_POINTS, BENCH_FUNCTIONS, 42);
+        FunctionIndex index = new FunctionIndex(path.functions(), TOLERANCE);
+
+        long[] indexed = new long[BENCH_RUNS], scanned = new long[BENCH_RUNS];
+        int sink = 0;
+        for (int run = 0; run < BENCH_RUNS; run++) {
+            long start = System.nanoTime();
+            sink += index.assignToWaypoints(path).length;
+            indexed[run] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += reference(path, TOLERANCE).length;
+            scanned[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(indexed);
+        Arrays.sort(scanned);
+        long indexedMedian = indexed[BENCH_RUNS / 2], scannedMedian = scanned[BENCH_RUNS / 2];
+        System.out.printf("FunctionIndex %d points x %d functions: %.3f ms indexed, %.3f ms full scan%n",
+                BENCH_POINTS, BENCH_FUNCTIONS, indexedMedian / 1e6, scannedMedian / 1e6);
+
+        assertEquals(2 * BENCH_RUNS * BENCH_POINTS, sink);
+    }
+}
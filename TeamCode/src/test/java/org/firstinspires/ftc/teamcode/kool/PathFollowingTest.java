@@ -0,0 +1,97 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.OpModeRunner;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * AutoPathFollower on SimRobot - the path is driven continuously, stopping only
+ * at WAIT_TILL waypoints and the end, and faster than the stop-and-go fallback
+ */
+public class PathFollowingTest {
+
+    static final double SECONDS = 30.0;
+    static final double CORNER_TOLERANCE = 6.0;   // inches - pure pursuit cuts corners by about its lookahead
+    static final double STOP_TOLERANCE = 1.0;     // inches from a waypoint the robot stops at
+    static final double STOPPED_SPEED = 6.0;      // inches/sec - slower counts as stopping
+    static final double PASSING_SPEED = 20.0;     // inches/sec - at least this through other waypoints
+    static final double OPEN_LOOP_END_TOLERANCE = 8.0;   // inches - timed moves drift, nothing corrects them
+
+    static SimRobot atStart() {
+        SimRobot robot = new SimRobot();
+        robot.setPose(AutoData.START_POS.x, AutoData.START_POS.y, Math.toRadians(AutoData.START_POS.rotation));
+        return robot;
+    }
+
+    @Test
+    public void drivesThroughWaypointsAndStopsOnlyForWaitTill() {
+        SimRobot robot = atStart();
+
+        // x, y, speed after every physics step
+        List<double[]> samples = new ArrayList<>();
+        robot.clock().addListener(now -> samples.add(new double[] { robot.getX(), robot.getY(), robot.getSpeed() }));
+
+        OpModeRunner.Result result = new OpModeRunner(robot).run(new AutoPathFollower(), SECONDS);
+        assertTrue(result.toString(), result.ok());
+
+        PathSource path = new CompiledPath();
+        AutoData.FunctionData[][] byWaypoint = AutoPathFollower.functionsByWaypoint(path);
+        int from = 0;
+        for (int i = 1; i < path.pointCount(); i++) {
+            // Closest approach, searching forward from the previous waypoint's, and the
+            // slowest the robot went while within STOP_TOLERANCE of the waypoint
+            double x = path.pointX(i), y = path.pointY(i);
+            double closest = Double.MAX_VALUE, slowest = Double.MAX_VALUE;
+            for (int s = from; s < samples.size(); s++) {
+                double distance = Math.hypot(samples.get(s)[0] - x, samples.get(s)[1] - y);
+                if (distance < closest) {
+                    closest = distance;
+                    from = s;
+                } else if (closest < CORNER_TOLERANCE && distance > 2 * CORNER_TOLERANCE) {
+                    break;   // left this waypoint behind
+                }
+                if (distance < STOP_TOLERANCE) slowest = Math.min(slowest, samples.get(s)[2]);
+            }
+            double speed = samples.get(from)[2];
+            String where = String.format("waypoint %d (%.0f, %.0f): %.2f in away at %.1f in/s, slowest %.1f in/s",
+                    i, x, y, closest, speed, slowest);
+
+            if (i == path.pointCount() - 1 || AutoPathFollower.hasWaitTill(byWaypoint[i])) {
+                assertTrue(where, slowest < STOPPED_SPEED);
+            } else {
+                assertTrue(where, closest < CORNER_TOLERANCE && speed > PASSING_SPEED);
+            }
+        }
+    }
+
+    /**
+     * Whole-path time with pure pursuit (followPath) against the timed stop-and-go
+     * moves AutoPathFollower falls back to without drive encoders (executePath)
+     */
+    @Test
+    public void purePursuitBeatsStopAndGo() {
+        OpModeRunner.Result continuous = new OpModeRunner(atStart()).run(new AutoPathFollower(), SECONDS);
+
+        SimRobot encoderless = atStart();
+        for (String name : SimRobot.DRIVE_MOTORS) {
+            encoderless.motor(name).removeEncoder();
+        }
+        OpModeRunner.Result stopAndGo = new OpModeRunner(encoderless).run(new AutoPathFollower(), SECONDS);
+
+        System.out.printf("AutoPathFollower path time: %.2f s pure pursuit, %.2f s stop-and-go%n",
+                continuous.simSeconds, stopAndGo.simSeconds);
+        assertTrue(continuous.toString(), continuous.ok());
+        assertTrue(stopAndGo.toString(), stopAndGo.ok());
+
+        // Both drove the whole path - a run that quit early would look fast
+        AutoData.Point end = AutoData.PATH[AutoData.PATH.length - 1];
+        assertTrue(continuous.toString(), Math.hypot(continuous.x - end.x, continuous.y - end.y) < STOP_TOLERANCE);
+        assertTrue(stopAndGo.toString(), Math.hypot(stopAndGo.x - end.x, stopAndGo.y - end.y) < OPEN_LOOP_END_TOLERANCE);
+        assertTrue(continuous.simSeconds < stopAndGo.simSeconds);
+    }
+}
@@ -0,0 +1,108 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * RobotFunctions' name -> action table against the getDeclaredMethod() dispatch it replaced
+ */
+public class RobotFunctionsDispatchTest {
+
+    static final int CALLS = 200000;
+    static final int ROUNDS = 9;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RobotFunctions functions;
+
+    @Before
+    public void setUp() {
+        Storage.setRoot(folder.getRoot());
+        SimRobot robot = new SimRobot();
+        functions = new RobotFunctions(robot.hardwareMap(), new SimTelemetry(robot.clock()), new StatusRing(64));
+    }
+
+    @After
+    public void tearDown() {
+        Storage.setRoot(null);
+    }
+
+    /**
+     * The old executeFunction() lookup, on every call
+     */
+    static Action reflective(RobotFunctions functions, String name) throws ReflectiveOperationException {
+        Method method = RobotFunctions.class.getDeclaredMethod(name);
+        method.setAccessible(true);
+        return (Action) method.invoke(functions);
+    }
+
+    @Test
+    public void tableAndReflectionBuildTheSameActions() throws ReflectiveOperationException {
+        for (String name : AutoData.TEMPLATES) {
+            assertTrue(name, functions.hasFunction(name));
+            assertSame(name, reflective(functions, name).getClass(), functions.createAction(name).getClass());
+        }
+        assertNull(functions.createAction("nope"));
+    }
+
+    @Test
+    public void validateListsEveryUnknownName() {
+        AutoData.FunctionData typo = new AutoData.FunctionData("scroe", 0, 0, 0,
+                AutoData.FunctionType.WAIT_TILL, AutoData.ActionType.FUNCTION);
+        PathSource path = FunctionIndexTest.path(new double[] { 0 }, new double[] { 0 },
+                new AutoData.FunctionData[] { typo, typo });
+        try {
+            functions.validate(path);
+            fail("validate() accepted an unknown function");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[scroe]"));
+        }
+    }
+
+    /**
+     * Same name sequence through both, per-call times printed (not asserted - timing is
+     * too noisy on a shared machine to fail a build on)
+     */
+    @Test
+    public void benchmarkAgainstReflection() throws ReflectiveOperationException {
+        String[] names = AutoData.TEMPLATES;
+        double[] table = new double[ROUNDS], reflection = new double[ROUNDS];
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += functions.createAction(names[i % names.length]) != null ? 1 : 0;
+            }
+            table[round] = (System.nanoTime() - start) / (double) CALLS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < CALLS; i++) {
+                sink += reflective(functions, names[i % names.length]) != null ? 1 : 0;
+            }
+            reflection[round] = (System.nanoTime() - start) / (double) CALLS;
+        }
+        Arrays.sort(table);
+        Arrays.sort(reflection);
+        System.out.printf("RobotFunctions dispatch: %.1f ns table, %.1f ns getDeclaredMethod + invoke (median of %d x %d calls)%n",
+                table[ROUNDS / 2], reflection[ROUNDS / 2], ROUNDS, CALLS);
+
+        assertEquals(2 * ROUNDS * CALLS, sink);
+    }
+}
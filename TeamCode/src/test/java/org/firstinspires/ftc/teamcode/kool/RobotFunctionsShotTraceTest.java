@@ -0,0 +1,157 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimMotor;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RobotFunctions score traces - kept in memory while scoring, written only by saveShotTraces() -
+ * and a second shooter action skipped while a score holds the flywheel
+ */
+public class RobotFunctionsShotTraceTest {
+
+    static final long TICK_NANOS = 10000000L;
+    static final long[] SHOTS_AFTER_FEED_MS = { 150, 450, 750 };
+    static final double SHOT_KICK = 350000.0;   // ticks/sec^2 for one physics step - an ~8% dip
+    static final long OVERLAP_AFTER_FEED_MS = 300;  // between the first and second shot
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SimRobot robot;
+    private StatusRing status;
+    private RobotFunctions functions;
+
+    @Before
+    public void setUp() {
+        Storage.setRoot(folder.getRoot());
+        robot = new SimRobot();
+        Clock.use(robot.clock());
+        status = new StatusRing(64);
+        functions = new RobotFunctions(robot.hardwareMap(), new SimTelemetry(robot.clock()), status);
+    }
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+        Storage.setRoot(null);
+    }
+
+    /**
+     * Run one score to the end, slowing the flywheel where each artifact goes through
+     */
+    private void score() {
+        score(null);
+    }
+
+    /**
+     * As score(), also starting overlap OVERLAP_AFTER_FEED_MS into the feed and updating it alongside
+     */
+    private void score(Action overlap) {
+        SimMotor outtake = robot.motor("outtake"), outtake2 = robot.motor("outtake2"), intake = robot.motor("intake");
+        Action score = functions.createAction("score");
+        score.start(Clock.millis());
+        long feedStartMs = -1;
+        int shot = 0;
+        for (int tick = 0; tick < 1000; tick++) {
+            robot.clock().advance(TICK_NANOS);
+            long now = Clock.millis();
+            if (feedStartMs < 0 && intake.getPower() != 0.0) feedStartMs = now;
+            if (feedStartMs >= 0 && shot < SHOTS_AFTER_FEED_MS.length && now - feedStartMs >= SHOTS_AFTER_FEED_MS[shot]) {
+                outtake.disturb(-Math.signum(outtake.getVelocity()) * SHOT_KICK);
+                outtake2.disturb(-Math.signum(outtake2.getVelocity()) * SHOT_KICK);
+                shot++;
+            }
+            if (overlap != null && feedStartMs >= 0 && now - feedStartMs == OVERLAP_AFTER_FEED_MS) {
+                overlap.start(now);
+            }
+            if (overlap != null && feedStartMs >= 0 && now - feedStartMs > OVERLAP_AFTER_FEED_MS
+                    && overlap.update(now)) {
+                overlap = null;
+            }
+            if (score.update(now)) return;
+        }
+        throw new AssertionError("score never finished");
+    }
+
+    private File[] traces() {
+        return Storage.list(Storage.file("shots"), "score-", ".csv");
+    }
+
+    @Test
+    public void tracesAreWrittenAtSaveNotWhenScoreEnds() throws IOException {
+        score();
+        score();
+        assertEquals(0, traces().length);
+
+        assertEquals(2, functions.saveShotTraces());
+        assertEquals(2, traces().length);
+        assertEquals(0, functions.saveShotTraces());   // each trace is written once
+        assertEquals(2, traces().length);
+    }
+
+    @Test
+    public void oldTracesArePruned() throws IOException {
+        File shots = Storage.file("shots");
+        assertTrue(shots.mkdirs());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(new File(shots, String.format("score-20250101-1200%02d-000.csv", i)).createNewFile());
+        }
+        File oldest = new File(shots, "score-20250101-120000-000.csv");
+
+        score();
+        functions.saveShotTraces();
+        File[] left = traces();
+        assertEquals(40, left.length);
+        assertFalse(oldest.exists());
+        assertTrue("the new trace is kept", left[left.length - 1].length() > 0);
+    }
+
+    /**
+     * An outtake started mid-score must not stop the flywheel or reset the shot count
+     */
+    @Test
+    public void outtakeDuringScoreIsSkipped() {
+        List<String> warnings = new ArrayList<>();
+        List<String> infos = new ArrayList<>();
+        StatusRing.Handler collect = (kind, source, text, value) -> {
+            if (kind == StatusRing.WARNING) warnings.add(source + ": " + text);
+            if (kind == StatusRing.INFO) infos.add(source + ": " + text);
+        };
+        status.drain(collect);
+        warnings.clear();
+        infos.clear();
+
+        score(functions.createAction("outtake"));
+        status.drain(collect);
+        assertEquals("[Outtake: Shooter busy - skipped]", warnings.toString());
+        assertTrue(infos.toString(), infos.contains("Score: Every shot seen"));
+        assertFalse(infos.toString(), infos.contains("Outtake: Running"));
+
+        // Free again once the score has ended
+        Action outtake = functions.createAction("outtake");
+        outtake.start(Clock.millis());
+        assertFalse(outtake.update(Clock.millis()));
+        outtake.cancel();
+        warnings.clear();
+        status.drain(collect);
+        assertTrue(warnings.toString(), warnings.isEmpty());
+    }
+}
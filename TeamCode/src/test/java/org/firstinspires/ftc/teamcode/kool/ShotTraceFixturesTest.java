@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.kool;
+
+import org.firstinspires.ftc.teamcode.sim.SimMotor;
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.StatusRing;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * The synthetic sim-*.csv shot traces ShotDetectorTest replays - recorded here, from
+ * RobotFunctions.score() on SimRobot's shooter with a flywheel kick where each artifact passes
+ *
+ * The simulator is deterministic, so each trace must come out byte for byte as committed.
+ * After changing the shooter or the motor model, rewrite them with
+ *     SHOT_TRACES_WRITE=$PWD/TeamCode/src/test/resources/shots ./gradlew :TeamCode:testDebugUnitTest
+ * and check the counts in shots/expected.properties still hold.
+ */
+public class ShotTraceFixturesTest {
+
+    static final String TRACES = "shots";
+    static final String WRITE_VARIABLE = "SHOT_TRACES_WRITE";
+    static final long TICK_NANOS = 10000000L;
+    static final double OUTTAKE2_KICK = 0.7;   // of outtake's - the second wheel takes less of each artifact
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+        Storage.setRoot(null);
+    }
+
+    /**
+     * Score once, kicking the flywheel kick ticks/sec^2 for one physics step at each shotsAfterFeedMs
+     */
+    private File record(String name, long[] shotsAfterFeedMs, double kick) throws IOException {
+        File root = folder.newFolder();
+        Storage.setRoot(root);
+        SimRobot robot = new SimRobot();
+        Clock.use(robot.clock());
+        RobotFunctions functions = new RobotFunctions(robot.hardwareMap(), new SimTelemetry(robot.clock()),
+                new StatusRing(64));
+
+        SimMotor outtake = robot.motor("outtake"), outtake2 = robot.motor("outtake2"), intake = robot.motor("intake");
+        Action score = functions.createAction("score");
+        score.start(Clock.millis());
+        long feedStartMs = -1;
+        int shot = 0;
+        for (int tick = 0; ; tick++) {
+            if (tick == 1000) throw new AssertionError(name + ": score never finished");
+            robot.clock().advance(TICK_NANOS);
+            long now = Clock.millis();
+            if (feedStartMs < 0 && intake.getPower() != 0.0) feedStartMs = now;
+            if (feedStartMs >= 0 && shot < shotsAfterFeedMs.length && now - feedStartMs >= shotsAfterFeedMs[shot]) {
+                outtake.disturb(-Math.signum(outtake.getVelocity()) * kick);
+                outtake2.disturb(-Math.signum(outtake2.getVelocity()) * kick * OUTTAKE2_KICK);
+                shot++;
+            }
+            if (score.update(now)) break;
+        }
+
+        assertEquals(1, functions.saveShotTraces());
+        File[] traces = Storage.list(Storage.file("shots"), "score-", ".csv");
+        assertEquals(1, traces.length);
+        return traces[0];
+    }
+
+    /**
+     * Compare a fresh recording with the committed trace - or replace it, with SHOT_TRACES_WRITE set
+     */
+    private void check(String name, long[] shotsAfterFeedMs, double kick) throws IOException, URISyntaxException {
+        File recorded = record(name, shotsAfterFeedMs, kick);
+        String write = System.getenv(WRITE_VARIABLE);
+        if (write != null) {
+            Files.copy(recorded.toPath(), new File(write, name).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        URL committed = getClass().getClassLoader().getResource(TRACES + "/" + name);
+        assertNotNull("Missing " + TRACES + "/" + name, committed);
+        assertArrayEquals(name + " no longer matches the simulator - see the class comment",
+                Files.readAllBytes(new File(committed.toURI()).toPath()), Files.readAllBytes(recorded.toPath()));
+    }
+
+    @Test
+    public void threeShots() throws Exception {
+        check("sim-three-shots.csv", new long[] { 150, 450, 750 }, 350000);
+    }
+
+    @Test
+    public void twoShotsThenJam() throws Exception {
+        check("sim-two-shots-then-jam.csv", new long[] { 200, 600 }, 350000);
+    }
+
+    @Test
+    public void quickShots() throws Exception {
+        check("sim-quick-shots.csv", new long[] { 100, 300, 500 }, 400000);
+    }
+
+    @Test
+    public void noShots() throws Exception {
+        check("sim-no-shots.csv", new long[0], 0);
+    }
+}
@@ -0,0 +1,206 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FlightLog - streaming reader for the .flight files kool/FlightRecorder writes
+ *
+ * Records are read through a fixed CHUNK_RECORDS buffer into one reused
+ * Record, so a log of any length replays in constant memory:
+ *     try (FlightLog log = FlightLog.open(file)) {
+ *         FlightLog.Record r = new FlightLog.Record();
+ *         while (log.next(r)) { ... }
+ *     }
+ * Reads version 1 (64-byte, pose only) and version 2 (128-byte) records; the
+ * fields a version 1 file doesn't have read as 0.
+ */
+public class FlightLog implements Closeable {
+
+    private static final int MAGIC = 0x52464F57;   // "WOFR"
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORDS_OFFSET = 4096;
+    private static final int CHUNK_RECORDS = 256;
+
+    /**
+     * Record - one control loop, overwritten by every next()
+     */
+    public static final class Record {
+        public int index;                        // 0-based position in the log
+        public long nanos;                       // since the recorder opened
+        public final int[] ticks = new int[4];   // FL, FR, BL, BR
+        public final float[] drive = new float[4];
+        public float heading, x, y, targetX, targetY;
+        public int waypoint, function;
+        public final float[] mechanisms = new float[3];   // intake, outtake, outtake2
+        public final int[] buttons = new int[2];          // gamepad1, gamepad2
+        public final float[] axes = new float[12];        // GamepadBindings axis ids
+    }
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final ByteBuffer chunk;
+    private final int version;
+    private final int recordBytes;
+    private final int count;
+    private final int dropped;
+    private final long startMillis;
+    private final String source;
+    private final List<String> functionNames;
+    private int next = 0;
+
+    private FlightLog(RandomAccessFile raf, ByteBuffer header) throws IOException {
+        this.raf = raf;
+        this.channel = raf.getChannel();
+        if (header.getInt(0) != MAGIC) throw new IOException("Not a flight log");
+        version = header.getShort(4);
+        recordBytes = header.getShort(6);
+        if (version < 1 || version > 2 || recordBytes < 64) {
+            throw new IOException("Unsupported flight log version " + version);
+        }
+        startMillis = header.getLong(16);
+        dropped = header.getInt(24);
+
+        // A file copied while the robot was still writing may end mid-record
+        long available = Math.max(0, (channel.size() - RECORDS_OFFSET) / recordBytes);
+        count = (int) Math.min(header.getInt(12), available);
+
+        source = version >= 2 ? readSource(header) : "";
+        functionNames = readNames(header, header.getInt(28));
+        chunk = ByteBuffer.allocateDirect(recordBytes * CHUNK_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+        chunk.limit(0);
+        channel.position(RECORDS_OFFSET);
+    }
+
+    public static FlightLog open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RECORDS_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && raf.getChannel().read(header) > 0) {
+                // read the header page
+            }
+            if (header.position() < HEADER_BYTES) throw new EOFException("File is shorter than the header");
+            return new FlightLog(raf, header);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static String readSource(ByteBuffer header) {
+        int end = 32;
+        while (end < HEADER_BYTES && header.get(end) != 0) end++;
+        byte[] bytes = new byte[end - 32];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = header.get(32 + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readNames(ByteBuffer header, int nameCount) {
+        List<String> names = new ArrayList<>();
+        int pos = HEADER_BYTES;
+        for (int n = 0; n < nameCount && pos + 2 <= header.position(); n++) {
+            int length = header.getShort(pos) & 0xFFFF;
+            pos += 2;
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) bytes[i] = header.get(pos + i);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+            pos += length;
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    // ========================================
+    // READING
+    // ========================================
+
+    /**
+     * Read the next record into r
+     * @return false at the end of the log
+     */
+    public boolean next(Record r) throws IOException {
+        if (next >= count) return false;
+        if (chunk.remaining() < recordBytes) refill();
+
+        int base = chunk.position();
+        r.index = next++;
+        r.nanos = chunk.getLong(base);
+        for (int i = 0; i < 4; i++) {
+            r.ticks[i] = chunk.getInt(base + 8 + i * 4);
+            r.drive[i] = chunk.getFloat(base + 24 + i * 4);
+        }
+        r.heading = chunk.getFloat(base + 40);
+        r.x = chunk.getFloat(base + 44);
+        r.y = chunk.getFloat(base + 48);
+        r.targetX = chunk.getFloat(base + 52);
+        r.targetY = chunk.getFloat(base + 56);
+        r.waypoint = chunk.getShort(base + 60);
+        r.function = chunk.getShort(base + 62);
+        if (version >= 2) {
+            for (int i = 0; i < 3; i++) r.mechanisms[i] = chunk.getFloat(base + 64 + i * 4);
+            r.buttons[0] = chunk.getShort(base + 76) & 0xFFFF;
+            r.buttons[1] = chunk.getShort(base + 78) & 0xFFFF;
+            for (int i = 0; i < 12; i++) r.axes[i] = chunk.getFloat(base + 80 + i * 4);
+        }
+        chunk.position(base + recordBytes);
+        return true;
+    }
+
+    private void refill() throws IOException {
+        int records = Math.min(CHUNK_RECORDS, count - next);
+        chunk.clear();
+        chunk.limit(records * recordBytes);
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk) < 0) throw new EOFException("Flight log ended early");
+        }
+        chunk.flip();
+    }
+
+    // ========================================
+    // HEADER
+    // ========================================
+
+    public int version() {
+        return version;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Wall clock time the recording started (ms since the epoch)
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Recording OpMode's name ("" for version 1 logs, which were always AutoPathFollower)
+     */
+    public String source() {
+        return source;
+    }
+
+    public List<String> functionNames() {
+        return functionNames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        raf.close();
+    }
+}
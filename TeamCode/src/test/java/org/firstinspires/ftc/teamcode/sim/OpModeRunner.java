@@ -0,0 +1,326 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.robocol.TelemetryMessage;
+
+import org.firstinspires.ftc.robotcore.internal.opmode.OpModeServices;
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.ImuPoller;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * OpModeRunner - runs one TeamCode OpMode against a SimRobot, off-robot
+ *
+ * Does what the Robot Controller's event loop does - init, start, stop - with
+ * the SDK's own OpMode classes, so the OpMode under test is the unmodified
+ * production class. While it runs, Clock is switched to the robot's SimClock,
+ * Storage to a scratch folder (paths, loop reports and flight logs land on the
+ * desktop), PoseSources to SimImu's flat mounting and ImuPoller to
+ * SimImuScheduler, so the same OpMode on the same robot gives the same run every time.
+ *
+ * LinearOpMode: runOpMode() gets its own thread (the clock's control thread),
+ * start is pressed once it reaches waitForStart(), and at the deadline the
+ * stop is requested exactly like the Driver Station's stop button.
+ * OpMode: init / init_loop / start / loop / stop on the calling thread, with
+ * LOOP_NANOS of event loop overhead charged per loop().
+ *
+ * Usage:
+ *     SimRobot robot = new SimRobot();
+ *     robot.setPose(x, y, heading);
+ *     OpModeRunner.Result result = new OpModeRunner(robot).run(new AutoPathFollower(), 30.0);
+ */
+public class OpModeRunner {
+
+    public static final long LOOP_NANOS = 1000000L;            // event loop overhead per loop()
+    public static final long DRIVER_PERIOD_NANOS = 10000000L;  // gamepad updates every 10 ms of sim time
+    public static final long INIT_TIMEOUT_MS = 10000L;         // real time allowed to reach waitForStart()
+    public static final long STOP_TIMEOUT_MS = 5000L;          // real time allowed to exit after stop
+
+    /**
+     * Driver - scripted gamepads, called with the seconds since start
+     */
+    public interface Driver {
+        void drive(double seconds, Gamepad gamepad1, Gamepad gamepad2);
+    }
+
+    private final SimRobot robot;
+    private final SimTelemetry telemetry;
+    private Driver driver = null;
+    private double realTimeFactor = 0.0;
+    private File storageRoot = new File(System.getProperty("java.io.tmpdir"), "ftc-sim");
+
+    public OpModeRunner(SimRobot robot) {
+        this.robot = robot;
+        this.telemetry = new SimTelemetry(robot.clock());
+    }
+
+    public OpModeRunner setDriver(Driver driver) {
+        this.driver = driver;
+        return this;
+    }
+
+    /**
+     * 0 = as fast as possible (default), 1 = real time
+     */
+    public OpModeRunner setRealTimeFactor(double factor) {
+        realTimeFactor = factor;
+        return this;
+    }
+
+    /**
+     * Folder standing in for /sdcard/FIRST
+     */
+    public OpModeRunner setStorageRoot(File folder) {
+        storageRoot = folder;
+        return this;
+    }
+
+    public SimTelemetry telemetry() {
+        return telemetry;
+    }
+
+    // ========================================
+    // RESULT
+    // ========================================
+
+    public static class Result {
+        public final String opMode;
+        public final double simSeconds;
+        public final long realMillis;
+        public final double x, y, heading;
+        public final String telemetry;
+        public final Throwable error;
+        public final boolean stuck;
+
+        Result(String opMode, double simSeconds, long realMillis, SimRobot robot,
+               String telemetry, Throwable error, boolean stuck) {
+            this.opMode = opMode;
+            this.simSeconds = simSeconds;
+            this.realMillis = realMillis;
+            this.x = robot.getX();
+            this.y = robot.getY();
+            this.heading = robot.getHeading();
+            this.telemetry = telemetry;
+            this.error = error;
+            this.stuck = stuck;
+        }
+
+        public boolean ok() {
+            return error == null && !stuck;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "%s: %.2f s simulated in %d ms (%.0fx)%n",
+                    opMode, simSeconds, realMillis, simSeconds * 1000.0 / Math.max(1, realMillis)));
+            text.append(String.format(Locale.US, "Final pose: (%.2f, %.2f) @ %.1f deg%n",
+                    x, y, Math.toDegrees(heading)));
+            if (stuck) text.append("STUCK: OpMode did not finish after stop was requested\n");
+            if (error != null) {
+                StringWriter trace = new StringWriter();
+                error.printStackTrace(new PrintWriter(trace));
+                text.append("ERROR: ").append(trace);
+            }
+            if (!telemetry.isEmpty()) text.append("Last telemetry:\n").append(telemetry);
+            return text.toString();
+        }
+    }
+
+    // ========================================
+    // RUN
+    // ========================================
+
+    public Result run(OpMode opMode, double seconds) {
+        final SimClock clock = robot.clock();
+        long realStart = System.nanoTime();
+        long deadline = clock.now() + (long) (seconds * 1e9);
+
+        opMode.hardwareMap = robot.hardwareMap();
+        opMode.telemetry = telemetry;
+        opMode.gamepad1 = new Gamepad();
+        opMode.gamepad2 = new Gamepad();
+
+        Clock.use(clock);
+        Storage.setRoot(storageRoot);
+        PoseSources.setImuOrientation(SimImu.FLAT);
+        SimImuScheduler imuScheduler = new SimImuScheduler(clock);
+        clock.addListener(imuScheduler);
+        ImuPoller.setScheduler(imuScheduler);
+        Throwable error = null;
+        boolean stuck = false;
+        try {
+            storageRoot.mkdirs();
+            installServices(opMode);
+            clock.setRealTimeFactor(realTimeFactor);
+            if (opMode instanceof LinearOpMode) {
+                Outcome outcome = runLinear((LinearOpMode) opMode, deadline);
+                error = outcome.error;
+                stuck = outcome.stuck;
+            } else {
+                error = runIterative(opMode, deadline);
+            }
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            clock.setControlThread(null);
+            Clock.use(null);
+            Storage.setRoot(null);
+            PoseSources.setImuOrientation(null);
+            ImuPoller.setScheduler(null);
+            clock.removeListener(imuScheduler);
+        }
+
+        long realMillis = (System.nanoTime() - realStart) / 1000000L;
+        return new Result(opMode.getClass().getSimpleName(), clock.seconds(), realMillis, robot,
+                telemetry.getFrame(), error, stuck);
+    }
+
+    private static class Outcome {
+        volatile Throwable error = null;
+        boolean stuck = false;
+    }
+
+    private Outcome runLinear(final LinearOpMode opMode, final long deadline) throws Exception {
+        final SimClock clock = robot.clock();
+        final Outcome outcome = new Outcome();
+        final Thread thread = new Thread(() -> {
+            try {
+                opMode.runOpMode();
+            } catch (InterruptedException e) {
+                // Normal exit after stop
+            } catch (Throwable t) {
+                outcome.error = t;
+            }
+        }, "sim-opmode");
+
+        SimClock.Listener listener = new SimClock.Listener() {
+            private long nextDrive = clock.now();
+            private boolean stopped = false;
+
+            @Override
+            public void advanced(long now) {
+                if (Thread.currentThread() != thread) return;
+                if (driver != null && opMode.isStarted() && now >= nextDrive) {
+                    nextDrive = now + DRIVER_PERIOD_NANOS;
+                    driver.drive(clock.seconds(), opMode.gamepad1, opMode.gamepad2);
+                }
+                if (!stopped && now >= deadline) {
+                    stopped = true;
+                    requestStop(opMode);
+                    thread.interrupt();
+                }
+            }
+        };
+        clock.addListener(listener);
+        clock.setControlThread(thread);
+        try {
+            thread.start();
+
+            // Init runs until waitForStart() parks the thread
+            long initDeadline = System.currentTimeMillis() + INIT_TIMEOUT_MS;
+            while (thread.isAlive() && thread.getState() != Thread.State.WAITING
+                    && System.currentTimeMillis() < initDeadline) {
+                Thread.sleep(1);
+            }
+            if (thread.isAlive()) {
+                invoke(opMode, "internalStart");
+            }
+
+            // Runs on virtual time from here - the listener stops it at the deadline
+            thread.join(Math.max(INIT_TIMEOUT_MS, (long) ((deadline - clock.now()) / 1e6 * 100)));
+            if (thread.isAlive()) {
+                requestStop(opMode);
+                thread.interrupt();
+                thread.join(STOP_TIMEOUT_MS);
+                outcome.stuck = thread.isAlive();
+            }
+        } finally {
+            clock.removeListener(listener);
+        }
+        return outcome;
+    }
+
+    private Throwable runIterative(OpMode opMode, long deadline) {
+        SimClock clock = robot.clock();
+        clock.setControlThread(Thread.currentThread());
+        try {
+            opMode.init();
+            opMode.init_loop();
+            clock.charge(LOOP_NANOS);
+            opMode.start();
+            long nextDrive = clock.now();
+            while (clock.now() < deadline && !stopFlag(opMode)) {
+                if (driver != null && clock.now() >= nextDrive) {
+                    nextDrive = clock.now() + DRIVER_PERIOD_NANOS;
+                    driver.drive(clock.seconds(), opMode.gamepad1, opMode.gamepad2);
+                }
+                opMode.loop();
+                clock.charge(LOOP_NANOS);
+            }
+            opMode.stop();
+            return null;
+        } catch (Throwable t) {
+            return t;
+        }
+    }
+
+    // ========================================
+    // SDK INTERNALS
+    // ========================================
+
+    /**
+     * requestOpModeStop() goes to the RC's services - point it at our own stop
+     */
+    private void installServices(final OpMode opMode) throws Exception {
+        OpModeServices services = new OpModeServices() {
+            @Override
+            public void refreshUserTelemetry(TelemetryMessage message, double sInterval) {
+            }
+
+            @Override
+            public void requestOpModeStop(OpMode which) {
+                requestStop(which);
+            }
+        };
+        field("internalOpModeServices").set(opMode, services);
+    }
+
+    private static void requestStop(OpMode opMode) {
+        try {
+            field("stopRequested").setBoolean(opMode, true);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported SDK version", e);
+        }
+    }
+
+    private static boolean stopFlag(OpMode opMode) {
+        try {
+            return field("stopRequested").getBoolean(opMode);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported SDK version", e);
+        }
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = OpMode.class.getSuperclass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static void invoke(OpMode opMode, String name) throws Exception {
+        Method method = OpMode.class.getSuperclass().getDeclaredMethod(name);
+        method.setAccessible(true);
+        method.invoke(opMode);
+    }
+}
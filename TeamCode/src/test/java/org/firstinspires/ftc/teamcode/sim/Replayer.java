@@ -0,0 +1,257 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.utils.Clock;
+import org.firstinspires.ftc.teamcode.utils.GamepadBindings;
+import org.firstinspires.ftc.teamcode.utils.Odometry;
+import org.firstinspires.ftc.teamcode.utils.PoseSources;
+import org.firstinspires.ftc.teamcode.utils.Storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replayer - feeds a recorded flight log back through the control code and
+ * diffs what it commands against what was recorded
+ *
+ * replayLoop(): lockstep through an iterative OpMode (Typeshi). Each record's
+ * encoder ticks, gamepads and time are put back on simulated devices, loop()
+ * runs once, and the seven motor powers it sent are compared with the
+ * recorded ones. Physics is never stepped - the log is the world.
+ *
+ * replayOdometry(): for AutoPathFollower logs, the recorded encoder and heading
+ * stream goes through a fresh Odometry and the pose it estimates is compared
+ * with the recorded one. (The follower's own outputs depend on leg state the
+ * log doesn't carry, so they aren't replayed.)
+ *
+ * Both stream the log (FlightLog), so a whole match replays in constant memory.
+ * Use it to prove a hot-loop optimization changed nothing:
+ *     Replayer.Report report = new Replayer(log).replayLoop(new Typeshi());
+ *     if (!report.ok()) System.out.print(report);
+ */
+public class Replayer {
+
+    public static final double DEFAULT_TOLERANCE = 1e-6;      // power - logged as float
+    public static final double DEFAULT_POSE_TOLERANCE = 0.05; // inches - intermediate reads aren't logged
+    public static final int MAX_LISTED = 20;                  // mismatching records listed in the report
+
+    private static final String[] OUTPUTS = {
+            "frontLeft", "frontRight", "backLeft", "backRight", "intake", "outtake", "outtake2"
+    };
+
+    private final File log;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private double poseTolerance = DEFAULT_POSE_TOLERANCE;
+    private File storageRoot = new File(System.getProperty("java.io.tmpdir"), "ftc-replay");
+
+    public Replayer(File log) {
+        this.log = log;
+    }
+
+    public Replayer setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public Replayer setPoseTolerance(double inches) {
+        this.poseTolerance = inches;
+        return this;
+    }
+
+    /**
+     * Folder standing in for /sdcard/FIRST (the replayed OpMode writes its own logs there)
+     */
+    public Replayer setStorageRoot(File folder) {
+        storageRoot = folder;
+        return this;
+    }
+
+    // ========================================
+    // REPORT
+    // ========================================
+
+    public static class Report {
+        public final String title;
+        public final String[] outputs;
+        public final double[] maxError;
+        public final List<String> listed = new ArrayList<>();
+        public int records = 0;
+        public int mismatched = 0;
+        public long realMillis = 0;
+
+        Report(String title, String[] outputs) {
+            this.title = title;
+            this.outputs = outputs;
+            this.maxError = new double[outputs.length];
+        }
+
+        public boolean ok() {
+            return mismatched == 0 && records > 0;
+        }
+
+        /**
+         * Fold one record's replayed vs. recorded values in
+         */
+        void compare(FlightLog.Record r, double[] replayed, float[] recorded, double tolerance) {
+            records++;
+            StringBuilder diff = null;
+            for (int i = 0; i < outputs.length; i++) {
+                double error = Math.abs(replayed[i] - recorded[i]);
+                if (error > maxError[i]) maxError[i] = error;
+                if (error > tolerance) {
+                    if (diff == null) {
+                        diff = new StringBuilder(String.format(Locale.US, "#%d @ %.3f s:", r.index, r.nanos * 1e-9));
+                    }
+                    diff.append(String.format(Locale.US, " %s %.4f -> %.4f", outputs[i], recorded[i], replayed[i]));
+                }
+            }
+            if (diff != null) {
+                mismatched++;
+                if (listed.size() < MAX_LISTED) listed.add(diff.toString());
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format(Locale.US, "%s: %d records replayed in %d ms, %d mismatched%n",
+                    title, records, realMillis, mismatched));
+            for (int i = 0; i < outputs.length; i++) {
+                text.append(String.format(Locale.US, "  %-10s max error %.6f%n", outputs[i], maxError[i]));
+            }
+            for (String line : listed) {
+                text.append("  ").append(line).append('\n');
+            }
+            if (mismatched > listed.size()) {
+                text.append(String.format(Locale.US, "  ... %d more%n", mismatched - listed.size()));
+            }
+            return text.toString();
+        }
+    }
+
+    // ========================================
+    // LOCKSTEP LOOP REPLAY
+    // ========================================
+
+    /**
+     * Time source that only moves when the next record is loaded
+     */
+    private static final class ReplayClock implements Clock.Source {
+        volatile long now = SimClock.START_NANOS;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void sleep(long millis) throws InterruptedException {
+            if (Thread.interrupted()) throw new InterruptedException();
+            now += millis * 1000000L;
+        }
+    }
+
+    /**
+     * Run init() and start(), then one loop() per record
+     */
+    public Report replayLoop(OpMode opMode) throws IOException {
+        Report report = new Report(opMode.getClass().getSimpleName() + " replay of " + log.getName(), OUTPUTS);
+        long realStart = System.nanoTime();
+
+        SimRobot robot = new SimRobot();
+        SimMotor[] motors = new SimMotor[OUTPUTS.length];
+        for (int i = 0; i < OUTPUTS.length; i++) {
+            motors[i] = robot.motor(OUTPUTS[i]);
+        }
+        opMode.hardwareMap = robot.hardwareMap();
+        opMode.telemetry = new SimTelemetry(robot.clock());
+        opMode.gamepad1 = new Gamepad();
+        opMode.gamepad2 = new Gamepad();
+
+        ReplayClock clock = new ReplayClock();
+        double[] replayed = new double[OUTPUTS.length];
+        float[] recorded = new float[OUTPUTS.length];
+        FlightLog.Record r = new FlightLog.Record();
+
+        Clock.use(clock);
+        Storage.setRoot(storageRoot);
+        PoseSources.setImuOrientation(SimImu.FLAT);
+        try (FlightLog flight = FlightLog.open(log)) {
+            if (flight.version() < 2) {
+                throw new IOException(log + " is a version " + flight.version() + " log - it has no gamepad input");
+            }
+            storageRoot.mkdirs();
+            opMode.init();
+            opMode.init_loop();
+            opMode.start();
+
+            while (flight.next(r)) {
+                clock.now = SimClock.START_NANOS + r.nanos;
+                for (int i = 0; i < 4; i++) {
+                    motors[i].setEncoder(r.ticks[i]);
+                }
+                GamepadBindings.write(opMode.gamepad1, r.buttons[0], r.axes, 0);
+                GamepadBindings.write(opMode.gamepad2, r.buttons[1], r.axes, GamepadBindings.AXIS_COUNT / 2);
+
+                opMode.loop();
+
+                for (int i = 0; i < OUTPUTS.length; i++) {
+                    replayed[i] = (float) motors[i].getPower();
+                    recorded[i] = i < 4 ? r.drive[i] : r.mechanisms[i - 4];
+                }
+                report.compare(r, replayed, recorded, tolerance);
+            }
+            opMode.stop();
+        } finally {
+            Clock.use(null);
+            Storage.setRoot(null);
+            PoseSources.setImuOrientation(null);
+        }
+
+        report.realMillis = (System.nanoTime() - realStart) / 1000000L;
+        return report;
+    }
+
+    // ========================================
+    // ODOMETRY REPLAY
+    // ========================================
+
+    /**
+     * Re-estimate the pose from the recorded encoders and heading
+     * @param ticksPerInch the recording OpMode's drive constant
+     */
+    public Report replayOdometry(double ticksPerInch) throws IOException {
+        Report report = new Report("Odometry replay of " + log.getName(), new String[] { "x", "y" });
+        long realStart = System.nanoTime();
+
+        Odometry odometry = new Odometry(ticksPerInch);
+        double[] replayed = new double[2];
+        float[] recorded = new float[2];
+        FlightLog.Record r = new FlightLog.Record();
+
+        try (FlightLog flight = FlightLog.open(log)) {
+            boolean first = true;
+            while (flight.next(r)) {
+                if (first) {
+                    odometry.reset(r.x, r.y, r.heading, r.ticks[0], r.ticks[1], r.ticks[2], r.ticks[3]);
+                    first = false;
+                } else {
+                    odometry.update(r.ticks[0], r.ticks[1], r.ticks[2], r.ticks[3], r.heading);
+                }
+                replayed[0] = odometry.getX();
+                replayed[1] = odometry.getY();
+                recorded[0] = r.x;
+                recorded[1] = r.y;
+                report.compare(r, replayed, recorded, poseTolerance);
+            }
+        }
+
+        report.realMillis = (System.nanoTime() - realStart) / 1000000L;
+        return report;
+    }
+}
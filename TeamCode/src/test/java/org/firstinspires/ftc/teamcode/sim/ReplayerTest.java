@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+
+import org.firstinspires.ftc.teamcode.Typeshi;
+import org.firstinspires.ftc.teamcode.kool.AutoPathFollower;
+import org.firstinspires.ftc.teamcode.utils.DriveConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Flight logs recorded in the simulator replay with no differences, and so does
+ * every log copied into src/test/resources/flightlogs
+ *
+ * To check a change to the loop against a match, pull the log
+ *     adb pull /sdcard/FIRST/flightlogs/Typeshi-20250101-120000.flight TeamCode/src/test/resources/flightlogs/
+ * and run ./gradlew :TeamCode:testDebugUnitTest. AutoPathFollower logs recorded with
+ * a drive constants file need that file next to them as constants.properties.
+ */
+public class ReplayerTest {
+
+    static final String PULLED_LOGS = "flightlogs";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The one flight log an OpModeRunner run wrote under root
+     */
+    static File recordedLog(File root) {
+        File[] logs = new File(root, "flightlogs").listFiles((dir, name) -> name.endsWith(".flight"));
+        assertNotNull("No flightlogs folder", logs);
+        assertEquals(1, logs.length);
+        return logs[0];
+    }
+
+    @Test
+    public void teleOpReplaysLoopForLoop() throws IOException {
+        File root = folder.newFolder("run");
+        OpModeRunner.Result result = new OpModeRunner(new SimRobot()).setDriver(SimulatorTest.DRIVER)
+                .setStorageRoot(root).run(new Typeshi(), SimulatorTest.TELEOP_SECONDS);
+        assertTrue(result.toString(), result.ok());
+
+        Replayer.Report report = new Replayer(recordedLog(root)).setStorageRoot(folder.newFolder("replay"))
+                .replayLoop(new Typeshi());
+        assertTrue(report.toString(), report.ok());
+        assertTrue(report.records > 0);
+    }
+
+    @Test
+    public void autoOdometryReplays() throws IOException {
+        File root = folder.newFolder("run");
+        OpModeRunner.Result result = new OpModeRunner(SimulatorTest.atStart())
+                .setStorageRoot(root).run(new AutoPathFollower(), SimulatorTest.AUTO_SECONDS);
+        assertTrue(result.toString(), result.ok());
+
+        Replayer.Report report = new Replayer(recordedLog(root))
+                .replayOdometry(DriveConstants.defaults().ticksPerInch);
+        assertTrue(report.toString(), report.ok());
+        assertTrue(report.records > 0);
+    }
+
+    @Test
+    public void pulledLogsReplay() throws Exception {
+        URL resource = getClass().getClassLoader().getResource(PULLED_LOGS);
+        if (resource == null) return;   // nothing pulled
+        File[] logs = new File(resource.toURI()).listFiles((dir, name) -> name.endsWith(".flight"));
+        if (logs == null) return;
+
+        for (File log : logs) {
+            Replayer.Report report = replay(log);
+            assertTrue(report.toString(), report.ok());
+        }
+    }
+
+    private Replayer.Report replay(File log) throws IOException, ReflectiveOperationException {
+        String source;
+        try (FlightLog flight = FlightLog.open(log)) {
+            source = flight.source().isEmpty() ? AutoPathFollower.class.getSimpleName() : flight.source();
+        }
+        Class<?> type = find(source);
+        Replayer replayer = new Replayer(log).setStorageRoot(folder.newFolder());
+        if (LinearOpMode.class.isAssignableFrom(type)) {
+            File constants = new File(log.getParentFile(), "constants.properties");
+            DriveConstants drive = constants.isFile() ? DriveConstants.load(constants) : DriveConstants.defaults();
+            return replayer.replayOdometry(drive.ticksPerInch);
+        }
+        return replayer.replayLoop((OpMode) type.getDeclaredConstructor().newInstance());
+    }
+
+    /**
+     * A full class name, or a simple name from one of the TeamCode packages
+     */
+    private static Class<?> find(String name) throws ClassNotFoundException {
+        if (name.contains(".")) return Class.forName(name);
+        try {
+            return Class.forName("org.firstinspires.ftc.teamcode." + name);
+        } catch (ClassNotFoundException e) {
+            return Class.forName("org.firstinspires.ftc.teamcode.kool." + name);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.utils.Clock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SimClock - virtual time for the simulator
+ *
+ * Time only moves when the OpMode's thread (the control thread) spends it:
+ *     - every simulated hardware call costs its bus time (see SimRobot)
+ *     - every Clock read costs CLOCK_READ_NANOS, so a loop that only polls the
+ *       clock still gets somewhere
+ *     - Clock.sleep() jumps straight to the wake-up time
+ * Physics is stepped in fixed STEP_NANOS increments as time passes. Other
+ * threads (background actions) read the same time for free, and
+ * their Clock.sleep() blocks until the control thread has moved time past
+ * the wake-up point - like the real robot, where they run alongside the loop.
+ * Work that runs alongside the loop on the robot but must repeat exactly here
+ * (IMU polling, see SimImuScheduler) runs on the control thread through runFree().
+ *
+ * With a real-time factor of 0 the simulation runs as fast as the CPU allows;
+ * 1.0 paces it to the wall clock (handy for watching telemetry), 10.0 is 10x.
+ */
+public class SimClock implements Clock.Source {
+
+    public static final long START_NANOS = 1000000000L;   // not 0, so "never" sentinels stay in the past
+    public static final long STEP_NANOS = 1000000L;       // 1 ms physics step
+    public static final long CLOCK_READ_NANOS = 5000L;    // loop overhead charged per Clock read
+
+    private static final long PACE_MIN_NANOS = 1000000L;  // don't bother pacing for less than 1 ms
+
+    /**
+     * Physics - advanced by exactly STEP_NANOS per call
+     */
+    public interface Stepper {
+        void step(double seconds);
+    }
+
+    /**
+     * Called on the control thread after time moves (scripted gamepads, stop deadline)
+     */
+    public interface Listener {
+        void advanced(long nowNanos);
+    }
+
+    private final Stepper stepper;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private volatile long now = START_NANOS;
+    private long stepped = START_NANOS;            // physics integrated up to here
+    private volatile Thread control = null;
+    private boolean free = false;                  // control thread only - inside runFree()
+
+    private double realTimeFactor = 0.0;
+    private long paceRealStart;
+    private long paceVirtualStart;
+
+    public SimClock(Stepper stepper) {
+        this.stepper = stepper;
+    }
+
+    // ========================================
+    // Clock.Source
+    // ========================================
+
+    @Override
+    public long nanoTime() {
+        charge(CLOCK_READ_NANOS);
+        return now;
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        if (millis <= 0) return;
+        long nanos = millis * 1000000L;
+        if (Thread.currentThread() == control) {
+            advance(nanos);
+            return;
+        }
+        long wake = now + nanos;
+        synchronized (this) {
+            while (now < wake) {
+                wait();
+            }
+        }
+    }
+
+    // ========================================
+    // DRIVING TIME
+    // ========================================
+
+    /**
+     * Spend time on behalf of the calling thread - only the control thread's time counts
+     */
+    public void charge(long nanos) {
+        if (Thread.currentThread() == control && !free) {
+            advance(nanos);
+        }
+    }
+
+    /**
+     * Move time forward, stepping physics on the way and waking sleepers
+     */
+    public void advance(long nanos) {
+        long current;
+        synchronized (this) {
+            now += nanos;
+            while (stepped + STEP_NANOS <= now) {
+                stepper.step(STEP_NANOS * 1e-9);
+                stepped += STEP_NANOS;
+            }
+            current = now;
+            notifyAll();
+        }
+        pace(current);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).advanced(current);
+        }
+    }
+
+    /**
+     * Run work on the control thread without charging its hardware calls and clock
+     * reads - for what a background thread does on the robot
+     */
+    public void runFree(Runnable work) {
+        boolean wasFree = free;
+        free = true;
+        try {
+            work.run();
+        } finally {
+            free = wasFree;
+        }
+    }
+
+    private void pace(long current) {
+        if (realTimeFactor <= 0) return;
+        long due = paceRealStart + (long) ((current - paceVirtualStart) / realTimeFactor);
+        long ahead = due - System.nanoTime();
+        if (ahead < PACE_MIN_NANOS) return;
+        try {
+            Thread.sleep(ahead / 1000000L, (int) (ahead % 1000000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========================================
+    // SETUP
+    // ========================================
+
+    /**
+     * The thread whose hardware calls and sleeps move time (the OpMode thread)
+     */
+    public void setControlThread(Thread thread) {
+        control = thread;
+    }
+
+    /**
+     * 0 = as fast as possible, 1 = real time, N = N times real time
+     */
+    public void setRealTimeFactor(double factor) {
+        realTimeFactor = factor;
+        paceRealStart = System.nanoTime();
+        paceVirtualStart = now;
+    }
+
+    /**
+     * Add before the run starts - the list isn't guarded
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Current virtual time without charging for the read
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Virtual seconds since the clock was created
+     */
+    public double seconds() {
+        return (now - START_NANOS) * 1e-9;
+    }
+}
@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.HardwareDevice;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * SimHardwareMap - HardwareMap over simulated devices, usable off-robot
+ *
+ * The SDK's lookups go through Android-only classes, so the name lookups are
+ * replaced with a plain map. get() fails like the real one for a missing name;
+ * tryGet() returns null; getAll(LynxModule.class) is empty, so BulkReadCache
+ * falls back to one read per encoder.
+ */
+public class SimHardwareMap extends HardwareMap {
+
+    private final Map<String, HardwareDevice> devices = new LinkedHashMap<>();
+
+    public SimHardwareMap() {
+        super(null, null);
+    }
+
+    @Override
+    public void put(String deviceName, HardwareDevice device) {
+        devices.put(deviceName, device);
+        if (device instanceof DcMotor) {
+            dcMotor.put(deviceName, (DcMotor) device);
+        }
+    }
+
+    @Override
+    public <T> T tryGet(Class<? extends T> classOrInterface, String deviceName) {
+        HardwareDevice device = devices.get(deviceName);
+        return classOrInterface.isInstance(device) ? classOrInterface.cast(device) : null;
+    }
+
+    @Override
+    public <T> T get(Class<? extends T> classOrInterface, String deviceName) {
+        T device = tryGet(classOrInterface, deviceName);
+        if (device == null) {
+            throw new IllegalArgumentException("Unable to find a hardware device with name \"" + deviceName
+                    + "\" and type " + classOrInterface.getSimpleName());
+        }
+        return device;
+    }
+
+    @Override
+    public HardwareDevice get(String deviceName) {
+        HardwareDevice device = devices.get(deviceName);
+        if (device == null) {
+            throw new IllegalArgumentException("Unable to find a hardware device with name \"" + deviceName + "\"");
+        }
+        return device;
+    }
+
+    @Override
+    public <T> List<T> getAll(Class<? extends T> classOrInterface) {
+        List<T> result = new ArrayList<>();
+        for (HardwareDevice device : devices.values()) {
+            if (classOrInterface.isInstance(device)) {
+                result.add(classOrInterface.cast(device));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public SortedSet<String> getAllNames(Class<? extends HardwareDevice> classOrInterface) {
+        SortedSet<String> names = new TreeSet<>();
+        for (Map.Entry<String, HardwareDevice> entry : devices.entrySet()) {
+            if (classOrInterface.isInstance(entry.getValue())) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public Iterator<HardwareDevice> iterator() {
+        return new ArrayList<>(devices.values()).iterator();
+    }
+
+    @Override
+    public int size() {
+        return devices.size();
+    }
+}
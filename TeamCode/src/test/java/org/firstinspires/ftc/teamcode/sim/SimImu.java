@@ -0,0 +1,132 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.ImuOrientationOnRobot;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesOrder;
+import org.firstinspires.ftc.robotcore.external.navigation.AxesReference;
+import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
+import org.firstinspires.ftc.robotcore.external.navigation.Quaternion;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+
+/**
+ * SimImu - a universal IMU that reports the simulated robot's true heading
+ *
+ * Yaw is counter-clockwise positive like the real hub, relative to the last
+ * resetYaw(). Pitch and roll are always 0. Each read costs IMU_READ_NANOS of
+ * bus time when the OpMode thread makes it (ImuPoller's polls run through
+ * SimClock.runFree(), so they cost the loop nothing, as on the robot).
+ */
+public class SimImu implements IMU {
+
+    /**
+     * Hub mounted flat, axes lined up with the robot - handed to PoseSources by OpModeRunner
+     */
+    public static final ImuOrientationOnRobot FLAT = new ImuOrientationOnRobot() {
+        private final Quaternion identity = new Quaternion(1f, 0f, 0f, 0f, 0);
+
+        @Override
+        public Quaternion imuCoordinateSystemOrientationFromPerspectiveOfRobot() {
+            return identity;
+        }
+
+        @Override
+        public Quaternion imuRotationOffset() {
+            return identity;
+        }
+
+        @Override
+        public Quaternion angularVelocityTransform() {
+            return identity;
+        }
+    };
+
+    private final SimRobot robot;
+    private double yawOffset = 0.0;   // radians, guarded by robot
+
+    SimImu(SimRobot robot) {
+        this.robot = robot;
+    }
+
+    @Override
+    public boolean initialize(Parameters parameters) {
+        robot.clock().charge(SimRobot.IMU_READ_NANOS);
+        return true;
+    }
+
+    @Override
+    public void resetYaw() {
+        synchronized (robot) {
+            yawOffset = robot.getHeading();
+        }
+        robot.clock().charge(SimRobot.IMU_READ_NANOS);
+    }
+
+    private double yaw() {
+        double yaw;
+        synchronized (robot) {
+            yaw = AngleUnit.normalizeRadians(robot.getHeading() - yawOffset);
+        }
+        robot.clock().charge(SimRobot.IMU_READ_NANOS);
+        return yaw;
+    }
+
+    @Override
+    public YawPitchRollAngles getRobotYawPitchRollAngles() {
+        return new YawPitchRollAngles(AngleUnit.RADIANS, yaw(), 0.0, 0.0, robot.clock().now());
+    }
+
+    @Override
+    public Orientation getRobotOrientation(AxesReference reference, AxesOrder order, AngleUnit angleUnit) {
+        Orientation zyx = new Orientation(AxesReference.INTRINSIC, AxesOrder.ZYX, AngleUnit.RADIANS,
+                (float) yaw(), 0f, 0f, robot.clock().now());
+        return zyx.toAxesReference(reference).toAxesOrder(order).toAngleUnit(angleUnit);
+    }
+
+    @Override
+    public Quaternion getRobotOrientationAsQuaternion() {
+        double half = yaw() / 2;
+        return new Quaternion((float) Math.cos(half), 0f, 0f, (float) Math.sin(half), robot.clock().now());
+    }
+
+    @Override
+    public AngularVelocity getRobotAngularVelocity(AngleUnit angleUnit) {
+        double rate;
+        synchronized (robot) {
+            rate = robot.getHeadingVelocity();
+        }
+        robot.clock().charge(SimRobot.IMU_READ_NANOS);
+        return new AngularVelocity(AngleUnit.RADIANS, 0f, 0f, (float) rate, robot.clock().now())
+                .toAngleUnit(angleUnit);
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated IMU";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
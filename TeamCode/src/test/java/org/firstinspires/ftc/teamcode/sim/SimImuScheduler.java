@@ -0,0 +1,50 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.utils.ImuPoller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SimImuScheduler - ImuPoller polls on virtual time, from the control thread
+ *
+ * On the robot each ImuPoller reads on its own thread. Here that thread would
+ * wake whenever the OS lets it, so each run saw slightly different headings.
+ * Instead every started poller is polled once per ImuPoller.POLL_PERIOD_NANOS of
+ * virtual time, as the control thread moves the clock past it. Polls go through
+ * SimClock.runFree(), so like the robot's poller thread they cost the loop no
+ * bus time.
+ */
+public class SimImuScheduler implements ImuPoller.Scheduler, SimClock.Listener {
+
+    private final SimClock clock;
+    private final List<ImuPoller> pollers = new ArrayList<>();   // guarded by this
+    private final List<Long> due = new ArrayList<>();            // next poll per poller, same index
+
+    public SimImuScheduler(SimClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized void start(ImuPoller poller) {
+        pollers.add(poller);
+        due.add(clock.now() + ImuPoller.POLL_PERIOD_NANOS);
+    }
+
+    @Override
+    public synchronized void stop(ImuPoller poller) {
+        int i = pollers.indexOf(poller);
+        if (i < 0) return;
+        pollers.remove(i);
+        due.remove(i);
+    }
+
+    @Override
+    public synchronized void advanced(long now) {
+        for (int i = 0; i < pollers.size(); i++) {
+            if (now < due.get(i)) continue;
+            clock.runFree(pollers.get(i)::poll);
+            due.set(i, now + ImuPoller.POLL_PERIOD_NANOS);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.PIDCoefficients;
+import com.qualcomm.robotcore.hardware.PIDFCoefficients;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+
+/**
+ * SimMotor - a DcMotorEx backed by a first-order motor model
+ *
+ * Velocity approaches its target with the motor's response time - short for
+ * a free mechanism, longer for a drive motor pushing the robot's mass (see
+ * SimRobot) - and FLOAT coasts down much slower; the encoder integrates velocity. Run modes follow
+ * the SDK:
+ *     RUN_WITHOUT_ENCODER / RUN_USING_ENCODER - power is a fraction of free speed,
+ *         setVelocity() (RUN_USING_ENCODER) asks for ticks/sec directly
+ *     RUN_TO_POSITION - P control on position, speed capped by power or setVelocity()
+ *     STOP_AND_RESET_ENCODER - stopped, encoder held at 0
+ * REVERSE flips power, position and velocity, as on the hub.
+ *
+ * Hub reads and writes cost bus time on the SimClock; cached getters
+ * (getPower, getMode, getDirection, ...) are free, as they are on the SDK.
+ */
+public class SimMotor implements DcMotorEx {
+
+    public static final double RESPONSE_SECONDS = 0.08;      // powered time constant, unloaded
+    public static final double COAST_SECONDS = 0.6;          // FLOAT time constant at zero power
+    public static final double POSITION_GAIN = 10.0;         // RUN_TO_POSITION (ticks/sec) per tick of error
+    public static final int DEFAULT_TOLERANCE = 10;          // ticks, SDK default
+    public static final double STALL_AMPS = 9.2;             // goBILDA 5203 stall current
+    public static final double FREE_AMPS = 0.25;
+
+    private final SimRobot robot;
+    private final String name;
+    private final int port;
+    private final double ticksPerRev;
+    private final double maxTicksPerSecond;
+    private final double responseSeconds;
+    private MotorConfigurationType motorType;
+
+    // Commanded state (user frame - before direction is applied)
+    private Direction direction = Direction.FORWARD;
+    private RunMode mode = RunMode.RUN_WITHOUT_ENCODER;
+    private ZeroPowerBehavior zeroPowerBehavior = ZeroPowerBehavior.FLOAT;
+    private double power = 0.0;
+    private double velocityCommand = 0.0;
+    private boolean velocityControl = false;     // last command was setVelocity()
+    private int targetPosition = 0;
+    private int tolerance = DEFAULT_TOLERANCE;
+    private boolean enabled = true;
+    private boolean hasEncoder = true;
+    private PIDFCoefficients velocityPidf = new PIDFCoefficients(10, 3, 0, 0);
+    private PIDFCoefficients positionPidf = new PIDFCoefficients(5, 0, 0, 0);
+
+    // Physical state (motor frame)
+    private double position = 0.0;               // ticks
+    private double velocity = 0.0;               // ticks/sec
+    private double targetVelocity = 0.0;         // what the controller asked for this step
+    private double externalAcceleration = 0.0;   // ticks/sec^2 from loads, cleared each step
+
+    SimMotor(SimRobot robot, String name, int port, double ticksPerRev, double maxTicksPerSecond,
+             double responseSeconds) {
+        this.robot = robot;
+        this.name = name;
+        this.port = port;
+        this.ticksPerRev = ticksPerRev;
+        this.maxTicksPerSecond = maxTicksPerSecond;
+        this.responseSeconds = responseSeconds;
+
+        // What the configuration would say for this motor - its encoder and free speed
+        motorType = new MotorConfigurationType();
+        motorType.setTicksPerRev(ticksPerRev);
+        motorType.setMaxRPM(maxTicksPerSecond * 60.0 / ticksPerRev);
+    }
+
+    private double sign() {
+        return direction == Direction.REVERSE ? -1.0 : 1.0;
+    }
+
+    // ========================================
+    // PHYSICS (called by SimRobot with its lock held)
+    // ========================================
+
+    void step(double dt) {
+        switch (mode) {
+            case STOP_AND_RESET_ENCODER:
+                targetVelocity = 0.0;
+                velocity = 0.0;
+                position = 0.0;
+                return;
+            case RUN_TO_POSITION: {
+                double cap = velocityControl ? Math.abs(velocityCommand) : Math.abs(power) * maxTicksPerSecond;
+                double error = sign() * targetPosition - position;
+                targetVelocity = clamp(POSITION_GAIN * error, Math.min(cap, maxTicksPerSecond));
+                break;
+            }
+            case RUN_USING_ENCODER:
+                targetVelocity = sign() * (velocityControl ? velocityCommand : power * maxTicksPerSecond);
+                break;
+            default:
+                targetVelocity = sign() * power * maxTicksPerSecond;
+                break;
+        }
+        targetVelocity = enabled ? clamp(targetVelocity, maxTicksPerSecond) : 0.0;
+
+        boolean coasting = targetVelocity == 0.0 && zeroPowerBehavior == ZeroPowerBehavior.FLOAT
+                && mode != RunMode.RUN_TO_POSITION;
+        double tau = coasting ? COAST_SECONDS : responseSeconds;
+        velocity += (targetVelocity - velocity) * (1.0 - Math.exp(-dt / tau));
+        velocity += externalAcceleration * dt;
+        externalAcceleration = 0.0;
+        position += velocity * dt;
+    }
+
+    /**
+     * Push the motor off its commanded speed for one step (a ball through a flywheel,
+     * a mechanism hitting a stop) - ticks/sec^2 in the motor frame
+     */
+    public void disturb(double ticksPerSecondSquared) {
+        synchronized (robot) {
+            externalAcceleration += ticksPerSecondSquared;
+        }
+    }
+
+    /**
+     * Make the encoder read exactly this (as getCurrentPosition() would return it) -
+     * for replaying recorded encoders, with the physics not being stepped
+     */
+    public void setEncoder(int ticks) {
+        synchronized (robot) {
+            position = sign() * ticks;
+        }
+    }
+
+    /**
+     * Unplug the encoder: setMode() throws for the modes that need one, which is
+     * how AutoPathFollower's init finds out to fall back to timed moves
+     */
+    public void removeEncoder() {
+        synchronized (robot) {
+            hasEncoder = false;
+        }
+    }
+
+    /**
+     * Motor-frame velocity for the drivetrain model (no bus cost)
+     */
+    double rawVelocity() {
+        return velocity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+
+    // ========================================
+    // HUB WRITES
+    // ========================================
+
+    @Override
+    public void setPower(double power) {
+        synchronized (robot) {
+            this.power = Math.max(-1.0, Math.min(1.0, power));
+            velocityControl = false;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setVelocity(double angularRate) {
+        synchronized (robot) {
+            velocityCommand = angularRate;
+            velocityControl = true;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setVelocity(double angularRate, AngleUnit unit) {
+        double ticksPerRadian = ticksPerRev / (2 * Math.PI);
+        setVelocity(unit.toRadians(angularRate) * ticksPerRadian);
+    }
+
+    @Override
+    public void setMode(RunMode mode) {
+        synchronized (robot) {
+            if (!hasEncoder && mode != RunMode.RUN_WITHOUT_ENCODER) {
+                throw new IllegalStateException(name + " has no encoder for " + mode);
+            }
+            if (mode == RunMode.STOP_AND_RESET_ENCODER) {
+                power = 0.0;
+                velocityControl = false;
+            }
+            this.mode = mode;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setTargetPosition(int position) {
+        synchronized (robot) {
+            targetPosition = position;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setZeroPowerBehavior(ZeroPowerBehavior zeroPowerBehavior) {
+        synchronized (robot) {
+            this.zeroPowerBehavior = zeroPowerBehavior;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setPowerFloat() {
+        setZeroPowerBehavior(ZeroPowerBehavior.FLOAT);
+        setPower(0.0);
+    }
+
+    @Override
+    public void setMotorEnable() {
+        synchronized (robot) {
+            enabled = true;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setMotorDisable() {
+        synchronized (robot) {
+            enabled = false;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setPIDCoefficients(RunMode mode, PIDCoefficients pidCoefficients) {
+        setPIDFCoefficients(mode, new PIDFCoefficients(pidCoefficients.p, pidCoefficients.i, pidCoefficients.d, 0));
+    }
+
+    @Override
+    public void setPIDFCoefficients(RunMode mode, PIDFCoefficients pidfCoefficients) {
+        synchronized (robot) {
+            if (mode == RunMode.RUN_TO_POSITION) {
+                positionPidf = new PIDFCoefficients(pidfCoefficients);
+            } else {
+                velocityPidf = new PIDFCoefficients(pidfCoefficients);
+            }
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setVelocityPIDFCoefficients(double p, double i, double d, double f) {
+        setPIDFCoefficients(RunMode.RUN_USING_ENCODER, new PIDFCoefficients(p, i, d, f));
+    }
+
+    @Override
+    public void setPositionPIDFCoefficients(double p) {
+        setPIDFCoefficients(RunMode.RUN_TO_POSITION, new PIDFCoefficients(p, 0, 0, 0));
+    }
+
+    @Override
+    public void setTargetPositionTolerance(int tolerance) {
+        synchronized (robot) {
+            this.tolerance = tolerance;
+        }
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    @Override
+    public void setCurrentAlert(double current, CurrentUnit unit) {
+        robot.clock().charge(SimRobot.WRITE_NANOS);
+    }
+
+    // ========================================
+    // HUB READS
+    // ========================================
+
+    @Override
+    public int getCurrentPosition() {
+        int ticks;
+        synchronized (robot) {
+            ticks = (int) Math.round(sign() * position);
+        }
+        robot.clock().charge(SimRobot.READ_NANOS);
+        return ticks;
+    }
+
+    @Override
+    public double getVelocity() {
+        double ticksPerSecond;
+        synchronized (robot) {
+            ticksPerSecond = sign() * velocity;
+        }
+        robot.clock().charge(SimRobot.READ_NANOS);
+        return ticksPerSecond;
+    }
+
+    @Override
+    public double getVelocity(AngleUnit unit) {
+        double radiansPerTick = 2 * Math.PI / ticksPerRev;
+        return unit.fromRadians(getVelocity() * radiansPerTick);
+    }
+
+    @Override
+    public boolean isBusy() {
+        boolean busy;
+        synchronized (robot) {
+            busy = mode == RunMode.RUN_TO_POSITION
+                    && Math.abs(sign() * targetPosition - position) > tolerance;
+        }
+        robot.clock().charge(SimRobot.READ_NANOS);
+        return busy;
+    }
+
+    /**
+     * Free-running current plus current for the speed the motor is being pushed toward
+     */
+    @Override
+    public double getCurrent(CurrentUnit unit) {
+        double amps;
+        synchronized (robot) {
+            double slip = Math.abs(targetVelocity - velocity) / maxTicksPerSecond;
+            amps = FREE_AMPS * Math.abs(velocity) / maxTicksPerSecond + STALL_AMPS * Math.min(1.0, slip);
+        }
+        robot.clock().charge(SimRobot.READ_NANOS);
+        return unit.convert(amps, CurrentUnit.AMPS);
+    }
+
+    @Override
+    public double getCurrentAlert(CurrentUnit unit) {
+        return unit.convert(STALL_AMPS, CurrentUnit.AMPS);
+    }
+
+    @Override
+    public boolean isOverCurrent() {
+        return getCurrent(CurrentUnit.AMPS) >= STALL_AMPS;
+    }
+
+    // ========================================
+    // CACHED STATE (no bus traffic on the SDK either)
+    // ========================================
+
+    @Override
+    public double getPower() {
+        synchronized (robot) {
+            return velocityControl ? velocityCommand / maxTicksPerSecond : power;
+        }
+    }
+
+    @Override
+    public RunMode getMode() {
+        synchronized (robot) {
+            return mode;
+        }
+    }
+
+    @Override
+    public void setDirection(Direction direction) {
+        synchronized (robot) {
+            this.direction = direction;
+        }
+    }
+
+    @Override
+    public Direction getDirection() {
+        synchronized (robot) {
+            return direction;
+        }
+    }
+
+    @Override
+    public int getTargetPosition() {
+        synchronized (robot) {
+            return targetPosition;
+        }
+    }
+
+    @Override
+    public ZeroPowerBehavior getZeroPowerBehavior() {
+        synchronized (robot) {
+            return zeroPowerBehavior;
+        }
+    }
+
+    @Override
+    public boolean getPowerFloat() {
+        synchronized (robot) {
+            return zeroPowerBehavior == ZeroPowerBehavior.FLOAT && power == 0.0;
+        }
+    }
+
+    @Override
+    public boolean isMotorEnabled() {
+        synchronized (robot) {
+            return enabled;
+        }
+    }
+
+    @Override
+    public int getTargetPositionTolerance() {
+        synchronized (robot) {
+            return tolerance;
+        }
+    }
+
+    @Override
+    public PIDCoefficients getPIDCoefficients(RunMode mode) {
+        PIDFCoefficients pidf = getPIDFCoefficients(mode);
+        return new PIDCoefficients(pidf.p, pidf.i, pidf.d);
+    }
+
+    @Override
+    public PIDFCoefficients getPIDFCoefficients(RunMode mode) {
+        synchronized (robot) {
+            return new PIDFCoefficients(mode == RunMode.RUN_TO_POSITION ? positionPidf : velocityPidf);
+        }
+    }
+
+    // ========================================
+    // DEVICE INFO
+    // ========================================
+
+    /**
+     * The simulated motor's ticks/rev and free speed, as the configuration XML would give them
+     */
+    @Override
+    public MotorConfigurationType getMotorType() {
+        return motorType;
+    }
+
+    @Override
+    public void setMotorType(MotorConfigurationType motorType) {
+        this.motorType = motorType;
+    }
+
+    @Override
+    public DcMotorController getController() {
+        return null;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return port;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        return Manufacturer.Other;
+    }
+
+    @Override
+    public String getDeviceName() {
+        return "Simulated motor";
+    }
+
+    @Override
+    public String getConnectionInfo() {
+        return "sim port " + port;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void resetDeviceConfigurationForOpMode() {
+        synchronized (robot) {
+            direction = Direction.FORWARD;
+            mode = RunMode.RUN_WITHOUT_ENCODER;
+            power = 0.0;
+            velocityControl = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        setPower(0.0);
+    }
+}
@@ -0,0 +1,190 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+
+import org.firstinspires.ftc.teamcode.utils.Angles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SimRobot - mecanum robot model behind a fake HardwareMap
+ *
+ * Devices use the names in this repo's robot configuration: drive motors
+ * frontLeft / frontRight / backLeft / backRight, mechanism motors intake /
+ * outtake / outtake2, and a universal IMU "imu".
+ *
+ * Each step, every motor moves toward its commanded speed (SimMotor), wheel
+ * surface speeds go through mecanum forward kinematics, and the chassis
+ * follows that velocity up to MAX_ACCELERATION - past it the wheels slip, so
+ * encoders can run ahead of the real motion just like on carpet. The left
+ * motors are mounted mirrored: OpModes set them to REVERSE, as on the robot.
+ *
+ * Field frame is the repo's: inches, heading in radians counter-clockwise,
+ * heading 0 faces +Y.
+ */
+public class SimRobot {
+
+    // Drivetrain - goBILDA 5203 435 rpm on 104 mm mecanum wheels (AutoPathFollower's constants)
+    public static final double TICKS_PER_REV = 384.5;
+    public static final double FREE_SPEED_RPM = 435.0;
+    public static final double WHEEL_DIAMETER = 4.094;        // inches
+    public static final double TRACK_WIDTH = 14.0;            // inches between left and right wheels
+    public static final double WHEEL_BASE = 12.0;             // inches between front and back wheels
+    public static final double DRIVE_RESPONSE_SECONDS = 0.25; // drive motor time constant with the robot's mass on it
+    public static final double MAX_ACCELERATION = 350.0;      // inches/sec^2 before the wheels slip (~0.9 g)
+
+    // Mechanisms - goBILDA 5202 bare motors, as on the shooter (FlywheelControl's defaults)
+    public static final double MECHANISM_TICKS_PER_REV = 28.0;
+    public static final double MECHANISM_FREE_SPEED_RPM = 6000.0;
+
+    // Bus time per hub call made from the OpMode thread (Control Hub, no bulk caching)
+    public static final long WRITE_NANOS = 600000L;
+    public static final long READ_NANOS = 600000L;
+    public static final long IMU_READ_NANOS = 2000000L;
+
+    public static final String[] DRIVE_MOTORS = { "frontLeft", "frontRight", "backLeft", "backRight" };
+    public static final String[] MECHANISM_MOTORS = { "intake", "outtake", "outtake2" };
+    public static final String IMU_NAME = "imu";
+
+    private static final double[] MOUNT = { -1.0, 1.0, -1.0, 1.0 };   // left side mirrored
+
+    private final SimClock clock;
+    private final SimHardwareMap hardwareMap;
+    private final SimMotor[] wheels = new SimMotor[4];
+    private final List<SimMotor> motors = new ArrayList<>();
+    private final SimImu imu;
+    private final double inchesPerTick = WHEEL_DIAMETER * Math.PI / TICKS_PER_REV;
+    private final double turnRadius = (TRACK_WIDTH + WHEEL_BASE) / 2;
+
+    // Chassis state - field frame, guarded by this
+    private double x, y, heading;
+    private double vx, vy, headingVelocity;
+
+    public SimRobot() {
+        clock = new SimClock(this::step);
+        hardwareMap = new SimHardwareMap();
+
+        for (int i = 0; i < DRIVE_MOTORS.length; i++) {
+            wheels[i] = addMotor(DRIVE_MOTORS[i], TICKS_PER_REV, FREE_SPEED_RPM, DRIVE_RESPONSE_SECONDS);
+        }
+        for (String name : MECHANISM_MOTORS) {
+            addMotor(name, MECHANISM_TICKS_PER_REV, MECHANISM_FREE_SPEED_RPM, SimMotor.RESPONSE_SECONDS);
+        }
+        imu = new SimImu(this);
+        hardwareMap.put(IMU_NAME, imu);
+    }
+
+    /**
+     * Add another motor to the configuration (a lift, an arm...) - call before the run
+     */
+    public SimMotor addMotor(String name, double ticksPerRev, double freeSpeedRpm, double responseSeconds) {
+        SimMotor motor = new SimMotor(this, name, motors.size() % 4, ticksPerRev,
+                freeSpeedRpm / 60.0 * ticksPerRev, responseSeconds);
+        motors.add(motor);
+        hardwareMap.put(name, motor);
+        return motor;
+    }
+
+    // ========================================
+    // PHYSICS
+    // ========================================
+
+    synchronized void step(double dt) {
+        for (int i = 0; i < motors.size(); i++) {
+            motors.get(i).step(dt);
+        }
+
+        // Wheel surface speeds, inches/sec forward
+        double fl = MOUNT[0] * wheels[0].rawVelocity() * inchesPerTick;
+        double fr = MOUNT[1] * wheels[1].rawVelocity() * inchesPerTick;
+        double bl = MOUNT[2] * wheels[2].rawVelocity() * inchesPerTick;
+        double br = MOUNT[3] * wheels[3].rawVelocity() * inchesPerTick;
+
+        // Inverse of FL = f + r + t, FR = f - r - t, BL = f - r + t, BR = f + r - t (t clockwise)
+        double forward = (fl + fr + bl + br) / 4;
+        double right = (fl - fr - bl + br) / 4;
+        double clockwise = (fl - fr + bl - br) / 4 / turnRadius;
+
+        // Robot frame -> field frame (robot forward = (-sin h, cos h))
+        double sin = Math.sin(heading);
+        double cos = Math.cos(heading);
+        double wantVx = -forward * sin + right * cos;
+        double wantVy = forward * cos + right * sin;
+
+        // Traction limit on how fast the chassis can change velocity
+        double dvx = wantVx - vx;
+        double dvy = wantVy - vy;
+        double dv = Math.hypot(dvx, dvy);
+        double maxDv = MAX_ACCELERATION * dt;
+        if (dv > maxDv) {
+            dvx *= maxDv / dv;
+            dvy *= maxDv / dv;
+        }
+        vx += dvx;
+        vy += dvy;
+        headingVelocity = -clockwise;
+
+        x += vx * dt;
+        y += vy * dt;
+        heading = Angles.wrap(heading + headingVelocity * dt);
+    }
+
+    // ========================================
+    // ACCESS
+    // ========================================
+
+    public SimClock clock() {
+        return clock;
+    }
+
+    public HardwareMap hardwareMap() {
+        return hardwareMap;
+    }
+
+    public SimMotor motor(String name) {
+        for (SimMotor motor : motors) {
+            if (motor.getName().equals(name)) return motor;
+        }
+        throw new IllegalArgumentException("No simulated motor named " + name);
+    }
+
+    public SimImu imu() {
+        return imu;
+    }
+
+    /**
+     * Place the robot (at rest) - e.g. on the path's start position before the run
+     */
+    public synchronized void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = Angles.wrap(heading);
+        vx = 0;
+        vy = 0;
+        headingVelocity = 0;
+    }
+
+    public synchronized double getX() {
+        return x;
+    }
+
+    public synchronized double getY() {
+        return y;
+    }
+
+    public synchronized double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Counter-clockwise radians/sec
+     */
+    public synchronized double getHeadingVelocity() {
+        return headingVelocity;
+    }
+
+    public synchronized double getSpeed() {
+        return Math.hypot(vx, vy);
+    }
+}
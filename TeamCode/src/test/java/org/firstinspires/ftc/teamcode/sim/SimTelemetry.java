@@ -0,0 +1,234 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.robotcore.external.Func;
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * SimTelemetry - Telemetry that keeps the last frame as text
+ *
+ * update() renders the current items the way the Driver Station would
+ * ("caption : value", one per line, items on a Line joined with " | ") and
+ * keeps it for getFrame(). With an echo stream every frame is printed too,
+ * prefixed with the virtual time - usually only wanted at real-time speed.
+ */
+public class SimTelemetry implements Telemetry {
+
+    private static final int LOG_CAPACITY = 50;
+
+    private final SimClock clock;
+    private final List<SimItem> items = new ArrayList<>();
+    private final SimLog log = new SimLog();
+    private PrintStream echo = null;
+
+    private boolean autoClear = true;
+    private int msTransmissionInterval = 250;
+    private String itemSeparator = " | ";
+    private String captionValueSeparator = " : ";
+    private String frame = "";
+    private int updates = 0;
+
+    public SimTelemetry(SimClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Print every frame and log line to this stream (null = quiet)
+     */
+    public void setEcho(PrintStream echo) {
+        this.echo = echo;
+    }
+
+    public synchronized String getFrame() {
+        return frame;
+    }
+
+    public synchronized List<String> getLog() {
+        return new ArrayList<>(log.lines);
+    }
+
+    public synchronized int getUpdateCount() {
+        return updates;
+    }
+
+    // ========================================
+    // ITEMS
+    // ========================================
+
+    private class SimItem implements Item, Line {
+        private String caption;
+        private Object value;                         // String, or Func for lazily evaluated items
+        private boolean retained = false;
+        private final List<SimItem> children = new ArrayList<>();
+
+        SimItem(String caption, Object value) {
+            this.caption = caption;
+            this.value = value;
+        }
+
+        String render() {
+            StringBuilder text = new StringBuilder();
+            if (caption != null && !caption.isEmpty()) {
+                text.append(caption);
+                if (value != null) text.append(captionValueSeparator);
+            }
+            if (value instanceof Func) {
+                text.append(((Func<?>) value).value());
+            } else if (value != null) {
+                text.append(value);
+            }
+            for (SimItem child : children) {
+                if (text.length() > 0) text.append(itemSeparator);
+                text.append(child.render());
+            }
+            return text.toString();
+        }
+
+        private Item child(String caption, Object value) {
+            SimItem item = new SimItem(caption, value);
+            synchronized (SimTelemetry.this) {
+                children.add(item);
+            }
+            return item;
+        }
+
+        @Override public String getCaption() { return caption; }
+        @Override public Item setCaption(String caption) { this.caption = caption; return this; }
+        @Override public Item setValue(String format, Object... args) { value = format(format, args); return this; }
+        @Override public Item setValue(Object value) { this.value = String.valueOf(value); return this; }
+        @Override public <T> Item setValue(Func<T> valueProducer) { value = valueProducer; return this; }
+        @Override public <T> Item setValue(String format, Func<T> valueProducer) { value = formatted(format, valueProducer); return this; }
+        @Override public Item setRetained(Boolean retained) { this.retained = retained != null && retained; return this; }
+        @Override public boolean isRetained() { return retained; }
+        @Override public Item addData(String caption, String format, Object... args) { return child(caption, format(format, args)); }
+        @Override public Item addData(String caption, Object value) { return child(caption, String.valueOf(value)); }
+        @Override public <T> Item addData(String caption, Func<T> valueProducer) { return child(caption, valueProducer); }
+        @Override public <T> Item addData(String caption, String format, Func<T> valueProducer) { return child(caption, formatted(format, valueProducer)); }
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.US, format, args);
+    }
+
+    private static <T> Func<String> formatted(final String format, final Func<T> producer) {
+        return () -> format(format, producer.value());
+    }
+
+    private synchronized SimItem add(String caption, Object value) {
+        SimItem item = new SimItem(caption, value);
+        items.add(item);
+        return item;
+    }
+
+    @Override public Item addData(String caption, String format, Object... args) { return add(caption, format(format, args)); }
+    @Override public Item addData(String caption, Object value) { return add(caption, String.valueOf(value)); }
+    @Override public <T> Item addData(String caption, Func<T> valueProducer) { return add(caption, valueProducer); }
+    @Override public <T> Item addData(String caption, String format, Func<T> valueProducer) { return add(caption, formatted(format, valueProducer)); }
+    @Override public Line addLine() { return add("", null); }
+    @Override public Line addLine(String lineCaption) { return add(lineCaption, null); }
+
+    @Override
+    public synchronized boolean removeItem(Item item) {
+        return items.remove(item);
+    }
+
+    @Override
+    public synchronized boolean removeLine(Line line) {
+        return items.remove(line);
+    }
+
+    @Override
+    public synchronized void clear() {
+        Iterator<SimItem> it = items.iterator();
+        while (it.hasNext()) {
+            if (!it.next().retained) it.remove();
+        }
+    }
+
+    @Override
+    public synchronized void clearAll() {
+        items.clear();
+        log.lines.clear();
+    }
+
+    @Override
+    public boolean update() {
+        String rendered;
+        synchronized (this) {
+            StringBuilder text = new StringBuilder();
+            for (SimItem item : items) {
+                text.append(item.render()).append('\n');
+            }
+            rendered = text.toString();
+            frame = rendered;
+            updates++;
+            if (autoClear) clear();
+        }
+        if (echo != null) {
+            echo.printf(Locale.US, "[%8.3f]%n%s", clock.seconds(), rendered);
+        }
+        return true;
+    }
+
+    // ========================================
+    // LOG
+    // ========================================
+
+    private class SimLog implements Log {
+        private final List<String> lines = new ArrayList<>();
+        private int capacity = LOG_CAPACITY;
+        private DisplayOrder order = DisplayOrder.OLDEST_FIRST;
+
+        @Override public int getCapacity() { return capacity; }
+        @Override public void setCapacity(int capacity) { this.capacity = capacity; }
+        @Override public DisplayOrder getDisplayOrder() { return order; }
+        @Override public void setDisplayOrder(DisplayOrder order) { this.order = order; }
+        @Override public void add(String format, Object... args) { add(format(format, args)); }
+
+        @Override
+        public void add(String entry) {
+            synchronized (SimTelemetry.this) {
+                lines.add(entry);
+                while (lines.size() > capacity) lines.remove(0);
+            }
+            if (echo != null) {
+                echo.printf(Locale.US, "[%8.3f] log: %s%n", clock.seconds(), entry);
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (SimTelemetry.this) {
+                lines.clear();
+            }
+        }
+    }
+
+    @Override
+    public Log log() {
+        return log;
+    }
+
+    // ========================================
+    // SETTINGS (kept, mostly without effect)
+    // ========================================
+
+    @Override public Object addAction(Runnable action) { return action; }
+    @Override public boolean removeAction(Object token) { return true; }
+    @Override public void speak(String text) { }
+    @Override public void speak(String text, String languageCode, String countryCode) { }
+    @Override public boolean isAutoClear() { return autoClear; }
+    @Override public void setAutoClear(boolean autoClear) { this.autoClear = autoClear; }
+    @Override public int getMsTransmissionInterval() { return msTransmissionInterval; }
+    @Override public void setMsTransmissionInterval(int msTransmissionInterval) { this.msTransmissionInterval = msTransmissionInterval; }
+    @Override public String getItemSeparator() { return itemSeparator; }
+    @Override public void setItemSeparator(String itemSeparator) { this.itemSeparator = itemSeparator; }
+    @Override public String getCaptionValueSeparator() { return captionValueSeparator; }
+    @Override public void setCaptionValueSeparator(String captionValueSeparator) { this.captionValueSeparator = captionValueSeparator; }
+    @Override public void setDisplayFormat(DisplayFormat displayFormat) { }
+}
@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.sim;
+
+import org.firstinspires.ftc.teamcode.Typeshi;
+import org.firstinspires.ftc.teamcode.kool.AutoData;
+import org.firstinspires.ftc.teamcode.kool.AutoPathFollower;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the unmodified OpModes on SimRobot - they finish, end where the path ends, and repeat
+ *
+ * Runs are bit-identical: followPath runs functions on the control thread's
+ * ActionScheduler, and the IMU is polled on virtual time (SimImuScheduler) rather
+ * than from a thread of its own - so two runs must match exactly.
+ */
+public class SimulatorTest {
+
+    static final double AUTO_SECONDS = 30.0;
+    static final double TELEOP_SECONDS = 20.0;
+    static final double END_TOLERANCE = 2.0;      // inches from the last path point
+
+    static SimRobot atStart() {
+        SimRobot robot = new SimRobot();
+        robot.setPose(AutoData.START_POS.x, AutoData.START_POS.y, Math.toRadians(AutoData.START_POS.rotation));
+        return robot;
+    }
+
+    /**
+     * Gamepad script touching every Typeshi binding, repeating every 20 s
+     */
+    static final OpModeRunner.Driver DRIVER = (t, g1, g2) -> {
+        double p = t % 20;
+        g1.left_stick_y = (float) Math.sin(t * 0.7);
+        g1.left_stick_x = (float) (0.5 * Math.cos(t * 1.3));
+        g1.right_stick_x = (float) (0.3 * Math.sin(t * 2.1));
+        g1.right_bumper = (p > 1 && p < 1.2) || (p > 2 && p < 2.1);
+        g1.left_bumper = p > 9 && p < 9.05;
+        g1.a = p > 3 && p < 3.3;
+        g1.y = (p > 5 && p < 5.2) || (p > 8 && p < 8.2);
+        g1.x = p > 6 && p < 7;
+        g1.right_trigger = p > 11 && p < 12 ? (float) (p - 11) : 0f;
+        g1.left_trigger = p > 13 && p < 13.5 ? 0.8f : 0f;
+        g1.back = (p > 15 && p < 15.1) || (p > 16 && p < 16.1);
+    };
+
+    @Test
+    public void autoPathFollowerEndsOnTheLastPoint() {
+        OpModeRunner.Result result = new OpModeRunner(atStart()).run(new AutoPathFollower(), AUTO_SECONDS);
+
+        assertTrue(result.toString(), result.ok());
+        AutoData.Point end = AutoData.PATH[AutoData.PATH.length - 1];
+        assertEquals(result.toString(), end.x, result.x, END_TOLERANCE);
+        assertEquals(result.toString(), end.y, result.y, END_TOLERANCE);
+    }
+
+    @Test
+    public void runsRepeat() {
+        OpModeRunner.Result first = new OpModeRunner(atStart()).run(new AutoPathFollower(), AUTO_SECONDS);
+        OpModeRunner.Result second = new OpModeRunner(atStart()).run(new AutoPathFollower(), AUTO_SECONDS);
+
+        assertEquals(first.x, second.x, 0.0);
+        assertEquals(first.y, second.y, 0.0);
+        assertEquals(first.heading, second.heading, 0.0);
+        assertEquals(first.simSeconds, second.simSeconds, 0.0);
+    }
+
+    @Test
+    public void scriptedTeleOpRuns() {
+        OpModeRunner.Result result = new OpModeRunner(new SimRobot()).setDriver(DRIVER)
+                .run(new Typeshi(), TELEOP_SECONDS);
+
+        assertTrue(result.toString(), result.ok());
+        assertEquals(TELEOP_SECONDS, result.simSeconds, 0.5);
+    }
+}
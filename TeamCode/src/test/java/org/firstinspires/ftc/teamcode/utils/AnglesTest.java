@@ -0,0 +1,41 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Angles.wrap - same angle, always in [-pi, pi]
+ */
+public class AnglesTest {
+
+    static final double EPSILON = 1e-12;
+
+    @Test
+    public void inRangeIsUnchanged() {
+        assertEquals(0.0, Angles.wrap(0.0), 0.0);
+        assertEquals(1.0, Angles.wrap(1.0), 0.0);
+        assertEquals(-3.0, Angles.wrap(-3.0), 0.0);
+        assertEquals(Math.PI, Angles.wrap(Math.PI), 0.0);
+        assertEquals(-Math.PI, Angles.wrap(-Math.PI), 0.0);
+    }
+
+    @Test
+    public void crossingHalfATurnTakesTheShortWay() {
+        // 179 degrees to -179 degrees is 2 degrees, not -358
+        assertEquals(Math.toRadians(2), Angles.wrap(Math.toRadians(-179) - Math.toRadians(179)), EPSILON);
+        assertEquals(Math.toRadians(-2), Angles.wrap(Math.toRadians(179) - Math.toRadians(-179)), EPSILON);
+    }
+
+    @Test
+    public void severalTurnsWrapToTheSameAngle() {
+        for (int turns = -5; turns <= 5; turns++) {
+            for (double angle = -3.0; angle <= 3.0; angle += 0.5) {
+                double wrapped = Angles.wrap(angle + turns * 2 * Math.PI);
+                assertTrue(wrapped >= -Math.PI && wrapped <= Math.PI);
+                assertEquals(angle, wrapped, 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * BulkReadCache against FakeHub - one bulk read (miss) per update, every other read a hit
+ */
+public class BulkReadCacheTest {
+
+    private static BulkReadCache cacheFor(FakeHub hub, int channels) {
+        BulkReadCache.Encoder[] encoders = new BulkReadCache.Encoder[channels];
+        for (int i = 0; i < channels; i++) {
+            encoders[i] = hub.encoder(i);
+        }
+        return new BulkReadCache(Collections.<BulkReadCache.Hub>singletonList(hub), encoders);
+    }
+
+    @Test
+    public void oneBulkReadPerUpdate() {
+        FakeHub hub = new FakeHub(4);
+        BulkReadCache cache = cacheFor(hub, 4);
+
+        for (int cycle = 1; cycle <= 10; cycle++) {
+            cache.update();
+            assertEquals(cycle, hub.getClears());
+            assertEquals(cycle, hub.getBulkReads());
+            // 4 positions + 4 velocities per cycle, only the first one misses
+            assertEquals(cycle * 7, hub.getCacheHits());
+        }
+    }
+
+    @Test
+    public void snapshotHoldsTheValuesOfItsCycle() {
+        FakeHub hub = new FakeHub(2);
+        BulkReadCache cache = cacheFor(hub, 2);
+
+        hub.setPosition(0, 100);
+        hub.setVelocity(1, 250.0);
+        BulkReadCache.Snapshot first = cache.update();
+
+        hub.setPosition(0, 200);
+        hub.setVelocity(1, -50.0);
+        BulkReadCache.Snapshot second = cache.update();
+
+        assertEquals(100, first.position(0));
+        assertEquals(250.0, first.velocity(1), 0.0);
+        assertEquals(200, second.position(0));
+        assertEquals(-50.0, second.velocity(1), 0.0);
+        assertEquals(first.cycle + 1, second.cycle);
+    }
+
+    @Test
+    public void latestDoesNotTouchTheHub() {
+        FakeHub hub = new FakeHub(4);
+        BulkReadCache cache = cacheFor(hub, 4);
+
+        BulkReadCache.Snapshot snapshot = cache.update();
+        int reads = hub.getBulkReads();
+        int hits = hub.getCacheHits();
+        for (int i = 0; i < 100; i++) {
+            assertSame(snapshot, cache.latest());
+        }
+        assertEquals(reads, hub.getBulkReads());
+        assertEquals(hits, hub.getCacheHits());
+    }
+
+    @Test
+    public void readsWithoutAClearAreStale() {
+        FakeHub hub = new FakeHub(1);
+        BulkReadCache.Encoder encoder = hub.encoder(0);
+
+        hub.setPosition(0, 10);
+        assertEquals(10, encoder.getCurrentPosition());   // miss - latches 10
+        hub.setPosition(0, 20);
+        assertEquals(10, encoder.getCurrentPosition());   // hit - MANUAL mode never refreshes on its own
+        hub.clearBulkCache();
+        assertEquals(20, encoder.getCurrentPosition());
+        assertEquals(2, hub.getBulkReads());
+        assertEquals(1, hub.getCacheHits());
+    }
+
+    @Test
+    public void everyHubIsClearedOncePerUpdate() {
+        FakeHub control = new FakeHub(2);
+        FakeHub expansion = new FakeHub(2);
+        BulkReadCache cache = new BulkReadCache(Arrays.<BulkReadCache.Hub>asList(control, expansion),
+                control.encoder(0), control.encoder(1), expansion.encoder(0), expansion.encoder(1));
+
+        cache.update();
+        cache.update();
+        assertEquals(2, control.getClears());
+        assertEquals(2, expansion.getClears());
+        assertEquals(2, control.getBulkReads());
+        assertEquals(2, expansion.getBulkReads());
+    }
+}
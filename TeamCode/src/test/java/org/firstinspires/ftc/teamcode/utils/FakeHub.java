@@ -0,0 +1,92 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+/**
+ * FakeHub - off-robot stand-in for a LynxModule in MANUAL bulk-caching mode
+ *
+ * Behaves like the real hub: the first encoder read after clearBulkCache()
+ * costs one bulk read (a miss), every later read in the same cycle is served
+ * from the cache (a hit) and returns the values latched by that bulk read.
+ * Set the "true" encoder values with setPosition()/setVelocity().
+ */
+public class FakeHub implements BulkReadCache.Hub {
+
+    private final int[] positions;
+    private final double[] velocities;
+    private final int[] cachedPositions;
+    private final double[] cachedVelocities;
+
+    private boolean cacheValid = false;
+
+    private int bulkReads = 0;
+    private int cacheHits = 0;
+    private int clears = 0;
+
+    public FakeHub(int channels) {
+        positions = new int[channels];
+        velocities = new double[channels];
+        cachedPositions = new int[channels];
+        cachedVelocities = new double[channels];
+    }
+
+    @Override
+    public void clearBulkCache() {
+        cacheValid = false;
+        clears++;
+    }
+
+    public void setPosition(int channel, int ticks) {
+        positions[channel] = ticks;
+    }
+
+    public void setVelocity(int channel, double ticksPerSecond) {
+        velocities[channel] = ticksPerSecond;
+    }
+
+    /**
+     * Encoder on the given channel, read through this hub's cache
+     */
+    public BulkReadCache.Encoder encoder(final int channel) {
+        return new BulkReadCache.Encoder() {
+            @Override
+            public int getCurrentPosition() {
+                refresh();
+                return cachedPositions[channel];
+            }
+
+            @Override
+            public double getVelocity() {
+                refresh();
+                return cachedVelocities[channel];
+            }
+        };
+    }
+
+    private void refresh() {
+        if (cacheValid) {
+            cacheHits++;
+            return;
+        }
+        System.arraycopy(positions, 0, cachedPositions, 0, positions.length);
+        System.arraycopy(velocities, 0, cachedVelocities, 0, velocities.length);
+        cacheValid = true;
+        bulkReads++;
+    }
+
+    /**
+     * Number of bulk reads (cache misses) so far
+     */
+    public int getBulkReads() {
+        return bulkReads;
+    }
+
+    /**
+     * Number of reads served from the cache so far
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getClears() {
+        return clears;
+    }
+}
@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType;
+
+import org.firstinspires.ftc.teamcode.sim.SimRobot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FlywheelControl on the simulated shooter motors - motor constants from the configured type
+ */
+public class FlywheelControlTest {
+
+    static final long STEP_NANOS = 10000000L;   // 10 ms loops
+    static final double SHOT_SPEED = 0.9;
+    static final double SPIN_UP_SECONDS = 1.5;
+
+    private SimRobot robot;
+    private DcMotorEx outtake, outtake2;
+
+    @Before
+    public void setUp() {
+        robot = new SimRobot();
+        Clock.use(robot.clock());
+        outtake = robot.hardwareMap().get(DcMotorEx.class, "outtake");
+        outtake2 = robot.hardwareMap().get(DcMotorEx.class, "outtake2");
+    }
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+    }
+
+    @Test
+    public void freeSpeedComesFromTheMotorType() {
+        assertEquals(SimRobot.MECHANISM_FREE_SPEED_RPM,
+                FlywheelControl.forConfiguredMotors(null, outtake, outtake2).getFreeRpm(), 1e-6);
+
+        MotorConfigurationType geared = new MotorConfigurationType();   // goBILDA 5203 1150 rpm
+        geared.setTicksPerRev(145.1);
+        geared.setMaxRPM(1150);
+        outtake.setMotorType(geared);
+        assertEquals(1150.0, FlywheelControl.forConfiguredMotors(null, outtake, outtake2).getFreeRpm(), 0.0);
+    }
+
+    @Test
+    public void typeWithoutASpeedFallsBackToTheDefaults() {
+        outtake.setMotorType(new MotorConfigurationType());
+        assertEquals(FlywheelControl.DEFAULT_FREE_RPM,
+                FlywheelControl.forConfiguredMotors(null, outtake, outtake2).getFreeRpm(), 0.0);
+    }
+
+    @Test
+    public void reachesAFractionOfTheConfiguredSpeed() {
+        FlywheelControl flywheel = FlywheelControl.forConfiguredMotors(null, outtake, outtake2).setRatio(1, 0.99);
+        double target = -SHOT_SPEED * flywheel.getFreeRpm();
+        flywheel.setTargetRpm(target);
+
+        int loops = 0;
+        while (!flywheel.update() && loops++ < SPIN_UP_SECONDS * 1e9 / STEP_NANOS) {
+            robot.clock().advance(STEP_NANOS);
+        }
+        assertTrue("at speed within " + SPIN_UP_SECONDS + " s", flywheel.isAtSpeed());
+        assertEquals(target, flywheel.getMeanRpm(), FlywheelControl.DEFAULT_TOLERANCE_RPM);
+        flywheel.stop();
+    }
+}
@@ -0,0 +1,103 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MotionProfile - continuous setpoints across phases, limits respected, triangle for short moves
+ */
+public class MotionProfileTest {
+
+    static final double V_MAX = 30.0;   // inches/sec, AutoPathFollower's point-to-point limits
+    static final double A_MAX = 40.0;
+    static final double EPSILON = 1e-9;
+    static final double STEP = 1e-6;    // seconds either side of a phase boundary
+
+    /**
+     * Accel end, cruise end and total time, from the profile's own reported peak
+     */
+    static double[] boundaries(MotionProfile profile) {
+        double accelTime = profile.getCruiseVelocity() / A_MAX;
+        return new double[] { 0.0, accelTime, profile.getTotalTime() - accelTime, profile.getTotalTime() };
+    }
+
+    @Test
+    public void setpointsAreContinuousAtPhaseBoundaries() {
+        for (double distance : new double[] { 60.0, -60.0, 5.0, -5.0 }) {
+            MotionProfile profile = new MotionProfile(distance, V_MAX, A_MAX);
+            for (double t : boundaries(profile)) {
+                double before = t - STEP, after = t + STEP;
+                String where = "distance " + distance + " at t=" + t;
+
+                // Position and velocity have no jumps
+                assertEquals(where, profile.position(before), profile.position(after), 2 * V_MAX * STEP);
+                assertEquals(where, profile.velocity(before), profile.velocity(after), 2 * A_MAX * STEP + EPSILON);
+
+                // A trapezoid's acceleration steps between 0 and +-A_MAX at a boundary, so on
+                // each side it must match the slope of the velocity on that side
+                assertEquals(where, slope(profile, before - STEP, before), profile.acceleration(before), 1e-3);
+                assertEquals(where, slope(profile, after, after + STEP), profile.acceleration(after), 1e-3);
+            }
+        }
+    }
+
+    @Test
+    public void velocityIntegratesToPosition() {
+        MotionProfile profile = new MotionProfile(48.0, V_MAX, A_MAX);
+        double dt = 1e-4, position = 0.0;
+        for (double t = 0; t < profile.getTotalTime() + 0.1; t += dt) {
+            position += 0.5 * (profile.velocity(t) + profile.velocity(t + dt)) * dt;
+            assertEquals("t=" + t, profile.position(t + dt), position, 1e-3);
+        }
+        assertEquals(48.0, position, 1e-3);
+    }
+
+    @Test
+    public void staysWithinLimits() {
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            double distance = (random.nextDouble() - 0.5) * 200.0;
+            MotionProfile profile = new MotionProfile(distance, V_MAX, A_MAX);
+            double total = profile.getTotalTime();
+            for (double t = -0.1; t <= total + 0.1; t += total / 500) {
+                assertTrue(Math.abs(profile.velocity(t)) <= V_MAX + EPSILON);
+                assertTrue(Math.abs(profile.acceleration(t)) <= A_MAX + EPSILON);
+                assertTrue(Math.abs(profile.position(t)) <= Math.abs(distance) + EPSILON);
+            }
+            assertEquals(distance, profile.position(total), EPSILON);
+            assertEquals(0.0, profile.velocity(total), 0.0);
+            assertTrue(profile.isFinished(total));
+        }
+    }
+
+    @Test
+    public void shortMoveIsATriangle() {
+        // Reaching 30 in/s at 40 in/s^2 takes 11.25 in each way - 10 in never gets there
+        MotionProfile profile = new MotionProfile(10.0, V_MAX, A_MAX);
+        double peak = Math.sqrt(10.0 * A_MAX);
+
+        assertEquals(peak, profile.getCruiseVelocity(), EPSILON);
+        assertTrue(peak < V_MAX);
+        assertEquals(2 * peak / A_MAX, profile.getTotalTime(), EPSILON);
+        assertEquals(peak, profile.velocity(profile.getTotalTime() / 2), 1e-6);
+        assertEquals(5.0, profile.position(profile.getTotalTime() / 2), 1e-6);
+    }
+
+    @Test
+    public void longMoveCruisesAtTheLimit() {
+        MotionProfile profile = new MotionProfile(100.0, V_MAX, A_MAX);
+        double accelTime = V_MAX / A_MAX;
+
+        assertEquals(V_MAX, profile.getCruiseVelocity(), EPSILON);
+        assertEquals(V_MAX, profile.velocity(profile.getTotalTime() / 2), EPSILON);
+        assertEquals(2 * accelTime + (100.0 - V_MAX * accelTime) / V_MAX, profile.getTotalTime(), EPSILON);
+    }
+
+    private static double slope(MotionProfile profile, double t0, double t1) {
+        return (profile.velocity(t1) - profile.velocity(t0)) / (t1 - t0);
+    }
+}
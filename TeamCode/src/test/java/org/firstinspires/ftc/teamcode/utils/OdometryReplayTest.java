@@ -0,0 +1,98 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Odometry replayed over a recorded tick log, against the true pose
+ *
+ * odometry/teleop-drive.csv is 20 s of the scripted Typeshi drive (SimulatorTest.DRIVER)
+ * on SimRobot, sampled every 10 ms: the four drive encoders, the IMU heading and the
+ * simulator's true x, y. The simulator limits chassis acceleration (wheel slip), so
+ * the encoders don't describe the motion exactly. Drift past the bounds means the
+ * kinematics or frame conventions changed.
+ */
+public class OdometryReplayTest {
+
+    static final String LOG = "odometry/teleop-drive.csv";
+    static final double TICKS_PER_INCH = 384.5 / (Math.PI * 4.094);   // SimRobot's 435 rpm motor, 104 mm wheel
+    static final double TRACK_WIDTH = 26.0;                          // SimRobot track + wheel base
+    static final double MAX_DRIFT = 0.5;                             // inches, anywhere along the log
+    static final double MAX_HEADING_DRIFT = 0.01;                    // radians, encoder-only heading
+
+    static final class Sample {
+        final int fl, fr, bl, br;
+        final double heading, x, y;
+
+        Sample(String line) {
+            String[] f = line.split(",");
+            fl = Integer.parseInt(f[1]);
+            fr = Integer.parseInt(f[2]);
+            bl = Integer.parseInt(f[3]);
+            br = Integer.parseInt(f[4]);
+            heading = Double.parseDouble(f[5]);
+            x = Double.parseDouble(f[6]);
+            y = Double.parseDouble(f[7]);
+        }
+    }
+
+    static List<Sample> samples;
+
+    @BeforeClass
+    public static void load() throws IOException {
+        InputStream in = OdometryReplayTest.class.getClassLoader().getResourceAsStream(LOG);
+        assertNotNull(LOG, in);
+        samples = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            reader.readLine();   // header
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                samples.add(new Sample(line));
+            }
+        }
+        assertTrue(samples.size() > 1000);
+    }
+
+    @Test
+    public void imuOdometryStaysOnTheTruePose() {
+        Odometry odometry = new Odometry(TICKS_PER_INCH);
+        Sample first = samples.get(0);
+        odometry.reset(first.x, first.y, first.heading, first.fl, first.fr, first.bl, first.br);
+
+        for (int i = 1; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            odometry.update(s.fl, s.fr, s.bl, s.br, s.heading);
+            assertDrift(i, odometry, s);
+        }
+    }
+
+    @Test
+    public void encoderOnlyOdometryStaysOnTheTruePose() {
+        Odometry odometry = new Odometry(TICKS_PER_INCH, Odometry.DEFAULT_LATERAL_MULTIPLIER, TRACK_WIDTH);
+        Sample first = samples.get(0);
+        odometry.reset(first.x, first.y, first.heading, first.fl, first.fr, first.bl, first.br);
+
+        for (int i = 1; i < samples.size(); i++) {
+            Sample s = samples.get(i);
+            odometry.update(s.fl, s.fr, s.bl, s.br);
+            assertDrift(i, odometry, s);
+            double headingError = Math.abs(Math.IEEEremainder(odometry.getHeading() - s.heading, 2 * Math.PI));
+            assertTrue("record " + i + ": heading off by " + headingError, headingError < MAX_HEADING_DRIFT);
+        }
+    }
+
+    private static void assertDrift(int record, Odometry odometry, Sample truth) {
+        double drift = Math.hypot(odometry.getX() - truth.x, odometry.getY() - truth.y);
+        assertTrue(String.format("record %d: %.3f in from the true pose", record, drift), drift < MAX_DRIFT);
+    }
+}
@@ -0,0 +1,142 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ShotDetector counts the shots in every saved trace in src/test/resources/shots
+ *
+ * Run this before changing a threshold. To check against the robot, pull its traces
+ *     adb pull /sdcard/FIRST/shots/score-20250101-120000-000-1.csv TeamCode/src/test/resources/shots/
+ * and add a line to shots/expected.properties with the shots really fired in it.
+ */
+public class ShotDetectorTest {
+
+    static final String TRACES = "shots";
+    static final String EXPECTED = "expected.properties";
+    static final double TARGET = 5400.0;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Counts from feeding a trace back through a fresh detector, and from its shot column
+     */
+    static final class Replay {
+        int detected;
+        int recorded;
+        int samples;
+    }
+
+    static Replay replay(File trace) throws IOException {
+        ShotDetector detector = new ShotDetector();
+        Replay result = new Replay();
+        try (BufferedReader in = new BufferedReader(new FileReader(trace))) {
+            String line = in.readLine();
+            assertTrue(trace + " is not a shot trace", line != null && line.startsWith("ms,"));
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split(",", -1);
+                double amps = fields[3].isEmpty() ? Double.NaN : Double.parseDouble(fields[3]);
+                detector.update(Long.parseLong(fields[0]), Double.parseDouble(fields[1]),
+                        Double.parseDouble(fields[2]), amps);
+                if (fields[4].equals("1")) result.recorded++;
+                result.samples++;
+            }
+        }
+        result.detected = detector.getShots();
+        return result;
+    }
+
+    @Test
+    public void everyTraceHasItsShotsCounted() throws Exception {
+        URL resource = getClass().getClassLoader().getResource(TRACES);
+        assertNotNull("No shots folder in the test resources", resource);
+        File traces = new File(resource.toURI());
+        Properties expected = new Properties();
+        try (InputStream in = new FileInputStream(new File(traces, EXPECTED))) {
+            expected.load(in);
+        }
+
+        File[] files = traces.listFiles((dir, name) -> name.endsWith(".csv"));
+        assertNotNull(files);
+        assertTrue(files.length > 0);
+        Arrays.sort(files);
+        for (File trace : files) {
+            String fired = expected.getProperty(trace.getName());
+            assertNotNull(trace.getName() + " has no count in " + EXPECTED, fired);
+            Replay result = replay(trace);
+            assertEquals(trace.getName(), Integer.parseInt(fired.trim()), result.detected);
+            assertEquals(trace.getName() + " counted differently when it was recorded", result.detected, result.recorded);
+        }
+    }
+
+    @Test
+    public void clearDipsCountOnceEach() {
+        ShotDetector detector = new ShotDetector();
+        long ms = 0;
+        for (int shot = 0; shot < 3; shot++) {
+            for (int i = 0; i < 20; i++, ms += 10) detector.update(ms, TARGET, TARGET, Double.NaN);
+            for (int i = 0; i < 3; i++, ms += 10) detector.update(ms, TARGET, TARGET * 0.9, Double.NaN);
+        }
+        assertEquals(3, detector.getShots());
+    }
+
+    @Test
+    public void smallDipNeedsACurrentJump() {
+        ShotDetector quiet = new ShotDetector(), loud = new ShotDetector();
+        for (long ms = 0; ms < 200; ms += 10) {
+            quiet.update(ms, TARGET, TARGET, 1.0);
+            loud.update(ms, TARGET, TARGET, 1.0);
+        }
+        quiet.update(200, TARGET, TARGET * 0.96, 1.2);
+        loud.update(200, TARGET, TARGET * 0.96, 1.0 + ShotDetector.AMP_RISE);
+        assertEquals(0, quiet.getShots());
+        assertEquals(1, loud.getShots());
+    }
+
+    @Test
+    public void spinUpIsNotAShot() {
+        ShotDetector detector = new ShotDetector();
+        for (long ms = 0; ms < 1000; ms += 10) {
+            detector.update(ms, TARGET, TARGET * ms / 1000.0, Double.NaN);
+        }
+        assertEquals(0, detector.getShots());
+    }
+
+    @Test
+    public void copiedTraceWritesWhatWasDetected() throws IOException {
+        ShotDetector detector = new ShotDetector();
+        long ms = 0;
+        for (int i = 0; i < ShotDetector.TRACE_CAPACITY + 500; i++, ms += 10) {
+            boolean dip = i % 100 >= 95;
+            detector.update(ms, TARGET, dip ? TARGET * 0.9 : TARGET, Double.NaN);
+        }
+
+        ShotDetector.Trace trace = new ShotDetector.Trace();
+        detector.copyTrace(trace);
+        assertEquals(ShotDetector.TRACE_CAPACITY, trace.size());   // only the newest samples
+
+        File file = new File(folder.getRoot(), "shots/score.csv");
+        trace.write(file);
+        Replay result = replay(file);
+        assertEquals(ShotDetector.TRACE_CAPACITY, result.samples);
+        assertEquals(trace.shots(), result.recorded);
+        assertEquals(10, result.recorded);
+    }
+}
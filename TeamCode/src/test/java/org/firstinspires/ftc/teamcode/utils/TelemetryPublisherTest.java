@@ -0,0 +1,128 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.firstinspires.ftc.teamcode.sim.SimTelemetry;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * TelemetryPublisher - a loop that stores unchanged values and publishes allocates nothing
+ *
+ * Allocation is read from HotSpot's per-thread allocated-bytes counter; the test is
+ * skipped on a JVM that doesn't provide it.
+ */
+public class TelemetryPublisherTest {
+
+    static final int WARM_UP_LOOPS = 50000;   // let the JIT compile set()/publish() first
+    static final int LOOPS = 100000;
+    static final long LOOP_NANOS = 5000000L;  // 200 loops/sec
+    static final long SLACK_BYTES = 256;      // JIT or safepoint bookkeeping charged to the thread
+
+    /**
+     * Sink whose update() costs nothing, so only the publisher's own work is measured
+     */
+    static class CountingTelemetry extends SimTelemetry {
+        int updates;
+
+        CountingTelemetry() {
+            super(new SimClock(seconds -> { }));
+        }
+
+        @Override
+        public boolean update() {
+            updates++;
+            return true;
+        }
+    }
+
+    static com.sun.management.ThreadMXBean threads() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static long loop(TelemetryPublisher publisher, int[] slots, long startNanos, int loops) {
+        long now = startNanos;
+        for (int i = 0; i < loops; i++) {
+            publisher.set(slots[0], 0.25, -0.5);
+            publisher.set(slots[1], 12.5, 3.0, 1.0);
+            publisher.set(slots[2], "ON");
+            publisher.publish(now);
+            now += LOOP_NANOS;
+        }
+        return now;
+    }
+
+    @Test
+    public void unchangedLoopAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = threads();
+        long thread = Thread.currentThread().getId();
+
+        CountingTelemetry telemetry = new CountingTelemetry();
+        TelemetryPublisher publisher = new TelemetryPublisher(telemetry);
+        int[] slots = {
+                publisher.add("Drive", "{2}, {2}"),
+                publisher.add("Pose", "{1}, {1} @ {0}"),
+                publisher.addText("Intake")
+        };
+
+        long now = loop(publisher, slots, 0, WARM_UP_LOOPS);
+        int formatted = publisher.getFormatCount();
+        int flushes = publisher.getFlushCount();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        long calibration = threads.getThreadAllocatedBytes(thread) - before;   // cost of the call itself
+        before = threads.getThreadAllocatedBytes(thread);
+        loop(publisher, slots, now, LOOPS);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - calibration;
+
+        assertTrue(allocated + " bytes allocated over " + LOOPS + " loops", allocated <= SLACK_BYTES);
+
+        // Still flushing at its cadence, but with nothing to format
+        long expectedFlushes = LOOPS * LOOP_NANOS / (TelemetryPublisher.DEFAULT_FLUSH_INTERVAL_MS * 1000000L);
+        assertEquals(expectedFlushes, publisher.getFlushCount() - flushes, 1);
+        assertEquals(formatted, publisher.getFormatCount());
+    }
+
+    @Test
+    public void changedSlotsAreFormattedOncePerFlush() {
+        CountingTelemetry telemetry = new CountingTelemetry();
+        TelemetryPublisher publisher = new TelemetryPublisher(telemetry);
+        int drive = publisher.add("Drive", "{2}, {2}");
+        int intake = publisher.addText("Intake");
+        publisher.flush();
+        int formatted = publisher.getFormatCount();
+
+        for (int i = 0; i < 10; i++) {
+            publisher.set(drive, i * 0.1, 0.0);   // changes every loop, formatted once
+            publisher.set(intake, "ON");          // changes once
+        }
+        publisher.flush();
+        assertEquals(formatted + 2, publisher.getFormatCount());
+
+        publisher.flush();
+        assertEquals(formatted + 2, publisher.getFormatCount());
+        assertEquals(3, telemetry.updates);
+    }
+
+    @Test
+    public void fixedPointMatchesFormat() {
+        double[] values = { 0.0, 1.005, -0.004, -2.5, 12345.678, 0.1, 99.995 };
+        for (double value : values) {
+            for (int places = 0; places <= 4; places++) {
+                StringBuilder out = new StringBuilder();
+                TelemetryPublisher.appendFixed(out, value, places);
+                double parsed = Double.parseDouble(out.toString());
+                assertEquals(value + " to " + places, value, parsed, 0.5 * Math.pow(10, -places) + 1e-12);
+            }
+        }
+    }
+}
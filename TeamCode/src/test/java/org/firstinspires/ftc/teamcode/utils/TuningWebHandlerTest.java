@@ -0,0 +1,139 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import fi.iki.elonen.NanoHTTPD;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TuningWebHandler behind a local NanoHTTPD standing in for the RC web server - real form POSTs
+ */
+public class TuningWebHandlerTest {
+
+    static final Tunables.Number KP = Tunables.number("TuningWebHandlerTest.KP", 1.5, 0, 10);
+    static final Tunables.NumberList POWERS = Tunables.numbers("TuningWebHandlerTest.POWERS", -1, 1, 0, -0.5, -1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private NanoHTTPD server;
+
+    @Before
+    public void setUp() throws IOException {
+        Storage.setRoot(folder.getRoot());
+        Tunables.load();   // new folder - every parameter back to its default
+
+        final TuningWebHandler handler = new TuningWebHandler();
+        server = new NanoHTTPD("127.0.0.1", 0) {
+            @Override
+            public Response serve(IHTTPSession session) {
+                try {
+                    return handler.getResponse(session);
+                } catch (IOException | ResponseException e) {
+                    return newFixedLengthResponse(Response.Status.INTERNAL_ERROR, MIME_PLAINTEXT, e.toString());
+                }
+            }
+        };
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        Storage.setRoot(null);
+    }
+
+    private URL url(String query) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getListeningPort() + TuningWebHandler.PATH + query);
+    }
+
+    /**
+     * @return status code, a space, then the body
+     */
+    private String post(String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url("").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(connection);
+    }
+
+    private String get(String query) throws IOException {
+        return read((HttpURLConnection) url(query).openConnection());
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = code < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = in.read(chunk)) > 0) {
+                body.write(chunk, 0, n);
+            }
+        }
+        connection.disconnect();
+        return code + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void postSetsAndSaves() throws IOException {
+        String reply = post("name=TuningWebHandlerTest.KP&value=2.25&format=text");
+        assertTrue(reply, reply.startsWith("200 ok\n"));
+        assertTrue(reply, reply.contains("TuningWebHandlerTest.KP = 2.25\n"));
+        assertEquals(2.25, KP.get(), 0.0);
+
+        assertTrue(post("name=TuningWebHandlerTest.POWERS&value=0%2C-0.4%2C-0.9&format=text").startsWith("200 ok"));
+        assertArrayEquals(new double[] { 0, -0.4, -0.9 }, POWERS.get(), 0.0);
+
+        String saved = new String(Files.readAllBytes(Tunables.defaultFile().toPath()), StandardCharsets.UTF_8);
+        assertTrue(saved, saved.contains("TuningWebHandlerTest.KP=2.25"));
+    }
+
+    @Test
+    public void badPostsAreRejectedAndChangeNothing() throws IOException {
+        assertTrue(post("name=TuningWebHandlerTest.KP&value=99&format=text").startsWith("400 error: "));
+        assertTrue(post("name=TuningWebHandlerTest.KP&value=abc&format=text").startsWith("400 error: "));
+        assertTrue(post("name=TuningWebHandlerTest.POWERS&value=0%2C1&format=text").startsWith("400 error: "));
+        assertTrue(post("name=Nope&value=1&format=text").startsWith("400 error: no parameter named Nope"));
+        assertTrue(post("name=TuningWebHandlerTest.KP&format=text").startsWith("400 error: need name and value"));
+        assertEquals(1.5, KP.get(), 0.0);
+        assertArrayEquals(new double[] { 0, -0.5, -1 }, POWERS.get(), 0.0);
+    }
+
+    @Test
+    public void repeatedFieldsTakeTheFirstValue() throws IOException {
+        assertTrue(post("name=TuningWebHandlerTest.KP&value=3&value=4&format=text").startsWith("200 ok"));
+        assertEquals(3.0, KP.get(), 0.0);
+    }
+
+    @Test
+    public void getListsEveryParameter() throws IOException {
+        String text = get("?format=text");
+        assertTrue(text, text.startsWith("200 "));
+        assertTrue(text, text.contains("TuningWebHandlerTest.KP = 1.5\n"));
+
+        String page = get("");
+        assertTrue(page, page.startsWith("200 <!DOCTYPE html>"));
+        assertTrue(page, page.contains("value=\"TuningWebHandlerTest.POWERS\""));
+    }
+}
@@ -0,0 +1,94 @@
+package org.firstinspires.ftc.teamcode.utils;
+
+import org.firstinspires.ftc.teamcode.sim.SimClock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * VelocityPid on a stepped clock - time step, anti-windup and battery scaling
+ */
+public class VelocityPidTest {
+
+    static final long STEP_NANOS = 10000000L;   // 10 ms loops
+    static final double EPSILON = 1e-9;
+
+    private SimClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new SimClock(seconds -> { });
+        Clock.use(clock);
+    }
+
+    @After
+    public void tearDown() {
+        Clock.use(null);
+    }
+
+    /**
+     * Integral-only controller, already past its first (dt = 0) cycle
+     */
+    private VelocityPid integrator() {
+        VelocityPid pid = new VelocityPid(null, 1, 0.0, 1.0, 0.0);
+        pid.begin();
+        clock.advance(STEP_NANOS);
+        assertEquals(0.01, pid.begin(), EPSILON);
+        return pid;
+    }
+
+    @Test
+    public void firstCycleAndLongGapsAreBounded() {
+        VelocityPid pid = new VelocityPid(null, 1, 1.0, 0.0, 0.0);
+        assertEquals(0.0, pid.begin(), 0.0);
+        clock.advance(1000000000L);
+        assertEquals(0.1, pid.begin(), EPSILON);   // a blocking second counts as MAX_DT
+        pid.reset();
+        assertEquals(0.0, pid.begin(), 0.0);
+    }
+
+    @Test
+    public void integratesTheErrorOverTime() {
+        VelocityPid pid = integrator();
+        assertEquals(0.0, pid.volts(0, 0.0, 2.0), EPSILON);   // integral starts at 0
+        clock.advance(STEP_NANOS);
+        pid.begin();
+        assertEquals(0.02, pid.volts(0, 0.0, 2.0), EPSILON);  // 2 * 10 ms
+    }
+
+    @Test
+    public void saturatedOutputDoesNotWindUp() {
+        VelocityPid pid = integrator();
+        for (int i = 0; i < 100; i++) {
+            pid.volts(0, 20.0, 1.0);   // feedforward alone is past the battery
+            clock.advance(STEP_NANOS);
+            pid.begin();
+        }
+        assertEquals(0.0, pid.volts(0, 0.0, 0.0), EPSILON);
+    }
+
+    @Test
+    public void integralIsClamped() {
+        VelocityPid pid = integrator();
+        for (int i = 0; i < 1000; i++) {
+            pid.volts(0, 0.0, 1.0);
+            clock.advance(STEP_NANOS);
+            pid.begin();
+        }
+        double held = pid.volts(0, 0.0, 0.0);
+        assertTrue(held > 1.9 && held <= 2.0);
+        pid.clearIntegral(0);
+        assertEquals(0.0, pid.volts(0, 0.0, 0.0), EPSILON);
+    }
+
+    @Test
+    public void powerIsVoltsOverTheBattery() {
+        VelocityPid pid = new VelocityPid(null, 1, 0.0, 0.0, 0.0);
+        assertEquals(VelocityPid.NOMINAL_VOLTAGE, pid.getVoltage(), 0.0);
+        assertEquals(0.5, pid.power(6.0), EPSILON);
+        assertEquals(-1.0, pid.power(-30.0), 0.0);
+    }
+}
@@ -1,12 +1,25 @@
 #!/usr/bin/env python3
 """
-Converts path.json and functions.json into AutoData.java
+Converts path.json and functions.json into AutoData.java and auto.path
+
+AutoData.java is compiled into the app (the fallback path).
+auto.path is the binary path file the robot loads at init - push it with
+    adb push auto.path /sdcard/FIRST/paths/auto.path
+to change the path without rebuilding.
+
+The drawn path is simplified first (see simplify.py) so the robot gets a few
+smooth segments instead of thousands of 0.5 inch steps. Pass --raw to skip it,
+or --tolerance to change how far the simplified path may stray (inches).
 """
 
+import argparse
 import json
 import sys
 from pathlib import Path
 
+from pathfile import write_path_file
+from simplify import DEFAULT_TOLERANCE, simplify_path
+
 
 def load_json_file(filepath):
     """Load and parse a JSON file."""
@@ -141,10 +154,17 @@ public class AutoData {{
 
 def main():
     """Main conversion function."""
+    parser = argparse.ArgumentParser(description="Convert tracer output for the robot")
+    parser.add_argument("--raw", action="store_true", help="keep every drawn point")
+    parser.add_argument("--tolerance", type=float, default=DEFAULT_TOLERANCE,
+                        help=f"simplification tolerance in inches (default {DEFAULT_TOLERANCE})")
+    args = parser.parse_args()
+
     # File paths
     path_file = 'path.json'
     functions_file = 'functions.json'
     output_file = 'AutoData.java'
+    binary_file = 'auto.path'
     
     # Load JSON files
     print(f"Loading {path_file}...")
@@ -152,6 +172,13 @@ def main():
     
     print(f"Loading {functions_file}...")
     functions_data = load_json_file(functions_file)
+
+    # Simplify the drawn path
+    if not args.raw:
+        before = len(path_data['path'])
+        path_data = {'path': simplify_path(path_data['path'], functions_data['functions'], args.tolerance)}
+        print(f"Simplified path: {before} -> {len(path_data['path'])} points "
+              f"(tolerance {args.tolerance} in)")
     
     # Generate Java code
     print("Generating AutoData.java...")
@@ -163,6 +190,10 @@ def main():
     
     print(f"Successfully created {output_file}")
 
+    # Write binary path file
+    size = write_path_file(binary_file, path_data, functions_data)
+    print(f"Successfully created {binary_file} ({size} bytes)")
+
 
 if __name__ == '__main__':
     main()
\ No newline at end of file
@@ -0,0 +1,152 @@
+#!/usr/bin/env python3
+"""
+Flight log (.flight) decoder - files written on the robot by kool/FlightRecorder.java
+
+Pull the logs from the Robot Controller and turn one into CSV:
+    adb pull /sdcard/FIRST/flightlogs
+    python3 flightlog.py flightlogs/AutoPathFollower-20250101-120000.flight
+writes AutoPathFollower-20250101-120000.csv next to it (or -o out.csv, or -o - for stdout).
+
+Layout (little-endian):
+    header  64 bytes   magic "WOFR", u16 version, u16 record bytes,
+                       i32 capacity, i32 record count, i64 start wall clock ms,
+                       i32 dropped records, i32 function name count,
+                       32 bytes recording OpMode name (version 2, zero padded)
+    names   u16 byte length + UTF-8 bytes per path function, up to offset 4096
+    records from offset 4096, 64 bytes each (version 1) or 128 (version 2)
+            i64 nanos since start, i32 ticks FL FR BL BR, f32 power FL FR BL BR,
+            f32 heading (rad), f32 x, f32 y, f32 target x, f32 target y,
+            i16 waypoint, i16 active function (-1 = none)
+            version 2 adds: f32 power intake outtake outtake2,
+            u16 gamepad1 buttons, u16 gamepad2 buttons, f32 axes x12
+            (both in GamepadBindings order - see BUTTONS and AXES below)
+
+The record count is updated after every record, so a log from a run that was
+killed mid-match still decodes up to the last complete loop.
+"""
+
+import argparse
+import csv
+import math
+import struct
+import sys
+from datetime import datetime
+from pathlib import Path
+
+MAGIC = b"WOFR"
+VERSIONS = (1, 2)
+
+HEADER = struct.Struct("<4sHHiiqii32s")
+NAME_LENGTH = struct.Struct("<H")
+RECORD = struct.Struct("<q4i4f5fhh")            # version 1, and the start of a version 2 record
+RECORD_V2 = struct.Struct("<q4i4f5fhh3fHH12f")
+RECORDS_OFFSET = 4096
+
+BUTTONS = ["a", "b", "x", "y", "dpad_up", "dpad_down", "dpad_left", "dpad_right",
+           "left_bumper", "right_bumper", "back", "start", "guide",
+           "left_stick_button", "right_stick_button"]
+AXES = ["left_stick_x", "left_stick_y", "right_stick_x", "right_stick_y",
+        "left_trigger", "right_trigger"]
+
+COLUMNS = ["time_s", "fl_ticks", "fr_ticks", "bl_ticks", "br_ticks",
+           "fl_power", "fr_power", "bl_power", "br_power",
+           "heading_deg", "x", "y", "target_x", "target_y",
+           "waypoint", "function"]
+COLUMNS_V2 = ["intake_power", "outtake_power", "outtake2_power",
+              "gamepad1_buttons", "gamepad2_buttons"] + \
+             [f"gamepad{pad}_{axis}" for pad in (1, 2) for axis in AXES]
+
+
+class FlightLogError(Exception):
+    pass
+
+
+def read_flight_log(data):
+    """Return (info dict, function names, list of record tuples) for a .flight file's bytes."""
+    if len(data) < HEADER.size:
+        raise FlightLogError("file is shorter than the header")
+    magic, version, record_bytes, capacity, count, start_ms, dropped, name_count, source = \
+        HEADER.unpack_from(data, 0)
+    if magic != MAGIC:
+        raise FlightLogError("not a flight log")
+    if version not in VERSIONS:
+        raise FlightLogError(f"version {version}, expected one of {VERSIONS}")
+    record = RECORD if version == 1 else RECORD_V2
+    if record_bytes != record.size:
+        raise FlightLogError(f"records are {record_bytes} bytes, expected {record.size}")
+
+    names = []
+    pos = 64
+    for _ in range(name_count):
+        (length,) = NAME_LENGTH.unpack_from(data, pos)
+        pos += NAME_LENGTH.size
+        names.append(data[pos:pos + length].decode("utf-8"))
+        pos += length
+
+    # A file copied while the robot was still writing may end mid-record
+    available = max(0, (len(data) - RECORDS_OFFSET) // record.size)
+    records = [record.unpack_from(data, RECORDS_OFFSET + i * record.size)
+               for i in range(min(count, available))]
+
+    info = {
+        "version": version,
+        "source": source.rstrip(b"\0").decode("utf-8") if version >= 2 else "AutoPathFollower",
+        "start": datetime.fromtimestamp(start_ms / 1000.0),
+        "capacity": capacity,
+        "count": count,
+        "dropped": dropped,
+    }
+    return info, names, records
+
+
+def button_names(bits):
+    return " ".join(name for i, name in enumerate(BUTTONS) if bits & (1 << i))
+
+
+def write_csv(out, names, records, version):
+    writer = csv.writer(out)
+    writer.writerow(COLUMNS + (COLUMNS_V2 if version >= 2 else []))
+    for r in records:
+        nanos, fl, fr, bl, br, pfl, pfr, pbl, pbr, heading, x, y, tx, ty, waypoint, function = r[:16]
+        row = [
+            f"{nanos / 1e9:.6f}", fl, fr, bl, br,
+            f"{pfl:.4f}", f"{pfr:.4f}", f"{pbl:.4f}", f"{pbr:.4f}",
+            f"{math.degrees(heading):.2f}", f"{x:.2f}", f"{y:.2f}", f"{tx:.2f}", f"{ty:.2f}",
+            waypoint, names[function] if 0 <= function < len(names) else ""]
+        if version >= 2:
+            intake, outtake, outtake2, buttons1, buttons2 = r[16:21]
+            row += [f"{intake:.4f}", f"{outtake:.4f}", f"{outtake2:.4f}",
+                    button_names(buttons1), button_names(buttons2)]
+            row += [f"{axis:.3f}" for axis in r[21:]]
+        writer.writerow(row)
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Decode a robot flight log into CSV")
+    parser.add_argument("log", help=".flight file pulled from /sdcard/FIRST/flightlogs")
+    parser.add_argument("-o", "--output", help="CSV file to write (default: next to the log, - for stdout)")
+    args = parser.parse_args()
+
+    try:
+        info, names, records = read_flight_log(Path(args.log).read_bytes())
+    except (OSError, FlightLogError) as e:
+        print(f"Error: {args.log}: {e}", file=sys.stderr)
+        sys.exit(1)
+
+    if args.output == "-":
+        write_csv(sys.stdout, names, records, info["version"])
+    else:
+        output = Path(args.output) if args.output else Path(args.log).with_suffix(".csv")
+        with open(output, "w", newline="") as f:
+            write_csv(f, names, records, info["version"])
+        print(f"Successfully created {output}", file=sys.stderr)
+
+    duration = records[-1][0] / 1e9 if records else 0.0
+    print(f"{info['source']}: {len(records)} loops over {duration:.2f} s, "
+          f"recorded {info['start']:%Y-%m-%d %H:%M:%S}", file=sys.stderr)
+    if info["dropped"]:
+        print(f"WARNING: log was full - {info['dropped']} later loop(s) not recorded", file=sys.stderr)
+
+
+if __name__ == "__main__":
+    main()
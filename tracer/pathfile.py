@@ -0,0 +1,96 @@
+#!/usr/bin/env python3
+"""
+Binary path file (.path) writer - read on the robot by kool/BinaryPath.java
+
+Push the file to the Robot Controller instead of rebuilding the app:
+    adb push auto.path /sdcard/FIRST/paths/auto.path
+
+Layout (little-endian):
+    header   48 bytes  magic "WOAP", u16 version, u16 reserved,
+                       i32 point count, i32 function count, i32 template count,
+                       i32 string count, f64 start x, f64 start y, f64 start rotation
+    points   16 bytes each   f64 x, f64 y
+    functions 32 bytes each  f64 x, f64 y, f64 rotation,
+                             u16 name (string index), u8 type, u8 action, 4 bytes pad
+    templates 2 bytes each   u16 string index
+    strings  u16 byte length + UTF-8 bytes, repeated
+"""
+
+import struct
+
+MAGIC = b"WOAP"
+VERSION = 1
+
+HEADER = struct.Struct("<4sHHiiiiddd")
+POINT = struct.Struct("<dd")
+FUNCTION = struct.Struct("<dddHBB4x")
+STRING_INDEX = struct.Struct("<H")
+
+# Must match the order of AutoData.FunctionType / AutoData.ActionType
+FUNCTION_TYPES = ["run_while_moving", "wait_till"]
+ACTION_TYPES = ["function"]
+
+
+def build_path_file(path_json, functions_json):
+    """Return the binary .path contents for the tracer's JSON data."""
+    points = path_json["path"]
+    functions = functions_json["functions"]
+    templates = functions_json["templates"]
+    start = functions_json["start_pos"]
+
+    # Shared string table so repeated function names are stored once
+    strings = []
+    index = {}
+
+    def intern(name):
+        if name not in index:
+            index[name] = len(strings)
+            strings.append(name)
+        return index[name]
+
+    function_bytes = bytearray()
+    for func in functions:
+        function_bytes += FUNCTION.pack(
+            float(func["x"]), float(func["y"]), float(func["rotation"]),
+            intern(func["name"]),
+            FUNCTION_TYPES.index(func["type"].lower()),
+            ACTION_TYPES.index(func["action"].lower()))
+
+    template_bytes = bytearray()
+    for template in templates:
+        template_bytes += STRING_INDEX.pack(intern(template))
+
+    out = bytearray(HEADER.pack(
+        MAGIC, VERSION, 0,
+        len(points), len(functions), len(templates), len(strings),
+        float(start["x"]), float(start["y"]), float(start["rotation"])))
+    for point in points:
+        out += POINT.pack(float(point["x"]), float(point["y"]))
+    out += function_bytes
+    out += template_bytes
+    for s in strings:
+        encoded = s.encode("utf-8")
+        out += STRING_INDEX.pack(len(encoded)) + encoded
+    return bytes(out)
+
+
+def write_path_file(filepath, path_json, functions_json):
+    """Write the binary .path file and return its size in bytes."""
+    data = build_path_file(path_json, functions_json)
+    with open(filepath, "wb") as f:
+        f.write(data)
+    return len(data)
+
+
+if __name__ == "__main__":
+    # pathfile.py path.json functions.json out.path - the unsimplified path, as given
+    import json
+    import sys
+
+    if len(sys.argv) != 4:
+        sys.exit("Usage: pathfile.py path.json functions.json out.path")
+    with open(sys.argv[1]) as f:
+        path_json = json.load(f)
+    with open(sys.argv[2]) as f:
+        functions_json = json.load(f)
+    print(f"Wrote {sys.argv[3]} ({write_path_file(sys.argv[3], path_json, functions_json)} bytes)")
@@ -0,0 +1,176 @@
+#!/usr/bin/env python3
+"""
+Path simplification - run by convert.py before AutoData.java / auto.path are written
+
+The tracer samples a freehand path every STEP_SIZE (0.5 in), so a drawn path
+reaches the robot as thousands of nearly collinear points. This stage:
+
+  1. Ramer-Douglas-Peucker: drop every point whose removal moves the path by
+     less than the tolerance. Straight runs collapse to their two end points.
+  2. Curvature-aware spline: re-sample the remaining corners with a centripetal
+     Catmull-Rom spline, adding points only where the heading turns - straight
+     segments stay a single segment. A spline segment is only used where it stays
+     within the tolerance of the drawn path, so real corners stay corners.
+
+Points a function is attached to are always kept exactly (AutoPathFollower
+matches functions to waypoints within POSITION_TOLERANCE), and the spline is
+broken at wait_till points since the robot stops there anyway.
+"""
+
+import math
+
+# Must match AutoPathFollower.POSITION_TOLERANCE
+FUNCTION_TOLERANCE = 2.0
+
+DEFAULT_TOLERANCE = 0.5              # inches the simplified path may stray from the drawn one
+MAX_TURN_PER_SAMPLE = math.radians(15)  # spline heading change between added points
+
+
+def _point_segment_distance(p, a, b):
+    """Distance from p to the segment a-b."""
+    sx, sy = b[0] - a[0], b[1] - a[1]
+    length_sq = sx * sx + sy * sy
+    if length_sq < 1e-12:
+        return math.hypot(p[0] - a[0], p[1] - a[1])
+    t = ((p[0] - a[0]) * sx + (p[1] - a[1]) * sy) / length_sq
+    t = max(0.0, min(1.0, t))
+    return math.hypot(p[0] - (a[0] + t * sx), p[1] - (a[1] + t * sy))
+
+
+def function_anchors(points, functions):
+    """
+    Index of each point a function will be attached to: the closest point of
+    every pass of the path within FUNCTION_TOLERANCE of the function.
+    Returns {index: is_wait_till}.
+    """
+    anchors = {}
+    for func in functions:
+        best = None
+        for i, (x, y) in enumerate(points):
+            near = abs(func["x"] - x) < FUNCTION_TOLERANCE and abs(func["y"] - y) < FUNCTION_TOLERANCE
+            if near:
+                d = math.hypot(func["x"] - x, func["y"] - y)
+                if best is None or d < best[1]:
+                    best = (i, d)
+            elif best is not None:
+                anchors[best[0]] = anchors.get(best[0], False) or func["type"].lower() == "wait_till"
+                best = None
+        if best is not None:
+            anchors[best[0]] = anchors.get(best[0], False) or func["type"].lower() == "wait_till"
+    return anchors
+
+
+def rdp(points, tolerance, keep=()):
+    """
+    Ramer-Douglas-Peucker simplification.
+    Indices in keep are never removed. Returns the kept indices in order.
+    """
+    if len(points) < 3:
+        return list(range(len(points)))
+
+    # Split at forced points first so RDP never has to reason about them
+    breaks = sorted(set(keep) | {0, len(points) - 1})
+    kept = set(breaks)
+
+    # Explicit stack - a long freehand path would blow Python's recursion limit
+    stack = list(zip(breaks, breaks[1:]))
+    while stack:
+        first, last = stack.pop()
+        worst, worst_distance = None, tolerance
+        for i in range(first + 1, last):
+            d = _point_segment_distance(points[i], points[first], points[last])
+            if d > worst_distance:
+                worst, worst_distance = i, d
+        if worst is not None:
+            kept.add(worst)
+            stack.append((first, worst))
+            stack.append((worst, last))
+    return sorted(kept)
+
+
+def _catmull_rom(p0, p1, p2, p3, t):
+    """Centripetal Catmull-Rom point between p1 and p2 (t in 0..1) - no cusps or loops at sharp corners."""
+    def knot(ti, a, b):
+        return ti + max(math.hypot(b[0] - a[0], b[1] - a[1]), 1e-6) ** 0.5
+
+    t0 = 0.0
+    t1 = knot(t0, p0, p1)
+    t2 = knot(t1, p1, p2)
+    t3 = knot(t2, p2, p3)
+    u = t1 + (t2 - t1) * t
+
+    def lerp(a, b, ta, tb):
+        w = (u - ta) / (tb - ta)
+        return (a[0] + (b[0] - a[0]) * w, a[1] + (b[1] - a[1]) * w)
+
+    a1 = lerp(p0, p1, t0, t1)
+    a2 = lerp(p1, p2, t1, t2)
+    a3 = lerp(p2, p3, t2, t3)
+    b1 = lerp(a1, a2, t0, t2)
+    b2 = lerp(a2, a3, t1, t3)
+    return lerp(b1, b2, t1, t2)
+
+
+def _turn(a, b, c):
+    """Heading change at b going a -> b -> c, radians."""
+    h1 = math.atan2(b[1] - a[1], b[0] - a[0])
+    h2 = math.atan2(c[1] - b[1], c[0] - b[0])
+    return abs((h2 - h1 + math.pi) % (2 * math.pi) - math.pi)
+
+
+def _polyline_distance(p, polyline):
+    """Distance from p to the closest segment of polyline."""
+    if len(polyline) == 1:
+        return math.hypot(p[0] - polyline[0][0], p[1] - polyline[0][1])
+    return min(_point_segment_distance(p, a, b) for a, b in zip(polyline, polyline[1:]))
+
+
+def smooth(raw, kept, tolerance, breaks=()):
+    """
+    Spline through the kept points of raw, adding samples only where the path turns.
+    The spline restarts at each position in breaks (the robot stops there), and a
+    segment falls back to a straight line if the spline would stray from raw by more
+    than tolerance.
+    """
+    points = [raw[i] for i in kept]
+    if len(points) < 3:
+        return points
+
+    stops = set(breaks) | {0, len(points) - 1}
+    out = [points[0]]
+    for i in range(len(points) - 1):
+        p1, p2 = points[i], points[i + 1]
+        # Reflect end points so a piece starts and ends pointing along its chord
+        p0 = points[i - 1] if i not in stops else (2 * p1[0] - p2[0], 2 * p1[1] - p2[1])
+        p3 = points[i + 2] if i + 1 not in stops else (2 * p2[0] - p1[0], 2 * p2[1] - p1[1])
+
+        turn = max(_turn(p0, p1, p2), _turn(p1, p2, p3))
+        samples = int(math.ceil(turn / MAX_TURN_PER_SAMPLE))
+        curve = [_catmull_rom(p0, p1, p2, p3, s / samples) for s in range(1, samples)]
+
+        drawn = raw[kept[i]:kept[i + 1] + 1]
+        if all(_polyline_distance(c, drawn) <= tolerance for c in curve):
+            out.extend(curve)
+        out.append(p2)
+    return out
+
+
+def simplify_path(path_points, functions, tolerance=DEFAULT_TOLERANCE):
+    """
+    Simplify tracer path points ([{"x", "y"}, ...]) for the robot.
+    Returns the new list in the same format.
+    """
+    # Drop repeated samples (the tracer can emit the same point twice)
+    points = []
+    for p in path_points:
+        xy = (float(p["x"]), float(p["y"]))
+        if not points or xy != points[-1]:
+            points.append(xy)
+
+    anchors = function_anchors(points, functions)
+    kept = rdp(points, tolerance, anchors.keys())
+
+    stops = [n for n, i in enumerate(kept) if anchors.get(i)]
+    smoothed = smooth(points, kept, tolerance, stops)
+
+    return [{"x": round(x, 2), "y": round(y, 2)} for x, y in smoothed]